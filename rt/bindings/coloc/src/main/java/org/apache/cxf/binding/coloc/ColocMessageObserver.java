@@ -35,11 +35,14 @@ import org.apache.cxf.common.classloader.ClassLoaderUtils;
 import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.phase.PhaseManager;
@@ -141,6 +144,91 @@ public class ColocMessageObserver extends ChainInitiationObserver {
         }
     }
     
+    /**
+     * Hands the request contents straight to the service Invoker, bypassing the inbound and
+     * outbound interceptor chains.  Only used by the ColocOutInterceptor once it has checked
+     * that none of the interceptors on those chains need the payload.  The given interceptors,
+     * which only rearrange the contents, are run before and after the Invoker.
+     */
+    public void invokeDirect(Message m, boolean copyContents, 
+                             List<Interceptor<? extends Message>> inInterceptors,
+                             List<Interceptor<? extends Message>> outInterceptors) {
+        Bus origBus = BusFactory.getAndSetThreadDefaultBus(bus);
+        ClassLoaderHolder origLoader = null;
+        try {
+            if (loader != null) {
+                origLoader = ClassLoaderUtils.setThreadContextClassloader(loader);
+            }
+            if (LOG.isLoggable(Level.FINER)) {
+                LOG.finer("Invoking collocated endpoint directly.  Request message: " + m);
+            }
+            Exchange ex = new ExchangeImpl();
+            setExchangeProperties(ex, m);
+            ex.setOneWay(m.getExchange().isOneWay());
+            
+            Message inMsg = endpoint.getBinding().createMessage();
+            List<?> args = CastUtils.cast(m.getContent(List.class));
+            inMsg.setContent(List.class, copyContents ? ColocUtil.copyContents(args) : args);
+            inMsg.setAttachments(m.getAttachments());
+            inMsg.putAll(m);
+            inMsg.put(COLOCATED, Boolean.TRUE);
+            inMsg.put(Message.REQUESTOR_ROLE, Boolean.FALSE);
+            inMsg.put(Message.INBOUND_MESSAGE, Boolean.TRUE);
+            BindingOperationInfo boi = ex.getBindingOperationInfo();
+            if (boi != null) {
+                inMsg.put(MessageInfo.class, boi.getOperationInfo().getInput());
+            }
+            ex.setInMessage(inMsg);
+            inMsg.setExchange(ex);
+            
+            try {
+                ColocUtil.runContentsInterceptors(inMsg, bus, true, inInterceptors);
+                Object result = endpoint.getService().getInvoker().invoke(ex, inMsg.getContent(List.class));
+                if (!ex.isOneWay()) {
+                    Message outMsg = ex.getOutMessage();
+                    if (outMsg == null) {
+                        outMsg = new MessageImpl();
+                        outMsg.setExchange(ex);
+                        outMsg = endpoint.getBinding().createMessage(outMsg);
+                        ex.setOutMessage(outMsg);
+                    }
+                    outMsg.put(Message.INBOUND_MESSAGE, Boolean.FALSE);
+                    //the inbound interceptors may have switched to the unwrapped operation
+                    BindingOperationInfo outBoi = ex.getBindingOperationInfo();
+                    if (outBoi != null) {
+                        outMsg.put(MessageInfo.class, outBoi.getOperationInfo().getOutput());
+                    }
+                    if (result instanceof MessageContentsList) {
+                        outMsg.setContent(List.class, result);
+                    } else if (result instanceof List) {
+                        outMsg.setContent(List.class, new MessageContentsList((List<?>)result));
+                    } else if (result != null && result.getClass().isArray()) {
+                        outMsg.setContent(List.class, new MessageContentsList((Object[])result));
+                    } else if (result != null) {
+                        outMsg.setContent(Object.class, result);
+                    }
+                    ColocUtil.runContentsInterceptors(outMsg, bus, false, outInterceptors);
+                    if (copyContents && outMsg.getContent(List.class) != null) {
+                        outMsg.setContent(List.class, ColocUtil.copyContents(outMsg.getContent(List.class)));
+                    }
+                }
+            } catch (RuntimeException rex) {
+                //same handling as the PhaseInterceptorChain would give a faulting invoke
+                Fault fault = rex instanceof Fault ? (Fault)rex : new Fault(rex);
+                inMsg.setContent(Exception.class, fault);
+                new ColocOutFaultObserver(bus).onMessage(inMsg);
+            }
+            setOutBoundMessage(ex, m.getExchange());
+        } finally {
+            if (origBus != bus) {
+                BusFactory.setThreadDefaultBus(origBus);
+            }
+            if (origLoader != null) {
+                origLoader.reset();
+            }
+        }
+    }
+    
     protected void setOutBoundMessage(Exchange from, Exchange to) {
         if (from.getOutFaultMessage() != null) {
             to.setInFaultMessage(from.getOutFaultMessage());
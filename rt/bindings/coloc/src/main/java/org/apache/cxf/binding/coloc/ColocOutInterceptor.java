@@ -18,8 +18,10 @@
  */
 package org.apache.cxf.binding.coloc;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -35,10 +37,12 @@ import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerRegistry;
 import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
 //import org.apache.cxf.phase.PhaseInterceptorChain;
@@ -50,10 +54,25 @@ import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.MessageObserver;
 
 public class ColocOutInterceptor extends AbstractPhaseInterceptor<Message> {
+    /**
+     * If true, collocated calls whose interceptor chains contain nothing that needs the payload
+     * go straight to the server's Invoker with the argument list.  The chains are checked on
+     * every call so interceptors added later are never skipped.
+     */
+    public static final String DIRECT_INVOCATION = "org.apache.cxf.binding.coloc.directInvocation";
+    /**
+     * If true, the arguments and results of direct invocations are deep copied (through
+     * serialization) so caller and callee never share mutable objects.
+     */
+    public static final String COPY_CONTENTS = "org.apache.cxf.binding.coloc.copyContents";
+    
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(ColocOutInterceptor.class);
     private static final Logger LOG = LogUtils.getL7dLogger(ClientImpl.class);
     private static final String COLOCATED = Message.class.getName() + ".COLOCATED";
     private MessageObserver colocObserver;
+    private volatile Set<String> serverInPhases;
+    private Set<String> serverOutPhases;
+    private Set<String> clientInPhases;
     private Bus bus; 
     
     public ColocOutInterceptor() {
@@ -113,9 +132,17 @@ public class ColocOutInterceptor extends AbstractPhaseInterceptor<Message> {
             message.put(COLOCATED, Boolean.TRUE);
             message.put(Message.WSDL_OPERATION, boi.getName());
             message.put(Message.WSDL_INTERFACE, boi.getBinding().getInterface().getName());
-            invokeColocObserver(message, srv.getEndpoint());
-            if (!exchange.isOneWay()) {
-                invokeInboundChain(exchange, senderEndpoint);
+            DirectInvocation direct = getDirectInvocation(message, srv.getEndpoint(), senderEndpoint, boi);
+            if (direct != null) {
+                invokeDirect(message, srv.getEndpoint(), direct);
+                if (!exchange.isOneWay()) {
+                    invokeInboundChain(exchange, senderEndpoint, direct);
+                }
+            } else {
+                invokeColocObserver(message, srv.getEndpoint());
+                if (!exchange.isOneWay()) {
+                    invokeInboundChain(exchange, senderEndpoint);
+                }
             }
         } else {
             if (LOG.isLoggable(Level.FINE)) {
@@ -137,7 +164,71 @@ public class ColocOutInterceptor extends AbstractPhaseInterceptor<Message> {
         colocObserver.onMessage(outMsg);
     }
 
+    protected void invokeDirect(Message outMsg, Endpoint inboundEndpoint, DirectInvocation direct) {
+        if (colocObserver == null) {
+            colocObserver = new ColocMessageObserver(inboundEndpoint, bus);
+        }
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Invoke collocated endpoint directly.");
+        }
+        boolean copy = MessageUtils.isTrue(outMsg.getContextualProperty(COPY_CONTENTS));
+        ((ColocMessageObserver)colocObserver).invokeDirect(outMsg, copy, 
+                                                           direct.serverInInterceptors,
+                                                           direct.serverOutInterceptors);
+    }
+    
+    /**
+     * @return the interceptors the direct invocation still has to run, or null if the call
+     *         has to go through the collocated chains
+     */
+    protected DirectInvocation getDirectInvocation(Message message, Endpoint receiver, Endpoint sender,
+                                                   BindingOperationInfo boi) {
+        if (!MessageUtils.isTrue(message.getContextualProperty(DIRECT_INVOCATION))
+            || (colocObserver != null && !(colocObserver instanceof ColocMessageObserver))) {
+            return null;
+        }
+        BindingOperationInfo receiverBoi = receiver.getEndpointInfo().getBinding().getOperation(boi.getName());
+        if (receiverBoi == null || !isSameOperationInfo(boi, receiverBoi)) {
+            //Source <-> object conversions need the regular chain
+            return null;
+        }
+        
+        if (serverInPhases == null) {
+            PhaseManager pm = bus.getExtension(PhaseManager.class);
+            SortedSet<Phase> phases = new TreeSet<Phase>(pm.getInPhases());
+            ColocUtil.setPhases(phases, Phase.USER_LOGICAL, Phase.PRE_INVOKE);
+            clientInPhases = ColocUtil.getPhaseNames(phases);
+            phases = new TreeSet<Phase>(pm.getOutPhases());
+            ColocUtil.setPhases(phases, Phase.SETUP, Phase.USER_LOGICAL);
+            serverOutPhases = ColocUtil.getPhaseNames(phases);
+            phases = new TreeSet<Phase>(pm.getInPhases());
+            ColocUtil.setPhases(phases, Phase.USER_LOGICAL, Phase.INVOKE);
+            serverInPhases = ColocUtil.getPhaseNames(phases);
+        }
+        Set<String> serverIn = serverInPhases;
+        Set<String> serverOut = serverOutPhases;
+        
+        // checked on every call, the chains can change at any time
+        DirectInvocation direct = new DirectInvocation();
+        if (!ColocUtil.isPayloadNeutral(receiver, bus, serverIn, true, direct.serverInInterceptors)
+            || !ColocUtil.isPayloadNeutral(receiver, bus, serverOut, false, direct.serverOutInterceptors)
+            //interceptors added to the request itself end up on the collocated chains as well
+            || !ColocUtil.isPayloadNeutral(message, serverIn, true, direct.serverInInterceptors)
+            || !ColocUtil.isPayloadNeutral(message, serverOut, false, direct.serverOutInterceptors)) {
+            return null;
+        }
+        if (!message.getExchange().isOneWay()
+            && !ColocUtil.isPayloadNeutral(sender, bus, clientInPhases, true, direct.clientInInterceptors)) {
+            return null;
+        }
+        return direct;
+    }
+
     protected void invokeInboundChain(Exchange ex, Endpoint ep) {
+        invokeInboundChain(ex, ep, null);
+    }
+    
+    protected void invokeInboundChain(Exchange ex, Endpoint ep, DirectInvocation direct) {
         Message m = getInBoundMessage(ex);
         Message inMsg = ep.getBinding().createMessage();
         MessageImpl.copyContent(m, inMsg);
@@ -158,6 +249,11 @@ public class ColocOutInterceptor extends AbstractPhaseInterceptor<Message> {
         } else {
             //Handle Response
             ex.setInMessage(inMsg);
+            if (direct != null) {
+                ColocUtil.runContentsInterceptors(inMsg, bus, true, direct.clientInInterceptors);
+                ex.put(ClientImpl.FINISHED, Boolean.TRUE);
+                return;
+            }
             PhaseManager pm = bus.getExtension(PhaseManager.class);
             SortedSet<Phase> phases = new TreeSet<Phase>(pm.getInPhases());
             ColocUtil.setPhases(phases, Phase.USER_LOGICAL, Phase.PRE_INVOKE);
@@ -220,4 +316,17 @@ public class ColocOutInterceptor extends AbstractPhaseInterceptor<Message> {
         exchange.put(Binding.class, ep.getBinding());
         exchange.put(Bus.class, bus == null ? BusFactory.getDefaultBus(false) : bus);
     }
+    
+    /**
+     * The interceptors a direct invocation runs around the Invoker, only those which move
+     * values between the contents list, holders and wrapper beans.
+     */
+    protected static class DirectInvocation {
+        final List<Interceptor<? extends Message>> serverInInterceptors 
+            = new ArrayList<Interceptor<? extends Message>>();
+        final List<Interceptor<? extends Message>> serverOutInterceptors 
+            = new ArrayList<Interceptor<? extends Message>>();
+        final List<Interceptor<? extends Message>> clientInInterceptors 
+            = new ArrayList<Interceptor<? extends Message>>();
+    }
 }
@@ -20,10 +20,18 @@ package org.apache.cxf.binding.coloc;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -39,15 +47,21 @@ import org.apache.cxf.databinding.DataReader;
 import org.apache.cxf.databinding.DataWriter;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.OneWayProcessorInterceptor;
+import org.apache.cxf.interceptor.OutgoingChainInterceptor;
+import org.apache.cxf.interceptor.ServiceInvokerInterceptor;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptor;
 import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.phase.PhaseManager;
 import org.apache.cxf.service.model.FaultInfo;
 import org.apache.cxf.service.model.MessageInfo;
 import org.apache.cxf.service.model.MessagePartInfo;
@@ -56,6 +70,31 @@ import org.apache.cxf.staxutils.StaxUtils;
 
 public final class ColocUtil {
     private static final Logger LOG = LogUtils.getL7dLogger(ColocUtil.class);
+    
+    /**
+     * Interceptors that may sit in the collocated chains without looking at the payload.
+     */
+    private static final Set<String> PAYLOAD_NEUTRAL_INTERCEPTORS = new HashSet<String>(Arrays.asList(
+        ServiceInvokerInterceptor.class.getName(),
+        OutgoingChainInterceptor.class.getName(),
+        OneWayProcessorInterceptor.class.getName(),
+        ColocInInterceptor.class.getName(),
+        ColocOutInterceptor.class.getName()));
+    /**
+     * Interceptors that only move values between the contents list, holders and wrapper beans.
+     * They don't stop a direct invocation, which runs them itself.
+     */
+    private static final Set<String> CONTENTS_INTERCEPTORS = new HashSet<String>(Arrays.asList(
+        "org.apache.cxf.jaxws.interceptors.HolderInInterceptor",
+        "org.apache.cxf.jaxws.interceptors.HolderOutInterceptor",
+        "org.apache.cxf.jaxws.interceptors.WrapperClassInInterceptor",
+        "org.apache.cxf.jaxws.interceptors.WrapperClassOutInterceptor",
+        "org.apache.cxf.jaxws.interceptors.SwAInInterceptor",
+        "org.apache.cxf.jaxws.interceptors.SwAOutInterceptor"));
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+        String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+        Long.class, Float.class, Double.class, java.math.BigInteger.class, java.math.BigDecimal.class,
+        javax.xml.namespace.QName.class, java.util.UUID.class, Class.class));
 
     private ColocUtil() {
         //Completge
@@ -303,4 +342,144 @@ public final class ColocUtil {
             return oi.getInput();
         }
     }
+
+    /**
+     * Checks whether all the interceptors contributed by the endpoint, its service, the bus and
+     * the databinding for the given phases are known not to touch the payload.  The interceptors
+     * which only move values around the contents list, such as the JAX-WS holder and wrapper
+     * interceptors, are added to the given list as the direct invocation still has to run them.
+     */
+    public static boolean isPayloadNeutral(Endpoint ep, Bus bus, Set<String> phaseNames, boolean in,
+                                           List<Interceptor<? extends Message>> contentsInterceptors) {
+        if (in) {
+            if (!isPayloadNeutral(ep.getInInterceptors(), phaseNames, contentsInterceptors)
+                || !isPayloadNeutral(ep.getService().getInInterceptors(), phaseNames, contentsInterceptors)
+                || !isPayloadNeutral(bus.getInInterceptors(), phaseNames, contentsInterceptors)) {
+                return false;
+            }
+        } else {
+            if (!isPayloadNeutral(ep.getOutInterceptors(), phaseNames, contentsInterceptors)
+                || !isPayloadNeutral(ep.getService().getOutInterceptors(), phaseNames, contentsInterceptors)
+                || !isPayloadNeutral(bus.getOutInterceptors(), phaseNames, contentsInterceptors)) {
+                return false;
+            }
+        }
+        if (ep.getService().getDataBinding() instanceof InterceptorProvider) {
+            InterceptorProvider p = (InterceptorProvider)ep.getService().getDataBinding();
+            return isPayloadNeutral(in ? p.getInInterceptors() : p.getOutInterceptors(), 
+                                    phaseNames, contentsInterceptors);
+        }
+        return true;
+    }
+    
+    /**
+     * Checks the interceptors attached to the message itself, as picked up by modifyChain.
+     */
+    public static boolean isPayloadNeutral(Message m, Set<String> phaseNames, boolean in,
+                                           List<Interceptor<? extends Message>> contentsInterceptors) {
+        Collection<InterceptorProvider> providers 
+            = CastUtils.cast((Collection<?>)m.get(Message.INTERCEPTOR_PROVIDERS));
+        if (providers != null) {
+            for (InterceptorProvider p : providers) {
+                if (!isPayloadNeutral(in ? p.getInInterceptors() : p.getOutInterceptors(),
+                                      phaseNames, contentsInterceptors)) {
+                    return false;
+                }
+            }
+        }
+        Collection<Interceptor<? extends Message>> is 
+            = CastUtils.cast((Collection<?>)m.get(in ? Message.IN_INTERCEPTORS : Message.OUT_INTERCEPTORS));
+        return is == null || isPayloadNeutral(is, phaseNames, contentsInterceptors);
+    }
+    
+    private static boolean isPayloadNeutral(Collection<? extends Interceptor<? extends Message>> interceptors,
+                                            Set<String> phaseNames,
+                                            List<Interceptor<? extends Message>> contentsInterceptors) {
+        for (Interceptor<? extends Message> i : interceptors) {
+            if (i instanceof PhaseInterceptor) {
+                PhaseInterceptor<? extends Message> pi = (PhaseInterceptor<? extends Message>)i;
+                if (!phaseNames.contains(pi.getPhase()) || PAYLOAD_NEUTRAL_INTERCEPTORS.contains(pi.getId())) {
+                    continue;
+                }
+                if (!CONTENTS_INTERCEPTORS.contains(pi.getId())) {
+                    return false;
+                }
+                contentsInterceptors.add(pi);
+            }
+        }
+        return true;
+    }
+    
+    public static Set<String> getPhaseNames(SortedSet<Phase> phases) {
+        Set<String> names = new HashSet<String>();
+        for (Phase p : phases) {
+            names.add(p.getName());
+        }
+        return names;
+    }
+    
+    /**
+     * Runs the interceptors collected by isPayloadNeutral on the message, in phase order.
+     */
+    public static void runContentsInterceptors(Message m, Bus bus, boolean in,
+                                               List<Interceptor<? extends Message>> interceptors) {
+        if (interceptors.isEmpty()) {
+            return;
+        }
+        PhaseManager pm = bus.getExtension(PhaseManager.class);
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(in ? pm.getInPhases() : pm.getOutPhases());
+        chain.add(interceptors);
+        if (!chain.doIntercept(m)) {
+            Exception ex = m.getContent(Exception.class);
+            throw ex instanceof Fault ? (Fault)ex : new Fault(ex);
+        }
+    }
+    
+    /**
+     * Deep copies the mutable Serializable entries of a contents list so the collocated
+     * callee can't observe or alter the caller's objects.  Immutable values and anything
+     * not Serializable are passed through as is.
+     */
+    public static MessageContentsList copyContents(List<?> contents) {
+        if (contents == null) {
+            return null;
+        }
+        Object[] values = contents.toArray();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = copyValue(values[i]);
+        }
+        return new MessageContentsList(values);
+    }
+    
+    private static Object copyValue(Object o) {
+        if (o == null || o == MessageContentsList.REMOVED_MARKER
+            || IMMUTABLE_TYPES.contains(o.getClass()) || o instanceof Enum
+            || !(o instanceof Serializable)) {
+            return o;
+        }
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+                out.writeObject(o);
+            }
+            final ClassLoader loader = o.getClass().getClassLoader();
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    if (loader != null) {
+                        try {
+                            return Class.forName(desc.getName(), false, loader);
+                        } catch (ClassNotFoundException ex) {
+                            //fall through to the default resolution
+                        }
+                    }
+                    return super.resolveClass(desc);
+                }
+            }) {
+                return in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new Fault(ex);
+        }
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.cxf.binding.coloc;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -32,9 +33,11 @@ import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.phase.PhaseManager;
 import org.apache.cxf.service.Service;
+import org.apache.cxf.service.invoker.Invoker;
 import org.apache.cxf.service.model.BindingInfo;
 import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.service.model.EndpointInfo;
@@ -137,6 +140,39 @@ public class ColocMessageObserverTest extends Assert {
         assertNotNull("Exchange should be set", ex1);
     }
     
+    @Test
+    public void testInvokeDirect() throws Exception {
+        msg.setExchange(ex);
+        final List<Object> args = new ArrayList<Object>();
+        args.add(new StringBuilder("World"));
+        msg.setContent(List.class, args);
+        
+        Binding binding = control.createMock(Binding.class);
+        EasyMock.expect(ep.getBinding()).andReturn(binding).anyTimes();
+        Message inMsg = new MessageImpl();
+        EasyMock.expect(binding.createMessage()).andReturn(inMsg);
+        Message outMsg = new MessageImpl();
+        EasyMock.expect(binding.createMessage(EasyMock.isA(Message.class))).andReturn(outMsg);
+        EasyMock.expect(ep.getService()).andReturn(srv).anyTimes();
+        EasyMock.expect(srv.getInvoker()).andReturn(new Invoker() {
+            public Object invoke(Exchange exchange, Object o) {
+                List<?> params = (List<?>)o;
+                assertNotSame("Arguments should be copied", args.get(0), params.get(0));
+                return new MessageContentsList("Hello " + params.get(0));
+            }
+        });
+        EasyMock.expect(bus.getExtension(ClassLoader.class)).andReturn(this.getClass().getClassLoader());
+        control.replay();
+        observer = new TestColocMessageObserver(ep, bus);
+        List<Interceptor<? extends Message>> none = Collections.emptyList();
+        observer.invokeDirect(msg, true, none, none);
+        control.verify();
+        
+        assertNull("No chain should be used", inMsg.getInterceptorChain());
+        assertSame(outMsg, ex.getInMessage());
+        assertEquals("Hello World", outMsg.getContent(List.class).get(0));
+    }
+    
     class TestColocMessageObserver extends ColocMessageObserver {
         TestColocMessageObserver(Endpoint endpoint, Bus bus) {
             super(endpoint, bus);
@@ -19,8 +19,10 @@
 package org.apache.cxf.binding.coloc;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 
 import javax.xml.namespace.QName;
@@ -31,9 +33,13 @@ import org.apache.cxf.bus.managers.PhaseManagerImpl;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorChain;
+import org.apache.cxf.interceptor.ServiceInvokerInterceptor;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.phase.PhaseManager;
 import org.apache.cxf.service.Service;
@@ -170,6 +176,77 @@ public class ColocUtilTest extends Assert {
         assertNotNull("OutFaultObserver should be set", chain.getFaultObserver());
     }
     
+    @Test
+    public void testIsPayloadNeutral() throws Exception {
+        SortedSet<Phase> list = new PhaseManagerImpl().getInPhases();
+        ColocUtil.setPhases(list, Phase.USER_LOGICAL, Phase.INVOKE);
+        Set<String> names = ColocUtil.getPhaseNames(list);
+        
+        Endpoint ep = control.createMock(Endpoint.class);
+        Service srv = control.createMock(Service.class);
+        List<Interceptor<? extends Message>> epIn = new ArrayList<Interceptor<? extends Message>>();
+        epIn.add(new ServiceInvokerInterceptor());
+        //outside of the collocated phases, so it doesn't count
+        epIn.add(new AbstractPhaseInterceptor<Message>(Phase.RECEIVE) {
+            public void handleMessage(Message message) {
+            }
+        });
+        EasyMock.expect(ep.getInInterceptors()).andReturn(epIn).anyTimes();
+        EasyMock.expect(ep.getService()).andReturn(srv).anyTimes();
+        EasyMock.expect(srv.getInInterceptors())
+            .andReturn(new ArrayList<Interceptor<? extends Message>>()).anyTimes();
+        EasyMock.expect(bus.getInInterceptors())
+            .andReturn(new ArrayList<Interceptor<? extends Message>>()).anyTimes();
+        control.replay();
+        
+        List<Interceptor<? extends Message>> contents = new ArrayList<Interceptor<? extends Message>>();
+        assertTrue(ColocUtil.isPayloadNeutral(ep, bus, names, true, contents));
+        assertTrue(contents.isEmpty());
+        
+        //only rearranges the contents list, so it is run by the direct invocation
+        Interceptor<Message> holderIn 
+            = new AbstractPhaseInterceptor<Message>("org.apache.cxf.jaxws.interceptors.HolderInInterceptor",
+                                                    Phase.PRE_INVOKE) {
+                public void handleMessage(Message message) {
+                }
+            };
+        epIn.add(holderIn);
+        assertTrue(ColocUtil.isPayloadNeutral(ep, bus, names, true, contents));
+        assertEquals(Collections.singletonList(holderIn), contents);
+        
+        epIn.add(new AbstractPhaseInterceptor<Message>(Phase.PRE_INVOKE) {
+            public void handleMessage(Message message) {
+            }
+        });
+        assertFalse(ColocUtil.isPayloadNeutral(ep, bus, names, true, contents));
+        
+        Message m = new MessageImpl();
+        assertTrue(ColocUtil.isPayloadNeutral(m, names, true, contents));
+        m.put(Message.IN_INTERCEPTORS, epIn);
+        assertFalse(ColocUtil.isPayloadNeutral(m, names, true, contents));
+        assertTrue(ColocUtil.isPayloadNeutral(m, names, false, contents));
+    }
+    
+    @Test
+    public void testCopyContents() throws Exception {
+        List<String> mutable = new ArrayList<String>();
+        mutable.add("a");
+        Object opaque = new Object();
+        List<Object> args = new ArrayList<Object>();
+        args.add("text");
+        args.add(mutable);
+        args.add(opaque);
+        args.add(null);
+        
+        MessageContentsList copy = ColocUtil.copyContents(args);
+        assertEquals(4, copy.size());
+        assertSame(args.get(0), copy.get(0));
+        assertNotSame(mutable, copy.get(1));
+        assertEquals(mutable, copy.get(1));
+        assertSame(opaque, copy.get(2));
+        assertNull(copy.get(3));
+    }
+    
     @Test
     public void testIsSameFaultInfo() {
         OperationInfo oi = control.createMock(OperationInfo.class);
@@ -20,6 +20,7 @@ package org.apache.cxf.ext.logging;
 
 import java.util.UUID;
 
+import org.apache.cxf.ext.logging.event.AsyncLogEventSender;
 import org.apache.cxf.ext.logging.event.LogEvent;
 import org.apache.cxf.ext.logging.event.LogEventSender;
 import org.apache.cxf.ext.logging.event.PrettyLoggingFilter;
@@ -34,6 +35,7 @@ public abstract class AbstractLoggingInterceptor extends AbstractPhaseIntercepto
     protected long threshold = -1;
 
     protected LogEventSender sender;
+    protected CapturePolicy capturePolicy;
 
     public AbstractLoggingInterceptor(String phase, LogEventSender sender) {
         super(phase);
@@ -57,10 +59,31 @@ public abstract class AbstractLoggingInterceptor extends AbstractPhaseIntercepto
     }
 
     public void setPrettyLogging(boolean prettyLogging) {
-        if (sender instanceof PrettyLoggingFilter) {
-            ((PrettyLoggingFilter)this.sender).setPrettyLogging(prettyLogging);
+        LogEventSender s = sender instanceof AsyncLogEventSender 
+            ? ((AsyncLogEventSender)sender).getNext() : sender;
+        if (s instanceof PrettyLoggingFilter) {
+            ((PrettyLoggingFilter)s).setPrettyLogging(prettyLogging);
         }
     }
+
+    public void setSender(LogEventSender sender) {
+        this.sender = sender;
+    }
+
+    public LogEventSender getSender() {
+        return sender;
+    }
+
+    /**
+     * @param capturePolicy the policy deciding which exchanges are logged, or null to log all of them
+     */
+    public void setCapturePolicy(CapturePolicy capturePolicy) {
+        this.capturePolicy = capturePolicy;
+    }
+
+    public CapturePolicy getCapturePolicy() {
+        return capturePolicy;
+    }
     
     public void createExchangeId(Message message) {
         Exchange exchange = message.getExchange();
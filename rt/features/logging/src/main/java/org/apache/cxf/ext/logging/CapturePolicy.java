@@ -0,0 +1,345 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.ext.logging.event.EventType;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.ext.logging.event.LogEventSender;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * Decides which exchanges are logged and how much of them is captured.
+ * <p>
+ * Exchanges are sampled with a rate which can be set per operation (local name of the
+ * operation) or per endpoint address, falling back to a default rate. The decision is taken
+ * once per exchange so that the request and the response are always logged together.
+ * Exchanges which are not sampled can still be logged when they turn out to be faults or to be
+ * slower than the configured threshold; their events are held back until the end of the exchange
+ * and the payload is only read from the cache when the events are actually emitted.
+ */
+public class CapturePolicy {
+    
+    public enum Decision {
+        /** log the events of the exchange right away */
+        LOG,
+        /** hold the events back until the outcome of the exchange is known */
+        DEFER,
+        /** do not log the exchange */
+        SKIP
+    }
+
+    /**
+     * Reads the payload into the event, or releases the cached content if the event is dropped.
+     */
+    public interface PayloadCapture {
+        void capture(LogEvent event);
+
+        void discard();
+    }
+
+    private static final String DECISION = CapturePolicy.class.getName() + ".DECISION";
+    private static final String START_TIME = CapturePolicy.class.getName() + ".START_TIME";
+    private static final String DEFERRED = CapturePolicy.class.getName() + ".DEFERRED";
+
+    private double sampleRate = 1.0d;
+    private Map<String, Double> operationSampleRates = new ConcurrentHashMap<>();
+    private Map<String, Double> endpointSampleRates = new ConcurrentHashMap<>();
+    private boolean logFaults = true;
+    private long slowThreshold = -1;
+    private boolean headersOnly;
+
+    /**
+     * Returns the decision for the exchange of the message, taking it if this is the first
+     * logging interceptor to see the exchange.
+     */
+    public Decision decide(Message message) {
+        Exchange exchange = message.getExchange();
+        Decision decision = (Decision)exchange.get(DECISION);
+        if (decision == null) {
+            decision = decide(message, getSampleRate(message));
+        }
+        return decision;
+    }
+
+    /**
+     * Returns the decision for the exchange if it can already be taken without knowing the
+     * operation, or null otherwise. Used before the operation has been dispatched to avoid caching
+     * content which will never be logged.
+     */
+    public Decision decideEarly(Message message) {
+        Exchange exchange = message.getExchange();
+        if (!exchange.containsKey(START_TIME)) {
+            exchange.put(START_TIME, System.currentTimeMillis());
+        }
+        Decision decision = (Decision)exchange.get(DECISION);
+        if (decision == null && (operationSampleRates.isEmpty() || getOperationName(message) != null)) {
+            decision = decide(message, getSampleRate(message));
+        }
+        return decision;
+    }
+
+    private Decision decide(Message message, double rate) {
+        Exchange exchange = message.getExchange();
+        Decision decision;
+        if (rate >= 1.0d || rate > 0.0d && ThreadLocalRandom.current().nextDouble() < rate) {
+            decision = Decision.LOG;
+        } else if (logFaults || slowThreshold >= 0) {
+            decision = Decision.DEFER;
+        } else {
+            decision = Decision.SKIP;
+        }
+        exchange.put(DECISION, decision);
+        if (!exchange.containsKey(START_TIME)) {
+            exchange.put(START_TIME, System.currentTimeMillis());
+        }
+        return decision;
+    }
+
+    protected double getSampleRate(Message message) {
+        Double rate = null;
+        if (!operationSampleRates.isEmpty()) {
+            String operation = getOperationName(message);
+            if (operation != null) {
+                rate = operationSampleRates.get(operation);
+            }
+        }
+        if (rate == null && !endpointSampleRates.isEmpty()) {
+            Endpoint endpoint = message.getExchange().getEndpoint();
+            if (endpoint != null && endpoint.getEndpointInfo().getAddress() != null) {
+                rate = endpointSampleRates.get(endpoint.getEndpointInfo().getAddress());
+            }
+        }
+        return rate == null ? sampleRate : rate;
+    }
+
+    private static String getOperationName(Message message) {
+        BindingOperationInfo boi = message.getExchange().getBindingOperationInfo();
+        return boi == null ? null : boi.getName().getLocalPart();
+    }
+
+    /**
+     * Sends, holds back or drops the event according to the decision for its exchange. When
+     * the message ends the exchange the held back events are emitted if the exchange was a fault
+     * or slow, and dropped otherwise.
+     *
+     * @param message the message the event was mapped from
+     * @param event the event, without payload
+     * @param capture reads the payload into the event, may be null
+     * @param sender the sender for the event
+     */
+    public void handle(Message message, LogEvent event, PayloadCapture capture, LogEventSender sender) {
+        Decision decision = decide(message);
+        if (decision == Decision.LOG) {
+            emit(event, capture, sender);
+        } else if (decision == Decision.SKIP) {
+            discard(capture);
+        } else if (isExchangeEnd(message)) {
+            boolean log = isFault(event) || isSlow(message.getExchange());
+            completeDeferred(message.getExchange(), log);
+            if (log) {
+                emit(event, capture, sender);
+            } else {
+                discard(capture);
+            }
+        } else {
+            defer(message.getExchange(), new Deferred(event, capture, sender));
+        }
+    }
+
+    /**
+     * Emits the events still held back for the exchange if it has failed or was slow, and
+     * drops them otherwise. Called once the exchange is over whether or not its last message
+     * went through a logging interceptor, so that the cached payloads are always released.
+     *
+     * @param exchange the exchange
+     * @param fault true if the exchange has failed
+     */
+    public void complete(Exchange exchange, boolean fault) {
+        completeDeferred(exchange, fault && logFaults || isSlow(exchange));
+    }
+
+    private static void completeDeferred(Exchange exchange, boolean log) {
+        List<Deferred> deferred;
+        synchronized (exchange) {
+            @SuppressWarnings("unchecked")
+            List<Deferred> removed = (List<Deferred>)exchange.remove(DEFERRED);
+            deferred = removed;
+        }
+        if (deferred != null) {
+            for (Deferred d : deferred) {
+                if (log) {
+                    emit(d.event, d.capture, d.sender);
+                } else {
+                    discard(d.capture);
+                }
+            }
+        }
+    }
+
+    private static void defer(Exchange exchange, Deferred d) {
+        synchronized (exchange) {
+            @SuppressWarnings("unchecked")
+            List<Deferred> deferred = (List<Deferred>)exchange.get(DEFERRED);
+            if (deferred == null) {
+                deferred = new ArrayList<>(2);
+                exchange.put(DEFERRED, deferred);
+            }
+            deferred.add(d);
+        }
+    }
+
+    private static void emit(LogEvent event, PayloadCapture capture, LogEventSender sender) {
+        if (capture != null) {
+            capture.capture(event);
+        }
+        sender.send(event);
+    }
+
+    private static void discard(PayloadCapture capture) {
+        if (capture != null) {
+            capture.discard();
+        }
+    }
+
+    /**
+     * The response ends the exchange; a one way request ends it as well since nothing follows.
+     */
+    public boolean isExchangeEnd(Message message) {
+        boolean outbound = MessageUtils.isOutbound(message);
+        if (MessageUtils.isRequestor(message)) {
+            return !outbound || message.getExchange().isOneWay();
+        }
+        return outbound || message.getExchange().isOneWay();
+    }
+
+    protected boolean isFault(LogEvent event) {
+        if (!logFaults) {
+            return false;
+        }
+        if (event.getType() == EventType.FAULT_IN || event.getType() == EventType.FAULT_OUT) {
+            return true;
+        }
+        String code = event.getResponseCode();
+        if (code != null) {
+            try {
+                return Integer.parseInt(code) >= 500;
+            } catch (NumberFormatException ex) {
+                // not an HTTP status
+            }
+        }
+        return false;
+    }
+
+    protected boolean isSlow(Exchange exchange) {
+        if (slowThreshold < 0) {
+            return false;
+        }
+        Long start = (Long)exchange.get(START_TIME);
+        return start != null && System.currentTimeMillis() - start >= slowThreshold;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampleRate the fraction of exchanges to log, between 0 and 1; defaults to 1
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Map<String, Double> getOperationSampleRates() {
+        return operationSampleRates;
+    }
+
+    /**
+     * @param rates sample rates keyed by the local name of the operation
+     */
+    public void setOperationSampleRates(Map<String, Double> rates) {
+        this.operationSampleRates = new ConcurrentHashMap<>(rates);
+    }
+
+    public Map<String, Double> getEndpointSampleRates() {
+        return endpointSampleRates;
+    }
+
+    /**
+     * @param rates sample rates keyed by the endpoint address
+     */
+    public void setEndpointSampleRates(Map<String, Double> rates) {
+        this.endpointSampleRates = new ConcurrentHashMap<>(rates);
+    }
+
+    public boolean isLogFaults() {
+        return logFaults;
+    }
+
+    /**
+     * @param logFaults true to always log exchanges ending with a fault or a 5xx status
+     */
+    public void setLogFaults(boolean logFaults) {
+        this.logFaults = logFaults;
+    }
+
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    /**
+     * @param slowThreshold always log exchanges taking at least this number of milliseconds,
+     * -1 to disable
+     */
+    public void setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public boolean isHeadersOnly() {
+        return headersOnly;
+    }
+
+    /**
+     * @param headersOnly true to log the headers only and never capture the payload
+     */
+    public void setHeadersOnly(boolean headersOnly) {
+        this.headersOnly = headersOnly;
+    }
+
+    private static final class Deferred {
+        final LogEvent event;
+        final PayloadCapture capture;
+        final LogEventSender sender;
+
+        Deferred(LogEvent event, PayloadCapture capture, LogEventSender sender) {
+            this.event = event;
+            this.capture = capture;
+            this.sender = sender;
+        }
+    }
+}
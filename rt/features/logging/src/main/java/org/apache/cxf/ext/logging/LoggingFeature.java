@@ -18,8 +18,15 @@
  */
 package org.apache.cxf.ext.logging;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.ext.logging.event.AsyncLogEventSender;
 import org.apache.cxf.ext.logging.event.LogEventSender;
 import org.apache.cxf.ext.logging.event.PrettyLoggingFilter;
 import org.apache.cxf.ext.logging.slf4j.Slf4jEventSender;
@@ -48,6 +55,10 @@ public class LoggingFeature extends AbstractFeature {
     private LoggingOutInterceptor out;
     private WireTapIn wireTapIn;
     private PrettyLoggingFilter prettyFilter;
+    private AsyncLogEventSender asyncSender;
+    private boolean asyncBlockWhenFull;
+    private final Set<Bus> shutdownListenerBuses = 
+        Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Bus, Boolean>()));
 
     public LoggingFeature() {
         this.sender = new Slf4jEventSender();
@@ -66,6 +77,11 @@ public class LoggingFeature extends AbstractFeature {
 
         provider.getOutInterceptors().add(out);
         provider.getOutFaultInterceptors().add(out);
+
+        BusLifeCycleManager manager = bus == null ? null : bus.getExtension(BusLifeCycleManager.class);
+        if (manager != null && shutdownListenerBuses.add(bus)) {
+            manager.registerLifeCycleListener(new AsyncSenderShutdown());
+        }
     }
 
     public void setLimit(int limit) {
@@ -87,4 +103,99 @@ public class LoggingFeature extends AbstractFeature {
     public void setPrettyLogging(boolean prettyLogging) {
         this.prettyFilter.setPrettyLogging(prettyLogging);
     }
+
+    /**
+     * Restricts logging to a sample of the exchanges, to the exchanges which fail or are slow,
+     * or to the headers only.
+     * 
+     * @param capturePolicy the policy, or null to log every exchange in full
+     */
+    public void setCapturePolicy(CapturePolicy capturePolicy) {
+        in.setCapturePolicy(capturePolicy);
+        out.setCapturePolicy(capturePolicy);
+        wireTapIn.setCapturePolicy(capturePolicy);
+    }
+
+    public CapturePolicy getCapturePolicy() {
+        return in.getCapturePolicy();
+    }
+
+    /**
+     * Hands the log events to a background thread which formats and writes them, so that
+     * the request threads only pay for capturing the event.
+     * 
+     * @param async true to send the events asynchronously
+     */
+    public synchronized void setAsync(boolean async) {
+        if (async && asyncSender == null) {
+            createAsyncSender();
+        } else if (!async && asyncSender != null) {
+            in.setSender(prettyFilter);
+            out.setSender(prettyFilter);
+            asyncSender.close();
+            asyncSender = null;
+        }
+    }
+
+    private void createAsyncSender() {
+        asyncSender = new AsyncLogEventSender(prettyFilter);
+        asyncSender.setBlockWhenFull(asyncBlockWhenFull);
+        in.setSender(asyncSender);
+        out.setSender(asyncSender);
+    }
+
+    /**
+     * Stops the worker thread of the asynchronous sender, the new sender starts a thread
+     * of its own only once an event is sent with the feature again.
+     */
+    synchronized void restartAsyncSender() {
+        if (asyncSender != null) {
+            AsyncLogEventSender stopped = asyncSender;
+            createAsyncSender();
+            stopped.close();
+        }
+    }
+
+    /**
+     * @param blockWhenFull true to make the request threads wait for free space instead of
+     * dropping events when the buffer of the asynchronous sender is full
+     */
+    public synchronized void setAsyncBlockWhenFull(boolean blockWhenFull) {
+        this.asyncBlockWhenFull = blockWhenFull;
+        if (asyncSender != null) {
+            asyncSender.setBlockWhenFull(blockWhenFull);
+        }
+    }
+
+    public boolean isAsyncBlockWhenFull() {
+        return asyncBlockWhenFull;
+    }
+
+    public boolean isAsync() {
+        return asyncSender != null;
+    }
+
+    /**
+     * @return the asynchronous sender, giving access to the drop counters, or null if
+     * the events are sent synchronously
+     */
+    public AsyncLogEventSender getAsyncSender() {
+        return asyncSender;
+    }
+
+    /**
+     * Stops the worker thread of the asynchronous sender once the events logged while 
+     * the bus was shutting down have been written.
+     */
+    private class AsyncSenderShutdown implements BusLifeCycleListener {
+        public void initComplete() {
+        }
+
+        public void preShutdown() {
+        }
+
+        public void postShutdown() {
+            restartAsyncSender();
+        }
+    }
 }
@@ -23,13 +23,16 @@ import java.nio.charset.StandardCharsets;
 
 import org.apache.cxf.common.injection.NoJSR250Annotations;
 import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.ext.logging.CapturePolicy.PayloadCapture;
 import org.apache.cxf.ext.logging.event.DefaultLogEventMapper;
 import org.apache.cxf.ext.logging.event.LogEvent;
 import org.apache.cxf.ext.logging.event.LogEventSender;
 import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.OutgoingChainInterceptor;
 import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.io.CachedWriter;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
 
 /**
@@ -44,22 +47,103 @@ public class LoggingInInterceptor extends AbstractLoggingInterceptor {
 
     public void handleMessage(Message message) throws Fault {
         createExchangeId(message);
+        PayloadCapture capture = new InPayloadCapture(message);
+        CapturePolicy.Decision decision = capturePolicy == null ? null : capturePolicy.decide(message);
+        if (decision == CapturePolicy.Decision.SKIP) {
+            capture.discard();
+            return;
+        }
         final LogEvent event = new DefaultLogEventMapper().map(message);
-        try {
-            CachedOutputStream cos = message.getContent(CachedOutputStream.class);
+        if (capturePolicy == null) {
+            capture.capture(event);
+            sender.send(event);
+        } else {
+            if (decision == CapturePolicy.Decision.DEFER && !capturePolicy.isExchangeEnd(message)
+                && message.getInterceptorChain() != null) {
+                // the response may never reach the out interceptor, e.g. if it has no payload,
+                // so the end of this chain releases the held back event as well
+                message.getInterceptorChain().add(new DeferredEventsEndingInterceptor(capturePolicy));
+            }
+            capturePolicy.handle(message, event, capture, sender);
+        }
+    }
+
+    @Override
+    public void handleFault(Message message) {
+        // the fault response may not reach the out interceptors either
+        if (capturePolicy != null) {
+            capturePolicy.complete(message.getExchange(), true);
+        }
+    }
+
+    /**
+     * Reads the content cached by {@link WireTapIn}. The temp file is held until the event is
+     * either emitted or dropped since a deferred event is only captured at the end of the exchange.
+     */
+    private final class InPayloadCapture implements PayloadCapture {
+        private final Message message;
+        private final CachedOutputStream cos;
+        private final CachedWriter writer;
+
+        InPayloadCapture(Message message) {
+            this.message = message;
+            this.cos = message.getContent(CachedOutputStream.class);
+            this.writer = cos == null ? message.getContent(CachedWriter.class) : null;
             if (cos != null) {
-                handleOutputStream(event, message, cos);
-            } else {
-                CachedWriter writer = message.getContent(CachedWriter.class);
-                if (writer != null) {
+                cos.holdTempFile();
+            } else if (writer != null) {
+                writer.holdTempFile();
+            }
+        }
+
+        public void capture(LogEvent event) {
+            if (capturePolicy != null && capturePolicy.isHeadersOnly()) {
+                discard();
+                return;
+            }
+            try {
+                if (cos != null) {
+                    cos.releaseTempFileHold();
+                    handleOutputStream(event, message, cos);
+                } else if (writer != null) {
+                    writer.releaseTempFileHold();
                     handleWriter(event, writer);
                 }
+            } catch (IOException e) {
+                throw new Fault(e);
             }
-        } catch (IOException e) {
-            throw new Fault(e);
         }
 
-        sender.send(event);
+        public void discard() {
+            try {
+                if (cos != null) {
+                    cos.releaseTempFileHold();
+                    cos.close();
+                } else if (writer != null) {
+                    writer.releaseTempFileHold();
+                }
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Completes the events held back for the exchange once the inbound chain, and with it
+     * the outbound chain of the response, has been processed.
+     */
+    static class DeferredEventsEndingInterceptor extends AbstractPhaseInterceptor<Message> {
+        private final CapturePolicy policy;
+
+        DeferredEventsEndingInterceptor(CapturePolicy policy) {
+            super(Phase.POST_INVOKE);
+            addAfter(OutgoingChainInterceptor.class.getName());
+            this.policy = policy;
+        }
+
+        public void handleMessage(Message message) throws Fault {
+            policy.complete(message.getExchange(), false);
+        }
     }
 
     private void handleOutputStream(final LogEvent event, Message message, CachedOutputStream cos) throws IOException {
@@ -26,6 +26,7 @@ import java.io.Writer;
 
 import org.apache.cxf.common.injection.NoJSR250Annotations;
 import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.ext.logging.CapturePolicy.PayloadCapture;
 import org.apache.cxf.ext.logging.event.DefaultLogEventMapper;
 import org.apache.cxf.ext.logging.event.LogEvent;
 import org.apache.cxf.ext.logging.event.LogEventSender;
@@ -50,14 +51,30 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
 
     public void handleMessage(Message message) throws Fault {
         createExchangeId(message);
+        CapturePolicy.Decision decision = null;
+        if (capturePolicy != null) {
+            decision = capturePolicy.decide(message);
+            if (decision == CapturePolicy.Decision.SKIP) {
+                return;
+            }
+            if (capturePolicy.isHeadersOnly()) {
+                // nothing to cache, the event can be mapped right away
+                capturePolicy.handle(message, new DefaultLogEventMapper().map(message), null, sender);
+                return;
+            }
+        }
         final OutputStream os = message.getContent(OutputStream.class);
         if (os != null) {
-            LoggingCallback callback = new LoggingCallback(sender, message, os, limit);
+            LoggingCallback callback = new LoggingCallback(sender, message, os, limit, capturePolicy);
             message.setContent(OutputStream.class, createCachingOut(message, os, callback));
         } else {
             final Writer iowriter = message.getContent(Writer.class);
             if (iowriter != null) { 
-                message.setContent(Writer.class, new LogEventSendingWriter(sender, message, iowriter, limit));
+                message.setContent(Writer.class, new LogEventSendingWriter(sender, message, iowriter, limit,
+                                                                           capturePolicy));
+            } else if (decision == CapturePolicy.Decision.DEFER && capturePolicy.isExchangeEnd(message)) {
+                // no payload, the outcome of the exchange is known from the headers already
+                capturePolicy.handle(message, new DefaultLogEventMapper().map(message), null, sender);
             }
         }
     }
@@ -80,10 +97,13 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         Message message;
         final int lim;
         private LogEventSender sender;
+        private final CapturePolicy policy;
 
-        LogEventSendingWriter(LogEventSender sender, Message message, Writer writer, int limit) {
+        LogEventSendingWriter(LogEventSender sender, Message message, Writer writer, int limit,
+                              CapturePolicy policy) {
             super(writer);
             this.sender = sender;
+            this.policy = policy;
             this.message = message;
             if (!(writer instanceof StringWriter)) {
                 out2 = new StringWriter();
@@ -117,19 +137,32 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
 
         public void close() throws IOException {
             final LogEvent event = new DefaultLogEventMapper().map(message);
-            StringWriter w2 = out2;
-            if (w2 == null) {
-                w2 = (StringWriter)out;
+            StringWriter w = out2;
+            if (w == null) {
+                w = (StringWriter)out;
             }
-            String ct = (String)message.get(Message.CONTENT_TYPE);
-            StringBuilder payload = new StringBuilder();
-            try {
-                writePayload(payload, w2, ct);
-            } catch (Exception ex) {
-                // ignore
+            final StringWriter w2 = w;
+            final String ct = (String)message.get(Message.CONTENT_TYPE);
+            PayloadCapture capture = new PayloadCapture() {
+                public void capture(LogEvent e) {
+                    StringBuilder payload = new StringBuilder();
+                    try {
+                        writePayload(payload, w2, ct);
+                    } catch (Exception ex) {
+                        // ignore
+                    }
+                    e.setPayload(payload.toString());
+                }
+
+                public void discard() {
+                }
+            };
+            if (policy == null) {
+                capture.capture(event);
+                sender.send(event);
+            } else {
+                policy.handle(message, event, capture, sender);
             }
-            event.setPayload(payload.toString());
-            sender.send(event);
             message.setContent(Writer.class, out);
             super.close();
         }
@@ -151,30 +184,54 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         private final OutputStream origStream;
         private final int lim;
         private LogEventSender sender;
+        private final CapturePolicy policy;
 
         public LoggingCallback(final LogEventSender sender, final Message msg, final OutputStream os, int limit) {
+            this(sender, msg, os, limit, null);
+        }
+
+        public LoggingCallback(final LogEventSender sender, final Message msg, final OutputStream os, int limit,
+                               CapturePolicy policy) {
             this.sender = sender;
             this.message = msg;
             this.origStream = os;
             this.lim = limit == -1 ? Integer.MAX_VALUE : limit;
+            this.policy = policy;
         }
 
         public void onFlush(CachedOutputStream cos) {
 
         }
 
-        public void onClose(CachedOutputStream cos) {
+        public void onClose(final CachedOutputStream cos) {
             final LogEvent event = new DefaultLogEventMapper().map(message);
-            try {
-                String encoding = (String)message.get(Message.ENCODING);
-                StringBuilder payload = new StringBuilder();
-                writePayload(payload, cos, encoding, event.getContentType());
-                event.setPayload(payload.toString());
-            } catch (Exception ex) {
-                // ignore
+            PayloadCapture capture = new PayloadCapture() {
+                public void capture(LogEvent e) {
+                    try {
+                        String encoding = (String)message.get(Message.ENCODING);
+                        StringBuilder payload = new StringBuilder();
+                        writePayload(payload, cos, encoding, e.getContentType());
+                        e.setPayload(payload.toString());
+                    } catch (Exception ex) {
+                        // ignore
+                    }
+                }
+
+                public void discard() {
+                }
+            };
+            if (policy == null) {
+                capture.capture(event);
+                sender.send(event);
+            } else {
+                if (!policy.isExchangeEnd(message)) {
+                    // the cache is emptied below, so an event held back until the end of
+                    // the exchange needs its payload now
+                    capture.capture(event);
+                    capture = null;
+                }
+                policy.handle(message, event, capture, sender);
             }
-
-            sender.send(event);
             try {
                 // empty out the cache
                 cos.lockOutputStream();
@@ -35,6 +35,7 @@ import org.apache.cxf.phase.Phase;
 public class WireTapIn extends AbstractPhaseInterceptor<Message> {
     private long threshold = -1;
     private int limit = AbstractLoggingInterceptor.DEFAULT_LIMIT;
+    private CapturePolicy capturePolicy;
 
     /**
      * Instantiates a new WireTapIn
@@ -48,6 +49,12 @@ public class WireTapIn extends AbstractPhaseInterceptor<Message> {
 
     @Override
     public void handleMessage(final Message message) throws Fault {
+        if (capturePolicy != null
+            && (capturePolicy.isHeadersOnly()
+                || capturePolicy.decideEarly(message) == CapturePolicy.Decision.SKIP)) {
+            // the content will never be logged, do not cache it
+            return;
+        }
         try {
             InputStream is = message.getContent(InputStream.class);
             if (is != null) {
@@ -103,4 +110,8 @@ public class WireTapIn extends AbstractPhaseInterceptor<Message> {
     public void setThreshold(long threshold) {
         this.threshold = threshold;
     }
+
+    public void setCapturePolicy(CapturePolicy capturePolicy) {
+        this.capturePolicy = capturePolicy;
+    }
 }
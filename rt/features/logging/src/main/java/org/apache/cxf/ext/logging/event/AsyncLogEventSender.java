@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decouples the request threads from the (possibly slow) formatting and writing of log events.
+ * Events are put into a bounded lock-free ring buffer and handed to the delegate sender
+ * by a single background thread, in batches if the delegate is a {@link LogEventBatchSender}.
+ * When the buffer is full the event is either dropped (the default) or the sending thread 
+ * waits until space is available.
+ */
+public class AsyncLogEventSender implements LogEventSender, Closeable {
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncLogEventSender.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LogEventSender next;
+    private final RingBuffer buffer;
+    private final int batchSize;
+    private boolean blockWhenFull;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private volatile Thread worker;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    public AsyncLogEventSender(LogEventSender next) {
+        this(next, DEFAULT_QUEUE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param next the sender the events are handed to
+     * @param queueSize the capacity of the buffer, rounded up to a power of two
+     * @param batchSize the maximum number of events handed to the sender at once
+     */
+    public AsyncLogEventSender(LogEventSender next, int queueSize, int batchSize) {
+        this.next = next;
+        this.buffer = new RingBuffer(queueSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void send(LogEvent event) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        ensureWorker();
+        while (!buffer.offer(event)) {
+            if (!blockWhenFull || closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            wakeUp();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (waiting) {
+            wakeUp();
+        }
+    }
+
+    public LogEventSender getNext() {
+        return next;
+    }
+
+    public boolean isBlockWhenFull() {
+        return blockWhenFull;
+    }
+
+    /**
+     * @param blockWhenFull true to make senders wait for free space instead of dropping 
+     * events when the buffer is full
+     */
+    public void setBlockWhenFull(boolean blockWhenFull) {
+        this.blockWhenFull = blockWhenFull;
+    }
+
+    /**
+     * @return the number of events dropped because the buffer was full or the sender closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of events handed to the delegate sender
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * @return the number of events waiting to be handed to the delegate sender
+     */
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * Stops accepting events and waits until the already buffered events have been sent.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread t = worker;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void ensureWorker() {
+        if (worker == null) {
+            synchronized (this) {
+                if (worker == null && !closed) {
+                    Thread t = new Thread(new Runnable() {
+                        public void run() {
+                            drain();
+                        }
+                    }, "cxf-async-logging-" + System.identityHashCode(AsyncLogEventSender.this));
+                    t.setDaemon(true);
+                    t.start();
+                    worker = t;
+                }
+            }
+        }
+    }
+
+    private void wakeUp() {
+        Thread t = worker;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private void drain() {
+        List<LogEvent> batch = new ArrayList<LogEvent>(batchSize);
+        while (true) {
+            LogEvent event = buffer.poll();
+            while (event != null && batch.size() < batchSize) {
+                batch.add(event);
+                if (batch.size() < batchSize) {
+                    event = buffer.poll();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                batch.clear();
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+            waiting = true;
+            if (buffer.size() == 0 && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+    private void deliver(List<LogEvent> batch) {
+        try {
+            if (next instanceof LogEventBatchSender) {
+                ((LogEventBatchSender)next).send(batch);
+            } else {
+                for (LogEvent event : batch) {
+                    next.send(event);
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to send log events", ex);
+        }
+        sent.addAndGet(batch.size());
+    }
+
+    /**
+     * Bounded multi-producer queue based on a power of two sized array whose slots carry a
+     * sequence number telling producers and the consumer whether the slot can be used.
+     */
+    private static final class RingBuffer {
+        private final int mask;
+        private final AtomicReferenceArray<LogEvent> events;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong head = new AtomicLong();
+
+        RingBuffer(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            mask = size - 1;
+            events = new AtomicReferenceArray<LogEvent>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(LogEvent event) {
+            while (true) {
+                long pos = tail.get();
+                int index = (int)pos & mask;
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        events.lazySet(index, event);
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                } else if (diff < 0) {
+                    return false;
+                }
+            }
+        }
+
+        // only called by the single consumer thread
+        LogEvent poll() {
+            long pos = head.get();
+            int index = (int)pos & mask;
+            if (sequences.get(index) != pos + 1) {
+                return null;
+            }
+            LogEvent event = events.get(index);
+            events.lazySet(index, null);
+            head.lazySet(pos + 1);
+            sequences.set(index, pos + mask + 1);
+            return event;
+        }
+
+        int size() {
+            return (int)Math.max(0, tail.get() - head.get());
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.List;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -32,7 +33,7 @@ import org.apache.cxf.staxutils.StaxUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class PrettyLoggingFilter implements LogEventSender {
+public class PrettyLoggingFilter implements LogEventBatchSender {
     private static final Logger LOG = LoggerFactory.getLogger(PrettyLoggingFilter.class);
     private LogEventSender next;
     private boolean prettyLogging;
@@ -50,6 +51,25 @@ public class PrettyLoggingFilter implements LogEventSender {
         next.send(event);
     }
 
+    /**
+     * Formats the events and hands them on as a batch if the next sender takes batches.
+     */
+    @Override
+    public void send(List<LogEvent> events) {
+        if (!(next instanceof LogEventBatchSender)) {
+            for (LogEvent event : events) {
+                send(event);
+            }
+            return;
+        }
+        for (LogEvent event : events) {
+            if (shouldPrettyPrint(event)) {
+                event.setPayload(getPrettyMessage(event.getPayload(), event.getEncoding()));
+            }
+        }
+        ((LogEventBatchSender)next).send(events);
+    }
+
     private boolean shouldPrettyPrint(LogEvent event) {
         String contentType = event.getContentType(); 
         return prettyLogging 
@@ -21,6 +21,7 @@ package org.apache.cxf.ext.logging.osgi;
 import java.util.Dictionary;
 import java.util.Hashtable;
 
+import org.apache.cxf.ext.logging.CapturePolicy;
 import org.apache.cxf.ext.logging.LoggingFeature;
 import org.apache.cxf.feature.Feature;
 import org.osgi.framework.BundleActivator;
@@ -67,6 +68,11 @@ public class Activator implements BundleActivator {
                 Integer limit = Integer.valueOf(getValue(config, "limit", "65536"));
                 Boolean pretty = Boolean.valueOf(getValue(config, "pretty", "false"));
                 Long inMemThreshold = Long.valueOf(getValue(config, "inMemThresHold", "-1"));
+                Boolean async = Boolean.valueOf(getValue(config, "async", "false"));
+                Boolean asyncBlockWhenFull = Boolean.valueOf(getValue(config, "asyncBlockWhenFull", "false"));
+                Double sampleRate = Double.valueOf(getValue(config, "sampleRate", "1.0"));
+                Long slowThreshold = Long.valueOf(getValue(config, "slowThreshold", "-1"));
+                Boolean headersOnly = Boolean.valueOf(getValue(config, "headersOnly", "false"));
 
                 if (limit != null) {
                     logging.setLimit(limit);
@@ -77,6 +83,17 @@ public class Activator implements BundleActivator {
                 if (pretty != null) {
                     logging.setPrettyLogging(pretty);
                 }
+                logging.setAsyncBlockWhenFull(asyncBlockWhenFull);
+                logging.setAsync(async);
+                if (sampleRate < 1.0d || slowThreshold >= 0 || headersOnly) {
+                    CapturePolicy policy = new CapturePolicy();
+                    policy.setSampleRate(sampleRate);
+                    policy.setSlowThreshold(slowThreshold);
+                    policy.setHeadersOnly(headersOnly);
+                    logging.setCapturePolicy(policy);
+                } else {
+                    logging.setCapturePolicy(null);
+                }
                 Dictionary<String, Object> properties = new Hashtable<>();
                 properties.put("name", "logging");
                 if (serviceReg == null) {
@@ -18,23 +18,54 @@
  */
 package org.apache.cxf.ext.logging.slf4j;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.ext.logging.event.LogEvent;
-import org.apache.cxf.ext.logging.event.LogEventSender;
+import org.apache.cxf.ext.logging.event.LogEventBatchSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
-public class Slf4jEventSender implements LogEventSender {
+public class Slf4jEventSender implements LogEventBatchSender {
 
     @Override
     public void send(LogEvent event) {
-        String cat = "org.apache.cxf.services." + event.getPortTypeName().getLocalPart() + "." + event.getType();
-        Logger log = LoggerFactory.getLogger(cat);
+        send(event, getLogger(event));
+    }
+
+    /**
+     * Logs the events one after the other, looking up the logger of each category only once
+     * per batch.
+     */
+    @Override
+    public void send(List<LogEvent> events) {
+        Map<String, Logger> loggers = new HashMap<String, Logger>();
+        for (LogEvent event : events) {
+            String cat = getCategory(event);
+            Logger log = loggers.get(cat);
+            if (log == null) {
+                log = LoggerFactory.getLogger(cat);
+                loggers.put(cat, log);
+            }
+            send(event, log);
+        }
+    }
+
+    private static String getCategory(LogEvent event) {
+        return "org.apache.cxf.services." + event.getPortTypeName().getLocalPart() + "." + event.getType();
+    }
+
+    private static Logger getLogger(LogEvent event) {
+        return LoggerFactory.getLogger(getCategory(event));
+    }
+
+    private void send(LogEvent event, Logger log) {
         Set<String> keys = new HashSet<String>(); 
         try {
             put(keys, "type", event.getType().toString());
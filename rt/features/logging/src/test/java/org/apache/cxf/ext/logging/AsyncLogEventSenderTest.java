@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.ext.logging.event.AsyncLogEventSender;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.ext.logging.event.LogEventBatchSender;
+import org.apache.cxf.ext.logging.event.LogEventSender;
+import org.apache.cxf.ext.logging.event.PrettyLoggingFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncLogEventSenderTest {
+
+    @Test
+    public void testEventsDeliveredInOrder() {
+        TestEventSender next = new TestEventSender();
+        AsyncLogEventSender sender = new AsyncLogEventSender(next, 16, 4);
+        sender.setBlockWhenFull(true);
+        for (int i = 0; i < 100; i++) {
+            sender.send(createEvent(i));
+        }
+        sender.close();
+        Assert.assertEquals(100, next.getEvents().size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.toString(i), next.getEvents().get(i).getPayload());
+        }
+        Assert.assertEquals(100, sender.getSentCount());
+        Assert.assertEquals(0, sender.getDroppedCount());
+    }
+
+    @Test
+    public void testBatches() {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        LogEventBatchSender next = new LogEventBatchSender() {
+            @Override
+            public void send(LogEvent event) {
+                batchSizes.add(1);
+            }
+
+            @Override
+            public void send(List<LogEvent> events) {
+                batchSizes.add(events.size());
+            }
+        };
+        AsyncLogEventSender sender = new AsyncLogEventSender(next, 64, 8);
+        sender.setBlockWhenFull(true);
+        for (int i = 0; i < 50; i++) {
+            sender.send(createEvent(i));
+        }
+        sender.close();
+        int total = 0;
+        for (Integer size : batchSizes) {
+            Assert.assertTrue(size <= 8);
+            total += size;
+        }
+        Assert.assertEquals(50, total);
+    }
+
+    @Test
+    public void testDropWhenFull() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestEventSender received = new TestEventSender();
+        LogEventSender next = new LogEventSender() {
+            @Override
+            public void send(LogEvent event) {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.send(event);
+            }
+        };
+        AsyncLogEventSender sender = new AsyncLogEventSender(next, 4, 1);
+        sender.send(createEvent(0));
+        Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        // the worker is stuck in the first event, so only 4 more fit into the buffer
+        for (int i = 1; i <= 10; i++) {
+            sender.send(createEvent(i));
+        }
+        Assert.assertEquals(6, sender.getDroppedCount());
+        release.countDown();
+        sender.close();
+        Assert.assertEquals(5, received.getEvents().size());
+        sender.send(createEvent(11));
+        Assert.assertEquals(7, sender.getDroppedCount());
+    }
+
+    @Test
+    public void testWorkerStoppedOnBusShutdown() {
+        LoggingFeature feature = new LoggingFeature();
+        feature.setSender(new TestEventSender());
+        feature.setAsync(true);
+        feature.setAsyncBlockWhenFull(true);
+        Bus bus = BusFactory.newInstance().createBus();
+        feature.initialize(bus);
+        AsyncLogEventSender sender = feature.getAsyncSender();
+        Assert.assertTrue(sender.isBlockWhenFull());
+        sender.send(createEvent(0));
+        String workerName = "cxf-async-logging-" + System.identityHashCode(sender);
+        Assert.assertTrue(isThreadAlive(workerName));
+        
+        bus.shutdown(true);
+        Assert.assertFalse(isThreadAlive(workerName));
+        Assert.assertEquals(1, sender.getSentCount());
+        Assert.assertNotSame(sender, feature.getAsyncSender());
+        Assert.assertTrue(feature.isAsync());
+        Assert.assertTrue(feature.getAsyncSender().isBlockWhenFull());
+    }
+
+    @Test
+    public void testPrettyFilterForwardsBatches() {
+        final List<Integer> batchSizes = new ArrayList<Integer>();
+        final TestEventSender received = new TestEventSender();
+        PrettyLoggingFilter filter = new PrettyLoggingFilter(new LogEventBatchSender() {
+            @Override
+            public void send(LogEvent event) {
+                received.send(event);
+            }
+
+            @Override
+            public void send(List<LogEvent> events) {
+                batchSizes.add(events.size());
+                events.forEach(received::send);
+            }
+        });
+        filter.setPrettyLogging(true);
+        LogEvent event = createEvent(0);
+        event.setContentType("text/xml");
+        event.setPayload("<a><b/></a>");
+        filter.send(Arrays.asList(event, createEvent(1)));
+        Assert.assertEquals(Collections.singletonList(2), batchSizes);
+        Assert.assertEquals(2, received.getEvents().size());
+        Assert.assertTrue(received.getEvents().get(0).getPayload().contains("\n"));
+    }
+
+    private static boolean isThreadAlive(String name) {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (name.equals(t.getName()) && t.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LogEvent createEvent(int i) {
+        LogEvent event = new LogEvent();
+        event.setPayload(Integer.toString(i));
+        return event;
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.ext.logging.CapturePolicy.PayloadCapture;
+import org.apache.cxf.ext.logging.event.EventType;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CapturePolicyTest {
+
+    @Test
+    public void testSampledExchangeIsLogged() {
+        CapturePolicy policy = new CapturePolicy();
+        TestEventSender sender = new TestEventSender();
+        Exchange exchange = new ExchangeImpl();
+        CountingCapture capture = new CountingCapture();
+        policy.handle(request(exchange), event(EventType.REQ_IN), capture, sender);
+        Assert.assertEquals(1, sender.getEvents().size());
+        Assert.assertEquals(1, capture.captured);
+    }
+
+    @Test
+    public void testDeferredEventsDroppedOnSuccess() {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        TestEventSender sender = new TestEventSender();
+        Exchange exchange = new ExchangeImpl();
+        CountingCapture requestCapture = new CountingCapture();
+        CountingCapture responseCapture = new CountingCapture();
+        policy.handle(request(exchange), event(EventType.REQ_IN), requestCapture, sender);
+        policy.handle(response(exchange), event(EventType.RESP_OUT), responseCapture, sender);
+        Assert.assertEquals(0, sender.getEvents().size());
+        Assert.assertEquals(0, requestCapture.captured);
+        Assert.assertEquals(1, requestCapture.discarded);
+        Assert.assertEquals(1, responseCapture.discarded);
+    }
+
+    @Test
+    public void testDeferredEventsEmittedOnFault() {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        TestEventSender sender = new TestEventSender();
+        Exchange exchange = new ExchangeImpl();
+        CountingCapture requestCapture = new CountingCapture();
+        policy.handle(request(exchange), event(EventType.REQ_IN), requestCapture, sender);
+        Assert.assertEquals(0, requestCapture.captured);
+        LogEvent response = event(EventType.RESP_OUT);
+        response.setResponseCode("500");
+        policy.handle(response(exchange), response, null, sender);
+        Assert.assertEquals(2, sender.getEvents().size());
+        Assert.assertEquals(EventType.REQ_IN, sender.getEvents().get(0).getType());
+        Assert.assertEquals(1, requestCapture.captured);
+    }
+
+    @Test
+    public void testDeferredEventsEmittedWhenSlow() {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        policy.setLogFaults(false);
+        policy.setSlowThreshold(0);
+        TestEventSender sender = new TestEventSender();
+        Exchange exchange = new ExchangeImpl();
+        policy.handle(request(exchange), event(EventType.REQ_IN), null, sender);
+        policy.handle(response(exchange), event(EventType.RESP_OUT), null, sender);
+        Assert.assertEquals(2, sender.getEvents().size());
+    }
+
+    @Test
+    public void testCompleteWithoutResponse() {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        TestEventSender sender = new TestEventSender();
+        Exchange exchange = new ExchangeImpl();
+        CountingCapture capture = new CountingCapture();
+        policy.handle(request(exchange), event(EventType.REQ_IN), capture, sender);
+        policy.complete(exchange, false);
+        Assert.assertEquals(1, capture.discarded);
+        Assert.assertEquals(0, sender.getEvents().size());
+        
+        exchange = new ExchangeImpl();
+        capture = new CountingCapture();
+        policy.handle(request(exchange), event(EventType.REQ_IN), capture, sender);
+        policy.complete(exchange, true);
+        Assert.assertEquals(1, capture.captured);
+        Assert.assertEquals(1, sender.getEvents().size());
+        policy.complete(exchange, true);
+        Assert.assertEquals(1, sender.getEvents().size());
+    }
+
+    @Test
+    public void testHeldTempFileReleasedAtEndOfChain() throws Exception {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        TestEventSender sender = new TestEventSender();
+        LoggingInInterceptor interceptor = new LoggingInInterceptor(sender);
+        interceptor.setCapturePolicy(policy);
+        
+        Message request = request(new ExchangeImpl());
+        CachedOutputStream cos = cachedRequest(request);
+        File tempFile = cos.getTempFile();
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(new PhaseManagerImpl().getInPhases());
+        request.setInterceptorChain(chain);
+        interceptor.handleMessage(request);
+        cos.close();
+        Assert.assertTrue("Temp file of the deferred event deleted", tempFile.exists());
+        
+        Interceptor<? extends Message> ending = null;
+        for (Interceptor<? extends Message> i : chain) {
+            ending = i;
+        }
+        Assert.assertTrue(ending instanceof LoggingInInterceptor.DeferredEventsEndingInterceptor);
+        ((LoggingInInterceptor.DeferredEventsEndingInterceptor)ending).handleMessage(request);
+        Assert.assertFalse(tempFile.exists());
+        Assert.assertEquals(0, sender.getEvents().size());
+    }
+
+    @Test
+    public void testHeldTempFileReleasedOnFault() throws Exception {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        TestEventSender sender = new TestEventSender();
+        LoggingInInterceptor interceptor = new LoggingInInterceptor(sender);
+        interceptor.setCapturePolicy(policy);
+        
+        Message request = request(new ExchangeImpl());
+        File tempFile = cachedRequest(request).getTempFile();
+        interceptor.handleMessage(request);
+        Assert.assertEquals(0, sender.getEvents().size());
+        interceptor.handleFault(request);
+        Assert.assertFalse(tempFile.exists());
+        Assert.assertEquals(1, sender.getEvents().size());
+        Assert.assertEquals("0123456789", sender.getEvents().get(0).getPayload());
+    }
+
+    @Test
+    public void testSkipWithoutFaultOrSlowLogging() {
+        CapturePolicy policy = new CapturePolicy();
+        policy.setOperationSampleRates(Collections.singletonMap("echo", 1.0d));
+        policy.setSampleRate(0);
+        policy.setLogFaults(false);
+        Exchange exchange = new ExchangeImpl();
+        Message request = request(exchange);
+        Assert.assertNull(policy.decideEarly(request));
+        Assert.assertEquals(CapturePolicy.Decision.SKIP, policy.decide(request));
+    }
+
+    private static Message request(Exchange exchange) {
+        Message message = new MessageImpl();
+        message.setExchange(exchange);
+        exchange.setInMessage(message);
+        return message;
+    }
+
+    private static CachedOutputStream cachedRequest(Message request) throws IOException {
+        CachedOutputStream cos = new CachedOutputStream();
+        cos.setThreshold(4);
+        cos.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        cos.flush();
+        Assert.assertNotNull(cos.getTempFile());
+        request.setContent(CachedOutputStream.class, cos);
+        return cos;
+    }
+
+    private static Message response(Exchange exchange) {
+        Message message = new MessageImpl();
+        message.setExchange(exchange);
+        exchange.setOutMessage(message);
+        return message;
+    }
+
+    private static LogEvent event(EventType type) {
+        LogEvent event = new LogEvent();
+        event.setType(type);
+        return event;
+    }
+
+    private static final class CountingCapture implements PayloadCapture {
+        int captured;
+        int discarded;
+
+        public void capture(LogEvent event) {
+            captured++;
+        }
+
+        public void discard() {
+            discarded++;
+        }
+    }
+}
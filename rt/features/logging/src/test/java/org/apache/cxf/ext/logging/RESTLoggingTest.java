@@ -81,6 +81,46 @@ public class RESTLoggingTest {
         checkResponseIn(events.get(3));
     }
     
+    @Test
+    public void testUnsampledExchangesAreNotLogged() throws MalformedURLException {
+        LoggingFeature loggingFeature = new LoggingFeature();
+        TestEventSender sender = new TestEventSender();
+        loggingFeature.setSender(sender);
+        CapturePolicy policy = new CapturePolicy();
+        policy.setSampleRate(0);
+        loggingFeature.setCapturePolicy(policy);
+        Server server = createService(loggingFeature);
+        server.start();
+        WebClient client = createClient(loggingFeature);
+        String result = client.get(String.class);
+        Assert.assertEquals("test1", result);
+        server.destroy();
+        Assert.assertEquals(0, sender.getEvents().size());
+    }
+
+    @Test
+    public void testHeadersOnly() throws MalformedURLException {
+        LoggingFeature loggingFeature = new LoggingFeature();
+        TestEventSender sender = new TestEventSender();
+        loggingFeature.setSender(sender);
+        CapturePolicy policy = new CapturePolicy();
+        policy.setHeadersOnly(true);
+        loggingFeature.setCapturePolicy(policy);
+        Server server = createService(loggingFeature);
+        server.start();
+        WebClient client = createClient(loggingFeature);
+        String result = client.get(String.class);
+        Assert.assertEquals("test1", result);
+        server.destroy();
+        List<LogEvent> events = sender.getEvents();
+        Assert.assertEquals(4, events.size());
+        for (LogEvent event : events) {
+            Assert.assertNull(event.getPayload());
+        }
+        Assert.assertEquals(EventType.REQ_OUT, events.get(0).getType());
+        Assert.assertEquals(EventType.RESP_IN, events.get(3).getType());
+    }
+
     private void checkRequestOut(LogEvent requestOut) {
         Assert.assertEquals(SERVICE_URI + "/test1", requestOut.getAddress());
         Assert.assertNull(requestOut.getContentType());
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram with fixed bucket bounds. Recording is a binary search and two {@link LongAdder}
+ * increments, so concurrent updates do not contend on a shared counter.
+ */
+public class LatencyHistogram {
+    /** default bucket upper bounds in seconds */
+    public static final double[] DEFAULT_BOUNDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final double[] bounds;
+    private final long[] boundsInNanos;
+    private final LongAdder[] buckets;
+    private final LongAdder sumInNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BOUNDS);
+    }
+
+    /**
+     * @param bounds the upper bounds of the buckets in seconds, in ascending order; a last
+     * bucket without upper bound is always added
+     */
+    public LatencyHistogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        boundsInNanos = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            if (i > 0 && bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be in ascending order");
+            }
+            boundsInNanos[i] = (long)(bounds[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+        buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long timeInNS) {
+        int idx = Arrays.binarySearch(boundsInNanos, timeInNS);
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        buckets[idx].increment();
+        sumInNanos.add(timeInNS);
+    }
+
+    /**
+     * @return the upper bounds of the buckets in seconds, excluding the unbounded last bucket
+     */
+    public double[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * @return the cumulative counts per bucket, the last one being the total count
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (LongAdder bucket : buckets) {
+            total += bucket.sum();
+        }
+        return total;
+    }
+
+    public long getSumInNanos() {
+        return sumInNanos.sum();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes metrics contexts in the Prometheus text exposition format.
+ */
+class PrometheusExporter {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Collection<PrometheusMetricsContext> contexts;
+
+    PrometheusExporter(Collection<PrometheusMetricsContext> contexts) {
+        this.contexts = contexts;
+    }
+
+    void write(Writer w) throws IOException {
+        header(w, "cxf_requests_in_flight", "gauge", "Requests currently being processed.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            sample(w, "cxf_requests_in_flight", ctx.getLabels(), null, ctx.getInFlight());
+        }
+        header(w, "cxf_requests_total", "counter", "Completed requests.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            sample(w, "cxf_requests_total", ctx.getLabels(), null, ctx.getTotals());
+        }
+        header(w, "cxf_faults_total", "counter", "Requests completed with a fault.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            sample(w, "cxf_faults_total", ctx.getLabels(), "fault=\"checked_application\"",
+                   ctx.getCheckedApplicationFaults());
+            sample(w, "cxf_faults_total", ctx.getLabels(), "fault=\"unchecked_application\"",
+                   ctx.getUncheckedApplicationFaults());
+            sample(w, "cxf_faults_total", ctx.getLabels(), "fault=\"runtime\"",
+                   ctx.getRuntimeFaults());
+            sample(w, "cxf_faults_total", ctx.getLabels(), "fault=\"logical_runtime\"",
+                   ctx.getLogicalRuntimeFaults());
+        }
+        header(w, "cxf_data_read_bytes_total", "counter", "Bytes read.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            sample(w, "cxf_data_read_bytes_total", ctx.getLabels(), null, ctx.getIncomingData());
+        }
+        header(w, "cxf_data_written_bytes_total", "counter", "Bytes written.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            sample(w, "cxf_data_written_bytes_total", ctx.getLabels(), null, ctx.getOutgoingData());
+        }
+        header(w, "cxf_request_duration_seconds", "histogram", "Request duration.");
+        for (PrometheusMetricsContext ctx : contexts) {
+            LatencyHistogram h = ctx.getLatency();
+            double[] bounds = h.getBounds();
+            long[] counts = h.getCumulativeCounts();
+            for (int i = 0; i < bounds.length; i++) {
+                sample(w, "cxf_request_duration_seconds_bucket", ctx.getLabels(),
+                       "le=\"" + formatDouble(bounds[i]) + "\"", counts[i]);
+            }
+            long count = counts[counts.length - 1];
+            sample(w, "cxf_request_duration_seconds_bucket", ctx.getLabels(), "le=\"+Inf\"", count);
+            sample(w, "cxf_request_duration_seconds_count", ctx.getLabels(), null, count);
+            w.write("cxf_request_duration_seconds_sum");
+            labels(w, ctx.getLabels(), null);
+            w.write(' ');
+            w.write(formatDouble(h.getSumInNanos() / NANOS_PER_SECOND));
+            w.write('\n');
+        }
+        w.flush();
+    }
+
+    /**
+     * Formats the value as a plain decimal, Double.toString would write the small bucket
+     * bounds in the scientific notation, e.g. 5.0E-4 instead of 0.0005.
+     */
+    static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static void header(Writer w, String name, String type, String help) throws IOException {
+        w.write("# HELP " + name + " " + help + "\n");
+        w.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void sample(Writer w, String name, String labels, String extra, long value)
+        throws IOException {
+        w.write(name);
+        labels(w, labels, extra);
+        w.write(' ');
+        w.write(Long.toString(value));
+        w.write('\n');
+    }
+
+    private static void labels(Writer w, String labels, String extra) throws IOException {
+        w.write('{');
+        w.write(labels);
+        if (extra != null) {
+            if (!labels.isEmpty()) {
+                w.write(',');
+            }
+            w.write(extra);
+        }
+        w.write('}');
+    }
+}
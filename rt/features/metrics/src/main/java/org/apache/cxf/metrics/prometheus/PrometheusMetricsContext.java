@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.FaultMode;
+import org.apache.cxf.metrics.MetricsContext;
+
+/**
+ * Metrics of an endpoint, operation or resource kept in {@link LongAdder}s. The context is
+ * created once per endpoint or operation and cached on the service model by the metrics
+ * interceptors, so recording involves no lookup.
+ */
+public class PrometheusMetricsContext implements MetricsContext, Closeable {
+    protected final LongAdder inFlight = new LongAdder();
+    protected final LongAdder totals = new LongAdder();
+    protected final LongAdder uncheckedApplicationFaults = new LongAdder();
+    protected final LongAdder checkedApplicationFaults = new LongAdder();
+    protected final LongAdder runtimeFaults = new LongAdder();
+    protected final LongAdder logicalRuntimeFaults = new LongAdder();
+    protected final LongAdder incomingData = new LongAdder();
+    protected final LongAdder outgoingData = new LongAdder();
+    protected final LatencyHistogram latency;
+
+    protected final String labels;
+    protected final PrometheusMetricsProvider provider;
+
+    public PrometheusMetricsContext(String labels, PrometheusMetricsProvider provider, double[] bounds) {
+        this.labels = labels;
+        this.provider = provider;
+        this.latency = new LatencyHistogram(bounds);
+    }
+
+    @Override
+    public void close() {
+        provider.remove(this);
+    }
+
+    public void start(Exchange ex) {
+        inFlight.increment();
+    }
+
+    public void stop(long timeInNS, long inSize, long outSize, Exchange ex) {
+        totals.increment();
+        latency.record(timeInNS);
+        if (inSize != -1) {
+            incomingData.add(inSize);
+        }
+        if (outSize != -1) {
+            outgoingData.add(outSize);
+        }
+        FaultMode fm = ex.get(FaultMode.class);
+        if (fm != null) {
+            switch (fm) {
+            case CHECKED_APPLICATION_FAULT:
+                checkedApplicationFaults.increment();
+                break;
+            case UNCHECKED_APPLICATION_FAULT:
+                uncheckedApplicationFaults.increment();
+                break;
+            case RUNTIME_FAULT:
+                runtimeFaults.increment();
+                break;
+            case LOGICAL_RUNTIME_FAULT:
+                logicalRuntimeFaults.increment();
+                break;
+            default:
+            }
+        }
+        inFlight.decrement();
+    }
+
+    /**
+     * @return the labels identifying this context in the exposition format, without braces
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public long getTotals() {
+        return totals.sum();
+    }
+
+    public long getUncheckedApplicationFaults() {
+        return uncheckedApplicationFaults.sum();
+    }
+
+    public long getCheckedApplicationFaults() {
+        return checkedApplicationFaults.sum();
+    }
+
+    public long getRuntimeFaults() {
+        return runtimeFaults.sum();
+    }
+
+    public long getLogicalRuntimeFaults() {
+        return logicalRuntimeFaults.sum();
+    }
+
+    public long getIncomingData() {
+        return incomingData.sum();
+    }
+
+    public long getOutgoingData() {
+        return outgoingData.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
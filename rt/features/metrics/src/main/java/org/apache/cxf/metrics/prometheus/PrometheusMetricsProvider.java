@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.metrics.MetricsContext;
+import org.apache.cxf.metrics.MetricsProvider;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * Metrics provider keeping its metrics in {@link java.util.concurrent.atomic.LongAdder}s and
+ * fixed bucket histograms, without any third party library. The metrics can be written in the
+ * Prometheus text exposition format with {@link #write(Writer)} or served by a
+ * {@link PrometheusScrapeEndpoint}.
+ * <p>
+ * The provider registers itself as a bus extension, unless one is registered already, so that
+ * the scrape endpoint can find it.
+ */
+@NoJSR250Annotations
+public class PrometheusMetricsProvider implements MetricsProvider {
+    protected Bus bus;
+    private final ConcurrentMap<String, PrometheusMetricsContext> contexts = new ConcurrentHashMap<>();
+    private double[] buckets = LatencyHistogram.DEFAULT_BOUNDS;
+
+    public PrometheusMetricsProvider(Bus b) {
+        this.bus = b;
+        if (b != null && b.getExtension(PrometheusMetricsProvider.class) == null) {
+            b.setExtension(this, PrometheusMetricsProvider.class);
+        }
+    }
+
+    /**
+     * @param bounds the upper bounds in seconds of the request duration histogram buckets,
+     * applies to contexts created afterwards
+     */
+    public void setBuckets(double[] bounds) {
+        this.buckets = bounds.clone();
+    }
+
+    public double[] getBuckets() {
+        return buckets.clone();
+    }
+
+    StringBuilder getBaseLabels(Endpoint endpoint, boolean isClient, String clientId) {
+        StringBuilder buffer = new StringBuilder();
+        if (bus != null) {
+            appendLabel(buffer, "bus_id", bus.getId());
+        }
+        appendLabel(buffer, "type", isClient ? "client" : "server");
+        appendLabel(buffer, "service", endpoint.getService().getName().toString());
+        appendLabel(buffer, "port", endpoint.getEndpointInfo().getName().getLocalPart());
+        if (clientId != null) {
+            appendLabel(buffer, "client", clientId);
+        }
+        return buffer;
+    }
+
+    /** {@inheritDoc}*/
+    @Override
+    public MetricsContext createEndpointContext(Endpoint endpoint, boolean isClient, String clientId) {
+        return getContext(getBaseLabels(endpoint, isClient, clientId).toString());
+    }
+
+    /** {@inheritDoc}*/
+    @Override
+    public MetricsContext createOperationContext(Endpoint endpoint, BindingOperationInfo boi,
+                                                 boolean asClient, String clientId) {
+        StringBuilder buffer = getBaseLabels(endpoint, asClient, clientId);
+        appendLabel(buffer, "operation", boi.getName().getLocalPart());
+        return getContext(buffer.toString());
+    }
+
+    /** {@inheritDoc}*/
+    @Override
+    public MetricsContext createResourceContext(Endpoint endpoint, String resourceName,
+                                                boolean asClient, String clientId) {
+        StringBuilder buffer = getBaseLabels(endpoint, asClient, clientId);
+        appendLabel(buffer, "operation", resourceName);
+        return getContext(buffer.toString());
+    }
+
+    private PrometheusMetricsContext getContext(String labels) {
+        PrometheusMetricsContext ctx = contexts.get(labels);
+        if (ctx == null) {
+            ctx = new PrometheusMetricsContext(labels, this, buckets);
+            PrometheusMetricsContext existing = contexts.putIfAbsent(labels, ctx);
+            if (existing != null) {
+                ctx = existing;
+            }
+        }
+        return ctx;
+    }
+
+    void remove(PrometheusMetricsContext ctx) {
+        contexts.remove(ctx.getLabels(), ctx);
+    }
+
+    public Collection<PrometheusMetricsContext> getContexts() {
+        return Collections.unmodifiableCollection(contexts.values());
+    }
+
+    /**
+     * Writes all the metrics in the Prometheus text exposition format, version 0.0.4.
+     */
+    public void write(Writer w) throws IOException {
+        new PrometheusExporter(getContexts()).write(w);
+    }
+
+    static void appendLabel(StringBuilder buffer, String name, String value) {
+        if (buffer.length() > 0) {
+            buffer.append(',');
+        }
+        buffer.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                buffer.append('\\').append(c);
+            } else if (c == '\n') {
+                buffer.append("\\n");
+            } else {
+                buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+}
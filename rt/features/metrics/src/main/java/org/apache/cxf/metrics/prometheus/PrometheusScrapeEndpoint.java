@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.Destination;
+import org.apache.cxf.transport.DestinationFactory;
+import org.apache.cxf.transport.DestinationFactoryManager;
+import org.apache.cxf.transport.MessageObserver;
+
+/**
+ * Serves the metrics of a {@link PrometheusMetricsProvider} in the text exposition format on a
+ * destination of its own. Any transport with a back channel can be used; the address selects it,
+ * for instance <code>http://localhost:9090/metrics</code>.
+ * <pre>
+ * PrometheusScrapeEndpoint scrape = new PrometheusScrapeEndpoint(bus, "http://localhost:9090/metrics");
+ * scrape.start();
+ * </pre>
+ */
+public class PrometheusScrapeEndpoint implements MessageObserver {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger LOG = LogUtils.getL7dLogger(PrometheusScrapeEndpoint.class);
+
+    private final Bus bus;
+    private final String address;
+    private PrometheusMetricsProvider provider;
+    private Destination destination;
+
+    /**
+     * Serves the provider registered on the bus.
+     */
+    public PrometheusScrapeEndpoint(Bus bus, String address) {
+        this(bus, null, address);
+    }
+
+    public PrometheusScrapeEndpoint(Bus bus, PrometheusMetricsProvider provider, String address) {
+        this.bus = bus;
+        this.provider = provider;
+        this.address = address;
+    }
+
+    public synchronized void start() throws IOException {
+        if (destination != null) {
+            return;
+        }
+        if (provider == null) {
+            provider = bus.getExtension(PrometheusMetricsProvider.class);
+            if (provider == null) {
+                provider = new PrometheusMetricsProvider(bus);
+            }
+        }
+        DestinationFactoryManager dfm = bus.getExtension(DestinationFactoryManager.class);
+        DestinationFactory df = dfm.getDestinationFactoryForUri(address);
+        if (df == null) {
+            throw new IOException("No destination factory for " + address);
+        }
+        EndpointInfo ei = new EndpointInfo();
+        ei.setAddress(address);
+        destination = df.getDestination(ei, bus);
+        destination.setMessageObserver(this);
+    }
+
+    public synchronized void stop() {
+        if (destination != null) {
+            destination.setMessageObserver(null);
+            destination.shutdown();
+            destination = null;
+        }
+    }
+
+    public void onMessage(Message message) {
+        Exchange exchange = message.getExchange();
+        if (exchange == null) {
+            exchange = new ExchangeImpl();
+            exchange.setInMessage(message);
+            message.setExchange(exchange);
+        }
+        exchange.put(Bus.class, bus);
+        try {
+            Conduit backChannel = destination.getBackChannel(message);
+            if (backChannel == null) {
+                return;
+            }
+            exchange.setConduit(backChannel);
+            Message out = new MessageImpl();
+            out.setExchange(exchange);
+            exchange.setOutMessage(out);
+            out.put(Message.RESPONSE_CODE, 200);
+            out.put(Message.CONTENT_TYPE, CONTENT_TYPE);
+            backChannel.prepare(out);
+            OutputStream os = out.getContent(OutputStream.class);
+            Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+            provider.write(w);
+            backChannel.close(out);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not write the metrics to " + address, ex);
+        }
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public PrometheusMetricsProvider getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest extends Assert {
+    
+    @Test
+    public void testBucketBoundsAreInclusive() {
+        LatencyHistogram h = new LatencyHistogram(new double[] {0.001, 0.01});
+        h.record(TimeUnit.MILLISECONDS.toNanos(1));
+        h.record(TimeUnit.MILLISECONDS.toNanos(1) + 1);
+        h.record(TimeUnit.MILLISECONDS.toNanos(10));
+        h.record(TimeUnit.SECONDS.toNanos(1));
+        assertArrayEquals(new long[] {1, 3, 4}, h.getCumulativeCounts());
+        assertEquals(4, h.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1012) + 1, h.getSumInNanos());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnorderedBounds() {
+        new LatencyHistogram(new double[] {0.1, 0.01});
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.prometheus;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.FaultMode;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrometheusExporterTest extends Assert {
+    private static final String LABELS = "type=\"server\",service=\"{urn:test}Greeter\",port=\"GreeterPort\"";
+    
+    private IMocksControl control;
+    private Endpoint endpoint;
+    private PrometheusMetricsProvider provider;
+    
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        endpoint = control.createMock(Endpoint.class);
+        Service service = control.createMock(Service.class);
+        EndpointInfo ei = new EndpointInfo();
+        ei.setName(new QName("urn:test", "GreeterPort"));
+        EasyMock.expect(endpoint.getService()).andReturn(service).anyTimes();
+        EasyMock.expect(endpoint.getEndpointInfo()).andReturn(ei).anyTimes();
+        EasyMock.expect(service.getName()).andReturn(new QName("urn:test", "Greeter")).anyTimes();
+        control.replay();
+        provider = new PrometheusMetricsProvider(null);
+    }
+    
+    @Test
+    public void testHistogram() throws Exception {
+        provider.setBuckets(new double[] {0.0005, 0.001, 1});
+        PrometheusMetricsContext ctx = 
+            (PrometheusMetricsContext)provider.createEndpointContext(endpoint, false, null);
+        record(ctx, TimeUnit.MICROSECONDS.toNanos(200), null);
+        record(ctx, TimeUnit.MICROSECONDS.toNanos(800), null);
+        record(ctx, TimeUnit.SECONDS.toNanos(3), null);
+        
+        String output = write();
+        assertContains(output, "# TYPE cxf_request_duration_seconds histogram\n");
+        assertContains(output, "cxf_request_duration_seconds_bucket{" + LABELS + ",le=\"0.0005\"} 1\n");
+        assertContains(output, "cxf_request_duration_seconds_bucket{" + LABELS + ",le=\"0.001\"} 2\n");
+        assertContains(output, "cxf_request_duration_seconds_bucket{" + LABELS + ",le=\"1\"} 2\n");
+        assertContains(output, "cxf_request_duration_seconds_bucket{" + LABELS + ",le=\"+Inf\"} 3\n");
+        assertContains(output, "cxf_request_duration_seconds_count{" + LABELS + "} 3\n");
+        assertContains(output, "cxf_request_duration_seconds_sum{" + LABELS + "} 3.001\n");
+    }
+    
+    @Test
+    public void testCounters() throws Exception {
+        PrometheusMetricsContext ctx = 
+            (PrometheusMetricsContext)provider.createEndpointContext(endpoint, false, null);
+        for (int i = 0; i < 3; i++) {
+            ctx.start(new ExchangeImpl());
+        }
+        record(ctx, 1000, null);
+        record(ctx, 1000, FaultMode.RUNTIME_FAULT);
+        
+        String output = write();
+        assertContains(output, "# TYPE cxf_requests_total counter\n");
+        assertContains(output, "cxf_requests_in_flight{" + LABELS + "} 1\n");
+        assertContains(output, "cxf_requests_total{" + LABELS + "} 2\n");
+        assertContains(output, "cxf_faults_total{" + LABELS + ",fault=\"runtime\"} 1\n");
+        assertContains(output, "cxf_faults_total{" + LABELS + ",fault=\"checked_application\"} 0\n");
+        assertContains(output, "cxf_data_read_bytes_total{" + LABELS + "} 20\n");
+        assertContains(output, "cxf_data_written_bytes_total{" + LABELS + "} 40\n");
+    }
+    
+    @Test
+    public void testLabelEscaping() throws Exception {
+        provider.createResourceContext(endpoint, "say\"hi\"", true, "c:\\tmp\nx");
+        
+        String output = write();
+        assertContains(output, "cxf_requests_total{type=\"client\",service=\"{urn:test}Greeter\","
+            + "port=\"GreeterPort\",client=\"c:\\\\tmp\\nx\",operation=\"say\\\"hi\\\"\"} 0\n");
+    }
+    
+    @Test
+    public void testFormatDouble() {
+        assertEquals("0.0005", PrometheusExporter.formatDouble(0.0005));
+        assertEquals("0.0000001", PrometheusExporter.formatDouble(1e-7));
+        assertEquals("2.5", PrometheusExporter.formatDouble(2.5));
+        assertEquals("1", PrometheusExporter.formatDouble(1));
+        assertEquals("10", PrometheusExporter.formatDouble(10));
+        assertEquals("0", PrometheusExporter.formatDouble(0));
+        assertEquals("+Inf", PrometheusExporter.formatDouble(Double.POSITIVE_INFINITY));
+        assertEquals("NaN", PrometheusExporter.formatDouble(Double.NaN));
+    }
+    
+    private static void record(PrometheusMetricsContext ctx, long timeInNS, FaultMode faultMode) {
+        Exchange ex = new ExchangeImpl();
+        if (faultMode != null) {
+            ex.put(FaultMode.class, faultMode);
+        }
+        ctx.stop(timeInNS, 10, 20, ex);
+    }
+    
+    private String write() throws Exception {
+        StringWriter w = new StringWriter();
+        provider.write(w);
+        return w.toString();
+    }
+    
+    private static void assertContains(String output, String expected) {
+        assertTrue("Missing " + expected + " in\n" + output, output.contains(expected));
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.multipart;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.activation.DataHandler;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import org.apache.cxf.attachment.AttachmentDeserializer;
+import org.apache.cxf.attachment.AttachmentImpl;
+import org.apache.cxf.attachment.AttachmentUtil;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.io.CacheSizeExceededException;
+import org.apache.cxf.jaxrs.impl.ProvidersImpl;
+import org.apache.cxf.jaxrs.interceptor.AttachmentInputInterceptor;
+import org.apache.cxf.message.Message;
+
+/**
+ * Provides the parts of an inbound multipart payload one at a time, as they are read 
+ * from the request stream. Unlike {@link MultipartBody}, the parts are never cached: 
+ * the content of a part is only available until the next part is requested, whatever 
+ * has not been read by then is skipped. Consuming every part in turn therefore lets 
+ * large uploads be forwarded or written to disk without buffering the whole payload first.
+ * <p>
+ * It can be used as a resource method parameter:
+ * <pre>
+ * &#64;POST
+ * &#64;Consumes("multipart/form-data")
+ * public void upload(MultipartStream parts) {
+ *     while (parts.hasNext()) {
+ *         Attachment part = parts.next();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public class MultipartStream implements Iterator<Attachment>, Closeable {
+    private final Message message;
+    private final long maxPartSize;
+    private Iterator<org.apache.cxf.message.Attachment> parts;
+    private InputStream currentStream;
+    private Attachment next;
+    private boolean rootPartRead;
+    private boolean partLoaded;
+    
+    public MultipartStream(Message message) {
+        this(message, -1);
+    }
+    
+    /**
+     * @param message the inbound message
+     * @param maxPartSize the maximum number of bytes which can be read from a single part,
+     *        reading more results in 413 WebApplicationException, -1 means no limit.
+     */
+    public MultipartStream(Message message, long maxPartSize) {
+        this.message = message;
+        this.maxPartSize = maxPartSize;
+        if (message.getAttachments() == null) {
+            new AttachmentInputInterceptor().handleMessage(message);
+        }
+    }
+    
+    /**
+     * Checks if there are more parts. The content of the current part is skipped 
+     * if more parts are available.
+     */
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException ex) {
+                throw new WebApplicationException(ex);
+            }
+        }
+        return next != null;
+    }
+    
+    public Attachment next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Attachment a = next;
+        next = null;
+        return a;
+    }
+    
+    /**
+     * Skips the remaining content of the current part and all the parts which have not been read yet
+     */
+    public void close() throws IOException {
+        while (hasNext()) {
+            next();
+        }
+        closeCurrentPart();
+    }
+    
+    private Attachment readNext() throws IOException {
+        closeCurrentPart();
+        if (!rootPartRead) {
+            rootPartRead = true;
+            InputStream is = message.getContent(InputStream.class);
+            if (is == null) {
+                return null;
+            }
+            Map<String, List<String>> headers = 
+                CastUtils.cast((Map<?, ?>)message.get(AttachmentDeserializer.ATTACHMENT_PART_HEADERS));
+            return createPart(AttachmentUtil.createAttachment(is, headers));
+        }
+        if (parts == null) {
+            Collection<org.apache.cxf.message.Attachment> atts = message.getAttachments();
+            if (atts == null) {
+                return null;
+            }
+            parts = atts.iterator();
+        } else if (partLoaded) {
+            // the part has been consumed, removing it from the lazy collection
+            // ensures the attachment deserializer does not try to cache it
+            parts.remove();
+        }
+        partLoaded = parts.hasNext();
+        return partLoaded ? createPart(parts.next()) : null;
+    }
+    
+    private Attachment createPart(org.apache.cxf.message.Attachment a) throws IOException {
+        DataHandler dh = a.getDataHandler();
+        currentStream = dh.getInputStream();
+        InputStream is = maxPartSize < 0 ? currentStream : new LimitedPartInputStream(currentStream, maxPartSize);
+        AttachmentImpl part = new AttachmentImpl(a.getId(), 
+            new DataHandler(new InputStreamDataSource(is, dh.getContentType(), dh.getName())));
+        for (Iterator<String> it = a.getHeaderNames(); it.hasNext();) {
+            String name = it.next();
+            part.setHeader(name, a.getHeader(name));
+        }
+        return new Attachment(part, new ProvidersImpl(message));
+    }
+    
+    private void closeCurrentPart() throws IOException {
+        if (currentStream != null) {
+            // closing the part stream consumes its remaining content
+            currentStream.close();
+            currentStream = null;
+        }
+    }
+    
+    private static class LimitedPartInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long count;
+        
+        LimitedPartInputStream(InputStream is, long maxSize) {
+            super(is);
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                checkSize(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                checkSize(n);
+            }
+            return n;
+        }
+        
+        private void checkSize(int n) {
+            count += n;
+            if (count > maxSize) {
+                throw new WebApplicationException(
+                    new CacheSizeExceededException("Multipart part exceeds the maximum size of " + maxSize), 
+                    Response.Status.REQUEST_ENTITY_TOO_LARGE);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+/**
+ * Determines what happens when a new event is sent to
+ * a sink whose queue is full because the client is slower
+ * than the producer 
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the oldest queued event to make room for the new one
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the new event
+     */
+    DROP_NEWEST,
+    /**
+     * Close the sink, the slow client will have to reconnect
+     */
+    DISCONNECT
+}
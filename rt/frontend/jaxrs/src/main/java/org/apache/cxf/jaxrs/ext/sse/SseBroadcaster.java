@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts the events to all the registered sinks. 
+ * Every {@link SseEventSinkImpl} has its own bounded queue so a slow client
+ * only delays or loses its own events, the event is serialized only once
+ * for all the sinks. The sinks which have been closed or have failed are 
+ * unregistered automatically.  
+ */
+public class SseBroadcaster implements AutoCloseable {
+    private static final SseEvent HEARTBEAT = SseEvent.comment("");
+    
+    private final Set<SseEventSink> sinks = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<SseEventSink>> closeListeners = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<SseEventSink, Throwable>> errorListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private boolean ownScheduler;
+    private ScheduledFuture<?> heartbeat;
+    private volatile boolean closed;
+    
+    public SseBroadcaster() {
+        
+    }
+    
+    /**
+     * @param scheduler the scheduler sending the heartbeats
+     */
+    public SseBroadcaster(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+    
+    public void register(SseEventSink sink) {
+        if (closed) {
+            throw new IllegalStateException("Broadcaster is closed");
+        }
+        sinks.add(sink);
+    }
+    
+    public void onClose(Consumer<SseEventSink> listener) {
+        closeListeners.add(listener);
+    }
+    
+    public void onError(BiConsumer<SseEventSink, Throwable> listener) {
+        errorListeners.add(listener);
+    }
+    
+    public int getSinkCount() {
+        return sinks.size();
+    }
+    
+    /**
+     * Sends the event to all the registered sinks
+     * @param event the event
+     * @return the stage completed once the event has been written to or dropped by all the sinks
+     */
+    public CompletableFuture<?> broadcast(SseEvent event) {
+        if (closed) {
+            throw new IllegalStateException("Broadcaster is closed");
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>(sinks.size());
+        for (SseEventSink sink : sinks) {
+            if (sink.isClosed()) {
+                unregister(sink);
+            } else {
+                futures.add(sink.send(event).toCompletableFuture()
+                            .handle((result, ex) -> afterSend(sink, ex)));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+    
+    /**
+     * Starts sending comment events to the sinks with no queued events
+     * so that the idle connections are not closed by the proxies
+     * @param period the heartbeat period
+     * @param unit the period unit
+     */
+    public synchronized void enableHeartbeat(long period, TimeUnit unit) {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(SseBroadcaster::newHeartbeatThread);
+            ownScheduler = true;
+        }
+        heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, period, period, unit);
+    }
+    
+    void sendHeartbeat() {
+        for (SseEventSink sink : sinks) {
+            if (sink.isClosed()) {
+                unregister(sink);
+            } else if (!(sink instanceof SseEventSinkImpl) || ((SseEventSinkImpl)sink).getQueueSize() == 0) {
+                sink.send(HEARTBEAT).whenComplete((result, ex) -> afterSend(sink, ex));
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+            }
+            if (ownScheduler) {
+                scheduler.shutdownNow();
+            }
+        }
+        for (SseEventSink sink : sinks) {
+            sink.close();
+            unregister(sink);
+        }
+    }
+    
+    private Object afterSend(SseEventSink sink, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+        if (cause != null && !(cause instanceof CancellationException)) {
+            errorListeners.forEach(listener -> listener.accept(sink, cause));
+        }
+        if (sink.isClosed()) {
+            unregister(sink);
+        }
+        return null;
+    }
+    
+    private static Thread newHeartbeatThread(Runnable r) {
+        Thread t = new Thread(r, "sse-heartbeat");
+        t.setDaemon(true);
+        return t;
+    }
+    
+    private void unregister(SseEventSink sink) {
+        if (sinks.remove(sink)) {
+            closeListeners.forEach(listener -> listener.accept(sink));
+        }
+    }
+}
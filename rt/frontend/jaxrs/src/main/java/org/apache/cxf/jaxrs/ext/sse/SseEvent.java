@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.lang.reflect.Type;
+
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Immutable Server-Sent Event, see
+ * <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">Server-Sent Events</a>.
+ * The event data is either written as text or, if it is not a String, 
+ * with the MessageBodyWriter matching the event media type. 
+ */
+public final class SseEvent {
+    public static final MediaType SERVER_SENT_EVENTS_TYPE = new MediaType("text", "event-stream");
+    public static final String SERVER_SENT_EVENTS = "text/event-stream";
+    
+    private final String id;
+    private final String name;
+    private final String comment;
+    private final Long reconnectDelay;
+    private final Object data;
+    private final Class<?> type;
+    private final Type genericType;
+    private final MediaType mediaType;
+    // the serialized event, shared by all the sinks an event is broadcast to
+    private volatile byte[] frame;
+    
+    private SseEvent(Builder b) {
+        this.id = b.id;
+        this.name = b.name;
+        this.comment = b.comment;
+        this.reconnectDelay = b.reconnectDelay;
+        this.data = b.data;
+        this.type = b.type;
+        this.genericType = b.genericType;
+        this.mediaType = b.mediaType;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Creates a comment-only event, typically used as a heartbeat
+     * which keeps idle connections open
+     * @param comment the comment
+     * @return the event
+     */
+    public static SseEvent comment(String comment) {
+        return builder().comment(comment).build();
+    }
+    
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public Long getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    byte[] getFrame() {
+        return frame;
+    }
+    
+    void setFrame(byte[] bytes) {
+        this.frame = bytes;
+    }
+    
+    public static final class Builder {
+        private String id;
+        private String name;
+        private String comment;
+        private Long reconnectDelay;
+        private Object data;
+        private Class<?> type;
+        private Type genericType;
+        private MediaType mediaType = MediaType.TEXT_PLAIN_TYPE;
+        
+        private Builder() {
+            
+        }
+        
+        public Builder id(String value) {
+            this.id = value;
+            return this;
+        }
+        
+        public Builder name(String value) {
+            this.name = value;
+            return this;
+        }
+        
+        public Builder comment(String value) {
+            this.comment = value;
+            return this;
+        }
+        
+        public Builder reconnectDelay(long millis) {
+            this.reconnectDelay = millis;
+            return this;
+        }
+        
+        public Builder mediaType(MediaType value) {
+            this.mediaType = value;
+            return this;
+        }
+        
+        public Builder data(Object value) {
+            return data(value == null ? null : value.getClass(), value);
+        }
+        
+        public Builder data(Class<?> cls, Object value) {
+            return data(cls, cls, value);
+        }
+        
+        public Builder data(Class<?> cls, Type generic, Object value) {
+            this.type = cls;
+            this.genericType = generic;
+            this.data = value;
+            return this;
+        }
+        
+        public SseEvent build() {
+            if (comment == null && data == null) {
+                throw new IllegalArgumentException("Event requires either a comment or data");
+            }
+            return new SseEvent(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Outbound stream of Server-Sent Events. 
+ * Can be injected as a resource method parameter with
+ * {@link javax.ws.rs.core.Context} once {@link SseEventSinkContextProvider}
+ * is registered; the request is then suspended and the method can return
+ * immediately without the connection holding a container thread.
+ */
+public interface SseEventSink extends AutoCloseable {
+    /**
+     * Queues the event for delivery. 
+     * @param event the event
+     * @return the stage completed once the event has been written; it is
+     *         cancelled if the event has been dropped because the client
+     *         is too slow and completed exceptionally if the sink is closed 
+     *         or the write has failed  
+     */
+    CompletionStage<?> send(SseEvent event);
+    
+    boolean isClosed();
+    
+    /**
+     * Closes the sink once the events queued so far have been written
+     */
+    @Override
+    void close();
+}
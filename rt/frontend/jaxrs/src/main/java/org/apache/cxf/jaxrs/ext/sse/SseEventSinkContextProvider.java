@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.container.CompletionCallback;
+
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.jaxrs.ext.ContextProvider;
+import org.apache.cxf.jaxrs.impl.AsyncResponseImpl;
+import org.apache.cxf.jaxrs.utils.ExceptionUtils;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+
+/**
+ * Injects {@link SseEventSink} into resource methods:
+ * <pre>
+ * &#64;GET
+ * &#64;Produces(SseEvent.SERVER_SENT_EVENTS)
+ * public void subscribe(&#64;Context SseEventSink sink) {
+ *     broadcaster.register(sink);
+ * }
+ * </pre>
+ * The invocation is suspended the same way as for an AsyncResponse parameter: the response
+ * headers are written only once the method has returned, so exceptions thrown by the method
+ * are still mapped to error responses, and the response stays open afterwards. 
+ * The events are written with the Servlet 3.1 non-blocking IO, no thread is used while the 
+ * client is not ready for more data.
+ */
+public class SseEventSinkContextProvider implements ContextProvider<SseEventSink> {
+    private int queueCapacity = SseEventSinkImpl.DEFAULT_QUEUE_CAPACITY;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    
+    @Override
+    public SseEventSink createContext(Message message) {
+        HttpServletResponse response = (HttpServletResponse)message.get(AbstractHTTPDestination.HTTP_RESPONSE);
+        if (response == null || message.get(ContinuationProvider.class.getName()) == null) {
+            throw new IllegalStateException("Server-Sent Events require an asynchronous HTTP transport");
+        }
+        return new SseAsyncResponse(message, response, queueCapacity, overflowPolicy).sink;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    /**
+     * Suspends the invocation once the resource method has returned and opens the sink 
+     * at this point, the sink completes the suspended request once it has been closed.
+     */
+    private static class SseAsyncResponse extends AsyncResponseImpl implements CompletionCallback {
+        private final HttpServletResponse response;
+        private final SseEventSinkImpl sink;
+        
+        SseAsyncResponse(Message message, HttpServletResponse response, 
+                         int queueCapacity, OverflowPolicy overflowPolicy) {
+            super(message);
+            this.response = response;
+            try {
+                this.sink = new SseEventSinkImpl(response.getOutputStream(), this::reset, message, 
+                                                 queueCapacity, overflowPolicy);
+            } catch (IOException ex) {
+                throw ExceptionUtils.toInternalServerErrorException(ex, null);
+            }
+            register(this);
+        }
+        
+        @Override
+        public synchronized boolean suspendContinuationIfNeeded() {
+            boolean suspended = super.suspendContinuationIfNeeded();
+            if (suspended) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(SseEvent.SERVER_SENT_EVENTS);
+                response.setCharacterEncoding("UTF-8");
+                response.setHeader("Cache-Control", "no-cache");
+                sink.open();
+            }
+            return suspended;
+        }
+        
+        @Override
+        public void onComplete(Throwable throwable) {
+            // the request has been completed or has failed in the container
+            if (!sink.isClosed()) {
+                sink.abort(throwable != null ? throwable : new IllegalStateException("Request has completed"));
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.jaxrs.provider.ServerProviderFactory;
+import org.apache.cxf.message.Message;
+
+/**
+ * SseEventSink which queues the events and writes them with the Servlet 3.1 non-blocking IO.
+ * The events are written only while the stream is ready for more data, the rest of the queue 
+ * is drained by the container once the client has caught up, so no thread ever blocks on 
+ * a slow client. 
+ * The queue is bounded, the {@link OverflowPolicy} decides what to do with 
+ * the events which can not be queued because the client does not keep up.   
+ */
+public class SseEventSinkImpl implements SseEventSink, WriteListener {
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(SseEventSinkImpl.class);
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[]{};
+    
+    private final ServletOutputStream out;
+    private final Runnable onClose;
+    private final Message message;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Deque<QueuedEvent> queue = new ArrayDeque<QueuedEvent>();
+    private boolean opened;
+    private boolean flushPending;
+    private boolean streamClosed;
+    private volatile boolean closed;
+    
+    public SseEventSinkImpl(ServletOutputStream out, Runnable onClose) {
+        this(out, onClose, null, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+    
+    /**
+     * @param out the stream the events are written to
+     * @param onClose the callback completing the response once the stream has been closed, can be null
+     * @param message the request message, used to find MessageBodyWriters for the non String event data,
+     *                can be null
+     * @param queueCapacity the maximum number of events waiting to be written
+     * @param overflowPolicy what to do when the queue is full
+     */
+    public SseEventSinkImpl(ServletOutputStream out, 
+                            Runnable onClose,
+                            Message message,
+                            int queueCapacity,
+                            OverflowPolicy overflowPolicy) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.out = out;
+        this.onClose = onClose;
+        this.message = message;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    /**
+     * Registers the sink as the WriteListener of the stream and commits the response headers.
+     * The events sent before are kept in the queue until the sink is opened, the request must
+     * have been put into the asynchronous mode.
+     */
+    public void open() {
+        List<QueuedEvent> written = new ArrayList<QueuedEvent>();
+        Throwable failure;
+        synchronized (this) {
+            if (opened) {
+                return;
+            }
+            opened = true;
+            flushPending = true;
+            out.setWriteListener(this);
+            failure = writeQueued(written);
+        }
+        completeWritten(written, failure);
+    }
+    
+    @Override
+    public CompletionStage<?> send(SseEvent event) {
+        CompletableFuture<Void> future = new CompletableFuture<Void>();
+        byte[] frame;
+        try {
+            frame = toFrame(event);
+        } catch (IOException | RuntimeException ex) {
+            future.completeExceptionally(ex);
+            return future;
+        }
+        QueuedEvent queued = new QueuedEvent(frame, future);
+        QueuedEvent dropped = null;
+        boolean rejected = false;
+        synchronized (this) {
+            if (closed) {
+                rejected = true;
+            } else if (queue.size() < queueCapacity) {
+                queue.addLast(queued);
+            } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                dropped = queue.pollFirst();
+                queue.addLast(queued);
+            } else {
+                dropped = queued;
+            }
+        }
+        if (rejected) {
+            future.completeExceptionally(new IllegalStateException("Sink is closed"));
+        } else if (dropped != null) {
+            dropped.future.cancel(false);
+            if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                // the pending write is not waited for, completing the response aborts it 
+                LOG.fine("Disconnecting the slow Server-Sent Events client");
+                abort(new IllegalStateException("Slow client has been disconnected"));
+                return future;
+            }
+        }
+        onWritePossible();
+        return future;
+    }
+    
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        onWritePossible();
+    }
+    
+    /**
+     * @return the number of events waiting to be written
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+    
+    @Override
+    public void onWritePossible() {
+        List<QueuedEvent> written = new ArrayList<QueuedEvent>();
+        Throwable failure;
+        synchronized (this) {
+            if (!opened) {
+                return;
+            }
+            failure = writeQueued(written);
+        }
+        completeWritten(written, failure);
+    }
+    
+    @Override
+    public void onError(Throwable t) {
+        LOG.log(Level.FINE, "Server-Sent Events client has disconnected", t);
+        abort(t);
+    }
+    
+    /**
+     * Aborts the sink, the queued events are failed and the response is completed 
+     * without waiting for the pending write.
+     */
+    public void abort(Throwable cause) {
+        List<QueuedEvent> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<QueuedEvent>(queue);
+            queue.clear();
+        }
+        pending.forEach(queued -> queued.future.completeExceptionally(cause));
+        closeStream();
+    }
+    
+    private Throwable writeQueued(List<QueuedEvent> written) {
+        try {
+            while (!streamClosed && out.isReady()) {
+                QueuedEvent queued = queue.peekFirst();
+                if (queued != null) {
+                    // a failed event stays in the queue and is failed by abort
+                    out.write(queued.frame);
+                    written.add(queue.pollFirst());
+                    flushPending = true;
+                } else if (flushPending) {
+                    flushPending = false;
+                    out.flush();
+                } else {
+                    break;
+                }
+            }
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            return ex;
+        }
+    }
+    
+    private void completeWritten(List<QueuedEvent> written, Throwable failure) {
+        written.forEach(queued -> queued.future.complete(null));
+        if (failure != null) {
+            onError(failure);
+        } else if (closed && isDrained()) {
+            closeStream();
+        }
+    }
+    
+    private synchronized boolean isDrained() {
+        // the stream is closed only once the last write has completed 
+        return opened && queue.isEmpty() && !flushPending && out.isReady();
+    }
+    
+    private void closeStream() {
+        synchronized (this) {
+            if (streamClosed || !opened) {
+                // an unopened sink is closed by open() once the headers have been written
+                return;
+            }
+            streamClosed = true;
+        }
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+    
+    private byte[] toFrame(SseEvent event) throws IOException {
+        byte[] frame = event.getFrame();
+        if (frame == null) {
+            frame = writeFrame(event);
+            event.setFrame(frame);
+        }
+        return frame;
+    }
+    
+    private byte[] writeFrame(SseEvent event) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (event.getComment() != null) {
+            writeField(sb, "", event.getComment());
+        }
+        if (event.getName() != null) {
+            writeField(sb, "event", event.getName());
+        }
+        if (event.getId() != null) {
+            writeField(sb, "id", event.getId());
+        }
+        if (event.getReconnectDelay() != null) {
+            writeField(sb, "retry", event.getReconnectDelay().toString());
+        }
+        if (event.getData() != null) {
+            writeField(sb, "data", writeData(event));
+        }
+        sb.append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private String writeData(SseEvent event) throws IOException {
+        Object data = event.getData();
+        if (data instanceof String || message == null) {
+            return data.toString();
+        }
+        MessageBodyWriter<Object> writer = (MessageBodyWriter<Object>)ServerProviderFactory.getInstance(message)
+            .createMessageBodyWriter(event.getType(), event.getGenericType(), NO_ANNOTATIONS, 
+                                     event.getMediaType(), message);
+        if (writer == null) {
+            throw new IOException("No MessageBodyWriter for " + event.getType().getName() 
+                + " and " + event.getMediaType() + " is available");
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writer.writeTo(data, event.getType(), event.getGenericType(), NO_ANNOTATIONS, 
+                       event.getMediaType(), new MultivaluedHashMap<String, Object>(), bos);
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+    
+    private static void writeField(StringBuilder sb, String name, String value) {
+        // multi-line values are split into several fields with the same name
+        for (String line : value.split("\r\n|\r|\n", -1)) {
+            sb.append(name).append(':');
+            if (!line.isEmpty()) {
+                sb.append(' ').append(line);
+            }
+            sb.append('\n');
+        }
+    }
+    
+    private static class QueuedEvent {
+        private final byte[] frame;
+        private final CompletableFuture<Void> future;
+        
+        QueuedEvent(byte[] frame, CompletableFuture<Void> future) {
+            this.frame = frame;
+            this.future = future;
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class OperationResourceInfo {
     private Type[] actualInGenericParamTypes;
     private Annotation[][] actualInParamAnnotations;
     private Annotation[] actualOutParamAnnotations;
+    private volatile ParameterInjectionPlan injectionPlan;
     
     public OperationResourceInfo(Method mInvoke, ClassResourceInfo cri) {
         this(mInvoke, mInvoke, cri);
@@ -296,5 +297,13 @@ public class OperationResourceInfo {
     public Annotation[] getOutAnnotations() {
         return actualOutParamAnnotations;
     }
+    public ParameterInjectionPlan getParameterInjectionPlan() {
+        ParameterInjectionPlan plan = injectionPlan;
+        if (plan == null) {
+            plan = new ParameterInjectionPlan(this);
+            injectionPlan = plan;
+        }
+        return plan;
+    }
     
 }
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.model;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+import org.apache.cxf.jaxrs.utils.ParameterExtractor;
+
+/**
+ * Keeps the per-parameter injection metadata of a resource method which
+ * only depends on the method signature and the resource class: the actual
+ * parameter classes and generic types with the class type variables resolved,
+ * the parameter annotations and the {@link ParameterExtractor} reading each
+ * parameter from the request. It is computed once per
+ * {@link OperationResourceInfo} instead of on every request.
+ */
+public final class ParameterInjectionPlan {
+    private static final Annotation[] EMPTY_ANNOTATIONS = new Annotation[0];
+    
+    private final Class<?>[] paramClasses;
+    private final Type[] genericParamTypes;
+    private final Annotation[][] paramAnns;
+    private final ParameterExtractor[] extractors;
+    
+    ParameterInjectionPlan(OperationResourceInfo ori) {
+        Class<?>[] parameterTypes = ori.getInParameterTypes();
+        Type[] genericParameterTypes = ori.getInGenericParameterTypes();
+        Annotation[][] anns = ori.getInParameterAnnotations();
+        Class<?> serviceClass = ori.getClassResourceInfo().getServiceClass();
+        
+        paramClasses = new Class<?>[parameterTypes.length];
+        genericParamTypes = new Type[parameterTypes.length];
+        paramAnns = new Annotation[parameterTypes.length][];
+        extractors = new ParameterExtractor[parameterTypes.length];
+        List<Parameter> params = ori.getParameters();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Type genericParam = InjectionUtils.processGenericTypeIfNeeded(
+                serviceClass, parameterTypes[i], genericParameterTypes[i]);
+            paramClasses[i] = InjectionUtils.updateParamClassToTypeIfNeeded(parameterTypes[i], genericParam);
+            genericParamTypes[i] = genericParam;
+            paramAnns[i] = anns == null ? EMPTY_ANNOTATIONS : anns[i];
+            if (i < params.size()) {
+                extractors[i] = ParameterExtractor.create(ori, params.get(i), 
+                                                          paramClasses[i], genericParam, paramAnns[i]);
+            }
+        }
+    }
+    
+    public int size() {
+        return paramClasses.length;
+    }
+    
+    public Class<?> getParameterClass(int index) {
+        return paramClasses[index];
+    }
+    
+    public Type getGenericParameterType(int index) {
+        return genericParamTypes[index];
+    }
+    
+    public Annotation[] getParameterAnnotations(int index) {
+        return paramAnns[index];
+    }
+    
+    public ParameterExtractor getParameterExtractor(int index) {
+        return extractors[index];
+    }
+}
@@ -60,6 +60,7 @@ import javax.xml.transform.Source;
 import org.w3c.dom.Document;
 
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.jaxrs.ext.CacheableSelection;
 import org.apache.cxf.jaxrs.ext.MessageContext;
 import org.apache.cxf.jaxrs.ext.Nullable;
 import org.apache.cxf.jaxrs.ext.xml.XMLInstruction;
@@ -78,6 +79,7 @@ import org.apache.cxf.staxutils.DepthExceededStaxException;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.staxutils.transform.TransformUtils;
 
+@CacheableSelection
 @Produces({"application/xml", "application/*+xml", "text/xml" })
 @Consumes({"application/xml", "application/*+xml", "text/xml" })
 @Provider
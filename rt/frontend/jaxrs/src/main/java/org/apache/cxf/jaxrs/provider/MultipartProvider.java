@@ -50,6 +50,7 @@ import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 
+import org.apache.cxf.attachment.AttachmentDeserializer;
 import org.apache.cxf.attachment.AttachmentUtil;
 import org.apache.cxf.attachment.ByteDataSource;
 import org.apache.cxf.common.i18n.BundleUtils;
@@ -62,6 +63,7 @@ import org.apache.cxf.jaxrs.ext.multipart.ContentDisposition;
 import org.apache.cxf.jaxrs.ext.multipart.InputStreamDataSource;
 import org.apache.cxf.jaxrs.ext.multipart.Multipart;
 import org.apache.cxf.jaxrs.ext.multipart.MultipartBody;
+import org.apache.cxf.jaxrs.ext.multipart.MultipartStream;
 import org.apache.cxf.jaxrs.impl.MetadataMap;
 import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.ExceptionUtils;
@@ -87,6 +89,7 @@ public class MultipartProvider extends AbstractConfigurableProvider
         WELL_KNOWN_MULTIPART_CLASSES = new HashSet<Class<?>>();
         WELL_KNOWN_MULTIPART_CLASSES.add(MultipartBody.class);
         WELL_KNOWN_MULTIPART_CLASSES.add(Attachment.class);
+        WELL_KNOWN_MULTIPART_CLASSES.add(MultipartStream.class);
         
         MULTIPART_SUBTYPES = new HashSet<String>();
         MULTIPART_SUBTYPES.add("form-data");
@@ -145,6 +148,14 @@ public class MultipartProvider extends AbstractConfigurableProvider
                            MultivaluedMap<String, String> headers, InputStream is) 
         throws IOException, WebApplicationException {
         checkContentLength();
+        if (MultipartStream.class == (Class<?>)c) {
+            return new MultipartStream(JAXRSUtils.getCurrentMessage(), getMaxPartSize());
+        }
+        return readFromAttachments(c, t, anns, mt);
+    }
+    
+    private Object readFromAttachments(Class<Object> c, Type t, Annotation[] anns, MediaType mt) 
+        throws IOException {
         List<Attachment> infos = AttachmentUtils.getAttachments(
                 mc, attachmentDir, attachmentThreshold, attachmentMaxSize);
         
@@ -193,6 +204,12 @@ public class MultipartProvider extends AbstractConfigurableProvider
         
     }
     
+    private long getMaxPartSize() {
+        Object maxSize = attachmentMaxSize != null 
+            ? attachmentMaxSize : mc.getContextualProperty(AttachmentDeserializer.ATTACHMENT_MAX_SIZE);
+        return maxSize == null ? -1 : Long.parseLong(maxSize.toString());
+    }
+    
     private Object getAttachmentCollection(Type t, List<Attachment> infos, Annotation[] anns) throws IOException {
         Class<?> actual = getActualType(t, 0);
         if (Attachment.class.isAssignableFrom(actual)) {
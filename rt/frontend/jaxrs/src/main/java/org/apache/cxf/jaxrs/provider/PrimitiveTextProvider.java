@@ -34,10 +34,12 @@ import javax.ws.rs.ext.MessageBodyWriter;
 
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.ext.CacheableSelection;
 import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.utils.HttpUtils;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 
+@CacheableSelection
 @Consumes("text/plain")
 @Produces("text/plain")
 public class PrimitiveTextProvider<T> extends AbstractConfigurableProvider
@@ -27,6 +27,7 @@ import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -37,6 +38,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import javax.ws.rs.Produces;
@@ -60,6 +63,7 @@ import org.apache.cxf.common.util.ClassHelper;
 import org.apache.cxf.common.util.PropertyUtils;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.jaxrs.ext.CacheableSelection;
 import org.apache.cxf.jaxrs.ext.ContextProvider;
 import org.apache.cxf.jaxrs.impl.MetadataMap;
 import org.apache.cxf.jaxrs.impl.ReaderInterceptorMBR;
@@ -91,6 +95,7 @@ public abstract class ProviderFactory {
     private static final String JAXB_PROVIDER_NAME = "org.apache.cxf.jaxrs.provider.JAXBElementProvider";
     private static final String JSON_PROVIDER_NAME = "org.apache.cxf.jaxrs.provider.json.JSONProvider";
     private static final String BUS_PROVIDERS_ALL = "org.apache.cxf.jaxrs.bus.providers";
+    private static final int MAX_SELECTION_CACHE_SIZE = 1000;
     
     protected Map<NameKey, ProviderInfo<ReaderInterceptor>> readerInterceptors = 
         new NameKeyMap<ProviderInfo<ReaderInterceptor>>(true);
@@ -109,6 +114,18 @@ public abstract class ProviderFactory {
     private List<ProviderInfo<ParamConverterProvider>> paramConverters =
         new ArrayList<ProviderInfo<ParamConverterProvider>>(1);
     private boolean paramConverterContextsAvailable;
+    
+    private Map<SelectionKey, ProviderInfo<MessageBodyReader<?>>> readerSelections = 
+        new ConcurrentHashMap<SelectionKey, ProviderInfo<MessageBodyReader<?>>>();
+    private Map<SelectionKey, ProviderInfo<MessageBodyWriter<?>>> writerSelections = 
+        new ConcurrentHashMap<SelectionKey, ProviderInfo<MessageBodyWriter<?>>>();
+    private Map<SelectionKey, List<ProviderInfo<ContextResolver<?>>>> contextResolverSelections = 
+        new ConcurrentHashMap<SelectionKey, List<ProviderInfo<ContextResolver<?>>>>();
+    private Map<Set<String>, List<ProviderInfo<ReaderInterceptor>>> readerInterceptorChains = 
+        new ConcurrentHashMap<Set<String>, List<ProviderInfo<ReaderInterceptor>>>();
+    private Map<Set<String>, List<ProviderInfo<WriterInterceptor>>> writerInterceptorChains = 
+        new ConcurrentHashMap<Set<String>, List<ProviderInfo<WriterInterceptor>>>();
+    private final AtomicInteger selectionCachesVersion = new AtomicInteger();
     // List of injected providers
     private Collection<ProviderInfo<?>> injectedProviders = 
         new LinkedList<ProviderInfo<?>>();
@@ -189,7 +206,34 @@ public abstract class ProviderFactory {
         if (contextCls == null) {
             return null;
         }
+        // the selection only depends on the resolver classes so it can always be cached
+        SelectionKey key = new SelectionKey(contextCls, null, null, type, 0);
+        List<ProviderInfo<ContextResolver<?>>> selected = contextResolverSelections.get(key);
+        if (selected == null) {
+            selected = selectContextResolvers(contextCls, type);
+            cacheSelection(contextResolverSelections, key, selected);
+        }
+        if (selected.isEmpty()) {
+            return null;
+        }
         List<ContextResolver<T>> candidates = new LinkedList<ContextResolver<T>>();
+        for (ProviderInfo<ContextResolver<?>> cr : selected) {
+            injectContextValues(cr, m);
+            candidates.add((ContextResolver<T>)cr.getProvider());
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        } else {
+            Collections.sort(candidates, new ClassComparator());
+            return new ContextResolverProxy<T>(candidates);
+        }
+        
+    }
+    
+    private List<ProviderInfo<ContextResolver<?>>> selectContextResolvers(Class<?> contextCls, 
+                                                                        MediaType type) {
+        List<ProviderInfo<ContextResolver<?>>> candidates = 
+            new ArrayList<ProviderInfo<ContextResolver<?>>>(1);
         for (ProviderInfo<ContextResolver<?>> cr : contextResolvers) {
             Type[] types = cr.getProvider().getClass().getGenericInterfaces();
             for (Type t : types) {
@@ -203,23 +247,14 @@ public abstract class ProviderFactory {
                             List<MediaType> mTypes = JAXRSUtils.getProduceTypes(
                                  cr.getProvider().getClass().getAnnotation(Produces.class));
                             if (JAXRSUtils.intersectMimeTypes(mTypes, type).size() > 0) {
-                                injectContextValues(cr, m);
-                                candidates.add((ContextResolver<T>)cr.getProvider());
+                                candidates.add(cr);
                             }
                         }
                     }
                 }
             }
         }
-        if (candidates.size() == 0) {
-            return null;
-        } else if (candidates.size() == 1) {
-            return candidates.get(0);
-        } else {
-            Collections.sort(candidates, new ClassComparator());
-            return new ContextResolverProxy<T>(candidates);
-        }
-        
+        return candidates.isEmpty() ? Collections.<ProviderInfo<ContextResolver<?>>>emptyList() : candidates;
     }
     
     @SuppressWarnings("unchecked")
@@ -341,15 +376,14 @@ public abstract class ProviderFactory {
                                                       parameterAnnotations,
                                                       mediaType,
                                                       m);
-        int size = readerInterceptors.size();
-        if (mr != null || size > 0) {
+        List<ProviderInfo<ReaderInterceptor>> readers = 
+            getBoundFilters(readerInterceptors, names, readerInterceptorChains);
+        if (mr != null || !readers.isEmpty()) {
             ReaderInterceptor mbrReader = new ReaderInterceptorMBR(mr, m.getExchange().getInMessage());
             
             List<ReaderInterceptor> interceptors = null;
-            if (size > 0) {
-                interceptors = new ArrayList<ReaderInterceptor>(size + 1);
-                List<ProviderInfo<ReaderInterceptor>> readers =
-                    getBoundFilters(readerInterceptors, names);
+            if (!readers.isEmpty()) {
+                interceptors = new ArrayList<ReaderInterceptor>(readers.size() + 1);
                 for (ProviderInfo<ReaderInterceptor> p : readers) {
                     injectContextValues(p, m);
                     interceptors.add(p.getProvider());
@@ -376,8 +410,9 @@ public abstract class ProviderFactory {
                                                       parameterAnnotations,
                                                       mediaType,
                                                       m);
-        int size = writerInterceptors.size();
-        if (mw != null || size > 0) {
+        List<ProviderInfo<WriterInterceptor>> writers = 
+            getBoundFilters(writerInterceptors, names, writerInterceptorChains);
+        if (mw != null || !writers.isEmpty()) {
             
             @SuppressWarnings({
                 "unchecked", "rawtypes"
@@ -385,10 +420,8 @@ public abstract class ProviderFactory {
             WriterInterceptor mbwWriter = new WriterInterceptorMBW((MessageBodyWriter)mw, m);
               
             List<WriterInterceptor> interceptors = null;
-            if (size > 0) {
-                interceptors = new ArrayList<WriterInterceptor>(size + 1);
-                List<ProviderInfo<WriterInterceptor>> writers =
-                    getBoundFilters(writerInterceptors, names);
+            if (!writers.isEmpty()) {
+                interceptors = new ArrayList<WriterInterceptor>(writers.size() + 1);
                 for (ProviderInfo<WriterInterceptor> p : writers) {
                     injectContextValues(p, m);
                     interceptors.add(p.getProvider());
@@ -412,9 +445,24 @@ public abstract class ProviderFactory {
                                                             Annotation[] annotations,
                                                             MediaType mediaType,
                                                             Message m) {
+        SelectionKey key = new SelectionKey(type, genericType, annotations, mediaType, 
+                                            getIgnoreTypeVariablesOption(m));
+        ProviderInfo<MessageBodyReader<?>> selected = readerSelections.get(key);
+        if (selected != null) {
+            injectSelectedProvider(selected, m);
+            return (MessageBodyReader<T>)selected.getProvider();
+        }
+        boolean cacheable = true;
         for (ProviderInfo<MessageBodyReader<?>> ep : messageReaders) {
+            if (!consumesMediaType(ep, mediaType)) {
+                continue;
+            }
+            cacheable = cacheable && isSelectionCacheable(ep);
             if (matchesReaderCriterias(ep, type, genericType, annotations, mediaType, m)
                 && handleMapper(ep, type, m, MessageBodyReader.class, false)) {
+                if (cacheable) {
+                    cacheSelection(readerSelections, key, ep);
+                }
                 return (MessageBodyReader<T>)ep.getProvider();
             }
         }     
@@ -427,15 +475,65 @@ public abstract class ProviderFactory {
                                                             Annotation[] annotations,
                                                             MediaType mediaType,
                                                             Message m) {
+        SelectionKey key = new SelectionKey(type, genericType, annotations, mediaType, 
+                                            getIgnoreTypeVariablesOption(m));
+        ProviderInfo<MessageBodyWriter<?>> selected = writerSelections.get(key);
+        if (selected != null) {
+            injectSelectedProvider(selected, m);
+            return (MessageBodyWriter<T>)selected.getProvider();
+        }
+        boolean cacheable = true;
         for (ProviderInfo<MessageBodyWriter<?>> ep : messageWriters) {
+            if (!producesMediaType(ep, mediaType)) {
+                continue;
+            }
+            cacheable = cacheable && isSelectionCacheable(ep);
             if (matchesWriterCriterias(ep, type, genericType, annotations, mediaType, m)
                 && handleMapper(ep, type, m, MessageBodyWriter.class, false)) {
+                if (cacheable) {
+                    cacheSelection(writerSelections, key, ep);
+                }
                 return (MessageBodyWriter<T>)ep.getProvider();
             }
         }
         return null;
     }
     
+    private void injectSelectedProvider(ProviderInfo<?> pi, Message m) {
+        if (m != null && m.get(ACTIVE_JAXRS_PROVIDER_KEY) != pi.getProvider()) {
+            injectContextValues(pi, m);
+        }
+    }
+    
+    protected boolean isSelectionCacheable(ProviderInfo<?> pi) {
+        return ClassHelper.getRealClass(bus, pi.getProvider()).isAnnotationPresent(CacheableSelection.class);
+    }
+    
+    protected static int getIgnoreTypeVariablesOption(Message m) {
+        return m != null && MessageUtils.isTrue(m.getContextualProperty(IGNORE_TYPE_VARIABLES)) ? 1 : 0;
+    }
+    
+    protected static <K, V> void cacheSelection(Map<K, V> cache, K key, V value) {
+        if (cache.size() < MAX_SELECTION_CACHE_SIZE) {
+            cache.put(key, value);
+        }
+    }
+    
+    /**
+     * Drops the remembered provider selections, needs to be called whenever 
+     * the registered providers or their order change.
+     */
+    protected void clearSelectionCaches() {
+        // bumped before the caches are cleared so that a chain resolved concurrently
+        // from the old providers is not kept, see getBoundFilters
+        selectionCachesVersion.incrementAndGet();
+        readerSelections.clear();
+        writerSelections.clear();
+        contextResolverSelections.clear();
+        readerInterceptorChains.clear();
+        writerInterceptorChains.clear();
+    }
+    
     protected void setBusProviders() {
         List<Object> extensions = new LinkedList<Object>(); 
         final String alreadySetProp = "bus.providers.set." + this.hashCode();
@@ -509,6 +607,7 @@ public abstract class ProviderFactory {
         sortReaders();
         sortWriters();
         sortContextResolvers();
+        clearSelectionCaches();
         
         mapInterceptorFilters(readerInterceptors, readInts, ReaderInterceptor.class, true);
         mapInterceptorFilters(writerInterceptors, writeInts, WriterInterceptor.class, true);
@@ -634,6 +733,26 @@ public abstract class ProviderFactory {
     
     
     
+    private boolean consumesMediaType(ProviderInfo<MessageBodyReader<?>> pi, MediaType mediaType) {
+        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderConsumeTypes(pi.getProvider());
+        
+        List<MediaType> availableMimeTypes = 
+            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType), supportedMediaTypes, false);
+
+        return availableMimeTypes.size() != 0;
+    }
+    
+    private boolean producesMediaType(ProviderInfo<MessageBodyWriter<?>> pi, MediaType mediaType) {
+        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderProduceTypes(pi.getProvider());
+        
+        List<MediaType> availableMimeTypes = 
+            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType),
+                                          supportedMediaTypes, false);
+
+        return availableMimeTypes.size() != 0;
+    }
+    
+    // the media type has already been checked with consumesMediaType
     private <T> boolean matchesReaderCriterias(ProviderInfo<MessageBodyReader<?>> pi,
                                                Class<T> type,
                                                Type genericType,
@@ -641,20 +760,13 @@ public abstract class ProviderFactory {
                                                MediaType mediaType,
                                                Message m) {
         MessageBodyReader<?> ep = pi.getProvider();
-        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderConsumeTypes(ep);
-        
-        List<MediaType> availableMimeTypes = 
-            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType), supportedMediaTypes, false);
-
-        if (availableMimeTypes.size() == 0) {
-            return false;
-        }
         if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != ep) {
             injectContextValues(pi, m);
         }
         return ep.isReadable(type, genericType, annotations, mediaType);
     }
         
+    // the media type has already been checked with producesMediaType
     private <T> boolean matchesWriterCriterias(ProviderInfo<MessageBodyWriter<?>> pi,
                                                Class<T> type,
                                                Type genericType,
@@ -662,15 +774,6 @@ public abstract class ProviderFactory {
                                                MediaType mediaType,
                                                Message m) {
         MessageBodyWriter<?> ep = pi.getProvider();
-        List<MediaType> supportedMediaTypes = JAXRSUtils.getProviderProduceTypes(ep);
-        
-        List<MediaType> availableMimeTypes = 
-            JAXRSUtils.intersectMimeTypes(Collections.singletonList(mediaType),
-                                          supportedMediaTypes, false);
-
-        if (availableMimeTypes.size() == 0) {
-            return false;
-        }
         if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != ep) {
             injectContextValues(pi, m);
         }
@@ -796,6 +899,7 @@ public abstract class ProviderFactory {
     }
     
     public void clearProviders() {
+        clearSelectionCaches();
         messageReaders.clear();
         messageWriters.clear();
         contextResolvers.clear();
@@ -832,6 +936,40 @@ public abstract class ProviderFactory {
         }
     }
 
+    /**
+     * Returns the filters or interceptors bound to the given names, the sorted chain is
+     * resolved only once for every distinct set of names, typically once per resource method,
+     * and is reused until the registered providers change.
+     */
+    protected <T> List<ProviderInfo<T>> getBoundFilters(final Map<NameKey, ProviderInfo<T>> boundFilters,
+                                                        final Set<String> names,
+                                                        Map<Set<String>, List<ProviderInfo<T>>> chains) {
+        if (boundFilters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> key = names == null ? Collections.<String>emptySet() : names;
+        List<ProviderInfo<T>> chain = chains.get(key);
+        if (chain == null) {
+            int version = selectionCachesVersion.get();
+            key = new HashSet<String>(key);
+            chain = chains.computeIfAbsent(key, k -> Collections.unmodifiableList(
+                new ArrayList<ProviderInfo<T>>(getBoundFilters(boundFilters, names))));
+            if (version != selectionCachesVersion.get()) {
+                // the providers changed while the chain was resolved, it may be stale
+                chains.remove(key, chain);
+            }
+        }
+        return chain;
+    }
+    
+    /**
+     * Returns the current version of the selection caches, it changes every time
+     * clearSelectionCaches is called.
+     */
+    protected int getSelectionCachesVersion() {
+        return selectionCachesVersion.get();
+    }
+    
     protected static <T> List<ProviderInfo<T>> getBoundFilters(Map<NameKey, ProviderInfo<T>> boundFilters,
                                                                           Set<String> names) {
         if (boundFilters.isEmpty()) {
@@ -1073,6 +1211,53 @@ public abstract class ProviderFactory {
         }
     }
     
+    /**
+     * Key of a remembered provider selection, options hold the bits of any 
+     * contextual properties the selection depends upon.
+     */
+    protected static class SelectionKey {
+        private final Class<?> cls;
+        private final Type genericType;
+        private final Annotation[] anns;
+        private final MediaType mediaType;
+        private final int options;
+        private final int hash;
+        
+        public SelectionKey(Class<?> cls, Type genericType, Annotation[] anns, MediaType mediaType,
+                            int options) {
+            this.cls = cls;
+            this.genericType = genericType;
+            this.anns = anns;
+            this.mediaType = mediaType;
+            this.options = options;
+            int h = cls.hashCode();
+            h = 31 * h + (genericType == null ? 0 : genericType.hashCode());
+            h = 31 * h + Arrays.hashCode(anns);
+            h = 31 * h + (mediaType == null ? 0 : mediaType.hashCode());
+            this.hash = 31 * h + options;
+        }
+        
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SelectionKey)) {
+                return false;
+            }
+            SelectionKey other = (SelectionKey)o;
+            return hash == other.hash
+                && cls == other.cls
+                && options == other.options
+                && (genericType == null ? other.genericType == null : genericType.equals(other.genericType))
+                && (mediaType == null ? other.mediaType == null : mediaType.equals(other.mediaType))
+                && Arrays.equals(anns, other.anns);
+        }
+        
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
     protected static class NameKey { 
         private String name;
         private Integer priority;
@@ -1236,6 +1421,7 @@ public abstract class ProviderFactory {
         this.providerComparator = providerComparator;
         sortReaders();
         sortWriters();
+        clearSelectionCaches();
     }
     
 }
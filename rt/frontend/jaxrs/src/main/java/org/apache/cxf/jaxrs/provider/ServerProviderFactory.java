@@ -31,6 +31,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Priorities;
@@ -79,6 +80,8 @@ public final class ServerProviderFactory extends ProviderFactory {
     private static final String MAKE_DEFAULT_WAE_LEAST_SPECIFIC = "default.wae.mapper.least.specific";
     private List<ProviderInfo<ExceptionMapper<?>>> exceptionMappers = 
         new ArrayList<ProviderInfo<ExceptionMapper<?>>>(1);
+    private Map<SelectionKey, ProviderInfo<ExceptionMapper<?>>> exceptionMapperSelections = 
+        new ConcurrentHashMap<SelectionKey, ProviderInfo<ExceptionMapper<?>>>();
     
     private List<ProviderInfo<ContainerRequestFilter>> preMatchContainerRequestFilters = 
         new ArrayList<ProviderInfo<ContainerRequestFilter>>(1);
@@ -86,6 +89,11 @@ public final class ServerProviderFactory extends ProviderFactory {
         new NameKeyMap<ProviderInfo<ContainerRequestFilter>>(true);
     private Map<NameKey, ProviderInfo<ContainerResponseFilter>> containerResponseFilters = 
         new NameKeyMap<ProviderInfo<ContainerResponseFilter>>(false);
+    private volatile List<ProviderInfo<ContainerRequestFilter>> preMatchContainerRequestFilterChain;
+    private Map<Set<String>, List<ProviderInfo<ContainerRequestFilter>>> postMatchContainerRequestFilterChains = 
+        new ConcurrentHashMap<Set<String>, List<ProviderInfo<ContainerRequestFilter>>>();
+    private Map<Set<String>, List<ProviderInfo<ContainerResponseFilter>>> containerResponseFilterChains = 
+        new ConcurrentHashMap<Set<String>, List<ProviderInfo<ContainerResponseFilter>>>();
     private RequestPreprocessor requestPreprocessor;
     private ApplicationInfo application;
     private Set<DynamicFeature> dynamicFeatures = new LinkedHashSet<DynamicFeature>();
@@ -128,37 +136,38 @@ public final class ServerProviderFactory extends ProviderFactory {
     }
     
     public List<ProviderInfo<ContainerRequestFilter>> getPreMatchContainerRequestFilters() {
-        return getContainerRequestFilters(preMatchContainerRequestFilters, true);
+        List<ProviderInfo<ContainerRequestFilter>> chain = preMatchContainerRequestFilterChain;
+        if (chain == null) {
+            int version = getSelectionCachesVersion();
+            chain = createPreMatchContainerRequestFilterChain();
+            preMatchContainerRequestFilterChain = chain;
+            if (version != getSelectionCachesVersion()) {
+                // the providers changed while the chain was created, it may be stale
+                preMatchContainerRequestFilterChain = null;
+            }
+        }
+        return chain;
     }
     
     public List<ProviderInfo<ContainerRequestFilter>> getPostMatchContainerRequestFilters(Set<String> names) {
-        return getBoundFilters(postMatchContainerRequestFilters, names);
+        return getBoundFilters(postMatchContainerRequestFilters, names, postMatchContainerRequestFilterChains);
         
     }
     
-    private List<ProviderInfo<ContainerRequestFilter>> getContainerRequestFilters(
-        List<ProviderInfo<ContainerRequestFilter>> filters, boolean syncNeeded) {
-        
-        if (wadlGenerator == null) { 
-            return filters;
-        }
-        if (filters.size() == 0) {
-            return Collections.singletonList(wadlGenerator);
-        } else if (!syncNeeded) {
-            filters.add(0, wadlGenerator);
-            return filters;
-        } else {
-            synchronized (filters) {
-                if (filters.get(0) != wadlGenerator) {
-                    filters.add(0, wadlGenerator);
-                }
-            }
-            return filters;
+    private List<ProviderInfo<ContainerRequestFilter>> createPreMatchContainerRequestFilterChain() {
+        if (wadlGenerator == null) {
+            return Collections.unmodifiableList(
+                new ArrayList<ProviderInfo<ContainerRequestFilter>>(preMatchContainerRequestFilters));
         }
+        List<ProviderInfo<ContainerRequestFilter>> chain = 
+            new ArrayList<ProviderInfo<ContainerRequestFilter>>(preMatchContainerRequestFilters.size() + 1);
+        chain.add(wadlGenerator);
+        chain.addAll(preMatchContainerRequestFilters);
+        return Collections.unmodifiableList(chain);
     }
     
     public List<ProviderInfo<ContainerResponseFilter>> getContainerResponseFilters(Set<String> names) {
-        return getBoundFilters(containerResponseFilters, names);
+        return getBoundFilters(containerResponseFilters, names, containerResponseFilterChains);
     }
     
     public void addBeanParamInfo(BeanParamInfo bpi) {
@@ -184,6 +193,15 @@ public final class ServerProviderFactory extends ProviderFactory {
     @SuppressWarnings("unchecked")
     public <T extends Throwable> ExceptionMapper<T> createExceptionMapper(Class<?> exceptionType,
                                                                           Message m) {
+        boolean makeDefaultWaeLeastSpecific = 
+            MessageUtils.getContextualBoolean(m, MAKE_DEFAULT_WAE_LEAST_SPECIFIC, false);
+        SelectionKey key = new SelectionKey(exceptionType, null, null, null, 
+            getIgnoreTypeVariablesOption(m) | (makeDefaultWaeLeastSpecific ? 2 : 0));
+        ProviderInfo<ExceptionMapper<?>> selected = exceptionMapperSelections.get(key);
+        if (selected != null) {
+            injectContextValues(selected, m);
+            return (ExceptionMapper<T>) selected.getProvider();
+        }
         List<ProviderInfo<ExceptionMapper<?>>> candidates = new LinkedList<ProviderInfo<ExceptionMapper<?>>>();
         for (ProviderInfo<ExceptionMapper<?>> em : exceptionMappers) {
             if (handleMapper(em, exceptionType, m, ExceptionMapper.class, true)) {
@@ -193,10 +211,10 @@ public final class ServerProviderFactory extends ProviderFactory {
         if (candidates.size() == 0) {
             return null;
         }
-        boolean makeDefaultWaeLeastSpecific = 
-            MessageUtils.getContextualBoolean(m, MAKE_DEFAULT_WAE_LEAST_SPECIFIC, false);
         Collections.sort(candidates, new ExceptionProviderInfoComparator(exceptionType,
                                                                          makeDefaultWaeLeastSpecific));
+        // mappers are matched by their declared exception type only
+        cacheSelection(exceptionMapperSelections, key, candidates.get(0));
         return (ExceptionMapper<T>) candidates.get(0).getProvider();
     }
     
@@ -247,6 +265,16 @@ public final class ServerProviderFactory extends ProviderFactory {
         injectContextProxies(exceptionMappers,
             postMatchContainerRequestFilters.values(), preMatchContainerRequestFilters,
             containerResponseFilters.values());
+        clearSelectionCaches();
+    }
+    
+    @Override
+    protected void clearSelectionCaches() {
+        super.clearSelectionCaches();
+        exceptionMapperSelections.clear();
+        preMatchContainerRequestFilterChain = null;
+        postMatchContainerRequestFilterChains.clear();
+        containerResponseFilterChains.clear();
     }
     
     @Override
@@ -318,6 +346,7 @@ public final class ServerProviderFactory extends ProviderFactory {
         preMatchContainerRequestFilters.clear();
         postMatchContainerRequestFilters.clear();
         containerResponseFilters.clear();
+        clearSelectionCaches();
     }
     
     @Override
@@ -31,8 +31,10 @@ import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 
 import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.ext.CacheableSelection;
 import org.apache.cxf.jaxrs.utils.HttpUtils;
 
+@CacheableSelection
 public class StringTextProvider extends AbstractConfigurableProvider
     implements MessageBodyReader<String>, MessageBodyWriter<String> {
     private int bufferSize = IOUtils.DEFAULT_BUFFER_SIZE;
@@ -109,6 +109,13 @@ public final class InjectionUtils {
     
     private static final String IGNORE_MATRIX_PARAMETERS = "ignore.matrix.parameters";
     
+    private static final ClassValue<StringConverters> STRING_CONVERTERS = new ClassValue<StringConverters>() {
+        @Override
+        protected StringConverters computeValue(Class<?> cls) {
+            return new StringConverters(cls);
+        }
+    };
+    
     private InjectionUtils() {
         
     }
@@ -357,7 +364,6 @@ public final class InjectionUtils {
         return null;
     }
     
-    @SuppressWarnings("unchecked")
     public static <T> T handleParameter(String value, 
                                         boolean decoded,
                                         Class<T> pClass,
@@ -368,6 +374,28 @@ public final class InjectionUtils {
         if (value == null) {
             return null;
         }
+        return handleParameter(value, decoded, pClass, genericType, paramAnns, pType, message,
+                               getParamConverter(pClass, genericType, paramAnns, message));
+    }
+    
+    /**
+     * Converts the parameter value with the given ParamConverter which has already been
+     * resolved for this parameter, null if no ParamConverterProvider supports it.
+     */
+    //CHECKSTYLE:OFF
+    @SuppressWarnings("unchecked")
+    public static <T> T handleParameter(String value, 
+                                        boolean decoded,
+                                        Class<T> pClass,
+                                        Type genericType,
+                                        Annotation[] paramAnns,
+                                        ParameterType pType,
+                                        Message message,
+                                        ParamConverter<?> converter) {
+    //CHECKSTYLE:ON    
+        if (value == null) {
+            return null;
+        }
         if (pType == ParameterType.PATH) {
             if (PathSegment.class.isAssignableFrom(pClass)) {
                 return pClass.cast(new PathSegmentImpl(value, decoded));   
@@ -381,7 +409,7 @@ public final class InjectionUtils {
         
         Object result = null;
         try {
-            result = createFromParameterHandler(value, pClass, genericType, paramAnns, message);
+            result = converter != null ? converter.fromString(value) : null;
         } catch (IllegalArgumentException nfe) {
             throw createParamConversionException(pType, nfe);
         }
@@ -416,28 +444,25 @@ public final class InjectionUtils {
         if (pClass == String.class && !adapterHasToBeUsed) {
             return pClass.cast(value);
         }
+        StringConverters converters = STRING_CONVERTERS.get(cls);
         // check constructors accepting a single String value
-        try {
-            Constructor<?> c = cls.getConstructor(new Class<?>[]{String.class});
-            result = c.newInstance(new Object[]{value});
-        } catch (NoSuchMethodException ex) {
-            // try valueOf
-        } catch (WebApplicationException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            Throwable t = getOrThrowActualException(ex);
-            LOG.severe(new org.apache.cxf.common.i18n.Message("CLASS_CONSTRUCTOR_FAILURE", 
-                                                               BUNDLE, 
-                                                               pClass.getName()).toString());
-            Response r = JAXRSUtils.toResponse(HttpUtils.getParameterFailureStatus(pType));
-            throw ExceptionUtils.toHttpException(t, r);
+        if (converters.constructor != null) {
+            try {
+                result = converters.constructor.newInstance(new Object[]{value});
+            } catch (WebApplicationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                Throwable t = getOrThrowActualException(ex);
+                LOG.severe(new org.apache.cxf.common.i18n.Message("CLASS_CONSTRUCTOR_FAILURE", 
+                                                                   BUNDLE, 
+                                                                   pClass.getName()).toString());
+                Response r = JAXRSUtils.toResponse(HttpUtils.getParameterFailureStatus(pType));
+                throw ExceptionUtils.toHttpException(t, r);
+            }
         }
         if (result == null) {
             // check for valueOf(String) static methods
-            String[] methodNames = cls.isEnum() 
-                ? new String[] {"fromString", "fromValue", "valueOf"} 
-                : new String[] {"valueOf", "fromString"};
-            result = evaluateFactoryMethods(value, pType, result, cls, methodNames);
+            result = evaluateFactoryMethods(value, pType, cls, converters.factoryMethods);
         }
         
         if (adapterHasToBeUsed) {
@@ -473,15 +498,18 @@ public final class InjectionUtils {
                                                     Type genericType,
                                                     Annotation[] anns,
                                                     Message message) {
-        T result = null;
-        if (message != null) {
-            ServerProviderFactory pf = ServerProviderFactory.getInstance(message);
-            ParamConverter<T> pm = pf.createParameterHandler(pClass, genericType, anns, message);
-            if (pm != null) {
-                result = pm.fromString(value);
-            }
+        ParamConverter<T> pm = getParamConverter(pClass, genericType, anns, message);
+        return pm != null ? pm.fromString(value) : null;
+    }
+    
+    public static <T> ParamConverter<T> getParamConverter(Class<T> pClass,
+                                                          Type genericType,
+                                                          Annotation[] anns,
+                                                          Message message) {
+        if (message == null) {
+            return null;
         }
-        return result;
+        return ServerProviderFactory.getInstance(message).createParameterHandler(pClass, genericType, anns, message);
     }
     
     public static void reportServerError(String messageName, String parameter) {
@@ -502,21 +530,24 @@ public final class InjectionUtils {
         throw ExceptionUtils.toInternalServerErrorException(null, r);
     }
 
-    private static Object evaluateFactoryMethods(String value, ParameterType pType, Object result,
-                                                 Class<?> cls, String[] methodNames) {
+    private static Object evaluateFactoryMethods(String value, ParameterType pType, 
+                                                 Class<?> cls, Method[] factoryMethods) {
+        Object result = null;
         Exception factoryMethodEx = null; 
-        for (String mName : methodNames) {
+        for (Method m : factoryMethods) {
             try {
-                result = evaluateFactoryMethod(value, cls, pType, mName);
+                result = cls.cast(m.invoke(null, new Object[]{value}));
                 if (result != null) {
                     factoryMethodEx = null;
                     break;
                 }
+            } catch (IllegalAccessException ex) {
+                // factory method is not accessible: try another
             } catch (Exception ex) {
                 // If it is enum and the method name is "fromValue" then don't throw 
                 // the exception immediately but try the next factory method
                 factoryMethodEx = ex;
-                if (!cls.isEnum() || !"fromValue".equals(mName)) {
+                if (!cls.isEnum() || !"fromValue".equals(m.getName())) {
                     break;
                 }
             }            
@@ -532,25 +563,6 @@ public final class InjectionUtils {
         }
     }
 
-    private static <T> T evaluateFactoryMethod(String value,
-                                               Class<T> pClass,
-                                               ParameterType pType,
-                                               String methodName) 
-        throws InvocationTargetException {
-        try {
-            Method m = pClass.getMethod(methodName, new Class<?>[]{String.class});
-            if (Modifier.isStatic(m.getModifiers())) {
-                return pClass.cast(m.invoke(null, new Object[]{value}));
-            }
-        } catch (NoSuchMethodException ex) {
-            // no luck: try another factory methods
-        } catch (IllegalAccessException ex) {
-            // factory method is not accessible: try another
-        }
-
-        return null;
-    }
-    
     private static Throwable getOrThrowActualException(Throwable ex) {
         Throwable t = ex instanceof InvocationTargetException ? ((InvocationTargetException)ex).getCause() : ex; 
         if (t instanceof WebApplicationException) {    
@@ -1440,4 +1452,40 @@ public final class InjectionUtils {
     public static Object getEntity(Object o) {
         return o instanceof GenericEntity ? ((GenericEntity<?>)o).getEntity() : o;
     }
+    
+    /**
+     * The public constructor accepting a single String value and the static
+     * String factory methods of a parameter class, in the order they are tried;
+     * looked up once per class rather than on every parameter conversion.
+     */
+    private static final class StringConverters {
+        private final Constructor<?> constructor;
+        private final Method[] factoryMethods;
+        
+        StringConverters(Class<?> cls) {
+            Constructor<?> c = null;
+            try {
+                c = cls.getConstructor(new Class<?>[]{String.class});
+            } catch (NoSuchMethodException ex) {
+                // try the factory methods
+            }
+            constructor = c;
+            
+            String[] methodNames = cls.isEnum() 
+                ? new String[] {"fromString", "fromValue", "valueOf"} 
+                : new String[] {"valueOf", "fromString"};
+            List<Method> methods = new ArrayList<Method>(methodNames.length);
+            for (String mName : methodNames) {
+                try {
+                    Method m = cls.getMethod(mName, new Class<?>[]{String.class});
+                    if (Modifier.isStatic(m.getModifiers())) {
+                        methods.add(m);
+                    }
+                } catch (NoSuchMethodException ex) {
+                    // no luck: try another factory methods
+                }
+            }
+            factoryMethods = methods.toArray(new Method[methods.size()]);
+        }
+    }
 }
@@ -129,6 +129,7 @@ import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfoComparator;
 import org.apache.cxf.jaxrs.model.OperationResourceInfoStack;
 import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.model.ParameterInjectionPlan;
 import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.model.ProviderInfo;
 import org.apache.cxf.jaxrs.model.URITemplate;
@@ -764,32 +765,22 @@ public final class JAXRSUtils {
         boolean preferModelParams = paramsInfo.size() > parameterTypes.length 
             && !PropertyUtils.isTrue(message.getContextualProperty("org.apache.cxf.preferMethodParameters"));
         
-        int parameterTypesLengh = preferModelParams ? paramsInfo.size() : parameterTypes.length;
-        
-        Type[] genericParameterTypes = ori.getInGenericParameterTypes();
-        Annotation[][] anns = ori.getInParameterAnnotations();
-        List<Object> params = new ArrayList<Object>(parameterTypesLengh);
-
-        for (int i = 0; i < parameterTypesLengh; i++) {
-            Class<?> param = null;
-            Type genericParam = null;
-            Annotation[] paramAnns = null;
-            if (!preferModelParams) {
-                param = parameterTypes[i]; 
-                genericParam = InjectionUtils.processGenericTypeIfNeeded(
-                    ori.getClassResourceInfo().getServiceClass(), param, genericParameterTypes[i]);
-                param = InjectionUtils.updateParamClassToTypeIfNeeded(param, genericParam);
-                paramAnns = anns == null ? EMPTY_ANNOTATIONS : anns[i];
-            } else {
-                param = paramsInfo.get(i).getJavaType();
-                genericParam = param;
-                paramAnns = EMPTY_ANNOTATIONS;
+        if (!preferModelParams) {
+            ParameterInjectionPlan plan = ori.getParameterInjectionPlan();
+            List<Object> params = new ArrayList<Object>(plan.size());
+            for (int i = 0; i < plan.size(); i++) {
+                params.add(plan.getParameterExtractor(i).extract(values, message));
             }
-            
+            return params;
+        }
+        
+        List<Object> params = new ArrayList<Object>(paramsInfo.size());
+        for (Parameter parameter : paramsInfo) {
+            Class<?> param = parameter.getJavaType();
             Object paramValue = processParameter(param, 
-                                                 genericParam,
-                                                 paramAnns,
-                                                 paramsInfo.get(i), 
+                                                 param,
+                                                 EMPTY_ANNOTATIONS,
+                                                 parameter, 
                                                  values, 
                                                  message,
                                                  ori);
@@ -816,18 +807,11 @@ public final class JAXRSUtils {
                 return new AsyncResponseImpl(message);
             }
             
-            String contentType = (String)message.get(Message.CONTENT_TYPE);
-
-            if (contentType == null) {
-                String defaultCt = (String)message.getContextualProperty(DEFAULT_CONTENT_TYPE);
-                contentType = defaultCt == null ? MediaType.APPLICATION_OCTET_STREAM : defaultCt;
-            }
-
             return readFromMessageBody(parameterClass,
                                        parameterType,
                                        parameterAnns,
                                        is, 
-                                       toMediaType(contentType),
+                                       getRequestContentType(message),
                                        ori,
                                        message);
         } else if (parameter.getType() == ParameterType.CONTEXT) {
@@ -846,6 +830,16 @@ public final class JAXRSUtils {
         }
     }
     
+    static MediaType getRequestContentType(Message message) {
+        String contentType = (String)message.get(Message.CONTENT_TYPE);
+
+        if (contentType == null) {
+            String defaultCt = (String)message.getContextualProperty(DEFAULT_CONTENT_TYPE);
+            contentType = defaultCt == null ? MediaType.APPLICATION_OCTET_STREAM : defaultCt;
+        }
+        return toMediaType(contentType);
+    }
+    
     public static Object createHttpParameterValue(Parameter parameter, 
                                             Class<?> parameterClass, 
                                             Type genericParam,
@@ -898,19 +892,8 @@ public final class JAXRSUtils {
                                              Annotation[] paramAnns,
                                              String defaultValue,
                                              boolean decode) {
-        List<PathSegment> segments = JAXRSUtils.getPathSegments(
-                                      (String)m.get(Message.REQUEST_URI), decode);
-        if (segments.size() > 0) {
-            MultivaluedMap<String, String> params = new MetadataMap<String, String>(); 
-            for (PathSegment ps : segments) {
-                MultivaluedMap<String, String> matrix = ps.getMatrixParameters();
-                for (Map.Entry<String, List<String>> entry : matrix.entrySet()) {
-                    for (String value : entry.getValue()) {                    
-                        params.add(entry.getKey(), value);
-                    }
-                }
-            }
-            
+        MultivaluedMap<String, String> params = readMatrixParams(m, decode);
+        if (params != null) {
             if ("".equals(key)) {
                 return InjectionUtils.handleBean(pClass, paramAnns, params, ParameterType.MATRIX, m, false);
             } else {
@@ -929,12 +912,58 @@ public final class JAXRSUtils {
         return null;
     }
     
+    /**
+     * Collects the matrix parameters of all the request path segments, 
+     * null is returned if the request URI has no segments.
+     */
+    static MultivaluedMap<String, String> readMatrixParams(Message m, boolean decode) {
+        List<PathSegment> segments = JAXRSUtils.getPathSegments(
+                                      (String)m.get(Message.REQUEST_URI), decode);
+        if (segments.isEmpty()) {
+            return null;
+        }
+        MultivaluedMap<String, String> params = new MetadataMap<String, String>(); 
+        for (PathSegment ps : segments) {
+            MultivaluedMap<String, String> matrix = ps.getMatrixParameters();
+            for (Map.Entry<String, List<String>> entry : matrix.entrySet()) {
+                for (String value : entry.getValue()) {                    
+                    params.add(entry.getKey(), value);
+                }
+            }
+        }
+        return params;
+    }
+    
     private static Object processFormParam(Message m, String key, 
                                            Class<?> pClass, Type genericType,
                                            Annotation[] paramAnns,
                                            String defaultValue,
                                            boolean decode) {
         
+        MultivaluedMap<String, String> params = readFormParams(m, decode);
+        
+        if ("".equals(key)) {
+            return InjectionUtils.handleBean(pClass, paramAnns, params, ParameterType.FORM, m, false);
+        } else {
+            List<String> results = params.get(key);
+    
+            return InjectionUtils.createParameterObject(results, 
+                                                        pClass, 
+                                                        genericType,
+                                                        paramAnns,
+                                                        defaultValue,
+                                                        false,
+                                                        ParameterType.FORM,
+                                                        m);
+             
+        }
+    }
+    
+    /**
+     * Returns the form parameters of the request, the request body is read
+     * once and the parameters are kept on the message.
+     */
+    static MultivaluedMap<String, String> readFormParams(Message m, boolean decode) {
         MessageContext mc = new MessageContextImpl(m);
         MediaType mt = mc.getHttpHeaders().getMediaType();
         
@@ -966,22 +995,7 @@ public final class JAXRSUtils {
                 }
             }
         }
-        
-        if ("".equals(key)) {
-            return InjectionUtils.handleBean(pClass, paramAnns, params, ParameterType.FORM, m, false);
-        } else {
-            List<String> results = params.get(key);
-    
-            return InjectionUtils.createParameterObject(results, 
-                                                        pClass, 
-                                                        genericType,
-                                                        paramAnns,
-                                                        defaultValue,
-                                                        false,
-                                                        ParameterType.FORM,
-                                                        m);
-             
-        }
+        return params;
     }
     
     
@@ -1268,7 +1282,7 @@ public final class JAXRSUtils {
         }
     }
 
-    private static Object readFromMessageBody(Class<?> targetTypeClass,
+    static Object readFromMessageBody(Class<?> targetTypeClass,
                                                   Type parameterType,
                                                   Annotation[] parameterAnnotations,
                                                   InputStream is, 
@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ParamConverter;
+
+import org.apache.cxf.jaxrs.impl.AsyncResponseImpl;
+import org.apache.cxf.jaxrs.impl.HttpHeadersImpl;
+import org.apache.cxf.jaxrs.impl.UriInfoImpl;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.model.ParameterType;
+import org.apache.cxf.jaxrs.provider.ServerProviderFactory;
+import org.apache.cxf.message.Message;
+
+/**
+ * Extracts the value of a single resource method parameter from the request.
+ * Extractors are created once per {@link OperationResourceInfo} with the
+ * parameter source, the default value and the conversion already resolved,
+ * see {@link #create(OperationResourceInfo, Parameter, Class, Type, Annotation[])}.
+ */
+public abstract class ParameterExtractor {
+
+    /**
+     * @param values the URI template values of the matched resource method
+     * @param m the request message
+     * @return the parameter value
+     */
+    public abstract Object extract(MultivaluedMap<String, String> values, Message m) throws IOException;
+
+    public static ParameterExtractor create(OperationResourceInfo ori,
+                                            Parameter parameter,
+                                            Class<?> paramClass,
+                                            Type genericType,
+                                            Annotation[] paramAnns) {
+        switch (parameter.getType()) {
+        case REQUEST_BODY:
+            return paramClass == AsyncResponse.class
+                && AnnotationUtils.getAnnotation(paramAnns, Suspended.class) != null
+                ? new AsyncResponseExtractor() : new BodyExtractor(ori, paramClass, genericType, paramAnns);
+        case CONTEXT:
+            return new ContextExtractor(paramClass, genericType);
+        case BEAN:
+            return new BeanExtractor(ori, paramClass);
+        case PATH:
+        case QUERY:
+        case MATRIX:
+        case FORM:
+        case HEADER:
+        case COOKIE:
+            if ("".equals(parameter.getName())
+                || parameter.getType() == ParameterType.COOKIE && !isCookieValue(paramClass, genericType)) {
+                // beans of parameters and Cookie instances
+                return new HttpParameterExtractor(ori, parameter, paramClass, genericType, paramAnns);
+            }
+            return new StringValuesExtractor(ori, parameter, paramClass, genericType, paramAnns);
+        default:
+            return new NullExtractor();
+        }
+    }
+
+    private static boolean isCookieValue(Class<?> paramClass, Type genericType) {
+        return !paramClass.isAssignableFrom(Cookie.class)
+            && !(InjectionUtils.isSupportedCollectionOrArray(paramClass)
+                && InjectionUtils.getActualType(genericType) == Cookie.class);
+    }
+
+    private static final class NullExtractor extends ParameterExtractor {
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            return null;
+        }
+    }
+
+    private static final class AsyncResponseExtractor extends ParameterExtractor {
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            return new AsyncResponseImpl(m);
+        }
+    }
+
+    private static final class BodyExtractor extends ParameterExtractor {
+        private final OperationResourceInfo ori;
+        private final Class<?> paramClass;
+        private final Type genericType;
+        private final Annotation[] paramAnns;
+
+        BodyExtractor(OperationResourceInfo ori, Class<?> paramClass, Type genericType, Annotation[] paramAnns) {
+            this.ori = ori;
+            this.paramClass = paramClass;
+            this.genericType = genericType;
+            this.paramAnns = paramAnns;
+        }
+
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) throws IOException {
+            return JAXRSUtils.readFromMessageBody(paramClass, genericType, paramAnns,
+                                                  m.getContent(InputStream.class),
+                                                  JAXRSUtils.getRequestContentType(m),
+                                                  ori, m);
+        }
+    }
+
+    private static final class ContextExtractor extends ParameterExtractor {
+        private final Class<?> paramClass;
+        private final Type genericType;
+
+        ContextExtractor(Class<?> paramClass, Type genericType) {
+            this.paramClass = paramClass;
+            this.genericType = genericType;
+        }
+
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            return JAXRSUtils.createContextValue(m, genericType, paramClass);
+        }
+    }
+
+    private static final class BeanExtractor extends ParameterExtractor {
+        private final OperationResourceInfo ori;
+        private final Class<?> paramClass;
+
+        BeanExtractor(OperationResourceInfo ori, Class<?> paramClass) {
+            this.ori = ori;
+            this.paramClass = paramClass;
+        }
+
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            return JAXRSUtils.createBeanParamValue(m, paramClass, ori);
+        }
+    }
+
+    /**
+     * Parameters which are not converted from a single named value: beans of
+     * path, query, matrix or form parameters and Cookie instances.
+     */
+    private static final class HttpParameterExtractor extends ParameterExtractor {
+        private final OperationResourceInfo ori;
+        private final Parameter parameter;
+        private final Class<?> paramClass;
+        private final Type genericType;
+        private final Annotation[] paramAnns;
+
+        HttpParameterExtractor(OperationResourceInfo ori, Parameter parameter, Class<?> paramClass,
+                               Type genericType, Annotation[] paramAnns) {
+            this.ori = ori;
+            this.parameter = parameter;
+            this.paramClass = paramClass;
+            this.genericType = genericType;
+            this.paramAnns = paramAnns;
+        }
+
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            return JAXRSUtils.createHttpParameterValue(parameter, paramClass, genericType, paramAnns,
+                                                       m, values, ori);
+        }
+    }
+
+    /**
+     * Named path, query, matrix, form, header and cookie parameters: the values are
+     * looked up by name and converted with the ParamConverter, the String constructor
+     * or the static factory method of the parameter class.
+     */
+    private static final class StringValuesExtractor extends ParameterExtractor {
+        private final ParameterType pType;
+        private final String name;
+        private final Class<?> paramClass;
+        private final Type genericType;
+        private final Annotation[] paramAnns;
+        private final boolean decode;
+        private final boolean collection;
+        private final List<String> defaultValues;
+        private volatile ResolvedConverter resolvedConverter;
+
+        StringValuesExtractor(OperationResourceInfo ori, Parameter parameter, Class<?> paramClass,
+                              Type genericType, Annotation[] paramAnns) {
+            this.pType = parameter.getType();
+            this.name = parameter.getName();
+            this.paramClass = paramClass;
+            this.genericType = genericType;
+            this.paramAnns = paramAnns;
+            this.decode = !(parameter.isEncoded() || ori.isEncodedEnabled());
+            this.collection = InjectionUtils.isSupportedCollectionOrArray(paramClass);
+
+            String defaultValue = parameter.getDefaultValue();
+            if (defaultValue == null) {
+                defaultValue = ori.getDefaultParameterValue();
+            }
+            if (defaultValue != null) {
+                if (pType == ParameterType.COOKIE) {
+                    defaultValue = Cookie.valueOf(name + '=' + defaultValue).getValue();
+                }
+                defaultValues = Collections.singletonList(defaultValue);
+            } else if (pType == ParameterType.COOKIE) {
+                // a missing cookie without a default value is not injected
+                defaultValues = null;
+            } else if (paramClass.isPrimitive()) {
+                defaultValues = Collections.singletonList(
+                    boolean.class == paramClass ? "false"
+                        : char.class == paramClass ? Character.toString('\u0000') : "0");
+            } else if (collection) {
+                defaultValues = Collections.emptyList();
+            } else {
+                defaultValues = null;
+            }
+        }
+
+        @Override
+        public Object extract(MultivaluedMap<String, String> values, Message m) {
+            List<String> paramValues = getValues(values, m);
+            if (paramValues == null) {
+                paramValues = defaultValues;
+                if (paramValues == null) {
+                    return null;
+                }
+            }
+            // the values of the other sources have already been decoded if required
+            boolean decodeValue = pType == ParameterType.PATH && decode;
+            if (collection) {
+                return InjectionUtils.createParameterObject(paramValues, paramClass, genericType, paramAnns,
+                                                            null, decodeValue, pType, m);
+            }
+            if (paramValues.isEmpty()) {
+                return null;
+            }
+            String value = pType == ParameterType.PATH ? paramValues.get(paramValues.size() - 1)
+                : paramValues.get(0);
+            return InjectionUtils.handleParameter(value, decodeValue, paramClass, genericType, paramAnns,
+                                                  pType, m, getConverter(m));
+        }
+
+        private List<String> getValues(MultivaluedMap<String, String> values, Message m) {
+            switch (pType) {
+            case PATH:
+                return values.get(name);
+            case QUERY:
+                return new UriInfoImpl(m, null).getQueryParameters(decode).get(name);
+            case MATRIX:
+                MultivaluedMap<String, String> matrixParams = JAXRSUtils.readMatrixParams(m, decode);
+                return matrixParams == null ? null : matrixParams.get(name);
+            case FORM:
+                return JAXRSUtils.readFormParams(m, decode).get(name);
+            case HEADER:
+                List<String> headers = new HttpHeadersImpl(m).getRequestHeader(name);
+                return headers == null || headers.isEmpty() ? null : headers;
+            default:
+                Cookie c = new HttpHeadersImpl(m).getCookies().get(name);
+                return c == null ? null : Collections.singletonList(c.getValue());
+            }
+        }
+
+        private ParamConverter<?> getConverter(Message m) {
+            ServerProviderFactory pf = ServerProviderFactory.getInstance(m);
+            if (pf == null) {
+                return null;
+            }
+            if (pf.isParamConverterContextsAvailable()) {
+                // the providers need the contexts of the current request
+                return pf.createParameterHandler(paramClass, genericType, paramAnns, m);
+            }
+            ResolvedConverter rc = resolvedConverter;
+            if (rc == null || rc.factory != pf) {
+                rc = new ResolvedConverter(pf, pf.createParameterHandler(paramClass, genericType, paramAnns, m));
+                resolvedConverter = rc;
+            }
+            return rc.converter;
+        }
+    }
+
+    private static final class ResolvedConverter {
+        private final ServerProviderFactory factory;
+        private final ParamConverter<?> converter;
+
+        ResolvedConverter(ServerProviderFactory factory, ParamConverter<?> converter) {
+            this.factory = factory;
+            this.converter = converter;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.WebApplicationException;
+
+import org.apache.cxf.attachment.LazyAttachmentCollection;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultipartStreamTest extends Assert {
+    private static final String BOUNDARY = "----bqJky99mlBWa-ZuqjC53mG6EzbmlxB";
+    
+    @Test
+    public void testReadParts() throws Exception {
+        Message m = createMessage();
+        MultipartStream parts = new MultipartStream(m);
+        
+        assertTrue(parts.hasNext());
+        Attachment a = parts.next();
+        assertEquals("name", a.getContentDisposition().getParameter("name"));
+        assertEquals("CXF", IOUtils.readStringFromStream(a.getDataHandler().getInputStream()));
+        
+        assertTrue(parts.hasNext());
+        a = parts.next();
+        assertEquals("file1", a.getContentDisposition().getParameter("name"));
+        assertEquals("text/plain", a.getContentType().toString());
+        assertEquals("0123456789", IOUtils.readStringFromStream(a.getDataHandler().getInputStream()));
+        
+        assertTrue(parts.hasNext());
+        a = parts.next();
+        assertEquals("file2", a.getContentDisposition().getParameter("name"));
+        assertEquals("abcdefghij", IOUtils.readStringFromStream(a.getDataHandler().getInputStream()));
+        
+        assertFalse(parts.hasNext());
+        assertTrue(((LazyAttachmentCollection)m.getAttachments()).getLoadedAttachments().isEmpty());
+    }
+    
+    @Test
+    public void testSkipParts() throws Exception {
+        Message m = createMessage();
+        MultipartStream parts = new MultipartStream(m);
+        Attachment a = parts.next();
+        InputStream is = a.getDataHandler().getInputStream();
+        assertEquals('C', is.read());
+        a = parts.next();
+        a = parts.next();
+        assertEquals("abcdefghij", IOUtils.readStringFromStream(a.getDataHandler().getInputStream()));
+        assertFalse(parts.hasNext());
+    }
+    
+    @Test
+    public void testMaxPartSize() throws Exception {
+        MultipartStream parts = new MultipartStream(createMessage(), 5);
+        // parts which are not read are not checked
+        assertEquals("CXF", IOUtils.readStringFromStream(parts.next().getDataHandler().getInputStream()));
+        parts.next();
+        Attachment a = parts.next();
+        try {
+            IOUtils.readBytesFromStream(a.getDataHandler().getInputStream());
+            fail("413 is expected");
+        } catch (WebApplicationException ex) {
+            assertEquals(413, ex.getResponse().getStatus());
+        }
+    }
+    
+    @Test
+    public void testClose() throws Exception {
+        Message m = createMessage();
+        MultipartStream parts = new MultipartStream(m);
+        parts.next();
+        parts.close();
+        assertFalse(parts.hasNext());
+    }
+    
+    private static Message createMessage() {
+        String body = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"name\"\r\n"
+            + "\r\n"
+            + "CXF\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file1\"; filename=\"1.txt\"\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "0123456789\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file2\"; filename=\"2.txt\"\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "abcdefghij\r\n"
+            + "--" + BOUNDARY + "--\r\n";
+        Message m = new MessageImpl();
+        m.setExchange(new ExchangeImpl());
+        m.put(Message.CONTENT_TYPE, "multipart/form-data; boundary=" + BOUNDARY);
+        m.setContent(InputStream.class, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return m;
+    }
+}
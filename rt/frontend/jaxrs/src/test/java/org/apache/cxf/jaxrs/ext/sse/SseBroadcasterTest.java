@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.ext.sse.SseEventSinkImplTest.TestOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SseBroadcasterTest extends Assert {
+    
+    @Test
+    public void testBroadcast() throws Exception {
+        TestOutputStream out1 = new TestOutputStream();
+        TestOutputStream out2 = new TestOutputStream();
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        broadcaster.register(openSink(out1));
+        broadcaster.register(openSink(out2));
+        assertTrue(broadcaster.broadcast(SseEvent.builder().name("n").data("d").build()).isDone());
+        assertEquals("event: n\ndata: d\n\n", out1.getContent());
+        assertEquals("event: n\ndata: d\n\n", out2.getContent());
+    }
+    
+    @Test
+    public void testSlowSinkDoesNotBlockOthers() throws Exception {
+        TestOutputStream slow = new TestOutputStream();
+        TestOutputStream fast = new TestOutputStream();
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        SseEventSinkImpl slowSink = new SseEventSinkImpl(slow, null, null, 1, OverflowPolicy.DROP_OLDEST);
+        slowSink.open();
+        slow.ready = false;
+        broadcaster.register(slowSink);
+        broadcaster.register(openSink(fast));
+        broadcaster.broadcast(SseEvent.builder().data("1").build());
+        broadcaster.broadcast(SseEvent.builder().data("2").build());
+        assertEquals("data: 1\n\ndata: 2\n\n", fast.getContent());
+        assertEquals(1, slowSink.getQueueSize());
+        broadcaster.sendHeartbeat();
+        slow.writePossible();
+        assertEquals("data: 2\n\n", slow.getContent());
+        assertEquals("data: 1\n\ndata: 2\n\n:\n\n", fast.getContent());
+    }
+    
+    @Test
+    public void testFailedSinkIsUnregistered() throws Exception {
+        TestOutputStream broken = new TestOutputStream();
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        List<SseEventSink> closedSinks = new ArrayList<SseEventSink>();
+        List<Throwable> errors = new ArrayList<Throwable>();
+        broadcaster.onClose(closedSinks::add);
+        broadcaster.onError((sink, ex) -> errors.add(ex));
+        SseEventSinkImpl sink = openSink(broken);
+        broken.failure = new IOException("Broken pipe");
+        broadcaster.register(sink);
+        broadcaster.register(openSink(new TestOutputStream()));
+        broadcaster.broadcast(SseEvent.builder().data("1").build());
+        assertEquals(1, broadcaster.getSinkCount());
+        assertEquals(1, closedSinks.size());
+        assertSame(sink, closedSinks.get(0));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IOException);
+        
+        broadcaster.close();
+        assertEquals(0, broadcaster.getSinkCount());
+        assertEquals(2, closedSinks.size());
+    }
+    
+    private static SseEventSinkImpl openSink(TestOutputStream out) {
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, null);
+        sink.open();
+        return sink;
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SseEventSinkImplTest extends Assert {
+    
+    @Test
+    public void testEventFormat() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, null);
+        sink.open();
+        CompletableFuture<?> f = sink.send(SseEvent.builder().id("1").name("update").reconnectDelay(3000)
+                                           .comment("note").data("line1\nline2").build()).toCompletableFuture();
+        assertTrue(f.isDone());
+        assertFalse(f.isCompletedExceptionally());
+        assertEquals(": note\nevent: update\nid: 1\nretry: 3000\ndata: line1\ndata: line2\n\n", out.getContent());
+    }
+    
+    @Test
+    public void testEventsAreQueuedUntilOpened() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        AtomicBoolean completed = new AtomicBoolean();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, () -> completed.set(true));
+        CompletableFuture<?> f1 = sink.send(SseEvent.builder().data("a").build()).toCompletableFuture();
+        CompletableFuture<?> f2 = sink.send(SseEvent.builder().data("b").build()).toCompletableFuture();
+        sink.close();
+        assertTrue(sink.isClosed());
+        assertTrue(sink.send(SseEvent.builder().data("c").build()).toCompletableFuture()
+                   .isCompletedExceptionally());
+        assertNull(out.listener);
+        assertEquals(0, out.flushes);
+        assertFalse(f1.isDone());
+        assertFalse(completed.get());
+        
+        sink.open();
+        assertSame(sink, out.listener);
+        assertTrue(f1.isDone() && f2.isDone());
+        assertEquals("data: a\n\ndata: b\n\n", out.getContent());
+        assertEquals(1, out.flushes);
+        assertTrue(completed.get());
+    }
+    
+    @Test
+    public void testHeadersAreFlushedOnOpen() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, null);
+        sink.open();
+        assertEquals(1, out.flushes);
+        assertEquals("", out.getContent());
+    }
+    
+    @Test
+    public void testNotReadyStream() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        AtomicBoolean completed = new AtomicBoolean();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, () -> completed.set(true));
+        sink.open();
+        out.stallWrites = true;
+        CompletableFuture<?> f1 = sink.send(SseEvent.builder().data("1").build()).toCompletableFuture();
+        CompletableFuture<?> f2 = sink.send(SseEvent.builder().data("2").build()).toCompletableFuture();
+        sink.close();
+        assertTrue(f1.isDone());
+        assertFalse(f2.isDone());
+        assertEquals("data: 1\n\n", out.getContent());
+        assertEquals(1, sink.getQueueSize());
+        
+        out.writePossible();
+        assertTrue(f2.isDone());
+        assertEquals("data: 1\n\ndata: 2\n\n", out.getContent());
+        assertFalse("Stream closed before the last write has completed", completed.get());
+        out.writePossible();
+        assertEquals(2, out.flushes);
+        assertTrue(completed.get());
+    }
+    
+    @Test
+    public void testDropOldest() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, null, null, 2, OverflowPolicy.DROP_OLDEST);
+        sink.open();
+        out.stallWrites = true;
+        sink.send(SseEvent.builder().data("1").build());
+        CompletableFuture<?> f2 = sink.send(SseEvent.builder().data("2").build()).toCompletableFuture();
+        sink.send(SseEvent.builder().data("3").build());
+        sink.send(SseEvent.builder().data("4").build());
+        assertTrue(f2.isCancelled());
+        assertEquals(2, sink.getQueueSize());
+        out.writePossible();
+        out.writePossible();
+        assertEquals("data: 1\n\ndata: 3\n\ndata: 4\n\n", out.getContent());
+    }
+    
+    @Test
+    public void testDropNewest() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, null, null, 1, OverflowPolicy.DROP_NEWEST);
+        sink.open();
+        out.stallWrites = true;
+        sink.send(SseEvent.builder().data("1").build());
+        sink.send(SseEvent.builder().data("2").build());
+        assertTrue(sink.send(SseEvent.builder().data("3").build()).toCompletableFuture().isCancelled());
+        out.writePossible();
+        assertFalse(sink.isClosed());
+        assertEquals("data: 1\n\ndata: 2\n\n", out.getContent());
+    }
+    
+    @Test
+    public void testDisconnectSlowClient() throws Exception {
+        TestOutputStream out = new TestOutputStream();
+        AtomicBoolean completed = new AtomicBoolean();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, () -> completed.set(true), null, 1, 
+                                                     OverflowPolicy.DISCONNECT);
+        sink.open();
+        out.stallWrites = true;
+        sink.send(SseEvent.builder().data("1").build());
+        CompletableFuture<?> f2 = sink.send(SseEvent.builder().data("2").build()).toCompletableFuture();
+        CompletableFuture<?> f3 = sink.send(SseEvent.builder().data("3").build()).toCompletableFuture();
+        assertTrue(sink.isClosed());
+        assertTrue(f2.isCompletedExceptionally());
+        assertTrue(f3.isCancelled());
+        // the response is completed without waiting for the stalled write
+        assertTrue(completed.get());
+        assertEquals("data: 1\n\n", out.getContent());
+    }
+    
+    @Test
+    public void testWriteFailure() throws Exception {
+        AtomicBoolean completed = new AtomicBoolean();
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, () -> completed.set(true));
+        sink.open();
+        out.failure = new IOException("Broken pipe");
+        CompletableFuture<?> f = sink.send(SseEvent.builder().data("1").build()).toCompletableFuture();
+        assertTrue(f.isCompletedExceptionally());
+        assertTrue(sink.isClosed());
+        assertTrue(completed.get());
+    }
+    
+    @Test
+    public void testContainerError() throws Exception {
+        AtomicBoolean completed = new AtomicBoolean();
+        TestOutputStream out = new TestOutputStream();
+        SseEventSinkImpl sink = new SseEventSinkImpl(out, () -> completed.set(true));
+        sink.open();
+        out.stallWrites = true;
+        sink.send(SseEvent.builder().data("1").build());
+        CompletableFuture<?> f2 = sink.send(SseEvent.builder().data("2").build()).toCompletableFuture();
+        out.listener.onError(new IOException("Connection reset"));
+        assertTrue(f2.isCompletedExceptionally());
+        assertTrue(sink.isClosed());
+        assertTrue(completed.get());
+    }
+    
+    /**
+     * Mimics the non-blocking ServletOutputStream, with stallWrites set every write
+     * leaves the stream not ready until writePossible is called.
+     */
+    static class TestOutputStream extends ServletOutputStream {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        WriteListener listener;
+        boolean ready = true;
+        boolean stallWrites;
+        IOException failure;
+        int flushes;
+        
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkReady();
+            bos.write(b, off, len);
+            ready = !stallWrites;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            checkReady();
+            flushes++;
+        }
+        
+        void writePossible() throws IOException {
+            ready = true;
+            listener.onWritePossible();
+        }
+        
+        String getContent() {
+            return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+        }
+        
+        private void checkReady() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            if (!ready) {
+                throw new IllegalStateException("isReady() has returned false");
+            }
+        }
+    }
+}
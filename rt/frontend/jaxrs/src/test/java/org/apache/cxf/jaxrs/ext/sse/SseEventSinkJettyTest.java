@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.sse;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.cxf.testutil.common.TestUtil;
+import org.apache.cxf.transport.http_jetty.JettyHTTPServerEngineFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SseEventSinkJettyTest extends Assert {
+    private static final int PORT = Integer.valueOf(TestUtil.getPortNumber(SseEventSinkJettyTest.class));
+    private static final String ADDRESS = "http://localhost:" + PORT + "/sse";
+    
+    private Server server;
+    private EventResource resource;
+    
+    @Before
+    public void setUp() throws Exception {
+        resource = new EventResource();
+        JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setResourceClasses(EventResource.class);
+        sf.setResourceProvider(EventResource.class, new SingletonResourceProvider(resource));
+        sf.setProvider(new SseEventSinkContextProvider());
+        sf.setAddress(ADDRESS);
+        server = sf.create();
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        server.destroy();
+        JettyHTTPServerEngineFactory.destroyForPort(PORT);
+    }
+    
+    @Test
+    public void testEventsAreStreamed() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS + "/events").openConnection();
+        // the headers are committed once the resource method has returned
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(SseEvent.SERVER_SENT_EVENTS, connection.getContentType().split(";")[0]);
+        SseEventSink sink = resource.sinks.poll(10, TimeUnit.SECONDS);
+        
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        sink.send(SseEvent.builder().id("1").data("first").build());
+        assertEquals("id: 1", reader.readLine());
+        assertEquals("data: first", reader.readLine());
+        assertEquals("", reader.readLine());
+        
+        sink.send(SseEvent.builder().data("second").build());
+        sink.close();
+        assertEquals("data: second", reader.readLine());
+        assertEquals("", reader.readLine());
+        assertNull("The response has not been completed", reader.readLine());
+    }
+    
+    @Test
+    public void testResourceMethodFailure() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS + "/missing").openConnection();
+        assertEquals(404, connection.getResponseCode());
+    }
+    
+    @Test
+    public void testClientDisconnect() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS + "/events").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        SseEventSink sink = resource.sinks.poll(10, TimeUnit.SECONDS);
+        connection.getInputStream().close();
+        connection.disconnect();
+        
+        // the disconnect is noticed once the writes start failing
+        String data = new String(new char[8192]).replace('\0', 'x');
+        for (int i = 0; i < 1000 && !sink.isClosed(); i++) {
+            sink.send(SseEvent.builder().data(data).build());
+            Thread.sleep(10);
+        }
+        assertTrue("Sink has not been closed after the client disconnect", sink.isClosed());
+        assertTrue(sink.send(SseEvent.builder().data("1").build()).toCompletableFuture()
+                   .isCompletedExceptionally());
+    }
+    
+    @Path("/")
+    public static class EventResource {
+        final BlockingQueue<SseEventSink> sinks = new LinkedBlockingQueue<SseEventSink>();
+        
+        @GET
+        @Path("/events")
+        @Produces(SseEvent.SERVER_SENT_EVENTS)
+        public void subscribe(@Context SseEventSink sink) {
+            sinks.add(sink);
+        }
+        
+        @GET
+        @Path("/missing")
+        @Produces(SseEvent.SERVER_SENT_EVENTS)
+        public void fail(@Context SseEventSink sink) {
+            throw new NotFoundException();
+        }
+    }
+}
@@ -19,11 +19,13 @@
 
 package org.apache.cxf.jaxrs.model;
 
+import java.lang.reflect.ParameterizedType;
 import java.util.Collections;
 import java.util.List;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
 import org.apache.cxf.endpoint.Endpoint;
@@ -52,6 +54,31 @@ public class OperationResourceInfoTest extends Assert {
         
     }
     
+    static class GenericTestClass<T> {
+        public void update(@QueryParam("a") T value, @QueryParam("b") List<T> values) {
+            // empty
+        }
+    }
+    
+    static class StringTestClass extends GenericTestClass<String> {
+    }
+    
+    @Test
+    public void testParameterInjectionPlan() throws Exception {
+        OperationResourceInfo ori = new OperationResourceInfo(
+            GenericTestClass.class.getMethod("update", new Class[]{Object.class, List.class}), 
+            new ClassResourceInfo(StringTestClass.class));
+        ParameterInjectionPlan plan = ori.getParameterInjectionPlan();
+        assertSame(plan, ori.getParameterInjectionPlan());
+        assertEquals(2, plan.size());
+        assertEquals(String.class, plan.getParameterClass(0));
+        assertEquals(String.class, plan.getGenericParameterType(0));
+        assertEquals(List.class, plan.getParameterClass(1));
+        ParameterizedType listType = (ParameterizedType)plan.getGenericParameterType(1);
+        assertEquals(String.class, listType.getActualTypeArguments()[0]);
+        assertEquals(QueryParam.class, plan.getParameterAnnotations(1)[0].annotationType());
+    }
+    
     @Test
     public void testConsumeTypes() throws Exception {
         OperationResourceInfo ori1 = new OperationResourceInfo(
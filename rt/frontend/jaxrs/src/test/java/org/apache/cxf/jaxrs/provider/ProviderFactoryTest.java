@@ -24,18 +24,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.activation.DataHandler;
 import javax.activation.DataSource;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.NameBinding;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -58,6 +68,7 @@ import org.apache.cxf.jaxrs.Customer;
 import org.apache.cxf.jaxrs.CustomerParameterHandler;
 import org.apache.cxf.jaxrs.JAXBContextProvider;
 import org.apache.cxf.jaxrs.JAXBContextProvider2;
+import org.apache.cxf.jaxrs.ext.CacheableSelection;
 import org.apache.cxf.jaxrs.impl.MetadataMap;
 import org.apache.cxf.jaxrs.impl.WebApplicationExceptionMapper;
 import org.apache.cxf.jaxrs.model.AbstractResourceInfo;
@@ -88,6 +99,32 @@ public class ProviderFactoryTest extends Assert {
         assertNotSame(ServerProviderFactory.getInstance(), ServerProviderFactory.getInstance());
     }
     
+    @Test
+    public void testBoundFilterChainsAreCached() {
+        ServerProviderFactory pf = ServerProviderFactory.getInstance();
+        pf.registerUserProvider(new BoundResponseFilter());
+        pf.registerUserProvider(new GlobalResponseFilter());
+        Set<String> names = Collections.singleton(CustomNameBinding.class.getName());
+        List<ProviderInfo<ContainerResponseFilter>> bound = pf.getContainerResponseFilters(names);
+        assertEquals(2, bound.size());
+        assertSame(bound, pf.getContainerResponseFilters(new HashSet<String>(names)));
+        assertEquals(1, pf.getContainerResponseFilters(null).size());
+        try {
+            bound.clear();
+            fail("Filter chains must be immutable");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        
+        pf.registerUserProvider(new ContainerResponseFilter() {
+            public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+                // complete
+            }
+        });
+        assertEquals(3, pf.getContainerResponseFilters(names).size());
+        assertEquals(2, pf.getContainerResponseFilters(null).size());
+    }
+    
     @Test
     public void testOrderOfProvidersWithSameProperties() {
         ProviderFactory pf = ServerProviderFactory.getInstance();
@@ -272,6 +309,57 @@ public class ProviderFactoryTest extends Assert {
         assertSame(customJaxbWriter, provider);
     }
     
+    @Test
+    public void testCachedWriterSelection() {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        CountingBookWriter writer = new CountingBookWriter();
+        pf.registerUserProvider(writer);
+        for (int i = 0; i < 3; i++) {
+            assertSame(writer, pf.createMessageBodyWriter(Book.class, Book.class, new Annotation[]{}, 
+                                                          MediaType.TEXT_PLAIN_TYPE, new MessageImpl()));
+        }
+        assertEquals(1, writer.count);
+        assertTrue(pf.createMessageBodyWriter(String.class, String.class, new Annotation[]{}, 
+                                              MediaType.TEXT_PLAIN_TYPE, new MessageImpl()) 
+                   instanceof StringTextProvider);
+        assertEquals(2, writer.count);
+        
+        CountingBookWriter writer2 = new CountingBookWriter();
+        pf.registerUserProvider(writer2);
+        MessageBodyWriter<Book> selected = pf.createMessageBodyWriter(Book.class, Book.class, 
+            new Annotation[]{}, MediaType.TEXT_PLAIN_TYPE, new MessageImpl());
+        assertTrue(selected == writer || selected == writer2);
+        assertEquals(1, writer.count + writer2.count - 2);
+    }
+    
+    @Test
+    public void testContextSensitiveWriterNotCached() {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        ContextSensitiveBookWriter writer = new ContextSensitiveBookWriter();
+        pf.registerUserProvider(writer);
+        for (int i = 0; i < 3; i++) {
+            assertSame(writer, pf.createMessageBodyWriter(Book.class, Book.class, new Annotation[]{}, 
+                                                          MediaType.TEXT_PLAIN_TYPE, new MessageImpl()));
+        }
+        assertEquals(3, writer.count);
+    }
+    
+    @Test
+    public void testCachedReaderSelection() {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        Message m = new MessageImpl();
+        MessageBodyReader<String> reader = pf.createMessageBodyReader(String.class, String.class, 
+            new Annotation[]{}, MediaType.TEXT_PLAIN_TYPE, m);
+        assertTrue(reader instanceof StringTextProvider);
+        assertSame(reader, pf.createMessageBodyReader(String.class, String.class, 
+            new Annotation[]{}, MediaType.TEXT_PLAIN_TYPE, m));
+        
+        StringTextProvider custom = new StringTextProvider();
+        pf.registerUserProvider(custom);
+        assertSame(custom, pf.createMessageBodyReader(String.class, String.class, 
+            new Annotation[]{}, MediaType.TEXT_PLAIN_TYPE, m));
+    }
+    
     @Test
     public void testDataSourceReader() {
         ProviderFactory pf = ServerProviderFactory.getInstance();
@@ -940,6 +1028,32 @@ public class ProviderFactoryTest extends Assert {
         
     }
     
+    @CacheableSelection
+    @Produces("text/plain")
+    private static class CountingBookWriter implements MessageBodyWriter<Book> {
+        int count;
+        
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, 
+                                   MediaType mediaType) {
+            count++;
+            return type == Book.class;
+        }
+
+        public long getSize(Book t, Class<?> type, Type genericType, Annotation[] annotations, 
+                            MediaType mediaType) {
+            return -1;
+        }
+
+        public void writeTo(Book t, Class<?> type, Type genericType, Annotation[] annotations, 
+                            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, 
+                            OutputStream entityStream) throws IOException, WebApplicationException {
+        }
+    }
+    
+    @Produces("text/plain")
+    private static class ContextSensitiveBookWriter extends CountingBookWriter {
+    }
+    
     @Produces("*/*")
     @Consumes("*/*")
     private static class WildcardReader implements MessageBodyReader<Object> {
@@ -1132,6 +1246,29 @@ public class ProviderFactoryTest extends Assert {
             return null;
         }
     }
+    
+    @Target({ ElementType.TYPE, ElementType.METHOD })
+    @Retention(value = RetentionPolicy.RUNTIME)
+    @NameBinding
+    public @interface CustomNameBinding { 
+        
+    }
+    
+    @CustomNameBinding
+    public static class BoundResponseFilter implements ContainerResponseFilter {
+        @Override
+        public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            // complete
+        }
+    }
+    
+    public static class GlobalResponseFilter implements ContainerResponseFilter {
+        @Override
+        public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            // complete
+        }
+    }
+    
     @Consumes("text/plain")
     public static class CustomBooleanReader2 extends CustomBooleanReader {
         
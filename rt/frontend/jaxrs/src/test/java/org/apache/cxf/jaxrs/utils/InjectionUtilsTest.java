@@ -149,6 +149,16 @@ public class InjectionUtilsTest extends Assert {
         assertEquals("Type is wrong", CarType.AUDI, carType);
     }
 
+    @Test
+    public void testEnumFromValueFailureFallsBackToValueOf() {
+        for (int i = 0; i < 2; i++) {
+            Color color = InjectionUtils.handleParameter("RED", false, Color.class, 
+                                                         Color.class, null,
+                                                         ParameterType.QUERY, null);
+            assertEquals(Color.RED, color);
+        }
+    }
+    
     @Test
     public void testGenericInterfaceType() throws NoSuchMethodException {
         Type str = InjectionUtils.getGenericResponseType(GenericInterface.class.getMethod("get"),
@@ -160,6 +170,14 @@ public class InjectionUtilsTest extends Assert {
         assertEquals(String.class, list.getActualTypeArguments()[0]);
     }
     
+    public enum Color {
+        RED;
+        
+        public static Color fromValue(String value) {
+            throw new IllegalArgumentException();
+        }
+    }
+    
     static class CustomerBean1 {
         private String a;
         private Long b;
@@ -992,6 +992,24 @@ public class JAXRSUtilsTest extends Assert {
                    Timezone.EUROPE_LONDON, params.get(0));
     }
     
+    @Test
+    public void testParamConverterResolvedOncePerOperation() throws Exception {
+        Message messageImpl = createMessage();
+        CountingLocaleParameterHandler handler = new CountingLocaleParameterHandler();
+        ServerProviderFactory.getInstance(messageImpl).registerUserProvider(handler);
+        Method m = Customer.class.getMethod("testLocaleParam", new Class[]{Locale.class});
+        OperationResourceInfo ori = new OperationResourceInfo(m, new ClassResourceInfo(Customer.class));
+        
+        messageImpl.put(Message.QUERY_STRING, "p1=en_us");
+        List<Object> params = JAXRSUtils.processParameters(ori, null, messageImpl);
+        assertEquals(new Locale("en", "us"), params.get(0));
+        
+        messageImpl.put(Message.QUERY_STRING, "p1=fr_ca");
+        params = JAXRSUtils.processParameters(ori, null, messageImpl);
+        assertEquals(new Locale("fr", "ca"), params.get(0));
+        assertEquals(1, handler.count);
+    }
+    
     @Test
     public void testCustomerParameter() throws Exception {
         Message messageImpl = createMessage();
@@ -2081,6 +2099,16 @@ public class JAXRSUtilsTest extends Assert {
         
     }
     
+    private static class CountingLocaleParameterHandler extends LocaleParameterHandler {
+        private int count;
+        
+        @Override
+        public <T> ParamConverter<T> getConverter(Class<T> cls, Type arg1, Annotation[] arg2) {
+            count++;
+            return super.getConverter(cls, arg1, arg2);
+        }
+    }
+    
     private static class GenericObjectParameterHandler implements ParamConverterProvider, 
         ParamConverter<Query<String>> {
 
@@ -36,6 +36,7 @@ import java.util.Map;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -46,6 +47,7 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
 import javax.servlet.http.Part;
 import javax.xml.ws.spi.http.HttpContext;
 import javax.xml.ws.spi.http.HttpExchange;
@@ -90,6 +92,10 @@ class HttpServletRequestAdapter implements HttpServletRequest {
         return 0;
     }
 
+    public long getContentLengthLong() {
+        return 0;
+    }
+
     public String getContentType() {
         return this.getHeader("Content-Type");
     }
@@ -397,6 +403,14 @@ class HttpServletRequestAdapter implements HttpServletRequest {
     public void logout() throws ServletException {
         throw new UnsupportedOperationException();
     }
+
+    public String changeSessionId() {
+        throw new UnsupportedOperationException();
+    }
+
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws IOException, ServletException {
+        throw new UnsupportedOperationException();
+    }
     
     private class ServletInputStreamAdapter extends ServletInputStream {
         
@@ -410,5 +424,20 @@ class HttpServletRequestAdapter implements HttpServletRequest {
         public int read() throws IOException {
             return delegate.read();
         }
+
+        @Override
+        public boolean isFinished() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isReady() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
     }
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Locale;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.ws.spi.http.HttpExchange;
@@ -122,6 +123,13 @@ class HttpServletResponseAdapter implements HttpServletResponse {
         }
     }
 
+    public void setContentLengthLong(long len) {
+        if (!committed) {
+            exchange.getResponseHeaders().put("Content-Length", 
+                Collections.singletonList(String.valueOf(len)));
+        }
+    }
+
     public void setContentType(String type) {
         if (!committed) {
             exchange.getResponseHeaders().put("Content-Type", Collections.singletonList(type));
@@ -241,5 +249,15 @@ class HttpServletResponseAdapter implements HttpServletResponse {
         public void flush() throws IOException {
             delegate.flush();
         }
+
+        @Override
+        public boolean isReady() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
     }
 }
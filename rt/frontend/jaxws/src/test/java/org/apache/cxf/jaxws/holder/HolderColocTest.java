@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxws.holder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.ws.Holder;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusException;
+import org.apache.cxf.binding.coloc.ColocOutInterceptor;
+import org.apache.cxf.binding.coloc.feature.ColocFeature;
+import org.apache.cxf.bus.CXFBusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxws.AbstractJaxWsTest;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.invoker.Invoker;
+import org.apache.cxf.ws.policy.PolicyEngine;
+import org.junit.Test;
+
+public class HolderColocTest extends AbstractJaxWsTest {
+    private final String address = "local://localhost:9000/HolderColocService";
+
+    @Override
+    protected Bus createBus() throws BusException {
+        return new CXFBusFactory().createBus();
+    }
+
+    @Test
+    public void testDirectInvocation() throws Exception {
+        // the bus wide policy interceptors would send every call through the chains
+        getBus().getExtension(PolicyEngine.class).setEnabled(false);
+        
+        JaxWsServerFactoryBean svr = new JaxWsServerFactoryBean();
+        svr.setBus(getBus());
+        svr.setServiceBean(new HolderServiceImpl());
+        svr.setAddress(address);
+        Server server = svr.create();
+        
+        final List<Boolean> chained = new ArrayList<Boolean>();
+        final Invoker invoker = server.getEndpoint().getService().getInvoker();
+        server.getEndpoint().getService().setInvoker(new Invoker() {
+            public Object invoke(Exchange exchange, Object o) {
+                chained.add(exchange.getInMessage().getInterceptorChain() != null);
+                return invoker.invoke(exchange, o);
+            }
+        });
+
+        JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
+        factory.setServiceClass(HolderService.class);
+        factory.setBus(getBus());
+        factory.setAddress(address);
+        factory.setServiceName(server.getEndpoint().getService().getName());
+        factory.setEndpointName(server.getEndpoint().getEndpointInfo().getName());
+        factory.getFeatures().add(new ColocFeature());
+        factory.setProperties(Collections.<String, Object>singletonMap(ColocOutInterceptor.DIRECT_INVOCATION,
+                                                                       Boolean.TRUE));
+        HolderService h = (HolderService)factory.create();
+
+        Holder<String> holder = new Holder<String>();
+        assertEquals("one", h.echo("one", "two", holder));
+        assertEquals("two", holder.value);
+        assertEquals("The call did not go straight to the invoker", 
+                     Boolean.FALSE, chained.get(0));
+        
+        // an interceptor added after the first call must not be skipped
+        final List<String> intercepted = new ArrayList<String>();
+        server.getEndpoint().getInInterceptors().add(new AbstractPhaseInterceptor<Message>(Phase.USER_LOGICAL) {
+            public void handleMessage(Message message) {
+                intercepted.add("in");
+            }
+        });
+        holder = new Holder<String>();
+        assertEquals("three", h.echo("three", "four", holder));
+        assertEquals("four", holder.value);
+        assertEquals(1, intercepted.size());
+        assertEquals(Boolean.TRUE, chained.get(1));
+    }
+}
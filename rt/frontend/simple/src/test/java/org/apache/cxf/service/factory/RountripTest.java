@@ -18,6 +18,9 @@
  */
 package org.apache.cxf.service.factory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.endpoint.ClientImpl;
@@ -27,6 +30,8 @@ import org.apache.cxf.frontend.ClientProxyFactoryBean;
 import org.apache.cxf.frontend.ServerFactoryBean;
 import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.apache.cxf.transport.local.LocalTransportFactory;
 import org.apache.hello_world_doc_lit.Greeter;
 import org.apache.hello_world_doc_lit.GreeterImplDoc;
 import org.junit.Test;
@@ -62,6 +67,35 @@ public class RountripTest extends AbstractSimpleFrontendTest {
         assertEquals("hello", client.echo("hello"));
     }
 
+    @Test
+    public void testLocalObjectPassing() throws Exception {
+        ServerFactoryBean svrBean = new ServerFactoryBean();
+        svrBean.setAddress("local://Hello3");
+        svrBean.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        svrBean.setServiceBean(new HelloServiceImpl());
+        svrBean.setServiceClass(HelloService.class);
+        svrBean.setBus(getBus());
+        svrBean.create();
+
+        ClientProxyFactoryBean proxyFactory = new ClientProxyFactoryBean();
+        ClientFactoryBean clientBean = proxyFactory.getClientFactoryBean();
+        clientBean.setAddress("local://Hello3");
+        clientBean.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        clientBean.setServiceClass(HelloService.class);
+        clientBean.setBus(getBus());
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        props.put(LocalConduit.OBJECT_PASSING, Boolean.TRUE);
+        proxyFactory.setProperties(props);
+
+        HelloService client = (HelloService) proxyFactory.create();
+
+        // the very same instance only comes back if nothing was written and read again
+        String text = new String("hello");
+        assertSame(text, client.echo(text));
+        assertEquals("hello", client.sayHello());
+    }
+
     @Test
     public void testOneWay() throws Exception {
         ServerFactoryBean svrBean = new ServerFactoryBean();
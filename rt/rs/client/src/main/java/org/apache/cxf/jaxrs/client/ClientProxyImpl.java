@@ -24,8 +24,10 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -37,6 +39,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.ws.rs.BeanParam;
@@ -78,10 +82,13 @@ import org.apache.cxf.jaxrs.model.Parameter;
 import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.FormUtils;
+import org.apache.cxf.jaxrs.utils.HttpUtils;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
 
 /**
  * Proxy-based client implementation
@@ -94,6 +101,13 @@ public class ClientProxyImpl extends AbstractClient implements
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(ClientProxyImpl.class);
     private static final String SLASH = "/";
     private static final String BUFFER_PROXY_RESPONSE = "buffer.proxy.response";
+    private static final ClassValue<Map<Class<? extends Annotation>, List<BeanParamProperty>>> 
+        BEAN_PARAM_PROPERTIES = new ClassValue<Map<Class<? extends Annotation>, List<BeanParamProperty>>>() {
+            @Override
+            protected Map<Class<? extends Annotation>, List<BeanParamProperty>> computeValue(Class<?> cls) {
+                return new ConcurrentHashMap<Class<? extends Annotation>, List<BeanParamProperty>>();
+            }
+        };
     
     private ClassResourceInfo cri;
     private ClassLoader proxyLoader;
@@ -101,6 +115,8 @@ public class ClientProxyImpl extends AbstractClient implements
     private boolean isRoot;
     private Map<String, Object> valuesMap = Collections.emptyMap();
     private BodyWriter bodyWriter = new BodyWriter();
+    private Map<Method, InvocationPlan> invocationPlans = new ConcurrentHashMap<Method, InvocationPlan>();
+    private volatile BaseTemplate baseTemplate;
     public ClientProxyImpl(URI baseURI,
                            ClassLoader loader,
                            ClassResourceInfo cri, 
@@ -122,6 +138,7 @@ public class ClientProxyImpl extends AbstractClient implements
         this.isRoot = isRoot;
         this.inheritHeaders = inheritHeaders;
         initValuesMap(varValues);
+        cfg.getInInterceptors().add(new ClientAsyncResponseInterceptor());
     }
     
     private void initValuesMap(Object... varValues) {
@@ -164,23 +181,27 @@ public class ClientProxyImpl extends AbstractClient implements
             reportInvalidResourceMethod(m, "INVALID_RESOURCE_METHOD");
         }
         
-        MultivaluedMap<ParameterType, Parameter> types = getParametersInfo(m, params, ori);
-        List<Parameter> beanParamsList =  getParameters(types, ParameterType.BEAN);
+        InvocationPlan plan = getInvocationPlan(m, ori);
+        MultivaluedMap<ParameterType, Parameter> types = plan.types;
+        List<Parameter> beanParamsList = plan.beanParams;
         
-        int bodyIndex = getBodyIndex(types, ori);
+        int bodyIndex = plan.bodyIndex;
         
         List<Object> pathParams = getPathParamValues(m, params, types, beanParamsList, ori, bodyIndex);
         
-        UriBuilder builder = getCurrentBuilder().clone(); 
-        if (isRoot) {
-            addNonEmptyPath(builder, ori.getClassResourceInfo().getURITemplate().getValue());
+        URI uri = buildRequestURI(m, params, plan, pathParams);
+        if (uri == null) {
+            UriBuilder builder = getCurrentBuilder().clone(); 
+            if (isRoot) {
+                addNonEmptyPath(builder, ori.getClassResourceInfo().getURITemplate().getValue());
+            }
+            addNonEmptyPath(builder, ori.getURITemplate().getValue());
+            
+            handleMatrixes(m, params, types, beanParamsList, builder);
+            handleQueries(m, params, types, beanParamsList, builder);
+            
+            uri = builder.buildFromEncoded(pathParams.toArray()).normalize();
         }
-        addNonEmptyPath(builder, ori.getURITemplate().getValue());
-        
-        handleMatrixes(m, params, types, beanParamsList, builder);
-        handleQueries(m, params, types, beanParamsList, builder);
-        
-        URI uri = builder.buildFromEncoded(pathParams.toArray()).normalize();
         
         MultivaluedMap<String, String> headers = getHeaders();
         MultivaluedMap<String, String> paramHeaders = new MetadataMap<String, String>();
@@ -203,6 +224,7 @@ public class ClientProxyImpl extends AbstractClient implements
             ClientProxyImpl proxyImpl = 
                 new ClientProxyImpl(newState, proxyLoader, subCri, false, inheritHeaders);
             proxyImpl.setConfiguration(getConfiguration());
+            proxyImpl.invocationPlans = invocationPlans;
             return JAXRSClientFactory.createProxy(m.getReturnType(), proxyLoader, proxyImpl);
         } 
         headers.putAll(paramHeaders);
@@ -221,22 +243,131 @@ public class ClientProxyImpl extends AbstractClient implements
             body = handleMultipart(types, ori, params);
         }
         
-        setRequestHeaders(headers, ori, types.containsKey(ParameterType.FORM), 
-            body == null ? null : body.getClass(), m.getReturnType());
+        setRequestHeaders(headers, plan, types.containsKey(ParameterType.FORM), 
+            body == null ? null : body.getClass());
         
         
         return doChainedInvocation(uri, headers, ori, body, bodyIndex, null, null);
         
     }
 
+    /**
+     * Joins the current address, the precomputed method path with the path parameter values
+     * substituted and the query parameters. Returns null if the UriBuilder has to be used instead.
+     */
+    private URI buildRequestURI(Method m, Object[] params, InvocationPlan plan, List<Object> pathParams) {
+        PathPlan pathPlan = isRoot ? plan.rootPath : plan.path;
+        if (pathPlan == null || !valuesMap.isEmpty()) {
+            return null;
+        }
+        String base = getBaseTemplate();
+        String path = base == null ? null : pathPlan.build(pathParams);
+        if (path == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(base).append('/').append(path);
+        if (!appendQuery(sb, m, params, getParameters(plan.types, ParameterType.QUERY))) {
+            return null;
+        }
+        try {
+            return new URI(sb.toString()).normalize();
+        } catch (URISyntaxException ex) {
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the current address without a trailing slash, or null if it has
+     * templates, matrix or query parameters or a fragment.
+     */
+    private String getBaseTemplate() {
+        UriBuilder builder = getCurrentBuilder();
+        BaseTemplate bt = baseTemplate;
+        if (bt == null || bt.builder != builder) {
+            String template = builder.toTemplate();
+            if (template.indexOf('{') != -1 || template.indexOf('?') != -1 
+                || template.indexOf('#') != -1 || template.indexOf(';') != -1) {
+                template = null;
+            } else if (template.endsWith(SLASH)) {
+                template = template.substring(0, template.length() - 1);
+            }
+            bt = new BaseTemplate(builder, template);
+            baseTemplate = bt;
+        }
+        return bt.template;
+    }
+    
+    private boolean appendQuery(StringBuilder sb, Method m, Object[] params, List<Parameter> queryParams) {
+        if (queryParams.isEmpty()) {
+            return true;
+        }
+        MultivaluedMap<String, String> queries = new MetadataMap<String, String>();
+        for (Parameter p : queryParams) {
+            Object pValue = params[p.getIndex()];
+            if (pValue == null) {
+                continue;
+            }
+            Annotation[] anns = getParamAnnotations(m, p);
+            if (InjectionUtils.isSupportedCollectionOrArray(pValue.getClass())) {
+                if (pValue.getClass().isArray() && !(pValue instanceof Object[])) {
+                    return false;
+                }
+                Collection<?> c = pValue.getClass().isArray() 
+                    ? Arrays.asList((Object[]) pValue) : (Collection<?>) pValue;
+                for (Object o : c) {
+                    if (!addQueryValue(queries, p.getName(), convertParamValue(o, anns))) {
+                        return false;
+                    }
+                }
+            } else if (!addQueryValue(queries, p.getName(), convertParamValue(pValue, anns))) {
+                return false;
+            }
+        }
+        char separator = '?';
+        for (Map.Entry<String, List<String>> entry : queries.entrySet()) {
+            for (String value : entry.getValue()) {
+                sb.append(separator).append(entry.getKey());
+                if (value.length() != 0) {
+                    sb.append('=').append(HttpUtils.encodePartiallyEncoded(value, true));
+                }
+                separator = '&';
+            }
+        }
+        return true;
+    }
+    
+    private static boolean addQueryValue(MultivaluedMap<String, String> queries, String name, String value) {
+        if (value == null || value.startsWith("{") && value.endsWith("}")) {
+            // the UriBuilder reports null values and treats the templates
+            return false;
+        }
+        queries.add(name, value);
+        return true;
+    }
+    
+    @Override
+    public Client query(String name, Object... values) {
+        baseTemplate = null;
+        return super.query(name, values);
+    }
+    
     private void addNonEmptyPath(UriBuilder builder, String pathValue) {
         if (!SLASH.equals(pathValue)) {
             builder.path(pathValue);
         }
     }
     
+    private InvocationPlan getInvocationPlan(Method m, OperationResourceInfo ori) {
+        InvocationPlan plan = invocationPlans.get(m);
+        if (plan == null) {
+            plan = new InvocationPlan(m, ori);
+            invocationPlans.put(m, plan);
+        }
+        return plan;
+    }
+    
     private static MultivaluedMap<ParameterType, Parameter> getParametersInfo(Method m,
-        Object[] params, OperationResourceInfo ori) {
+        OperationResourceInfo ori) {
         MultivaluedMap<ParameterType, Parameter> map = 
             new MetadataMap<ParameterType, Parameter>();
         
@@ -307,7 +438,7 @@ public class ClientProxyImpl extends AbstractClient implements
                 }
             }
                  
-            if ((t == null) && (m.getReturnType() == Response.class) && (m.getExceptionTypes().length == 0)) {
+            if ((t == null) && (getResponseClass(m) == Response.class) && (m.getExceptionTypes().length == 0)) {
                 return;
             }
 
@@ -336,19 +467,15 @@ public class ClientProxyImpl extends AbstractClient implements
     }
     
     private MultivaluedMap<String, String> setRequestHeaders(MultivaluedMap<String, String> headers,          
-                                                             OperationResourceInfo ori,
+                                                             InvocationPlan plan,
                                                              boolean formParams,
-                                                             Class<?> bodyClass,
-                                                             Class<?> responseClass) {
+                                                             Class<?> bodyClass) {
         if (headers.getFirst(HttpHeaders.CONTENT_TYPE) == null) {
             if (formParams || bodyClass != null && MultivaluedMap.class.isAssignableFrom(bodyClass)) {
                 headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
             } else {
-                String ctType = null;
-                List<MediaType> consumeTypes = ori.getConsumeTypes();
-                if (!consumeTypes.isEmpty() && !consumeTypes.get(0).equals(MediaType.WILDCARD_TYPE)) {
-                    ctType = JAXRSUtils.mediaTypeToString(ori.getConsumeTypes().get(0));
-                } else if (bodyClass != null) {
+                String ctType = plan.contentType;
+                if (ctType == null && bodyClass != null) {
                     ctType = MediaType.APPLICATION_XML;
                 }
                 if (ctType != null) {
@@ -357,40 +484,16 @@ public class ClientProxyImpl extends AbstractClient implements
             }
         }
         
-        List<MediaType> accepts = getAccept(headers);
-        if (accepts == null) {
-            boolean produceWildcard = ori.getProduceTypes().size() == 0 
-                || ori.getProduceTypes().get(0).equals(MediaType.WILDCARD_TYPE);
-            if (produceWildcard) {
-                accepts = InjectionUtils.isPrimitive(responseClass)
-                    ? Collections.singletonList(MediaType.TEXT_PLAIN_TYPE)
-                    : Collections.singletonList(MediaType.APPLICATION_XML_TYPE);        
-            } else if (responseClass == Void.class || responseClass == Void.TYPE) {
-                accepts = Collections.singletonList(MediaType.WILDCARD_TYPE);
-            } else {
-                accepts = ori.getProduceTypes();
-            }
-            
-            for (MediaType mt : accepts) {
-                headers.add(HttpHeaders.ACCEPT, JAXRSUtils.mediaTypeToString(mt));
+        List<String> accepts = headers.get(HttpHeaders.ACCEPT);
+        if (accepts == null || accepts.isEmpty()) {
+            for (String mt : plan.accepts) {
+                headers.add(HttpHeaders.ACCEPT, mt);
             }
         }
             
         return headers;
     }
     
-    private List<MediaType> getAccept(MultivaluedMap<String, String> allHeaders) {
-        List<String> headers = allHeaders.get(HttpHeaders.ACCEPT);
-        if (headers == null || headers.size() == 0) {
-            return null;
-        }
-        List<MediaType> types = new ArrayList<MediaType>();
-        for (String s : headers) {
-            types.add(JAXRSUtils.toMediaType(s));
-        }
-        return types;
-    }
-    
     private List<Object> getPathParamValues(Method m,
                                             Object[] params,
                                             MultivaluedMap<ParameterType, Parameter> map,
@@ -473,8 +576,10 @@ public class ClientProxyImpl extends AbstractClient implements
         return list;
     }
     
-    private static Annotation[] getParamAnnotations(Method m, Parameter p) {
-        return m.getParameterAnnotations()[p.getIndex()];
+    private Annotation[] getParamAnnotations(Method m, Parameter p) {
+        InvocationPlan plan = invocationPlans.get(m);
+        Annotation[][] anns = plan != null ? plan.paramAnns : m.getParameterAnnotations();
+        return anns[p.getIndex()];
     }
     
     @SuppressWarnings("unchecked")
@@ -515,41 +620,61 @@ public class ClientProxyImpl extends AbstractClient implements
     private Map<String, BeanPair> getValuesFromBeanParam(Object bean, 
                                                          Class<? extends Annotation> annClass,
                                                          Map<String, BeanPair> values) {
-        for (Method m : bean.getClass().getMethods()) {
+        for (BeanParamProperty prop : getBeanParamProperties(bean.getClass(), annClass)) {
+            try {
+                Object value = prop.getValue(bean);
+                if (value != null) {
+                    if (prop.name != null) {
+                        values.put(prop.name, new BeanPair(value, prop.anns));
+                    } else {
+                        getValuesFromBeanParam(value, annClass, values);
+                    }
+                }
+            } catch (Throwable t) {
+                // ignore
+            }
+        }
+        return values;
+    }
+    
+    private static List<BeanParamProperty> getBeanParamProperties(Class<?> beanClass,
+                                                                  Class<? extends Annotation> annClass) {
+        Map<Class<? extends Annotation>, List<BeanParamProperty>> props = BEAN_PARAM_PROPERTIES.get(beanClass);
+        List<BeanParamProperty> list = props.get(annClass);
+        if (list == null) {
+            list = createBeanParamProperties(beanClass, annClass);
+            props.put(annClass, list);
+        }
+        return list;
+    }
+    
+    private static List<BeanParamProperty> createBeanParamProperties(Class<?> beanClass,
+                                                                     Class<? extends Annotation> annClass) {
+        List<BeanParamProperty> props = new LinkedList<BeanParamProperty>();
+        for (Method m : beanClass.getMethods()) {
             if (m.getName().startsWith("set")) {
                 try {
                     String propertyName = m.getName().substring(3);
                     Annotation annotation = m.getAnnotation(annClass);
                     boolean beanParam = m.getAnnotation(BeanParam.class) != null;
                     if (annotation != null || beanParam) {
-                        Method getter = bean.getClass().getMethod("get" + propertyName, new Class[]{});
-                        Object value = getter.invoke(bean, new Object[]{});
-                        if (value != null) {
-                            if (annotation != null) {
-                                String annotationValue = AnnotationUtils.getAnnotationValue(annotation);
-                                values.put(annotationValue, new BeanPair(value, m.getParameterAnnotations()[0]));
-                            } else {
-                                getValuesFromBeanParam(value, annClass, values);
-                            }
-                        }
+                        Method getter = beanClass.getMethod("get" + propertyName, new Class[]{});
+                        props.add(annotation != null 
+                            ? new BeanParamProperty(getter, null, AnnotationUtils.getAnnotationValue(annotation),
+                                                    m.getParameterAnnotations()[0])
+                            : new BeanParamProperty(getter, null, null, null));
                     } else {
                         String fieldName = StringUtils.uncapitalize(propertyName);
-                        Field f = getDeclaredField(bean.getClass(), fieldName);
+                        Field f = getDeclaredField(beanClass, fieldName);
                         if (f == null) {
                             continue;
                         }
                         annotation = f.getAnnotation(annClass);
                         if (annotation != null) {
-                            Object value = ReflectionUtil.accessDeclaredField(f, bean, Object.class);
-                            if (value != null) {
-                                String annotationValue = AnnotationUtils.getAnnotationValue(annotation);
-                                values.put(annotationValue, new BeanPair(value, f.getAnnotations()));
-                            }    
+                            props.add(new BeanParamProperty(null, f, AnnotationUtils.getAnnotationValue(annotation),
+                                                            f.getAnnotations()));
                         } else if (f.getAnnotation(BeanParam.class) != null) {
-                            Object value = ReflectionUtil.accessDeclaredField(f, bean, Object.class);
-                            if (value != null) {
-                                getValuesFromBeanParam(value, annClass, values);
-                            }
+                            props.add(new BeanParamProperty(null, f, null, null));
                         }
                     }
                 } catch (Throwable t) {
@@ -557,7 +682,7 @@ public class ClientProxyImpl extends AbstractClient implements
                 }    
             }
         }
-        return values;
+        return props;
     }
     
     private static Field getDeclaredField(Class<?> cls, String fieldName) {
@@ -743,6 +868,10 @@ public class ClientProxyImpl extends AbstractClient implements
             reqContext.put(OperationResourceInfo.class.getName(), ori);
             reqContext.put("BODY_INDEX", bodyIndex);
             
+            if (isCompletionStage(ori.getMethodToInvoke())) {
+                return doInvokeAsync(outMessage);
+            }
+            
             // execute chain    
             doRunInterceptorChain(outMessage);
             
@@ -767,6 +896,72 @@ public class ClientProxyImpl extends AbstractClient implements
         
     }
     
+    private CompletionStage<Object> doInvokeAsync(Message outMessage) {
+        Exchange exchange = outMessage.getExchange();
+        exchange.setSynchronous(false);
+        JaxrsClientCallback<Object> cb = new JaxrsClientCallback<Object>(null, null, null);
+        CompletionStage<Object> stage = cb.createCompletionStage();
+        exchange.put(JaxrsClientCallback.class, cb);
+        exchange.put(ClientProxyImpl.class, this);
+        
+        doRunInterceptorChain(outMessage);
+        return stage;
+    }
+    
+    private void handleAsyncResponse(Message message) {
+        Exchange exchange = message.getExchange();
+        JaxrsClientCallback<?> cb = exchange.get(JaxrsClientCallback.class);
+        Message outMessage = exchange.getOutMessage();
+        try {
+            Object[] results = preProcessResult(outMessage);
+            if (results != null && results.length == 1) {
+                cb.handleResponse(message, results);
+                return;
+            }
+        } catch (Exception ex) {
+            cb.handleException(message, ex instanceof WebApplicationException 
+                || ex instanceof ProcessingException ? ex : new ProcessingException(ex));
+            return;
+        }
+        
+        Object result = null;
+        Throwable error = null;
+        try {
+            OperationResourceInfo ori = outMessage.getContent(OperationResourceInfo.class);
+            result = handleResponse(outMessage, ori.getClassResourceInfo().getServiceClass());
+        } catch (Throwable t) {
+            error = t;
+        } finally {
+            completeExchange(exchange, true);
+        }
+        if (error != null) {
+            cb.handleException(message, error);
+        } else {
+            cb.handleResponse(message, new Object[] {result});
+        }
+    }
+    
+    private static boolean isCompletionStage(Method m) {
+        return m.getReturnType() == CompletionStage.class;
+    }
+    
+    private static Type getResponseGenericType(Method m) {
+        Type type = m.getGenericReturnType();
+        if (isCompletionStage(m)) {
+            type = type instanceof ParameterizedType 
+                ? ((ParameterizedType)type).getActualTypeArguments()[0] : Response.class;
+        }
+        return type;
+    }
+    
+    private static Class<?> getResponseClass(Method m) {
+        if (!isCompletionStage(m)) {
+            return m.getReturnType();
+        }
+        Class<?> cls = InjectionUtils.getRawType(getResponseGenericType(m));
+        return cls == null ? Object.class : cls;
+    }
+    
     @Override
     protected Object retryInvoke(URI newRequestURI, 
                                  MultivaluedMap<String, String> headers,
@@ -791,10 +986,11 @@ public class ClientProxyImpl extends AbstractClient implements
             
             Method method = outMessage.getExchange().get(Method.class);
             checkResponse(method, r, outMessage);
-            if (method.getReturnType() == Void.class || method.getReturnType() == Void.TYPE) { 
+            Class<?> returnType = getResponseClass(method);
+            if (returnType == Void.class || returnType == Void.TYPE) { 
                 return null;
             }
-            if (method.getReturnType() == Response.class
+            if (returnType == Response.class
                 && (r.getEntity() == null || InputStream.class.isAssignableFrom(r.getEntity().getClass())
                     && ((InputStream)r.getEntity()).available() == 0)) {
                 return r;
@@ -803,11 +999,10 @@ public class ClientProxyImpl extends AbstractClient implements
                 r.bufferEntity();
             }
             
-            Class<?> returnType = method.getReturnType();
             Type genericType = 
                 InjectionUtils.processGenericTypeIfNeeded(serviceCls, 
                                                           returnType,
-                                                          method.getGenericReturnType());
+                                                          getResponseGenericType(method));
             returnType = InjectionUtils.updateParamClassToTypeIfNeeded(returnType, genericType);
             return readBody(r, 
                             outMessage, 
@@ -838,6 +1033,23 @@ public class ClientProxyImpl extends AbstractClient implements
             : aMethod.getParameterAnnotations()[bodyIndex];
     }
     
+    private static class ClientAsyncResponseInterceptor extends AbstractPhaseInterceptor<Message> {
+        ClientAsyncResponseInterceptor() {
+            super(Phase.UNMARSHAL);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            if (message.getExchange().isSynchronous()) {
+                return;
+            }
+            ClientProxyImpl proxyImpl = message.getExchange().get(ClientProxyImpl.class);
+            if (proxyImpl != null) {
+                proxyImpl.handleAsyncResponse(message);
+            }
+        }
+    }
+    
     private class BodyWriter extends AbstractBodyWriter {
         
         protected void doWriteBody(Message outMessage, 
@@ -886,6 +1098,218 @@ public class ClientProxyImpl extends AbstractClient implements
         
     }
     
+    /**
+     * Method data which does not depend on the actual parameter values:
+     * the parameter locations, the body index, the parameter annotations,
+     * the request path templates and the default Content-Type and Accept values
+     */
+    private static class InvocationPlan {
+        private final MultivaluedMap<ParameterType, Parameter> types;
+        private final List<Parameter> beanParams;
+        private final int bodyIndex;
+        private final Annotation[][] paramAnns;
+        private final String contentType;
+        private final List<String> accepts;
+        private final PathPlan rootPath;
+        private final PathPlan path;
+        
+        InvocationPlan(Method m, OperationResourceInfo ori) {
+            types = getParametersInfo(m, ori);
+            beanParams = getParameters(types, ParameterType.BEAN);
+            bodyIndex = getBodyIndex(types, ori);
+            paramAnns = m.getParameterAnnotations();
+            
+            if (hasSimpleUriParameters(types, beanParams)) {
+                String methodTemplate = ori.getURITemplate().getValue();
+                ClassResourceInfo resourceInfo = ori.getClassResourceInfo();
+                rootPath = resourceInfo.getURITemplate() == null ? null 
+                    : PathPlan.create(resourceInfo.getURITemplate().getValue(), methodTemplate);
+                path = PathPlan.create(methodTemplate);
+            } else {
+                rootPath = null;
+                path = null;
+            }
+            
+            List<MediaType> consumeTypes = ori.getConsumeTypes();
+            contentType = !consumeTypes.isEmpty() && !consumeTypes.get(0).equals(MediaType.WILDCARD_TYPE)
+                ? JAXRSUtils.mediaTypeToString(consumeTypes.get(0)) : null;
+            
+            Class<?> responseClass = getResponseClass(m);
+            List<MediaType> acceptTypes = null;
+            boolean produceWildcard = ori.getProduceTypes().size() == 0 
+                || ori.getProduceTypes().get(0).equals(MediaType.WILDCARD_TYPE);
+            if (produceWildcard) {
+                acceptTypes = InjectionUtils.isPrimitive(responseClass)
+                    ? Collections.singletonList(MediaType.TEXT_PLAIN_TYPE)
+                    : Collections.singletonList(MediaType.APPLICATION_XML_TYPE);        
+            } else if (responseClass == Void.class || responseClass == Void.TYPE) {
+                acceptTypes = Collections.singletonList(MediaType.WILDCARD_TYPE);
+            } else {
+                acceptTypes = ori.getProduceTypes();
+            }
+            List<String> values = new ArrayList<String>(acceptTypes.size());
+            for (MediaType mt : acceptTypes) {
+                values.add(JAXRSUtils.mediaTypeToString(mt));
+            }
+            accepts = values;
+        }
+    }
+    
+    private static boolean hasSimpleUriParameters(MultivaluedMap<ParameterType, Parameter> types, 
+                                                  List<Parameter> beanParams) {
+        if (!beanParams.isEmpty() || types.containsKey(ParameterType.MATRIX)) {
+            return false;
+        }
+        for (Parameter p : getParameters(types, ParameterType.PATH)) {
+            if (p.getName().length() == 0) {
+                return false;
+            }
+        }
+        for (Parameter p : getParameters(types, ParameterType.QUERY)) {
+            if (p.getName().length() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The relative request path of a resource method split into literals and template
+     * variables, the values of the variables are substituted in the order in which the 
+     * variables first appear. Templates with regular expressions, path segments to be
+     * normalized or characters to be encoded are not supported and left to the UriBuilder.
+     */
+    private static final class PathPlan {
+        private static final String LITERAL_CHARS = "-._~!$&'()*+,=:@/";
+        
+        private final String[] literals;
+        private final int[] varIndexes;
+        private final int varCount;
+        
+        private PathPlan(List<String> literals, List<Integer> varIndexes, int varCount) {
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.varIndexes = new int[varIndexes.size()];
+            for (int i = 0; i < this.varIndexes.length; i++) {
+                this.varIndexes[i] = varIndexes.get(i);
+            }
+            this.varCount = varCount;
+        }
+        
+        static PathPlan create(String... templates) {
+            StringBuilder sb = new StringBuilder();
+            for (String template : templates) {
+                if (template == null) {
+                    return null;
+                }
+                if (SLASH.equals(template)) {
+                    continue;
+                }
+                if (template.endsWith(SLASH)) {
+                    return null;
+                }
+                for (String segment : StringUtils.split(template, SLASH)) {
+                    if (segment.length() == 0) {
+                        continue;
+                    }
+                    if (".".equals(segment) || "..".equals(segment)) {
+                        return null;
+                    }
+                    if (sb.length() > 0) {
+                        sb.append('/');
+                    }
+                    sb.append(segment);
+                }
+            }
+            return sb.length() == 0 ? null : parse(sb.toString());
+        }
+        
+        private static PathPlan parse(String path) {
+            List<String> literals = new ArrayList<String>();
+            List<Integer> varIndexes = new ArrayList<Integer>();
+            List<String> vars = new ArrayList<String>();
+            int start = 0;
+            for (int i = 0; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c == '{') {
+                    int end = path.indexOf('}', i);
+                    String var = end == -1 ? null : path.substring(i + 1, end).trim();
+                    if (var == null || var.length() == 0 || var.indexOf(':') != -1 || var.indexOf('{') != -1) {
+                        return null;
+                    }
+                    literals.add(path.substring(start, i));
+                    int index = vars.indexOf(var);
+                    if (index == -1) {
+                        index = vars.size();
+                        vars.add(var);
+                    }
+                    varIndexes.add(index);
+                    i = end;
+                    start = end + 1;
+                } else if (!(c < 128 && Character.isLetterOrDigit(c)) && LITERAL_CHARS.indexOf(c) == -1) {
+                    return null;
+                }
+            }
+            literals.add(path.substring(start));
+            return new PathPlan(literals, varIndexes, vars.size());
+        }
+        
+        /**
+         * Returns the path with the variables substituted, or null if there are not enough
+         * values for the UriBuilder to report.
+         */
+        String build(List<Object> values) {
+            if (values.size() < varCount) {
+                return null;
+            }
+            String[] encoded = new String[varCount];
+            Iterator<Object> it = values.iterator();
+            for (int i = 0; i < varCount; i++) {
+                Object value = it.next();
+                if (value == null) {
+                    return null;
+                }
+                encoded[i] = HttpUtils.encodePartiallyEncoded(value.toString(), false);
+            }
+            StringBuilder sb = new StringBuilder(literals[0]);
+            for (int i = 0; i < varIndexes.length; i++) {
+                sb.append(encoded[varIndexes[i]]).append(literals[i + 1]);
+            }
+            return sb.toString();
+        }
+    }
+    
+    /**
+     * The template of the current UriBuilder, kept until the builder is replaced
+     */
+    private static final class BaseTemplate {
+        private final UriBuilder builder;
+        private final String template;
+        
+        BaseTemplate(UriBuilder builder, String template) {
+            this.builder = builder;
+            this.template = template;
+        }
+    }
+    
+    private static class BeanParamProperty {
+        private final Method getter;
+        private final Field field;
+        private final String name;
+        private final Annotation[] anns;
+        
+        BeanParamProperty(Method getter, Field field, String name, Annotation[] anns) {
+            this.getter = getter;
+            this.field = field;
+            this.name = name;
+            this.anns = anns;
+        }
+        
+        Object getValue(Object bean) throws Exception {
+            return getter != null ? getter.invoke(bean, new Object[]{}) 
+                : ReflectionUtil.accessDeclaredField(field, bean, Object.class);
+        }
+    }
+    
     private static class BeanPair {
         private Object value;
         private Annotation[] anns;
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.client;
+
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Reactive invoker returning CompletionStage, completed from the thread
+ * which delivers the response rather than from a thread blocked waiting for it.
+ * Stages returned by this invoker can be composed to fan out many invocations.
+ */
+public interface CompletionStageRxInvoker {
+    
+    CompletionStage<Response> get();
+    <T> CompletionStage<T> get(Class<T> responseType);
+    <T> CompletionStage<T> get(GenericType<T> responseType);
+    
+    CompletionStage<Response> put(Entity<?> entity);
+    <T> CompletionStage<T> put(Entity<?> entity, Class<T> responseType);
+    <T> CompletionStage<T> put(Entity<?> entity, GenericType<T> responseType);
+    
+    CompletionStage<Response> post(Entity<?> entity);
+    <T> CompletionStage<T> post(Entity<?> entity, Class<T> responseType);
+    <T> CompletionStage<T> post(Entity<?> entity, GenericType<T> responseType);
+    
+    CompletionStage<Response> delete();
+    <T> CompletionStage<T> delete(Class<T> responseType);
+    <T> CompletionStage<T> delete(GenericType<T> responseType);
+    
+    CompletionStage<Response> head();
+    
+    CompletionStage<Response> options();
+    <T> CompletionStage<T> options(Class<T> responseType);
+    <T> CompletionStage<T> options(GenericType<T> responseType);
+    
+    CompletionStage<Response> trace();
+    <T> CompletionStage<T> trace(Class<T> responseType);
+    <T> CompletionStage<T> trace(GenericType<T> responseType);
+    
+    CompletionStage<Response> method(String name);
+    <T> CompletionStage<T> method(String name, Class<T> responseType);
+    <T> CompletionStage<T> method(String name, GenericType<T> responseType);
+    
+    CompletionStage<Response> method(String name, Entity<?> entity);
+    <T> CompletionStage<T> method(String name, Entity<?> entity, Class<T> responseType);
+    <T> CompletionStage<T> method(String name, Entity<?> entity, GenericType<T> responseType);
+}
@@ -22,6 +22,8 @@ package org.apache.cxf.jaxrs.client;
 import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +37,7 @@ class JaxrsClientCallback<T> extends ClientCallback {
     private final InvocationCallback<T> handler;
     private final Type outType;
     private final Class<?> responseClass;
+    private volatile CompletableFuture<T> stage;
     
     JaxrsClientCallback(final InvocationCallback<T> handler, 
                         Class<?> responseClass, 
@@ -68,6 +71,21 @@ class JaxrsClientCallback<T> extends ClientCallback {
         return new JaxrsResponseCallback<T>(this);
     }
     
+    /**
+     * Creates a stage which is completed by this callback; it has to be created 
+     * before the invocation starts.
+     */
+    public CompletionStage<T> createCompletionStage() {
+        stage = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                JaxrsClientCallback.this.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        return stage;
+    }
+    
     
     @SuppressWarnings("unchecked")
     public void handleResponse(Map<String, Object> ctx, Object[] res) {
@@ -80,6 +98,9 @@ class JaxrsClientCallback<T> extends ClientCallback {
         synchronized (this) {
             notifyAll();
         }
+        if (stage != null) {
+            stage.complete((T)res[0]);
+        }
     }
 
     @Override
@@ -93,6 +114,9 @@ class JaxrsClientCallback<T> extends ClientCallback {
         synchronized (this) {
             notifyAll();
         }
+        if (stage != null) {
+            stage.completeExceptionally(exception);
+        }
     }
     
     
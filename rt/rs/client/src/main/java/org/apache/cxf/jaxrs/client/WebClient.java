@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 
 import javax.ws.rs.HttpMethod;
@@ -954,6 +955,30 @@ public class WebClient extends AbstractClient {
                                           Class<?> respClass,
                                           Type outType,
                                           InvocationCallback<T> callback) {
+        JaxrsClientCallback<T> cb = new JaxrsClientCallback<T>(callback, respClass, outType);
+        runAsyncInvocation(httpMethod, body, requestClass, inType, respClass, outType, cb);
+        return cb.createFuture();
+    }
+    
+    protected <T> CompletionStage<T> doInvokeAsyncStage(String httpMethod, 
+                                                        Object body, 
+                                                        Class<?> requestClass,
+                                                        Type inType,
+                                                        Class<?> respClass,
+                                                        Type outType) {
+        JaxrsClientCallback<T> cb = new JaxrsClientCallback<T>(null, respClass, outType);
+        CompletionStage<T> stage = cb.createCompletionStage();
+        runAsyncInvocation(httpMethod, body, requestClass, inType, respClass, outType, cb);
+        return stage;
+    }
+    
+    private void runAsyncInvocation(String httpMethod, 
+                                    Object body, 
+                                    Class<?> requestClass,
+                                    Type inType,
+                                    Class<?> respClass,
+                                    Type outType,
+                                    JaxrsClientCallback<?> cb) {
         Annotation[] inAnns = null;
         if (body instanceof Entity) {
             Entity<?> entity = (Entity<?>)body;
@@ -978,12 +1003,9 @@ public class WebClient extends AbstractClient {
                                     inAnns, respClass, outType, null, null);
         
         m.getExchange().setSynchronous(false);
-        JaxrsClientCallback<T> cb = new JaxrsClientCallback<T>(callback, respClass, outType);
         m.getExchange().put(JaxrsClientCallback.class, cb);
         
         doRunInterceptorChain(m);
-        
-        return cb.createFuture();
     }
 
     
@@ -1285,6 +1307,14 @@ public class WebClient extends AbstractClient {
         return new AsyncInvokerImpl();
     }
     
+    /**
+     * Returns the invoker which completes CompletionStage instances when the responses
+     * arrive; no thread is blocked per invocation when the asynchronous HTTP conduit is used
+     */
+    public CompletionStageRxInvoker rx() {
+        return new CompletionStageRxInvokerImpl();
+    }
+    
     // Link to JAX-RS 2.0 SyncInvoker
     public SyncInvoker sync() {
         return new SyncInvokerImpl();
@@ -1297,7 +1327,8 @@ public class WebClient extends AbstractClient {
 
         @Override
         public void handleMessage(Message message) throws Fault {
-            if (message.getExchange().isSynchronous()) {
+            if (message.getExchange().isSynchronous() 
+                || message.getExchange().get(ClientProxyImpl.class) != null) {
                 return;
             }
             handleAsyncResponse(message);
@@ -1509,6 +1540,136 @@ public class WebClient extends AbstractClient {
     
     
     
+    class CompletionStageRxInvokerImpl implements CompletionStageRxInvoker {
+
+        @Override
+        public CompletionStage<Response> get() {
+            return method(HttpMethod.GET);
+        }
+
+        @Override
+        public <T> CompletionStage<T> get(Class<T> responseType) {
+            return method(HttpMethod.GET, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> get(GenericType<T> responseType) {
+            return method(HttpMethod.GET, responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> put(Entity<?> entity) {
+            return method(HttpMethod.PUT, entity);
+        }
+
+        @Override
+        public <T> CompletionStage<T> put(Entity<?> entity, Class<T> responseType) {
+            return method(HttpMethod.PUT, entity, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> put(Entity<?> entity, GenericType<T> responseType) {
+            return method(HttpMethod.PUT, entity, responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> post(Entity<?> entity) {
+            return method(HttpMethod.POST, entity);
+        }
+
+        @Override
+        public <T> CompletionStage<T> post(Entity<?> entity, Class<T> responseType) {
+            return method(HttpMethod.POST, entity, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> post(Entity<?> entity, GenericType<T> responseType) {
+            return method(HttpMethod.POST, entity, responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> delete() {
+            return method(HttpMethod.DELETE);
+        }
+
+        @Override
+        public <T> CompletionStage<T> delete(Class<T> responseType) {
+            return method(HttpMethod.DELETE, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> delete(GenericType<T> responseType) {
+            return method(HttpMethod.DELETE, responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> head() {
+            return method(HttpMethod.HEAD);
+        }
+
+        @Override
+        public CompletionStage<Response> options() {
+            return method(HttpMethod.OPTIONS);
+        }
+
+        @Override
+        public <T> CompletionStage<T> options(Class<T> responseType) {
+            return method(HttpMethod.OPTIONS, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> options(GenericType<T> responseType) {
+            return method(HttpMethod.OPTIONS, responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> trace() {
+            return method("TRACE");
+        }
+
+        @Override
+        public <T> CompletionStage<T> trace(Class<T> responseType) {
+            return method("TRACE", responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> trace(GenericType<T> responseType) {
+            return method("TRACE", responseType);
+        }
+
+        @Override
+        public CompletionStage<Response> method(String name) {
+            return method(name, Response.class);
+        }
+
+        @Override
+        public <T> CompletionStage<T> method(String name, Class<T> responseType) {
+            return doInvokeAsyncStage(name, null, null, null, responseType, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> method(String name, GenericType<T> responseType) {
+            return doInvokeAsyncStage(name, null, null, null, responseType.getRawType(),
+                                      responseType.getType());
+        }
+
+        @Override
+        public CompletionStage<Response> method(String name, Entity<?> entity) {
+            return method(name, entity, Response.class);
+        }
+
+        @Override
+        public <T> CompletionStage<T> method(String name, Entity<?> entity, Class<T> responseType) {
+            return doInvokeAsyncStage(name, entity, null, null, responseType, responseType);
+        }
+
+        @Override
+        public <T> CompletionStage<T> method(String name, Entity<?> entity, GenericType<T> responseType) {
+            return doInvokeAsyncStage(name, entity, null, null, responseType.getRawType(),
+                                      responseType.getType());
+        }
+    }
+    
     class SyncInvokerImpl implements SyncInvoker {
 
         @Override
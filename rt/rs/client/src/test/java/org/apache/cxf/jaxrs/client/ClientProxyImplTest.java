@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.Response;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ClientProxyImplTest extends AbstractLocalServerTest {
+    public static final String ADDRESS = "local://clientproxy";
+
+    @BeforeClass
+    public static void bind() throws Exception {
+        startServer(ADDRESS, new EchoServer());
+    }
+
+    @Test
+    public void testRepeatedInvocations() throws Exception {
+        Echo echo = JAXRSClientFactory.create(ADDRESS, Echo.class);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("a" + i + ":b" + i + ":c" + i, echo.echo("a" + i, "b" + i, "c" + i));
+        }
+    }
+    
+    @Test
+    public void testRepeatedBeanParamInvocations() throws Exception {
+        Echo echo = JAXRSClientFactory.create(ADDRESS, Echo.class);
+        for (int i = 0; i < 3; i++) {
+            EchoBean bean = new EchoBean();
+            bean.setPath("a" + i);
+            bean.setQuery("b" + i);
+            bean.header = "c" + i;
+            assertEquals("a" + i + ":b" + i + ":c" + i, echo.echoBean(bean));
+        }
+    }
+    
+    @Test
+    public void testSubresourceInvocations() throws Exception {
+        Echo echo = JAXRSClientFactory.create(ADDRESS, Echo.class);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("a" + i + ":b" + i + ":c" + i, echo.sub().echo("a" + i, "b" + i, "c" + i));
+        }
+    }
+
+    @Test
+    public void testRequestUri() throws Exception {
+        ClientRequestFilter uriEcho = new ClientRequestFilter() {
+            @Override
+            public void filter(ClientRequestContext context) throws IOException {
+                context.abortWith(Response.ok(context.getUri().toString(), "text/plain").build());
+            }
+        };
+        Echo echo = JAXRSClientFactory.create("http://localhost:8080/base/", Echo.class, 
+                                              Collections.singletonList(uriEcho));
+        assertEquals("http://localhost:8080/base/uri/a%20b/c/a%20b?q=x%26y&q=1%2B1&q=z",
+                     echo.uri("a b", "c", Arrays.asList("x&y", "1+1", "z")));
+        assertEquals("http://localhost:8080/base/uri/a%2Fb/c%25/a%2Fb", echo.uri("a%2Fb", "c%25", null));
+        assertEquals("http://localhost:8080/base/uri/x.y/%C3%A9/x.y?q&q=a+b", 
+                     echo.uri("x.y", "\u00e9", Arrays.asList("", "a b")));
+        assertEquals("http://localhost:8080/base/sub/uri/a/b/a", echo.sub().uri("a", "b", null));
+        
+        WebClient.client(echo).query("r", "1");
+        assertEquals("http://localhost:8080/base/uri/a/b/a?r=1&q=z", echo.uri("a", "b", Arrays.asList("z")));
+    }
+
+    @Path("/")
+    public interface Echo {
+        @GET
+        @Path("uri/{a}/{b}/{a}")
+        @Produces("text/plain")
+        String uri(@PathParam("a") String a, @PathParam("b") String b, @QueryParam("q") List<String> q);
+        
+        @GET
+        @Path("echo/{p}")
+        @Produces("text/plain")
+        String echo(@PathParam("p") String p, @QueryParam("q") String q, @HeaderParam("h") String h);
+        
+        @GET
+        @Path("echo/{p}")
+        @Produces("text/plain")
+        String echoBean(@BeanParam EchoBean bean);
+        
+        @Path("sub")
+        Echo sub();
+    }
+    
+    public static class EchoBean {
+        @HeaderParam("h")
+        private String header;
+        private String path;
+        private String query;
+        
+        @PathParam("p")
+        public void setPath(String p) {
+            this.path = p;
+        }
+        public String getPath() {
+            return path;
+        }
+        @QueryParam("q")
+        public void setQuery(String q) {
+            this.query = q;
+        }
+        public String getQuery() {
+            return query;
+        }
+        public void setHeader(String h) {
+            this.header = h;
+        }
+    }
+    
+    @Path("/")
+    public static class EchoServer {
+        @GET
+        @Path("echo/{p}")
+        @Produces("text/plain")
+        public String echo(@PathParam("p") String p, @QueryParam("q") String q, @HeaderParam("h") String h) {
+            return p + ":" + q + ":" + h;
+        }
+        
+        @Path("sub")
+        public EchoServer sub() {
+            return this;
+        }
+    }
+}
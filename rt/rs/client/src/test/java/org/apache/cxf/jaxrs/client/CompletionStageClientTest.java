@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompletionStageClientTest extends AbstractLocalServerTest {
+    public static final String ADDRESS = "local://completionstage";
+
+    @BeforeClass
+    public static void bind() throws Exception {
+        startServer(ADDRESS, new BookServer());
+    }
+
+    @Test
+    public void testWebClientRxGet() throws Exception {
+        CompletionStage<String> stage = WebClient.create(ADDRESS).path("books/1")
+            .accept("text/plain").rx().get(String.class);
+        assertEquals("book1", stage.toCompletableFuture().get(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testWebClientRxGetResponse() throws Exception {
+        Response r = WebClient.create(ADDRESS).path("books/2")
+            .accept("text/plain").rx().get().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(200, r.getStatus());
+        assertEquals("book2", r.readEntity(String.class));
+    }
+    
+    @Test
+    public void testWebClientRxFailure() throws Exception {
+        CompletionStage<String> stage = WebClient.create(ADDRESS).path("missing")
+            .accept("text/plain").rx().get(String.class);
+        try {
+            stage.toCompletableFuture().get(10, TimeUnit.SECONDS);
+            fail("NotFoundException expected");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof NotFoundException);
+        }
+    }
+    
+    @Test
+    public void testProxyCompletionStage() throws Exception {
+        BookStoreAsync store = JAXRSClientFactory.create(ADDRESS, BookStoreAsync.class);
+        assertEquals("book3", store.getBook("3").toCompletableFuture().get(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testProxyCompletionStageFailure() throws Exception {
+        BookStoreAsync store = JAXRSClientFactory.create(ADDRESS, BookStoreAsync.class);
+        try {
+            store.getMissing().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            fail("NotFoundException expected");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof NotFoundException);
+        }
+    }
+    
+    @Test
+    public void testParallelFanOut() throws Exception {
+        BookStoreAsync store = JAXRSClientFactory.create(ADDRESS, BookStoreAsync.class);
+        List<CompletableFuture<String>> books = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 20; i++) {
+            books.add(store.getBook(Integer.toString(i)).toCompletableFuture());
+        }
+        CompletableFuture.allOf(books.toArray(new CompletableFuture<?>[books.size()]))
+            .get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 20; i++) {
+            assertEquals("book" + i, books.get(i).get());
+        }
+    }
+    
+    @Test
+    public void testComposedInvocations() throws Exception {
+        CompletionStage<String> stage = getBook("1")
+            .thenCompose(book -> getBook(Integer.toString(book.length())));
+        assertEquals("book5", stage.toCompletableFuture().get(10, TimeUnit.SECONDS));
+    }
+
+    private static CompletionStage<String> getBook(String id) {
+        return WebClient.create(ADDRESS).path("books").path(id).accept("text/plain").rx().get(String.class);
+    }
+
+    @Path("/")
+    public interface BookStoreAsync {
+        @GET
+        @Path("books/{id}")
+        @Produces("text/plain")
+        CompletionStage<String> getBook(@PathParam("id") String id);
+        
+        @GET
+        @Path("missing")
+        @Produces("text/plain")
+        CompletionStage<String> getMissing();
+    }
+    
+    @Path("/")
+    public static class BookServer {
+        @GET
+        @Path("books/{id}")
+        @Produces("text/plain")
+        public String getBook(@PathParam("id") String id) {
+            return "book" + id;
+        }
+    }
+}
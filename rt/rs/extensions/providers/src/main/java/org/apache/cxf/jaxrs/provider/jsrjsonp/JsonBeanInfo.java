@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+
+import org.apache.cxf.common.util.ReflectionUtil;
+
+/**
+ * Describes how the properties of a JAXB-annotated or plain bean class are mapped to JSON
+ * members. The introspection follows the default JAXB rules: XmlAccessorType decides if
+ * fields or getter/setter pairs are used, XmlElement and XmlAttribute names are respected,
+ * XmlTransient properties are ignored and XmlType propOrder is applied. Enum constants are
+ * mapped to their XmlEnumValue or name.
+ * Accessors are resolved to MethodHandles once per class.
+ */
+final class JsonBeanInfo {
+    private static final String DEFAULT_NAME = "##default";
+    private static final ClassValue<JsonBeanInfo> BEAN_INFOS = new ClassValue<JsonBeanInfo>() {
+        @Override
+        protected JsonBeanInfo computeValue(Class<?> type) {
+            return new JsonBeanInfo(type);
+        }
+    };
+    
+    private static final ClassValue<EnumValues> ENUM_VALUES = new ClassValue<EnumValues>() {
+        @Override
+        protected EnumValues computeValue(Class<?> type) {
+            return new EnumValues(type);
+        }
+    };
+    
+    private final Class<?> beanClass;
+    private final MethodHandle constructor;
+    private final JsonBeanProperty[] properties;
+    private final Map<String, JsonBeanProperty> propertiesByName;
+    
+    private JsonBeanInfo(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        this.constructor = getConstructor(beanClass);
+        
+        XmlAccessType accessType = getAccessType(beanClass);
+        Map<String, JsonBeanProperty> props = new LinkedHashMap<String, JsonBeanProperty>();
+        List<Class<?>> hierarchy = new LinkedList<Class<?>>();
+        for (Class<?> cls = beanClass; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            hierarchy.add(0, cls);
+        }
+        for (Class<?> cls : hierarchy) {
+            for (Field f : ReflectionUtil.getDeclaredFields(cls)) {
+                if (isMappedField(f, accessType)) {
+                    props.put(f.getName(), createProperty(f));
+                }
+            }
+        }
+        if (accessType == XmlAccessType.PROPERTY || accessType == XmlAccessType.PUBLIC_MEMBER) {
+            for (Method m : beanClass.getMethods()) {
+                String name = getPropertyName(m);
+                if (name != null && !props.containsKey(name) && m.getAnnotation(XmlTransient.class) == null) {
+                    JsonBeanProperty prop = createProperty(name, m);
+                    if (prop != null) {
+                        props.put(name, prop);
+                    }
+                }
+            }
+        }
+        applyPropOrder(beanClass, props);
+        
+        this.properties = props.values().toArray(new JsonBeanProperty[props.size()]);
+        this.propertiesByName = new LinkedHashMap<String, JsonBeanProperty>();
+        for (JsonBeanProperty prop : properties) {
+            propertiesByName.put(prop.getName(), prop);
+        }
+    }
+    
+    static JsonBeanInfo getBeanInfo(Class<?> cls) {
+        return BEAN_INFOS.get(cls);
+    }
+    
+    /**
+     * @return the XmlEnumValue of the constant or its name if it has none
+     */
+    static String getEnumValue(Enum<?> constant) {
+        return ENUM_VALUES.get(constant.getDeclaringClass()).values[constant.ordinal()];
+    }
+    
+    /**
+     * @return the constant of the enum class {@link #getEnumValue(Enum)} returns the given value for
+     */
+    static Object getEnumConstant(Class<?> enumClass, String value) {
+        Object constant = ENUM_VALUES.get(enumClass).constants.get(value);
+        if (constant == null) {
+            throw new IllegalArgumentException("No " + enumClass.getName() + " constant for " + value);
+        }
+        return constant;
+    }
+    
+    JsonBeanProperty[] getProperties() {
+        return properties;
+    }
+    
+    JsonBeanProperty getProperty(String jsonName) {
+        return propertiesByName.get(jsonName);
+    }
+    
+    Object newInstance() {
+        if (constructor == null) {
+            throw new IllegalStateException(beanClass.getName() + " has no default constructor");
+        }
+        try {
+            return (Object)constructor.invokeExact();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    private static MethodHandle getConstructor(Class<?> cls) {
+        if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> c = ReflectionUtil.getDeclaredConstructor(cls);
+            if (c == null) {
+                return null;
+            }
+            return MethodHandles.lookup().unreflectConstructor(ReflectionUtil.setAccessible(c))
+                .asType(MethodType.methodType(Object.class));
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+    
+    private static XmlAccessType getAccessType(Class<?> cls) {
+        XmlAccessorType accessorType = cls.getAnnotation(XmlAccessorType.class);
+        if (accessorType == null && cls.getPackage() != null) {
+            accessorType = cls.getPackage().getAnnotation(XmlAccessorType.class);
+        }
+        return accessorType == null ? XmlAccessType.PUBLIC_MEMBER : accessorType.value();
+    }
+    
+    private static boolean isMappedField(Field f, XmlAccessType accessType) {
+        int mod = f.getModifiers();
+        if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || f.isSynthetic()
+            || f.getAnnotation(XmlTransient.class) != null) {
+            return false;
+        }
+        return accessType == XmlAccessType.FIELD 
+            || accessType == XmlAccessType.PUBLIC_MEMBER && Modifier.isPublic(mod)
+            || f.getAnnotation(XmlElement.class) != null
+            || f.getAnnotation(XmlAttribute.class) != null;
+    }
+    
+    private static String getPropertyName(Method m) {
+        if (Modifier.isStatic(m.getModifiers()) || m.getParameterTypes().length != 0 
+            || m.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        String name = m.getName();
+        if (name.startsWith("get") && name.length() > 3 && m.getReturnType() != void.class) {
+            return Introspector.decapitalize(name.substring(3));
+        } else if (name.startsWith("is") && name.length() > 2 && m.getReturnType() == boolean.class) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+    
+    private JsonBeanProperty createProperty(Field f) {
+        ReflectionUtil.setAccessible(f);
+        try {
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(f);
+            MethodHandle setter = Modifier.isFinal(f.getModifiers()) 
+                ? null : MethodHandles.lookup().unreflectSetter(f);
+            return new JsonBeanProperty(getJsonName(f.getName(), f), f.getType(), f.getGenericType(), 
+                                        getter, setter);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    private JsonBeanProperty createProperty(String name, Method getter) {
+        Method setter = null;
+        try {
+            setter = beanClass.getMethod("set" + getter.getName().substring(getter.getName().startsWith("is") 
+                ? 2 : 3), getter.getReturnType());
+        } catch (NoSuchMethodException ex) {
+            // read-only property
+        }
+        boolean annotated = getter.getAnnotation(XmlElement.class) != null 
+            || getter.getAnnotation(XmlAttribute.class) != null;
+        if (setter == null && !annotated && !Collection.class.isAssignableFrom(getter.getReturnType())) {
+            return null;
+        }
+        try {
+            return new JsonBeanProperty(getJsonName(name, getter), getter.getReturnType(), 
+                                        getter.getGenericReturnType(), 
+                                        MethodHandles.lookup().unreflect(ReflectionUtil.setAccessible(getter)),
+                                        setter == null ? null 
+                                            : MethodHandles.lookup().unreflect(ReflectionUtil.setAccessible(setter)));
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    private static String getJsonName(String name, AccessibleObject ao) {
+        XmlElement el = ao.getAnnotation(XmlElement.class);
+        if (el != null && !DEFAULT_NAME.equals(el.name())) {
+            return el.name();
+        }
+        XmlAttribute attr = ao.getAnnotation(XmlAttribute.class);
+        if (attr != null && !DEFAULT_NAME.equals(attr.name())) {
+            return attr.name();
+        }
+        return name;
+    }
+    
+    private static void applyPropOrder(Class<?> cls, Map<String, JsonBeanProperty> props) {
+        XmlType xmlType = cls.getAnnotation(XmlType.class);
+        if (xmlType == null || xmlType.propOrder().length == 0 
+            || xmlType.propOrder().length == 1 && "".equals(xmlType.propOrder()[0])) {
+            return;
+        }
+        Map<String, JsonBeanProperty> ordered = new LinkedHashMap<String, JsonBeanProperty>();
+        for (String name : xmlType.propOrder()) {
+            JsonBeanProperty prop = props.remove(name);
+            if (prop != null) {
+                ordered.put(name, prop);
+            }
+        }
+        ordered.putAll(props);
+        props.clear();
+        props.putAll(ordered);
+    }
+    
+    private static final class EnumValues {
+        private final String[] values;
+        private final Map<String, Object> constants = new HashMap<String, Object>();
+        
+        EnumValues(Class<?> enumClass) {
+            Object[] enumConstants = enumClass.getEnumConstants();
+            values = new String[enumConstants.length];
+            for (Object constant : enumConstants) {
+                String name = ((Enum<?>)constant).name();
+                String value = name;
+                try {
+                    XmlEnumValue enumValue = enumClass.getField(name).getAnnotation(XmlEnumValue.class);
+                    if (enumValue != null) {
+                        value = enumValue.value();
+                    }
+                } catch (NoSuchFieldException ex) {
+                    // every constant has a field
+                }
+                values[((Enum<?>)constant).ordinal()] = value;
+                constants.put(value, constant);
+            }
+        }
+    }
+    
+    static final class JsonBeanProperty {
+        private final String name;
+        private final Class<?> type;
+        private final Type genericType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        
+        JsonBeanProperty(String name, Class<?> type, Type genericType, MethodHandle getter, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.genericType = genericType;
+            this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = setter == null 
+                ? null : setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+        
+        String getName() {
+            return name;
+        }
+        
+        Class<?> getType() {
+            return type;
+        }
+        
+        Type getGenericType() {
+            return genericType;
+        }
+        
+        /**
+         * @return the collection a JAXB style collection property without a setter holds, 
+         *         values are added to it directly
+         */
+        @SuppressWarnings("unchecked")
+        Collection<Object> getLiveCollection(Object bean) {
+            return setter == null && Collection.class.isAssignableFrom(type) 
+                ? (Collection<Object>)getValue(bean) : null;
+        }
+        
+        Object getValue(Object bean) {
+            try {
+                return (Object)getter.invokeExact(bean);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        void setValue(Object bean, Object value) {
+            try {
+                if (setter != null) {
+                    setter.invokeExact(bean, value);
+                } else if (Collection.class.isAssignableFrom(type)) {
+                    // JAXB style collection property without a setter
+                    Collection<Object> values = (Collection<Object>)getValue(bean);
+                    if (values != null && value != null) {
+                        values.addAll((Collection<Object>)value);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
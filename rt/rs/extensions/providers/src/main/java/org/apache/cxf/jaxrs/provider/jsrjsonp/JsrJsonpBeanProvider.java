@@ -0,0 +1,515 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.apache.cxf.common.util.Base64Exception;
+import org.apache.cxf.common.util.Base64Utility;
+import org.apache.cxf.jaxrs.provider.jsrjsonp.JsonBeanInfo.JsonBeanProperty;
+import org.apache.cxf.jaxrs.utils.ExceptionUtils;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Reads and writes JAXB-annotated and plain beans directly with the JSON-P streaming API,
+ * without converting them to StAX events first. 
+ * <p>
+ * Bean properties are introspected once per class, see {@link JsonBeanInfo}. Collections, arrays, 
+ * Iterables and Iterators of beans are written element by element, so an Iterator backed by 
+ * a lazily loaded result set is never fully held in memory. Input is parsed incrementally, 
+ * unknown JSON members are skipped.
+ * <p>
+ * Enum constants are written and read as their XmlEnumValue or name. Beyond that only the bean 
+ * structure is mapped, JAXB features such as XmlJavaTypeAdapter and xsi:type polymorphism are not 
+ * supported by this provider.
+ */
+@Produces({"application/json", "application/*+json" })
+@Consumes({"application/json", "application/*+json" })
+@Provider
+public class JsrJsonpBeanProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    
+    private JsonGeneratorFactory generatorFactory = Json.createGeneratorFactory(null);
+    private JsonParserFactory parserFactory = Json.createParserFactory(null);
+    private boolean writeNullValues;
+    private DatatypeFactory datatypeFactory;
+    
+    public void setPrettyPrint(boolean prettyPrint) {
+        Map<String, Object> config = prettyPrint 
+            ? Collections.<String, Object>singletonMap(JsonGenerator.PRETTY_PRINTING, true) : null;
+        generatorFactory = Json.createGeneratorFactory(config);
+    }
+    
+    /**
+     * Write bean properties with null values as JSON nulls, by default such properties are omitted
+     */
+    public void setWriteNullValues(boolean writeNullValues) {
+        this.writeNullValues = writeNullValues;
+    }
+    
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (type.isArray() || Iterable.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type)) {
+            return isBeanType(getRawType(getElementType(type, genericType)));
+        }
+        return isBeanType(type);
+    }
+
+    @Override
+    public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, 
+                        MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] annotations, 
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, 
+                        OutputStream entityStream) throws IOException, WebApplicationException {
+        if (entityStream == null) {
+            throw new IOException("Initialized OutputStream should be provided");
+        }
+        JsonGenerator generator = generatorFactory.createGenerator(entityStream, getCharset(mediaType));
+        try {
+            writeValue(generator, null, t);
+        } catch (JsonException ex) {
+            throw new IOException(ex);
+        } finally {
+            generator.close();
+        }
+    }
+    
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (type.isArray() || Collection.class.isAssignableFrom(type)) {
+            return isBeanType(getRawType(getElementType(type, genericType)));
+        }
+        return isBeanType(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, 
+                           MediaType mediaType, MultivaluedMap<String, String> httpHeaders, 
+                           InputStream entityStream) throws IOException, WebApplicationException {
+        if (entityStream == null) {
+            throw new IOException("Initialized InputStream should be provided");
+        }
+        Charset charset = mediaType == null || mediaType.getParameters().get(MediaType.CHARSET_PARAMETER) == null
+            ? null : getCharset(mediaType);
+        JsonParser parser = charset == null ? parserFactory.createParser(entityStream) 
+            : parserFactory.createParser(entityStream, charset);
+        try {
+            return readValue(parser, parser.next(), type, genericType == null ? type : genericType);
+        } catch (WebApplicationException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            // malformed JSON as well as values which can not be converted to the expected type
+            throw ExceptionUtils.toBadRequestException(ex, null);
+        } finally {
+            parser.close();
+        }
+    }
+    
+    protected boolean isBeanType(Class<?> type) {
+        return type != null && !type.isArray() && !type.isInterface() && !type.isEnum() && !type.isPrimitive()
+            && !type.getName().startsWith("java.") && !type.getName().startsWith("javax.");
+    }
+    
+    private void writeValue(JsonGenerator g, String name, Object value) {
+        if (value == null) {
+            if (name == null) {
+                g.writeNull();
+            } else {
+                g.writeNull(name);
+            }
+        } else if (value instanceof String) {
+            writeString(g, name, (String)value);
+        } else if (value instanceof Boolean) {
+            if (name == null) {
+                g.write((Boolean)value);
+            } else {
+                g.write(name, (Boolean)value);
+            }
+        } else if (value instanceof Number) {
+            writeNumber(g, name, (Number)value);
+        } else if (value instanceof Character) {
+            writeString(g, name, value.toString());
+        } else if (value instanceof Enum) {
+            writeString(g, name, JsonBeanInfo.getEnumValue((Enum<?>)value));
+        } else if (value instanceof Map) {
+            writeStartObject(g, name);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writeValue(g, String.valueOf(entry.getKey()), entry.getValue());
+            }
+            g.writeEnd();
+        } else if (value instanceof Iterable) {
+            writeArray(g, name, ((Iterable<?>)value).iterator());
+        } else if (value instanceof Iterator) {
+            writeArray(g, name, (Iterator<?>)value);
+        } else if (value instanceof byte[]) {
+            writeString(g, name, Base64Utility.encode((byte[])value));
+        } else if (value.getClass().isArray()) {
+            writeStartArray(g, name);
+            for (int i = 0; i < Array.getLength(value); i++) {
+                writeValue(g, null, Array.get(value, i));
+            }
+            g.writeEnd();
+        } else if (value instanceof Date || value instanceof Calendar || value instanceof XMLGregorianCalendar) {
+            writeString(g, name, printDateTime(value));
+        } else if (isBeanType(value.getClass())) {
+            writeStartObject(g, name);
+            for (JsonBeanProperty prop : JsonBeanInfo.getBeanInfo(value.getClass()).getProperties()) {
+                Object propValue = prop.getValue(value);
+                if (propValue != null || writeNullValues) {
+                    writeValue(g, prop.getName(), propValue);
+                }
+            }
+            g.writeEnd();
+        } else {
+            writeString(g, name, value.toString());
+        }
+    }
+    
+    private void writeArray(JsonGenerator g, String name, Iterator<?> it) {
+        writeStartArray(g, name);
+        while (it.hasNext()) {
+            writeValue(g, null, it.next());
+        }
+        g.writeEnd();
+    }
+    
+    private static void writeStartObject(JsonGenerator g, String name) {
+        if (name == null) {
+            g.writeStartObject();
+        } else {
+            g.writeStartObject(name);
+        }
+    }
+    
+    private static void writeStartArray(JsonGenerator g, String name) {
+        if (name == null) {
+            g.writeStartArray();
+        } else {
+            g.writeStartArray(name);
+        }
+    }
+    
+    private static void writeString(JsonGenerator g, String name, String value) {
+        if (name == null) {
+            g.write(value);
+        } else {
+            g.write(name, value);
+        }
+    }
+    
+    private static void writeNumber(JsonGenerator g, String name, Number value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short 
+            || value instanceof Byte) {
+            if (name == null) {
+                g.write(value.longValue());
+            } else {
+                g.write(name, value.longValue());
+            }
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = value.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                writeString(g, name, value.toString());
+            } else if (name == null) {
+                g.write(d);
+            } else {
+                g.write(name, d);
+            }
+        } else if (value instanceof BigInteger) {
+            if (name == null) {
+                g.write((BigInteger)value);
+            } else {
+                g.write(name, (BigInteger)value);
+            }
+        } else {
+            BigDecimal bd = value instanceof BigDecimal ? (BigDecimal)value : new BigDecimal(value.toString());
+            if (name == null) {
+                g.write(bd);
+            } else {
+                g.write(name, bd);
+            }
+        }
+    }
+    
+    private static String printDateTime(Object value) {
+        if (value instanceof XMLGregorianCalendar) {
+            return ((XMLGregorianCalendar)value).toXMLFormat();
+        }
+        Calendar cal;
+        if (value instanceof Date) {
+            cal = Calendar.getInstance();
+            cal.setTime((Date)value);
+        } else {
+            cal = (Calendar)value;
+        }
+        return DatatypeConverter.printDateTime(cal);
+    }
+    
+    private Object readValue(JsonParser p, Event event, Class<?> cls, Type genericType) {
+        switch (event) {
+        case START_OBJECT:
+            if (Map.class.isAssignableFrom(cls) || cls == Object.class) {
+                return readMap(p, getRawType(getMapValueType(genericType)), getMapValueType(genericType));
+            }
+            return readBean(p, cls);
+        case START_ARRAY:
+            return readArray(p, cls, genericType, null);
+        case VALUE_STRING:
+        case VALUE_NUMBER:
+            return convertValue(p.getString(), event, cls);
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+            return cls == String.class ? Boolean.toString(event == Event.VALUE_TRUE) 
+                : Boolean.valueOf(event == Event.VALUE_TRUE);
+        case VALUE_NULL:
+            return null;
+        default:
+            throw new IllegalStateException("Unexpected JSON event: " + event);
+        }
+    }
+    
+    private Object readBean(JsonParser p, Class<?> cls) {
+        JsonBeanInfo beanInfo = JsonBeanInfo.getBeanInfo(cls);
+        Object bean = beanInfo.newInstance();
+        while (p.next() != Event.END_OBJECT) {
+            JsonBeanProperty prop = beanInfo.getProperty(p.getString());
+            Event event = p.next();
+            Collection<Object> values = prop != null && event == Event.START_ARRAY 
+                ? prop.getLiveCollection(bean) : null;
+            if (prop == null) {
+                skipValue(p, event);
+            } else if (values != null) {
+                readArray(p, prop.getType(), prop.getGenericType(), values);
+            } else {
+                Object value = readValue(p, event, prop.getType(), prop.getGenericType());
+                if (value != null || !prop.getType().isPrimitive()) {
+                    prop.setValue(bean, value);
+                }
+            }
+        }
+        return bean;
+    }
+    
+    private Map<String, Object> readMap(JsonParser p, Class<?> valueClass, Type valueType) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        while (p.next() != Event.END_OBJECT) {
+            String key = p.getString();
+            map.put(key, readValue(p, p.next(), valueClass, valueType));
+        }
+        return map;
+    }
+    
+    private Object readArray(JsonParser p, Class<?> cls, Type genericType, Collection<Object> target) {
+        Type elementType = getElementType(cls, genericType);
+        Class<?> elementClass = getRawType(elementType);
+        if (cls.isArray()) {
+            return readArrayValues(p, elementClass, elementType);
+        }
+        Collection<Object> values = target == null ? newCollection(cls) : target;
+        for (Event event = p.next(); event != Event.END_ARRAY; event = p.next()) {
+            values.add(readValue(p, event, elementClass, elementType));
+        }
+        return values;
+    }
+    
+    private Object readArrayValues(JsonParser p, Class<?> elementClass, Type elementType) {
+        // elements go straight into the array, which grows as needed
+        Object array = Array.newInstance(elementClass, 16);
+        int size = 0;
+        for (Event event = p.next(); event != Event.END_ARRAY; event = p.next()) {
+            if (size == Array.getLength(array)) {
+                array = copyOf(array, elementClass, size * 2);
+            }
+            Array.set(array, size++, readValue(p, event, elementClass, elementType));
+        }
+        return size == Array.getLength(array) ? array : copyOf(array, elementClass, size);
+    }
+    
+    private static Object copyOf(Object array, Class<?> elementClass, int length) {
+        Object copy = Array.newInstance(elementClass, length);
+        System.arraycopy(array, 0, copy, 0, Math.min(length, Array.getLength(array)));
+        return copy;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> cls) {
+        if (!cls.isInterface() && !Modifier.isAbstract(cls.getModifiers())) {
+            try {
+                return (Collection<Object>)cls.newInstance();
+            } catch (InstantiationException | IllegalAccessException ex) {
+                // use one of the defaults below
+            }
+        }
+        if (SortedSet.class.isAssignableFrom(cls)) {
+            return new TreeSet<Object>();
+        } else if (Set.class.isAssignableFrom(cls)) {
+            return new LinkedHashSet<Object>();
+        } else if (Queue.class.isAssignableFrom(cls)) {
+            return new LinkedList<Object>();
+        }
+        return new ArrayList<Object>();
+    }
+    
+    private static void skipValue(JsonParser p, Event event) {
+        if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+            int depth = 1;
+            while (depth > 0) {
+                Event next = p.next();
+                if (next == Event.START_OBJECT || next == Event.START_ARRAY) {
+                    depth++;
+                } else if (next == Event.END_OBJECT || next == Event.END_ARRAY) {
+                    depth--;
+                }
+            }
+        }
+    }
+    
+    private Object convertValue(String value, Event event, Class<?> cls) {
+        if (cls == String.class) {
+            return value;
+        } else if (cls == Object.class) {
+            return event == Event.VALUE_STRING ? value : new BigDecimal(value);
+        } else if (cls == char.class || cls == Character.class) {
+            return value.isEmpty() ? null : value.charAt(0);
+        } else if (cls == byte[].class) {
+            try {
+                return Base64Utility.decode(value);
+            } catch (Base64Exception ex) {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+        return convertDateOrEnumValue(value, cls);
+    }
+    
+    private Object convertDateOrEnumValue(String value, Class<?> cls) {
+        if (cls == Date.class || cls == Calendar.class) {
+            Calendar cal = DatatypeConverter.parseDateTime(value);
+            return cls == Date.class ? cal.getTime() : cal;
+        } else if (cls == XMLGregorianCalendar.class) {
+            return getDatatypeFactory().newXMLGregorianCalendar(value);
+        } else if (cls == Duration.class) {
+            return getDatatypeFactory().newDuration(value);
+        } else if (cls.isEnum()) {
+            return JsonBeanInfo.getEnumConstant(cls, value);
+        }
+        return InjectionUtils.convertStringToPrimitive(value, cls);
+    }
+    
+    private DatatypeFactory getDatatypeFactory() {
+        if (datatypeFactory == null) {
+            try {
+                datatypeFactory = DatatypeFactory.newInstance();
+            } catch (DatatypeConfigurationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return datatypeFactory;
+    }
+    
+    private static Type getElementType(Class<?> cls, Type genericType) {
+        if (genericType instanceof GenericArrayType) {
+            return ((GenericArrayType)genericType).getGenericComponentType();
+        } else if (cls.isArray()) {
+            return cls.getComponentType();
+        } else if (genericType instanceof ParameterizedType) {
+            return ((ParameterizedType)genericType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+    
+    private static Type getMapValueType(Type genericType) {
+        if (genericType instanceof ParameterizedType 
+            && ((ParameterizedType)genericType).getActualTypeArguments().length == 2) {
+            return ((ParameterizedType)genericType).getActualTypeArguments()[1];
+        }
+        return Object.class;
+    }
+    
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>)type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>)((ParameterizedType)type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            Class<?> component = getRawType(((GenericArrayType)type).getGenericComponentType());
+            return Array.newInstance(component, 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return getRawType(((WildcardType)type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable && ((TypeVariable<?>)type).getBounds().length > 0) {
+            return getRawType(((TypeVariable<?>)type).getBounds()[0]);
+        }
+        return Object.class;
+    }
+    
+    private static Charset getCharset(MediaType mediaType) {
+        String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+    }
+}
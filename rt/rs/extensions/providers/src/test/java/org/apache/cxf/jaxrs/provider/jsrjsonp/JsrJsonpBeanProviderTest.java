@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.provider.jsrjsonp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+import javax.ws.rs.WebApplicationException;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsrJsonpBeanProviderTest extends Assert {
+    private JsrJsonpBeanProvider provider;
+    
+    @Before
+    public void setUp() {
+        provider = new JsrJsonpBeanProvider();
+    }
+    
+    @Test
+    public void testWriteableTypes() throws Exception {
+        assertTrue(provider.isWriteable(Book.class, Book.class, null, null));
+        assertTrue(provider.isWriteable(Book[].class, Book[].class, null, null));
+        assertTrue(provider.isWriteable(List.class, getType("getBooks"), null, null));
+        assertTrue(provider.isWriteable(Iterator.class, getType("getBookIterator"), null, null));
+        assertFalse(provider.isWriteable(List.class, List.class, null, null));
+        assertFalse(provider.isWriteable(String.class, String.class, null, null));
+        assertFalse(provider.isWriteable(Map.class, Map.class, null, null));
+        assertFalse(provider.isReadable(Iterator.class, getType("getBookIterator"), null, null));
+    }
+    
+    @Test
+    public void testWriteBean() throws Exception {
+        Book book = new Book(123L, "CXF in Action");
+        book.getChapters().add(new Chapter("Introduction", 1));
+        book.getChapters().add(new Chapter("Providers", 2));
+        assertEquals("{\"id\":123,\"name\":\"CXF in Action\",\"chapter\":[{\"title\":\"Introduction\","
+                     + "\"number\":1},{\"title\":\"Providers\",\"number\":2}],\"state\":\"PUBLISHED\"}", 
+                     write(book, Book.class, Book.class));
+    }
+    
+    @Test
+    public void testWriteNullValues() throws Exception {
+        Book book = new Book(123L, null);
+        book.setState(null);
+        assertEquals("{\"id\":123,\"chapter\":[]}", write(book, Book.class, Book.class));
+        provider.setWriteNullValues(true);
+        assertEquals("{\"id\":123,\"name\":null,\"chapter\":[],\"state\":null}", 
+                     write(book, Book.class, Book.class));
+    }
+    
+    @Test
+    public void testReadBean() throws Exception {
+        String json = "{\"name\":\"CXF in Action\",\"unknown\":{\"a\":[1,{\"b\":2}]},\"id\":123,"
+            + "\"chapter\":[{\"title\":\"Introduction\",\"number\":1},{\"number\":2,\"title\":\"Providers\"}],"
+            + "\"state\":\"DRAFT\"}";
+        Book book = (Book)read(json, Book.class, Book.class);
+        assertEquals(123L, book.getId());
+        assertEquals("CXF in Action", book.getName());
+        assertEquals(State.DRAFT, book.getState());
+        assertEquals(2, book.getChapters().size());
+        assertEquals("Providers", book.getChapters().get(1).getTitle());
+        assertEquals(2, book.getChapters().get(1).getNumber());
+    }
+    
+    @Test
+    public void testWriteAndReadList() throws Exception {
+        List<Book> books = Arrays.asList(new Book(1L, "CXF"), new Book(2L, "JAX-RS"));
+        String json = write(books, List.class, getType("getBooks"));
+        assertEquals("[{\"id\":1,\"name\":\"CXF\",\"chapter\":[],\"state\":\"PUBLISHED\"},"
+                     + "{\"id\":2,\"name\":\"JAX-RS\",\"chapter\":[],\"state\":\"PUBLISHED\"}]", json);
+        
+        @SuppressWarnings("unchecked")
+        List<Book> read = (List<Book>)read(json, List.class, getType("getBooks"));
+        assertEquals(2, read.size());
+        assertEquals("JAX-RS", read.get(1).getName());
+        
+        Book[] array = (Book[])read(json, Book[].class, Book[].class);
+        assertEquals(2, array.length);
+        assertEquals(1L, array[0].getId());
+    }
+    
+    @Test
+    public void testWriteIterator() throws Exception {
+        Iterator<Book> books = new Iterator<Book>() {
+            private int count;
+            public boolean hasNext() {
+                return count < 3;
+            }
+            public Book next() {
+                count++;
+                return new Book(count, "Book " + count);
+            }
+        };
+        String json = write(books, Iterator.class, getType("getBookIterator"));
+        assertTrue(json.startsWith("[{\"id\":1,"));
+        assertTrue(json.endsWith("\"name\":\"Book 3\",\"chapter\":[],\"state\":\"PUBLISHED\"}]"));
+    }
+    
+    @Test
+    public void testFieldAccess() throws Exception {
+        Chapter chapter = new Chapter("Introduction", 1);
+        String json = write(chapter, Chapter.class, Chapter.class);
+        assertEquals("{\"title\":\"Introduction\",\"number\":1}", json);
+        Chapter read = (Chapter)read("{\"title\":\"Intro\",\"number\":3,\"cached\":\"x\"}", 
+                                     Chapter.class, Chapter.class);
+        assertEquals("Intro", read.getTitle());
+        assertEquals(3, read.getNumber());
+        assertNull(read.cached);
+    }
+    
+    @Test(expected = WebApplicationException.class)
+    public void testReadInvalidJson() throws Exception {
+        read("{\"id\":123,", Book.class, Book.class);
+    }
+    
+    @Test(expected = WebApplicationException.class)
+    public void testReadWrongType() throws Exception {
+        read("{\"id\":\"abc\"}", Book.class, Book.class);
+    }
+    
+    @Test
+    public void testEnumValues() throws Exception {
+        Edition edition = new Edition();
+        edition.format = Format.PAPERBACK;
+        String json = write(edition, Edition.class, Edition.class);
+        assertEquals("{\"format\":\"paperback\"}", json);
+        assertEquals(Format.PAPERBACK, ((Edition)read(json, Edition.class, Edition.class)).format);
+        assertEquals(Format.EBOOK, ((Edition)read("{\"format\":\"EBOOK\"}", Edition.class, Edition.class)).format);
+    }
+    
+    @Test
+    public void testReadArraysAndDates() throws Exception {
+        Edition edition = (Edition)read("{\"pages\":[3,1,2],\"tags\":[\"b\",\"a\",\"b\"],"
+                                        + "\"published\":\"2017-03-01T10:00:00Z\"}", 
+                                        Edition.class, Edition.class);
+        assertArrayEquals(new int[] {3, 1, 2}, edition.pages);
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<String>(edition.tags));
+        assertEquals(2017, edition.published.getYear());
+        assertEquals("{\"pages\":[3,1,2],\"tags\":[\"a\",\"b\"],\"published\":\"2017-03-01T10:00:00Z\"}", 
+                     write(edition, Edition.class, Edition.class));
+    }
+    
+    @Test
+    public void testReadUnconvertibleValues() throws Exception {
+        assertBadRequest("{\"published\":\"yesterday\"}");
+        assertBadRequest("{\"format\":\"hardcover\"}");
+        assertBadRequest("{\"pages\":[1,null]}");
+    }
+    
+    private void assertBadRequest(String json) throws Exception {
+        try {
+            read(json, Edition.class, Edition.class);
+            fail("400 expected for " + json);
+        } catch (WebApplicationException ex) {
+            assertEquals(400, ex.getResponse().getStatus());
+        }
+    }
+    
+    public List<Book> getBooks() {
+        return null;
+    }
+    
+    public Iterator<Book> getBookIterator() {
+        return null;
+    }
+    
+    private static Type getType(String methodName) throws Exception {
+        Method m = JsrJsonpBeanProviderTest.class.getMethod(methodName);
+        return m.getGenericReturnType();
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private String write(Object o, Class<?> cls, Type type) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        provider.writeTo(o, (Class)cls, type, null, null, null, bos);
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private Object read(String json, Class<?> cls, Type type) throws Exception {
+        return provider.readFrom((Class)cls, type, null, null, null, 
+                                 new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    public enum State {
+        DRAFT, PUBLISHED
+    }
+    
+    public enum Format {
+        @XmlEnumValue("paperback")
+        PAPERBACK,
+        EBOOK
+    }
+    
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Edition {
+        private Format format;
+        private int[] pages;
+        private SortedSet<String> tags;
+        private XMLGregorianCalendar published;
+    }
+    
+    @XmlRootElement
+    @XmlType(propOrder = {"id", "name", "chapters", "state" })
+    public static class Book {
+        private long id;
+        private String name;
+        private State state = State.PUBLISHED;
+        private List<Chapter> chapters = new ArrayList<Chapter>();
+        
+        public Book() {
+        }
+        
+        public Book(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+        
+        public long getId() {
+            return id;
+        }
+        
+        public void setId(long id) {
+            this.id = id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public State getState() {
+            return state;
+        }
+        
+        public void setState(State state) {
+            this.state = state;
+        }
+        
+        @XmlElement(name = "chapter")
+        public List<Chapter> getChapters() {
+            return chapters;
+        }
+        
+        @XmlTransient
+        public String getDescription() {
+            return name + " (" + id + ")";
+        }
+        
+        public void setDescription(String description) {
+        }
+    }
+    
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Chapter {
+        private String title;
+        private int number;
+        @XmlTransient
+        private String cached;
+        
+        public Chapter() {
+        }
+        
+        public Chapter(String title, int number) {
+            this.title = title;
+            this.number = number;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        public int getNumber() {
+            return number;
+        }
+    }
+}
@@ -162,6 +162,10 @@ public class Beanspector<T> {
         return getValue(getters.get(getterName));
     }
 
+    public Method getGetter(String getterName) {
+        return getters.get(getterName);
+    }
+
     public Object getValue(Method getter) throws Throwable {
         try {
             return getter.invoke(tobj);
@@ -31,9 +31,11 @@ import javax.ws.rs.core.MultivaluedMap;
 import org.apache.cxf.common.classloader.ClassLoaderUtils;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.PropertyUtils;
+import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.jaxrs.ext.search.client.CompleteCondition;
 import org.apache.cxf.jaxrs.ext.search.client.SearchConditionBuilder;
+import org.apache.cxf.jaxrs.ext.search.fiql.FiqlExpressionCache;
 import org.apache.cxf.jaxrs.ext.search.fiql.FiqlParser;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
@@ -47,6 +49,7 @@ public class SearchContextImpl implements SearchContext {
     public static final String CUSTOM_SEARCH_PARSER_PROPERTY = "search.parser";
     public static final String CUSTOM_SEARCH_PARSER_CLASS_PROPERTY = "search.parser.class";
     public static final String CUSTOM_SEARCH_QUERY_PARAM_NAME = "search.query.parameter.name";
+    public static final String SEARCH_PARSER_CACHE_SIZE = "search.parser.cache.size";
     private static final String USE_PLAIN_QUERY_PARAMETERS = "search.use.plain.queries";
     private static final String USE_ALL_QUERY_COMPONENT = "search.use.all.query.component";
     private static final String BLOCK_SEARCH_EXCEPTION = "search.block.search.exception";
@@ -226,7 +229,24 @@ public class SearchContextImpl implements SearchContext {
                 throw new SearchParseException(ex);
             }
         }
-        return new FiqlParser<T>(cls, props, beanProps); 
+        FiqlParser<T> parser = new FiqlParser<T>(cls, props, beanProps);
+        parser.setExpressionCache(getExpressionCache());
+        return parser;
+    }
+    
+    private FiqlExpressionCache getExpressionCache() {
+        Endpoint endpoint = message.getExchange() == null ? null : message.getExchange().getEndpoint();
+        if (endpoint == null) {
+            return null;
+        }
+        Object sizeProp = message.getContextualProperty(SEARCH_PARSER_CACHE_SIZE);
+        final int size = sizeProp == null 
+            ? FiqlExpressionCache.DEFAULT_MAX_SIZE : Integer.parseInt(sizeProp.toString());
+        if (size <= 0) {
+            return null;
+        }
+        return (FiqlExpressionCache)endpoint.computeIfAbsent(FiqlExpressionCache.class.getName(), 
+                                                             k -> new FiqlExpressionCache(size));
     }
     
     @SuppressWarnings("unchecked")
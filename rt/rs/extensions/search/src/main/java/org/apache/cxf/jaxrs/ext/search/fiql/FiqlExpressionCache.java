@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search.fiql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of parsed FIQL expressions which can be shared between
+ * {@link FiqlParser} instances. Only the syntax tree of the expressions is kept, the
+ * values are converted and new {@link org.apache.cxf.jaxrs.ext.search.SearchCondition}
+ * instances are built on every {@link FiqlParser#parse(String)} call.
+ */
+public class FiqlExpressionCache {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    
+    private final Map<Object, Object> expressions;
+    
+    public FiqlExpressionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    public FiqlExpressionCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        expressions = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+    
+    public synchronized int size() {
+        return expressions.size();
+    }
+    
+    public synchronized void clear() {
+        expressions.clear();
+    }
+    
+    synchronized Object get(Object key) {
+        return expressions.get(key);
+    }
+    
+    synchronized void put(Object key, Object expression) {
+        expressions.put(key, expression);
+    }
+}
@@ -18,12 +18,11 @@
  */
 package org.apache.cxf.jaxrs.ext.search.fiql;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.cxf.common.util.UrlUtils;
 import org.apache.cxf.jaxrs.ext.search.AbstractSearchConditionParser;
@@ -66,8 +65,8 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
     protected static final String EXTENSION_COUNT_OPEN = EXTENSION_COUNT + "(";
     
     private static final Map<String, ConditionType> OPERATORS_MAP;
-    private static final Pattern COMPARATORS_PATTERN;
-    private static final Pattern COMPARATORS_PATTERN_SINGLE_EQUALS;
+    private static final String[] COMPARATORS = {GT, GE, LT, LE, EQ, NEQ};
+    private static final String[] COMPARATORS_SINGLE_EQUALS = {GT, GE, LT, LE, EQ, NEQ, "="};
     
     static {
         // operatorsMap
@@ -86,19 +85,11 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         CONDITION_MAP.put(ConditionType.LESS_OR_EQUALS, LE);
         CONDITION_MAP.put(ConditionType.EQUALS, EQ);
         CONDITION_MAP.put(ConditionType.NOT_EQUALS, NEQ);
-        
-        
-        // pattern
-        String comparators = GT + "|" + GE + "|" + LT + "|" + LE + "|" + EQ + "|" + NEQ;
-        String s1 = "[\\p{ASCII}]+(" + comparators + ")";
-        COMPARATORS_PATTERN = Pattern.compile(s1);
-        
-        String s2 = "[\\p{ASCII}]+(" + comparators + "|" + "=" + ")";
-        COMPARATORS_PATTERN_SINGLE_EQUALS = Pattern.compile(s2);
     }
 
     private Map<String, ConditionType> operatorsMap = OPERATORS_MAP;
-    private Pattern comparatorsPattern = COMPARATORS_PATTERN;
+    private String[] comparators = COMPARATORS;
+    private FiqlExpressionCache expressionCache;
     /**
      * Creates FIQL parser.
      * 
@@ -135,10 +126,20 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         if (MessageUtils.isTrue(this.contextProperties.get(SUPPORT_SINGLE_EQUALS))) {
             operatorsMap = new HashMap<String, ConditionType>(operatorsMap);
             operatorsMap.put("=", ConditionType.EQUALS);
-            comparatorsPattern = COMPARATORS_PATTERN_SINGLE_EQUALS;
+            comparators = COMPARATORS_SINGLE_EQUALS;
         }
     }
     
+    /**
+     * Sets the cache used to avoid re-parsing the same expressions. The cache may be shared 
+     * between the parsers of different types and configurations.
+     *  
+     * @param expressionCache the cache, null disables the caching
+     */
+    public void setExpressionCache(FiqlExpressionCache expressionCache) {
+        this.expressionCache = expressionCache;
+    }
+    
     /**
      * Parses expression and builds search filter. Names used in FIQL expression are names of getters/setters
      * in type T.
@@ -162,8 +163,26 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
      * @throws SearchParseException when expression does not follow FIQL grammar
      */
     public SearchCondition<T> parse(String fiqlExpression) throws SearchParseException {
-        ASTNode<T> ast = parseAndsOrsBrackets(fiqlExpression);
-        return ast.build();
+        ASTNode<T> ast = null;
+        Object cacheKey = null;
+        if (expressionCache != null) {
+            // the syntax tree only depends on the comparators in use, the property names
+            // and values are converted when the conditions are built
+            cacheKey = Arrays.asList(comparators, fiqlExpression);
+            ast = getCachedExpression(cacheKey);
+        }
+        if (ast == null) {
+            ast = parseAndsOrsBrackets(fiqlExpression);
+            if (cacheKey != null) {
+                expressionCache.put(cacheKey, ast);
+            }
+        }
+        return ast.build(this);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ASTNode<T> getCachedExpression(Object cacheKey) {
+        return (ASTNode<T>)expressionCache.get(cacheKey);
     }
 
     private ASTNode<T> parseAndsOrsBrackets(String expr) throws SearchParseException {
@@ -183,13 +202,11 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
                                                                idx));
                 }
             }
-            String cs = Character.toString(c);
-            boolean isOperator = AND.equals(cs) || OR.equals(cs);
+            boolean isOperator = c == ';' || c == ',';
             if (level == 0 && isOperator) {
                 String s1 = expr.substring(lastIdx, idx);
-                String s2 = expr.substring(idx, idx + 1);
                 subexpressions.add(s1);
-                operators.add(s2);
+                operators.add(c == ';' ? AND : OR);
                 lastIdx = idx + 1;
             }
             boolean isEnd = idx == expr.length() - 1;
@@ -214,12 +231,12 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         // treated as "single item group of ANDs"
         int from = 0;
         int to = 0;
-        SubExpression ors = new SubExpression(OR);
+        SubExpression<T> ors = new SubExpression<T>(OR);
         while (to < operators.size()) {
             while (to < operators.size() && AND.equals(operators.get(to))) {
                 to++;
             }
-            SubExpression ands = new SubExpression(AND);
+            SubExpression<T> ands = new SubExpression<T>(AND);
             for (; from <= to; from++) {
                 String subex = subexpressions.get(from);
                 ASTNode<T> node = null;
@@ -246,29 +263,52 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         }
     }
 
-    private Comparison parseComparison(String expr) throws SearchParseException {
-        Matcher m = comparatorsPattern.matcher(expr);
-        if (m.find()) {
-            String propertyName = expr.substring(0, m.start(1));
-            String operator = m.group(1);
-            String value = expr.substring(m.end(1));
+    private Comparison<T> parseComparison(String expr) throws SearchParseException {
+        int index = findComparator(expr);
+        if (index != -1) {
+            String operator = getComparatorAt(expr, index);
+            String propertyName = expr.substring(0, index);
+            String value = expr.substring(index + operator.length());
             if ("".equals(value)) {
                 throw new SearchParseException("Not a comparison expression: " + expr);
             }
             
-            String name = unwrapSetter(propertyName);
-        
-            name = getActualSetterName(name);
-            TypeInfoObject castedValue = parseType(propertyName, name, value);
-            if (castedValue != null) {
-                return new Comparison(name, operator, castedValue);
-            } else {
-                return null;
-            }
+            return new Comparison<T>(propertyName, operator, operatorsMap.get(operator), value);
         } else {
             throw new SearchParseException("Not a comparison expression: " + expr);
         }
     }
+    
+    private int findComparator(String expr) {
+        // the last comparator preceded by a sequence of ASCII characters 
+        // separates the property name from the value 
+        int start = 0;
+        while (start < expr.length()) {
+            int end = start;
+            while (end < expr.length() && expr.charAt(end) <= 0x7F) {
+                end++;
+            }
+            for (int index = end - 1; index > start; index--) {
+                if (getComparatorAt(expr, index) != null) {
+                    return index;
+                }
+            }
+            start = end + 1;
+        }
+        return -1;
+    }
+    
+    private String getComparatorAt(String expr, int index) {
+        char c = expr.charAt(index);
+        if (c == '=' || c == '!') {
+            for (String comparator : comparators) {
+                if (expr.startsWith(comparator, index)) {
+                    return comparator;
+                }
+            }
+        }
+        return null;
+    }
 
     
     private TypeInfoObject parseType(String originalName, String setter, String value) throws SearchParseException {
@@ -293,12 +333,53 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         }
     }
     
-    // node of abstract syntax tree
+    private SearchCondition<T> buildComparison(Comparison<T> comparison) throws SearchParseException {
+        // values such as relative dates are converted on every build, never cached
+        String name = getActualSetterName(unwrapSetter(comparison.propertyName));
+        TypeInfoObject tvalue = parseType(comparison.propertyName, name, comparison.value);
+        
+        String templateName = getSetter(name);
+        T cond = createTemplate(templateName, tvalue);
+        
+        if (isPrimitive(cond)) {
+            return new SimpleSearchCondition<T>(comparison.conditionType, cond); 
+        } else {
+            String templateNameLCase = templateName.toLowerCase();
+            return new SimpleSearchCondition<T>(
+                Collections.singletonMap(templateNameLCase, comparison.conditionType),
+                Collections.singletonMap(templateNameLCase, name),
+                Collections.singletonMap(templateNameLCase, tvalue.getTypeInfo()),
+                cond);
+        }
+    }
+    
+    private boolean isPrimitive(T pojo) {
+        return pojo.getClass().getName().startsWith("java.lang");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T createTemplate(String setter, TypeInfoObject tvalue) throws SearchParseException {
+        try {
+            if (beanspector != null) {
+                beanspector.instantiate().setValue(setter, tvalue.getObject());
+                return beanspector.getBean();
+            } else {
+                SearchBean bean = (SearchBean)conditionClass.newInstance();
+                bean.set(setter, tvalue.getObject().toString());
+                return (T)bean;
+            }
+        } catch (Throwable e) {
+            throw new SearchParseException(e);
+        }
+    }
+    
+    // node of abstract syntax tree, does not depend on the parser instance
+    // which has created it so it can be cached
     private interface ASTNode<T> {
-        SearchCondition<T> build() throws SearchParseException;
+        SearchCondition<T> build(FiqlParser<T> parser) throws SearchParseException;
     }
 
-    private class SubExpression implements ASTNode<T> {
+    private static class SubExpression<T> implements ASTNode<T> {
         private String operator;
         private List<ASTNode<T>> subnodes = new ArrayList<ASTNode<T>>();
 
@@ -329,10 +410,10 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
             return builder.toString();
         }
 
-        public SearchCondition<T> build() throws SearchParseException {
-            List<SearchCondition<T>> scNodes = new ArrayList<SearchCondition<T>>();
+        public SearchCondition<T> build(FiqlParser<T> parser) throws SearchParseException {
+            List<SearchCondition<T>> scNodes = new ArrayList<SearchCondition<T>>(subnodes.size());
             for (ASTNode<T> node : subnodes) {
-                scNodes.add(node.build());
+                scNodes.add(node.build(parser));
             }
             if (OR.equals(operator)) {
                 return new OrSearchCondition<T>(scNodes);
@@ -343,57 +424,26 @@ public class FiqlParser<T> extends AbstractSearchConditionParser<T> {
         }
     }
 
-    private class Comparison implements ASTNode<T> {
-        private String name;
+    private static class Comparison<T> implements ASTNode<T> {
+        private String propertyName;
         private String operator;
-        private TypeInfoObject tvalue;
+        private ConditionType conditionType;
+        private String value;
 
-        Comparison(String name, String operator, TypeInfoObject value) {
-            this.name = name;
+        Comparison(String propertyName, String operator, ConditionType conditionType, String value) {
+            this.propertyName = propertyName;
             this.operator = operator;
-            this.tvalue = value;
+            this.conditionType = conditionType;
+            this.value = value;
         }
 
         @Override
         public String toString() {
-            return name + " " + operator + " " + tvalue.getObject() 
-                + " (" + tvalue.getObject().getClass().getSimpleName() + ")";
-        }
-
-        public SearchCondition<T> build() throws SearchParseException {
-            String templateName = getSetter(name);
-            T cond = createTemplate(templateName);
-            ConditionType ct = operatorsMap.get(operator);
-            
-            if (isPrimitive(cond)) {
-                return new SimpleSearchCondition<T>(ct, cond); 
-            } else {
-                String templateNameLCase = templateName.toLowerCase();
-                return new SimpleSearchCondition<T>(Collections.singletonMap(templateNameLCase, ct),
-                                                    Collections.singletonMap(templateNameLCase, name),
-                                                    Collections.singletonMap(templateNameLCase, tvalue.getTypeInfo()),
-                                                    cond);
-            }
+            return propertyName + " " + operator + " " + value;
         }
 
-        private boolean isPrimitive(T pojo) {
-            return pojo.getClass().getName().startsWith("java.lang");
-        }
-        
-        @SuppressWarnings("unchecked")
-        private T createTemplate(String setter) throws SearchParseException {
-            try {
-                if (beanspector != null) {
-                    beanspector.instantiate().setValue(setter, tvalue.getObject());
-                    return beanspector.getBean();
-                } else {
-                    SearchBean bean = (SearchBean)conditionClass.newInstance();
-                    bean.set(setter, tvalue.getObject().toString());
-                    return (T)bean;
-                }
-            } catch (Throwable e) {
-                throw new SearchParseException(e);
-            }
+        public SearchCondition<T> build(FiqlParser<T> parser) throws SearchParseException {
+            return parser.buildComparison(this);
         }
     }
     
@@ -0,0 +1,283 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search.predicate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.cxf.jaxrs.ext.search.Beanspector;
+import org.apache.cxf.jaxrs.ext.search.ConditionType;
+import org.apache.cxf.jaxrs.ext.search.PrimitiveStatement;
+import org.apache.cxf.jaxrs.ext.search.SearchBean;
+import org.apache.cxf.jaxrs.ext.search.SearchCondition;
+import org.apache.cxf.jaxrs.ext.search.visitor.AbstractSearchConditionVisitor;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Compiles a SearchCondition tree into a Predicate which matches the same
+ * objects as {@link SearchCondition#isMet(Object)} does. Property getters are resolved
+ * and the condition values are prepared once, so the predicate can be cheaply 
+ * applied to many objects, including concurrently by {@link #findAll(Collection)}.
+ */
+public class PredicateVisitor<T> extends AbstractSearchConditionVisitor<T, Predicate<T>> {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+    
+    private Predicate<T> predicate;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    
+    public PredicateVisitor() {
+        this(null);
+    }
+    
+    public PredicateVisitor(Map<String, String> fieldMap) {
+        super(fieldMap);
+    }
+    
+    public void visit(SearchCondition<T> sc) {
+        predicate = compile(sc);
+    }
+    
+    public Predicate<T> getQuery() {
+        return predicate;
+    }
+    
+    /**
+     * Collections with at least this number of elements are filtered in parallel
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public List<T> findAll(Collection<T> pojos) {
+        if (predicate == null) {
+            throw new IllegalStateException("No search condition has been visited");
+        }
+        Stream<T> stream = pojos.size() >= parallelThreshold ? pojos.parallelStream() : pojos.stream();
+        return stream.filter(predicate).collect(Collectors.toList());
+    }
+    
+    private Predicate<T> compile(SearchCondition<T> sc) {
+        PrimitiveStatement statement = sc.getStatement();
+        if (statement != null) {
+            return compileStatement(sc, statement);
+        }
+        List<SearchCondition<T>> conditions = sc.getSearchConditions();
+        @SuppressWarnings("unchecked")
+        final Predicate<T>[] predicates = new Predicate[conditions.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = compile(conditions.get(i));
+        }
+        return sc.getConditionType() == ConditionType.OR 
+            ? pojo -> anyMatch(predicates, pojo) : pojo -> allMatch(predicates, pojo);
+    }
+    
+    private static <T> boolean anyMatch(Predicate<T>[] predicates, T pojo) {
+        for (Predicate<T> p : predicates) {
+            if (p.test(pojo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static <T> boolean allMatch(Predicate<T>[] predicates, T pojo) {
+        for (Predicate<T> p : predicates) {
+            if (!p.test(pojo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Predicate<T> compileStatement(SearchCondition<T> sc, PrimitiveStatement statement) {
+        String property = statement.getProperty();
+        ConditionType ct = statement.getCondition();
+        final ValueMatcher primitiveMatcher = createMatcher(ct, statement.getValue());
+        if (property == null) {
+            return pojo -> primitiveMatcher.matches(pojo);
+        }
+        String name = getRealPropertyName(property);
+        final ValueMatcher matcher = createMatcher(ct, getNestedValue(name, statement.getValue()));
+        final Function<Object, Object> accessor = createAccessor(sc.getCondition(), name);
+        return pojo -> {
+            if (pojo.getClass().getName().startsWith("java.lang")) {
+                return primitiveMatcher.matches(pojo);
+            }
+            Object value;
+            try {
+                value = accessor.apply(pojo);
+            } catch (Throwable ex) {
+                value = null;
+            }
+            return value != null && matcher.matches(value);
+        };
+    }
+    
+    private static Function<Object, Object> createAccessor(Object template, String name) {
+        String[] names = name.split("\\.");
+        if (template instanceof SearchBean) {
+            return pojo -> getNestedValue(name, ((SearchBean)pojo).get(name));
+        }
+        Method getter = new Beanspector<Object>(template).getGetter(names[0].toLowerCase());
+        if (getter == null) {
+            return pojo -> null;
+        }
+        Function<Object, Object> accessor = createGetter(getter);
+        Class<?> cls = getter.getReturnType();
+        for (int i = 1; i < names.length; i++) {
+            final Function<Object, Object> previous = accessor;
+            final String nextName = names[i];
+            Method m = InjectionUtils.isPrimitive(cls) ? null : getNestedGetter(cls, nextName);
+            if (m != null) {
+                final Function<Object, Object> next = createGetter(m);
+                accessor = pojo -> {
+                    Object value = previous.apply(pojo);
+                    return value == null ? null : next.apply(value);
+                };
+                cls = m.getReturnType();
+            } else {
+                // the declared type has no such getter, check the actual value types 
+                accessor = pojo -> getNestedValue(nextName, previous.apply(pojo));
+                cls = Object.class;
+            }
+        }
+        return accessor;
+    }
+    
+    private static Function<Object, Object> createGetter(Method getter) {
+        try {
+            final MethodHandle mh = MethodHandles.publicLookup().unreflect(getter)
+                .asType(MethodType.methodType(Object.class, Object.class));
+            return pojo -> {
+                try {
+                    return (Object)mh.invokeExact(pojo);
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } catch (IllegalAccessException ex) {
+            return pojo -> {
+                try {
+                    return getter.invoke(pojo);
+                } catch (Exception ex2) {
+                    throw new IllegalStateException(ex2);
+                }
+            };
+        }
+    }
+    
+    private static Method getNestedGetter(Class<?> cls, String name) {
+        try {
+            return cls.getMethod("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+    
+    private static Object getNestedValue(String name, Object value) {
+        String[] names = name.split("\\.");
+        for (int i = 1; i < names.length && value != null; i++) {
+            if (InjectionUtils.isPrimitive(value.getClass())) {
+                break;
+            }
+            Method m = getNestedGetter(value.getClass(), names[i]);
+            if (m == null) {
+                throw new IllegalStateException("Property " + names[i] + " can not be found");
+            }
+            try {
+                value = m.invoke(value);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return value;
+    }
+    
+    private static ValueMatcher createMatcher(ConditionType ct, Object rval) {
+        switch (ct) {
+        case EQUALS:
+        case NOT_EQUALS:
+            if (rval == null) {
+                return lval -> true;
+            }
+            final boolean negate = ct == ConditionType.NOT_EQUALS;
+            final Predicate<String> textMatcher = rval instanceof String 
+                ? createTextMatcher((String)rval) : null;
+            return lval -> negate != (lval instanceof String && textMatcher != null 
+                ? textMatcher.test((String)lval) : lval.equals(rval));
+        case GREATER_THAN:
+        case GREATER_OR_EQUALS:
+        case LESS_THAN:
+        case LESS_OR_EQUALS:
+            if (!(rval instanceof Comparable)) {
+                return lval -> true;
+            }
+            return lval -> lval instanceof Comparable ? isMet(ct, compare(lval, rval)) : true;
+        default:
+            String msg = String.format("Condition type %s is not supported", ct.name());
+            throw new RuntimeException(msg);
+        }
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compare(Object lval, Object rval) {
+        return ((Comparable)lval).compareTo(rval);
+    }
+    
+    private static boolean isMet(ConditionType ct, int comp) {
+        switch (ct) {
+        case GREATER_THAN:
+            return comp > 0;
+        case GREATER_OR_EQUALS:
+            return comp >= 0;
+        case LESS_THAN:
+            return comp < 0;
+        default:
+            return comp <= 0;
+        }
+    }
+    
+    private static Predicate<String> createTextMatcher(String rval) {
+        boolean starts = rval.length() > 0 && rval.charAt(0) == '*';
+        boolean ends = rval.length() > 1 && rval.charAt(rval.length() - 1) == '*';
+        final String text = rval.substring(starts ? 1 : 0, ends ? rval.length() - 1 : rval.length());
+        if (starts && ends) {
+            return lval -> lval.contains(text);
+        } else if (starts) {
+            return lval -> lval.endsWith(text);
+        } else if (ends) {
+            return lval -> lval.startsWith(text);
+        } else {
+            return lval -> lval.equals(text);
+        }
+    }
+    
+    private interface ValueMatcher {
+        boolean matches(Object lval);
+    }
+}
@@ -277,6 +277,57 @@ public class FiqlParserTest extends Assert {
                        + "((level > '10') OR (name NOT LIKE '%bar'))").equals(sql));
     }
 
+    @Test
+    public void testNonAsciiValue() throws SearchParseException {
+        SearchCondition<Condition> filter = parser.parse("name==\u00e9t\u00e9");
+        PrimitiveStatement st = filter.getStatement();
+        assertEquals("name", st.getProperty());
+        assertEquals("\u00e9t\u00e9", st.getValue());
+    }
+
+    @Test
+    public void testExpressionCache() throws SearchParseException {
+        FiqlExpressionCache cache = new FiqlExpressionCache(2);
+        parser.setExpressionCache(cache);
+        SearchCondition<Condition> filter1 = parser.parse("name==foo*;(name!=*bar,level=gt=10)");
+        
+        FiqlParser<Condition> parser2 = new FiqlParser<Condition>(Condition.class);
+        parser2.setExpressionCache(cache);
+        SearchCondition<Condition> filter2 = parser2.parse("name==foo*;(name!=*bar,level=gt=10)");
+        assertEquals(1, cache.size());
+        assertNotSame(filter1, filter2);
+        assertNotSame(filter1.getSearchConditions().get(0).getCondition(), 
+                      filter2.getSearchConditions().get(0).getCondition());
+        assertTrue(filter2.isMet(new Condition("fooooobar", 20, null)));
+        assertFalse(filter2.isMet(new Condition("fooobar", 0, null)));
+        
+        Map<String, String> props = Collections.singletonMap(FiqlParser.SUPPORT_SINGLE_EQUALS, "true");
+        FiqlParser<Condition> parser3 = new FiqlParser<Condition>(Condition.class, props);
+        parser3.setExpressionCache(cache);
+        parser3.parse("name=foo*");
+        assertEquals(2, cache.size());
+        
+        parser.parse("level=gt=10");
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testExpressionCacheRelativeDate() throws Exception {
+        parser.setExpressionCache(new FiqlExpressionCache());
+        SearchCondition<Condition> filter1 = parser.parse("time=gt=-PT1S");
+        Thread.sleep(1500);
+        Date now = new Date();
+        assertTrue(filter1.isMet(new Condition(null, null, now)));
+        
+        // the relative date is resolved again for the cached expression
+        SearchCondition<Condition> filter2 = parser.parse("time=gt=-PT1S");
+        Date twoSecondsAgo = new Date();
+        DatatypeFactory.newInstance().newDuration("-PT2S").addTo(twoSecondsAgo);
+        assertTrue(filter2.isMet(new Condition(null, null, now)));
+        assertFalse(filter2.isMet(new Condition(null, null, twoSecondsAgo)));
+        assertTrue(filter1.isMet(new Condition(null, null, twoSecondsAgo)));
+    }
+
     @Test
     public void testSQL4() throws SearchParseException {
         SearchCondition<Condition> filter = parser.parse("(name==test,level==18);(name==test1,level!=19)");
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search.predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.cxf.jaxrs.ext.search.Book;
+import org.apache.cxf.jaxrs.ext.search.SearchBean;
+import org.apache.cxf.jaxrs.ext.search.SearchCondition;
+import org.apache.cxf.jaxrs.ext.search.fiql.FiqlParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PredicateVisitorTest extends Assert {
+    private static final List<Book> BOOKS = Arrays.asList(new Book("CXF", 123L),
+                                                          new Book("CXF Rocks", 124L),
+                                                          new Book("JAX-RS", 125L),
+                                                          new Book("Apache", 5L));
+    
+    private FiqlParser<Book> parser = new FiqlParser<Book>(Book.class);
+    
+    @Test
+    public void testSameResultsAsFindAll() throws Exception {
+        String[] queries = {"name==CXF", "name!=CXF", "name==CXF*", "name==*Rocks", "name==*X*",
+                            "id=gt=123", "id=ge=123", "id=lt=124", "id=le=124",
+                            "name==CXF*;id=gt=123", "name==Apache,id==125", 
+                            "(name==CXF*,name==Apache);id=lt=124"};
+        for (String query : queries) {
+            SearchCondition<Book> sc = parser.parse(query);
+            PredicateVisitor<Book> visitor = new PredicateVisitor<Book>();
+            sc.accept(visitor);
+            assertEquals(query, sc.findAll(BOOKS), visitor.findAll(BOOKS));
+        }
+    }
+    
+    @Test
+    public void testPredicate() throws Exception {
+        SearchCondition<Book> sc = parser.parse("name==CXF*;id=ge=124");
+        PredicateVisitor<Book> visitor = new PredicateVisitor<Book>();
+        sc.accept(visitor);
+        Predicate<Book> predicate = visitor.getQuery();
+        assertTrue(predicate.test(new Book("CXF Rocks", 124L)));
+        assertFalse(predicate.test(new Book("CXF", 123L)));
+        assertFalse(predicate.test(new Book("JAX-RS", 125L)));
+    }
+    
+    @Test
+    public void testParallelFindAll() throws Exception {
+        List<Book> books = new ArrayList<Book>();
+        for (int i = 0; i < 1000; i++) {
+            books.add(new Book(i % 2 == 0 ? "CXF " + i : "JAX-RS " + i, i));
+        }
+        SearchCondition<Book> sc = parser.parse("name==CXF*;id=lt=500");
+        PredicateVisitor<Book> visitor = new PredicateVisitor<Book>();
+        visitor.setParallelThreshold(100);
+        sc.accept(visitor);
+        List<Book> found = visitor.findAll(books);
+        assertEquals(250, found.size());
+        assertEquals(sc.findAll(books), found);
+    }
+    
+    @Test
+    public void testSearchBean() throws Exception {
+        SearchCondition<SearchBean> sc = new FiqlParser<SearchBean>(SearchBean.class).parse("name==CXF*");
+        PredicateVisitor<SearchBean> visitor = new PredicateVisitor<SearchBean>();
+        sc.accept(visitor);
+        SearchBean bean = new SearchBean();
+        bean.set("name", "CXF Rocks");
+        SearchBean bean2 = new SearchBean();
+        bean2.set("name", "JAX-RS");
+        assertEquals(Arrays.asList(bean), visitor.findAll(Arrays.asList(bean, bean2)));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testFindAllWithoutCondition() {
+        new PredicateVisitor<Book>().findAll(BOOKS);
+    }
+}
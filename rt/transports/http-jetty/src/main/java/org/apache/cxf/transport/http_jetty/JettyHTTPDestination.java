@@ -246,7 +246,9 @@ public class JettyHTTPDestination extends ServletDestination {
                                   final HttpServletRequest req, 
                                   final HttpServletResponse resp,
                                   Message m) throws IOException {
-        resp.flushBuffer();
+        if (!isNonBlockingWritePending(m)) {
+            resp.flushBuffer();
+        }
         Request baseRequest = (req instanceof Request) 
             ? (Request)req : getCurrentRequest();
         if (baseRequest != null) {
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http_jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletInputStream;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.io.DelegatingInputStream;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.apache.cxf.testutil.common.TestUtil;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.Destination;
+import org.apache.cxf.transport.MessageObserver;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+import org.apache.cxf.transport.http.HTTPTransportFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JettyHTTPDestinationNonBlockingIOTest extends Assert {
+    private static final int PORT 
+        = Integer.valueOf(TestUtil.getPortNumber(JettyHTTPDestinationNonBlockingIOTest.class));
+    private static final String ADDRESS = "http://localhost:" + PORT + "/nbio";
+
+    private Bus bus;
+    private Destination destination;
+    private EchoObserver observer;
+
+    @Before
+    public void setUp() throws Exception {
+        bus = BusFactory.newInstance().createBus();
+        ServiceInfo serviceInfo = new ServiceInfo();
+        serviceInfo.setName(new QName("bla", "Service"));
+        EndpointInfo ei = new EndpointInfo(serviceInfo, "");
+        ei.setName(new QName("bla", "Port"));
+        ei.setAddress(ADDRESS);
+        ei.setProperty(AbstractHTTPDestination.NON_BLOCKING_IO, Boolean.TRUE);
+
+        destination = new HTTPTransportFactory().getDestination(ei, bus);
+        assertTrue(((AbstractHTTPDestination)destination).isNonBlockingIO());
+        observer = new EchoObserver();
+        destination.setMessageObserver(observer);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        destination.shutdown();
+        bus.shutdown(true);
+        JettyHTTPServerEngineFactory.destroyForPort(PORT);
+    }
+
+    @Test
+    public void testSlowUpload() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS).openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setChunkedStreamingMode(16);
+        OutputStream out = connection.getOutputStream();
+        out.write("hello ".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        Thread.sleep(500);
+        assertNull("Message dispatched before the body was read", observer.message);
+        out.write("world".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(11, connection.getContentLength());
+        assertEquals("hello world", read(connection));
+        DelegatingInputStream in = observer.message.getContent(DelegatingInputStream.class);
+        assertFalse("Request body has not been cached", in.getInputStream() instanceof ServletInputStream);
+    }
+
+    @Test
+    public void testLargeResponse() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int x = 0; x < 50000; x++) {
+            builder.append("0123456789");
+        }
+        byte[] payload = builder.toString().getBytes(StandardCharsets.UTF_8);
+        
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS).openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setFixedLengthStreamingMode(payload.length);
+        OutputStream out = connection.getOutputStream();
+        out.write(payload);
+        out.close();
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(builder.toString(), read(connection));
+    }
+
+    @Test
+    public void testFlushedResponseIsStreamed() throws Exception {
+        observer.streamed = new CountDownLatch(1);
+        HttpURLConnection connection = (HttpURLConnection)new URL(ADDRESS).openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        OutputStream out = connection.getOutputStream();
+        out.write("hello".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        assertEquals(200, connection.getResponseCode());
+        InputStream in = connection.getInputStream();
+        byte[] first = new byte[5];
+        int read = 0;
+        while (read < first.length) {
+            read += in.read(first, read, first.length - read);
+        }
+        assertEquals("hello", new String(first, StandardCharsets.UTF_8));
+        // the rest of the response is only written once the flushed part has been received
+        observer.streamed.countDown();
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        IOUtils.copyAndCloseInput(in, rest);
+        assertEquals(" again", new String(rest.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        IOUtils.copyAndCloseInput(in, buffer);
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static class EchoObserver implements MessageObserver {
+        volatile Message message;
+        volatile CountDownLatch streamed;
+
+        public void onMessage(Message m) {
+            message = m;
+            try {
+                byte[] body = IOUtils.readBytesFromStream(m.getContent(InputStream.class));
+                Exchange exchange = m.getExchange();
+                Message outMessage = new MessageImpl();
+                outMessage.setExchange(exchange);
+                exchange.setOutMessage(outMessage);
+                Conduit backChannel = m.getDestination().getBackChannel(m);
+                backChannel.prepare(outMessage);
+                OutputStream out = outMessage.getContent(OutputStream.class);
+                out.write(body);
+                if (streamed != null) {
+                    out.flush();
+                    if (!streamed.await(10, TimeUnit.SECONDS)) {
+                        throw new IOException("The flushed response was not received");
+                    }
+                    out.write(" again".getBytes(StandardCharsets.UTF_8));
+                }
+                out.close();
+                backChannel.close(outMessage);
+            } catch (IOException | InterruptedException ex) {
+                throw new Fault(ex);
+            }
+        }
+    }
+}
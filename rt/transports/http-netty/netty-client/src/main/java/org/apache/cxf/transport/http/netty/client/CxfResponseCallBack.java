@@ -24,4 +24,9 @@ import io.netty.handler.codec.http.HttpResponse;
 public interface CxfResponseCallBack {
 
     void responseReceived(HttpResponse response);
+
+    /**
+     * Called when the channel is closed or fails before the response was received.
+     */
+    void error(Throwable ex);
 }
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http.netty.client;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.logging.LogUtils;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Creates the event loop groups of the Netty conduits and server engines, using the native epoll
+ * transport of netty-transport-native-epoll when it is requested and available on the classpath.
+ */
+public final class NettyEventLoopGroups {
+    private static final Logger LOG = LogUtils.getL7dLogger(NettyEventLoopGroups.class);
+
+    private static final String EPOLL_GROUP = "io.netty.channel.epoll.EpollEventLoopGroup";
+    private static final String EPOLL_CHANNEL = "io.netty.channel.epoll.EpollSocketChannel";
+    private static final String EPOLL_SERVER_CHANNEL = "io.netty.channel.epoll.EpollServerSocketChannel";
+
+    private NettyEventLoopGroups() {
+    }
+
+    public static boolean isEpollAvailable() {
+        if (!System.getProperty("os.name", "").toLowerCase().startsWith("linux")) {
+            return false;
+        }
+        try {
+            ClassLoaderUtils.loadClass(EPOLL_GROUP, NettyEventLoopGroups.class);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * @param nativeTransport true to use epoll if available
+     * @param threads the number of event loops, 0 for the Netty default
+     */
+    public static EventLoopGroup newEventLoopGroup(boolean nativeTransport, int threads) {
+        if (nativeTransport && isEpollAvailable()) {
+            try {
+                return (EventLoopGroup)ClassLoaderUtils.loadClass(EPOLL_GROUP, NettyEventLoopGroups.class)
+                    .getConstructor(Integer.TYPE).newInstance(threads);
+            } catch (Throwable t) {
+                // the native library could not be loaded for this platform
+                LOG.log(Level.WARNING, "Could not create an epoll event loop group, using NIO instead", t);
+            }
+        }
+        return new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * @return true if the group uses the native epoll transport
+     */
+    public static boolean isEpollEventLoopGroup(EventLoopGroup group) {
+        return EPOLL_GROUP.equals(group.getClass().getName());
+    }
+
+    /**
+     * @return the socket channel type matching the transport of the group, which may also have
+     *         been registered on the bus by a Netty server engine
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Channel> getSocketChannelClass(EventLoopGroup group) {
+        if (isEpollEventLoopGroup(group)) {
+            try {
+                return (Class<? extends Channel>)ClassLoaderUtils.loadClass(EPOLL_CHANNEL,
+                                                                           NettyEventLoopGroups.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return NioSocketChannel.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Class<? extends ServerChannel> getServerChannelClass(EventLoopGroup group) {
+        if (isEpollEventLoopGroup(group)) {
+            try {
+                return (Class<? extends ServerChannel>)
+                    ClassLoaderUtils.loadClass(EPOLL_SERVER_CHANNEL, NettyEventLoopGroups.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return NioServerSocketChannel.class;
+    }
+
+    /**
+     * Returns the event loop group shared by the Netty server engines and conduits of the bus,
+     * creating it if none is registered yet. A group created here is shut down with the bus.
+     */
+    public static EventLoopGroup getSharedEventLoopGroup(Bus bus, boolean nativeTransport, int threads) {
+        synchronized (bus) {
+            EventLoopGroup group = bus.getExtension(EventLoopGroup.class);
+            if (group == null) {
+                final EventLoopGroup newGroup = newEventLoopGroup(nativeTransport, threads);
+                bus.setExtension(newGroup, EventLoopGroup.class);
+                BusLifeCycleManager lifeCycleManager = bus.getExtension(BusLifeCycleManager.class);
+                if (lifeCycleManager != null) {
+                    lifeCycleManager.registerLifeCycleListener(new BusLifeCycleListener() {
+                        public void initComplete() {
+                        }
+                        public void preShutdown() {
+                        }
+                        public void postShutdown() {
+                            newGroup.shutdownGracefully().syncUninterruptibly();
+                        }
+                    });
+                }
+                group = newGroup;
+            }
+            return group;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http.netty.client;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+/**
+ * Bounded pool of keep-alive channels to a single remote address. A channel is leased for a
+ * request and released once its response has been received. When all the channels are busy
+ * and the limit is reached, a request either waits for a channel to be released or, if
+ * pipelining is enabled, is sent on the least loaded channel. Closed channels are dropped and
+ * idle channels are closed after the idle timeout.
+ */
+public class NettyHttpChannelPool {
+    private final Bootstrap bootstrap;
+    private final SocketAddress remoteAddress;
+    private final EventExecutor executor;
+    private final int maxConnections;
+    private final int maxPipelinedRequests;
+    private final long idleTimeout;
+
+    // all the guarded state is accessed while holding the pool monitor
+    private final Map<Channel, ChannelState> channels = new HashMap<Channel, ChannelState>();
+    private final Deque<Channel> idle = new ArrayDeque<Channel>();
+    private final Deque<Promise<Channel>> waiters = new ArrayDeque<Promise<Channel>>();
+    private int pending;
+    private boolean closed;
+    private ScheduledFuture<?> evictionTask;
+
+    /**
+     * @param bootstrap the bootstrap with the channel initializer for this address
+     * @param remoteAddress the address to connect to
+     * @param maxConnections the maximum number of channels, non-positive for no limit
+     * @param maxPipelinedRequests the maximum number of requests in flight on one channel
+     * @param idleTimeout the time in milliseconds after which an idle channel is closed,
+     * non-positive to keep idle channels open
+     */
+    public NettyHttpChannelPool(Bootstrap bootstrap, SocketAddress remoteAddress, int maxConnections,
+                                int maxPipelinedRequests, long idleTimeout) {
+        this.bootstrap = bootstrap;
+        this.remoteAddress = remoteAddress;
+        this.executor = bootstrap.group().next();
+        this.maxConnections = maxConnections;
+        this.maxPipelinedRequests = Math.max(1, maxPipelinedRequests);
+        this.idleTimeout = idleTimeout;
+        if (idleTimeout > 0) {
+            long period = Math.max(idleTimeout / 2, 100);
+            evictionTask = executor.scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    evictIdle();
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Leases a channel. The returned future may be cancelled if the caller stops waiting, in
+     * which case the channel it would have received goes to the next waiter.
+     */
+    public Future<Channel> acquire() {
+        Promise<Channel> promise = executor.newPromise();
+        Channel channel = null;
+        synchronized (this) {
+            if (closed) {
+                promise.setFailure(new IllegalStateException("Channel pool is closed"));
+                return promise;
+            }
+            channel = pollIdle();
+            if (channel == null) {
+                if (maxConnections <= 0 || channels.size() + pending < maxConnections) {
+                    pending++;
+                } else {
+                    channel = leastLoaded();
+                    if (channel == null) {
+                        waiters.addLast(promise);
+                        return promise;
+                    }
+                }
+            }
+            if (channel != null) {
+                channels.get(channel).inFlight++;
+            }
+        }
+        if (channel != null) {
+            promise.setSuccess(channel);
+        } else {
+            connect(promise);
+        }
+        return promise;
+    }
+
+    /**
+     * Returns a leased channel to the pool.
+     *
+     * @param channel the channel
+     * @param reusable false if the channel must not be used again, for instance because the
+     * response asked to close the connection or the exchange failed
+     */
+    public void release(Channel channel, boolean reusable) {
+        boolean close = false;
+        Deque<Promise<Channel>> handOff = null;
+        synchronized (this) {
+            ChannelState state = channels.get(channel);
+            if (state == null) {
+                return;
+            }
+            state.inFlight--;
+            if (!reusable || closed || !channel.isActive()) {
+                close = true;
+            } else {
+                while (state.inFlight < maxPipelinedRequests && !waiters.isEmpty()) {
+                    Promise<Channel> waiter = waiters.pollFirst();
+                    if (!waiter.isCancelled()) {
+                        state.inFlight++;
+                        if (handOff == null) {
+                            handOff = new ArrayDeque<Promise<Channel>>();
+                        }
+                        handOff.add(waiter);
+                    }
+                }
+                if (state.inFlight == 0) {
+                    state.lastUsed = System.currentTimeMillis();
+                    idle.addLast(channel);
+                }
+            }
+        }
+        if (close) {
+            channel.close();
+        } else if (handOff != null) {
+            // complete the waiters outside of the lock, their listeners run the conduit code
+            for (Promise<Channel> waiter : handOff) {
+                if (!waiter.trySuccess(channel)) {
+                    release(channel, true);
+                }
+            }
+        }
+    }
+
+    public synchronized int getOpenChannels() {
+        return channels.size();
+    }
+
+    public synchronized int getIdleChannels() {
+        return idle.size();
+    }
+
+    public void close() {
+        Channel[] open;
+        synchronized (this) {
+            closed = true;
+            if (evictionTask != null) {
+                evictionTask.cancel(false);
+            }
+            open = channels.keySet().toArray(new Channel[channels.size()]);
+            channels.clear();
+            idle.clear();
+            for (Promise<Channel> waiter : waiters) {
+                waiter.tryFailure(new IllegalStateException("Channel pool is closed"));
+            }
+            waiters.clear();
+        }
+        for (Channel channel : open) {
+            channel.close();
+        }
+    }
+
+    private void connect(final Promise<Channel> promise) {
+        ChannelFuture connectFuture = bootstrap.connect(remoteAddress);
+        if (connectFuture.isDone()) {
+            // a channel failing to register has no event loop to notify listeners on
+            connected(connectFuture, promise);
+            return;
+        }
+        connectFuture.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                connected(future, promise);
+            }
+        });
+    }
+
+    private void connected(ChannelFuture future, Promise<Channel> promise) {
+        if (!future.isSuccess()) {
+            synchronized (this) {
+                pending--;
+            }
+            promise.tryFailure(future.cause());
+            connectForWaiter();
+            return;
+        }
+        final Channel channel = future.channel();
+        boolean lost;
+        synchronized (this) {
+            pending--;
+            if (!closed) {
+                ChannelState state = new ChannelState();
+                state.inFlight = 1;
+                channels.put(channel, state);
+            }
+            lost = closed;
+        }
+        if (lost) {
+            channel.close();
+            promise.tryFailure(new IllegalStateException("Channel pool is closed"));
+            return;
+        }
+        channel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                removed(channel);
+            }
+        });
+        if (!promise.trySuccess(channel)) {
+            // the caller gave up waiting, hand the channel on
+            release(channel, true);
+        }
+    }
+
+    private void removed(Channel channel) {
+        synchronized (this) {
+            if (channels.remove(channel) == null) {
+                return;
+            }
+            idle.remove(channel);
+        }
+        connectForWaiter();
+    }
+
+    private void connectForWaiter() {
+        Promise<Channel> waiter = null;
+        synchronized (this) {
+            while (!closed && !waiters.isEmpty()
+                && (maxConnections <= 0 || channels.size() + pending < maxConnections)) {
+                waiter = waiters.pollFirst();
+                if (!waiter.isCancelled()) {
+                    pending++;
+                    break;
+                }
+                waiter = null;
+            }
+        }
+        if (waiter != null) {
+            connect(waiter);
+        }
+    }
+
+    private Channel pollIdle() {
+        Channel channel = idle.pollLast();
+        while (channel != null && !channel.isActive()) {
+            channels.remove(channel);
+            channel = idle.pollLast();
+        }
+        return channel;
+    }
+
+    private Channel leastLoaded() {
+        if (maxPipelinedRequests <= 1) {
+            return null;
+        }
+        Channel best = null;
+        int bestInFlight = maxPipelinedRequests;
+        for (Map.Entry<Channel, ChannelState> e : channels.entrySet()) {
+            if (e.getValue().inFlight < bestInFlight && e.getKey().isActive()) {
+                best = e.getKey();
+                bestInFlight = e.getValue().inFlight;
+            }
+        }
+        return best;
+    }
+
+    void evictIdle() {
+        long expired = System.currentTimeMillis() - idleTimeout;
+        Deque<Channel> evicted = new ArrayDeque<Channel>();
+        synchronized (this) {
+            for (Iterator<Channel> it = idle.iterator(); it.hasNext();) {
+                Channel channel = it.next();
+                ChannelState state = channels.get(channel);
+                if (state == null || state.lastUsed <= expired || !channel.isActive()) {
+                    it.remove();
+                    evicted.add(channel);
+                }
+            }
+        }
+        for (Channel channel : evicted) {
+            channel.close();
+        }
+    }
+
+    private static final class ChannelState {
+        int inFlight;
+        long lastUsed;
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cxf.transport.http.netty.client;
 
+import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 
@@ -54,7 +55,7 @@ public class NettyHttpClientHandler extends ChannelDuplexHandler {
         if (msg instanceof NettyHttpClientRequest) {
             NettyHttpClientRequest request = (NettyHttpClientRequest)msg;
             sendedQueue.put(request);
-            ctx.writeAndFlush(request.getRequest());
+            ctx.writeAndFlush(request.getRequest(), promise);
         } else {
             super.write(ctx, msg, promise);
         }
@@ -63,10 +64,26 @@ public class NettyHttpClientHandler extends ChannelDuplexHandler {
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
         throws Exception {
-        //TODO need to handle the exception here
-        cause.printStackTrace();
+        failPendingRequests(cause);
         ctx.close();
     }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // a pooled channel may be closed by the server while requests are waiting for their response
+        failPendingRequests(new ClosedChannelException());
+        super.channelInactive(ctx);
+    }
+
+    private void failPendingRequests(Throwable cause) {
+        NettyHttpClientRequest request = sendedQueue.poll();
+        while (request != null) {
+            if (request.getCxfResponseCallback() != null) {
+                request.getCxfResponseCallback().error(cause);
+            }
+            request = sendedQueue.poll();
+        }
+    }
     
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
@@ -35,6 +35,8 @@ import java.security.cert.Certificate;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSession;
@@ -60,21 +62,26 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
 
 
 public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLifeCycleListener {
     public static final String USE_ASYNC = "use.async.http.conduit";
     final NettyHttpConduitFactory factory;
     private Bootstrap bootstrap;
+    private final ConcurrentMap<PoolKey, NettyHttpChannelPool> channelPools = 
+        new ConcurrentHashMap<PoolKey, NettyHttpChannelPool>();
+    private volatile TLSClientParameters defaultTlsClientParameters;
     
     
     public NettyHttpConduit(Bus b, EndpointInfo ei, EndpointReferenceType t, NettyHttpConduitFactory conduitFactory)
@@ -84,12 +91,74 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
         bootstrap = new Bootstrap();
         EventLoopGroup eventLoopGroup = bus.getExtension(EventLoopGroup.class);
         bootstrap.group(eventLoopGroup);
-        bootstrap.channel(NioSocketChannel.class);
+        bootstrap.channel(NettyEventLoopGroups.getSocketChannelClass(eventLoopGroup));
     }
     
     public NettyHttpConduitFactory getNettyHttpConduitFactory() {
         return factory;
     }
+
+    /**
+     * Returns the pool of keep-alive channels for the scheme, host and port of the URI. Secure
+     * channels are pooled per TLS configuration as well since the handshake depends on it.
+     */
+    protected NettyHttpChannelPool getChannelPool(URI uri, TLSClientParameters clientParameters,
+                                                  HTTPClientPolicy csPolicy) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "http".equals(uri.getScheme()) ? 80 : 443;
+        PoolKey key = new PoolKey(uri.getScheme() + "://" + uri.getHost() + ":" + port, clientParameters);
+        NettyHttpChannelPool pool = channelPools.get(key);
+        if (pool == null) {
+            Bootstrap b = bootstrap.clone();
+            b.handler(new NettyHttpClientPipelineFactory(clientParameters));
+            pool = new NettyHttpChannelPool(b, new InetSocketAddress(uri.getHost(), port),
+                                            csPolicy.getMaxConnectionsPerHost(),
+                                            csPolicy.getMaxPipelinedRequests(),
+                                            csPolicy.getConnectionIdleTimeout());
+            NettyHttpChannelPool existing = channelPools.putIfAbsent(key, pool);
+            if (existing != null) {
+                pool.close();
+                pool = existing;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Identifies a channel pool by its address and by the TLSClientParameters instance the
+     * channels were set up with, two distinct instances never share a pool.
+     */
+    private static final class PoolKey {
+        private final String address;
+        private final TLSClientParameters clientParameters;
+
+        PoolKey(String address, TLSClientParameters clientParameters) {
+            this.address = address;
+            this.clientParameters = clientParameters;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * address.hashCode() + System.identityHashCode(clientParameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey)o;
+            return address.equals(other.address) && clientParameters == other.clientParameters;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (NettyHttpChannelPool pool : channelPools.values()) {
+            pool.close();
+        }
+        channelPools.clear();
+        super.close();
+    }
     
     // Using Netty API directly
     protected void setupConnection(Message message, Address address, HTTPClientPolicy csPolicy) throws IOException {
@@ -206,6 +275,10 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
         boolean isAsync;
         ByteBuf outBuffer;
         OutputStream outputStream;
+        NettyHttpChannelPool pool;
+        Future<Channel> acquireFuture;
+        boolean released;
+        boolean requestWritten;
 
         protected NettyWrappedOutputStream(Message message, boolean possibleRetransmit,
                                            boolean isChunking, int chunkThreshold, String conduitName, URI url) {
@@ -213,7 +286,8 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
             csPolicy = getClient(message);
             entity  = message.get(NettyHttpClientRequest.class);
             int bufSize = csPolicy.getChunkLength() > 0 ? csPolicy.getChunkLength() : 16320;
-            outBuffer = Unpooled.buffer(bufSize);
+            // the encoder releases the buffer once the request is written, see releaseOutBuffer
+            outBuffer = PooledByteBufAllocator.DEFAULT.buffer(bufSize);
             outputStream = new ByteBufOutputStream(outBuffer);
         }
 
@@ -221,6 +295,25 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
             return outBuffer;
         }
 
+        /**
+         * Gives the pooled request buffer back to the allocator unless it has been handed to the
+         * channel, in which case the encoder owns it.
+         */
+        protected synchronized void releaseOutBuffer() {
+            if (!requestWritten && outBuffer.refCnt() > 0) {
+                outBuffer.release();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                releaseOutBuffer();
+            }
+        }
+
 
         protected synchronized HttpResponse getHttpResponse() throws IOException {
             while (httpResponse == null) {
@@ -243,6 +336,7 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                         throw new IOException(exception);
                     }
 
+                    releaseChannel(false);
                     throw new SocketTimeoutException("Read Timeout");
                 }
             }
@@ -276,6 +370,11 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                         throw new IOException(exception);
                     }
 
+                    if (acquireFuture != null && !acquireFuture.cancel(false) && acquireFuture.isSuccess()) {
+                        // leased just as we gave up waiting
+                        channel = acquireFuture.getNow();
+                        return channel;
+                    }
                     throw new SocketTimeoutException("Connection Timeout");
                 }
             }
@@ -304,7 +403,11 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                             }
                         }
                     };
-                    ChannelFuture channelFuture = getChannel().write(entity);
+                    Channel ch = getChannel();
+                    synchronized (NettyWrappedOutputStream.this) {
+                        requestWritten = true;
+                    }
+                    ChannelFuture channelFuture = ch.write(entity);
                     channelFuture.addListener(listener);
                     outputStream.close();
                 }
@@ -324,40 +427,24 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                 clientParameters = getTlsClientParameters();
             }
             if (clientParameters == null) {
-                clientParameters = new TLSClientParameters();
+                if (defaultTlsClientParameters == null) {
+                    defaultTlsClientParameters = new TLSClientParameters();
+                }
+                clientParameters = defaultTlsClientParameters;
             }
             return clientParameters;
         }
 
         protected void connect(boolean output) {
+            if (acquireFuture != null) {
+                // already leased or waiting for a channel
+                return;
+            }
             if (url.getScheme().equals("https")) {
-                TLSClientParameters clientParameters = findTLSClientParameters();
-                bootstrap.handler(new NettyHttpClientPipelineFactory(clientParameters));
+                pool = getChannelPool(url, findTLSClientParameters(), csPolicy);
             } else {
-                bootstrap.handler(new NettyHttpClientPipelineFactory(null));
+                pool = getChannelPool(url, null, csPolicy);
             }
-            ChannelFuture connFuture = 
-                bootstrap.connect(new InetSocketAddress(url.getHost(), url.getPort() != -1 ? url.getPort()
-                                                            : "http".equals(url.getScheme()) ? 80 : 443));
-
-            // Setup the call back on the NettyHttpClientRequest
-            ChannelFutureListener listener = new ChannelFutureListener() {
-                
-                @Override
-                public void operationComplete(ChannelFuture future) throws Exception {
-                    if (future.isSuccess()) {
-                        setChannel(future.channel());
-                        SslHandler sslHandler = channel.pipeline().get(SslHandler.class);
-                        if (sslHandler != null) {
-                            session = sslHandler.engine().getSession();
-                        }
-                    } else {
-                        setException((Exception) future.cause());
-                    }
-                }
-            };
-
-            connFuture.addListener(listener);
 
             if (!output) {
                 entity.getRequest().headers().remove("Transfer-Encoding");
@@ -371,9 +458,49 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                 public void responseReceived(HttpResponse response) {
                     setHttpResponse(response);
                 }
+
+                @Override
+                public void error(Throwable ex) {
+                    setException(ex);
+                }
             };
             entity.setCxfResponseCallback(callBack);
 
+            // Setup the call back on the NettyHttpClientRequest
+            GenericFutureListener<Future<Channel>> listener = new GenericFutureListener<Future<Channel>>() {
+
+                @Override
+                public void operationComplete(Future<Channel> future) throws Exception {
+                    if (future.isSuccess()) {
+                        Channel ch = future.getNow();
+                        SslHandler sslHandler = ch.pipeline().get(SslHandler.class);
+                        if (sslHandler != null) {
+                            session = sslHandler.engine().getSession();
+                        }
+                        setChannel(ch);
+                    } else if (!future.isCancelled()) {
+                        setException(future.cause());
+                    }
+                }
+            };
+            acquireFuture = pool.acquire();
+            acquireFuture.addListener(listener);
+        }
+
+        /**
+         * Hands the channel back to its pool once the exchange on it is over.
+         */
+        protected synchronized void releaseChannel(boolean reusable) {
+            if (channel != null && pool != null && !released) {
+                released = true;
+                pool.release(channel, reusable);
+            }
+        }
+
+        private boolean isKeepAlive(HttpResponse response) {
+            String connection = entity.getRequest().headers().get(HttpHeaders.Names.CONNECTION);
+            return HttpHeaders.isKeepAlive(response)
+                && !HttpHeaders.Values.CLOSE.equalsIgnoreCase(connection);
         }
 
         @Override
@@ -382,6 +509,8 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                 return null;
             }
             connect(true);
+            // the session is known once the channel is
+            getChannel();
            
             HostnameVerifier verifier = org.apache.cxf.transport.https.SSLUtils
                 .getHostnameVerifier(findTLSClientParameters());
@@ -538,10 +667,12 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
             httpResponse = null;
             isAsync = false;
             exception = null;
-            if (channel != null) {
-                channel.close();
-                channel = null;
-            }
+            releaseChannel(false);
+            channel = null;
+            acquireFuture = null;
+            released = false;
+            releaseOutBuffer();
+            requestWritten = false;
 
             try {
                 Address address;
@@ -554,9 +685,11 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
                 }
                 setupConnection(outMessage, address, csPolicy);
                 entity = outMessage.get(NettyHttpClientRequest.class);
-                //reset the buffers
-                outBuffer.clear();
+                //reset the buffers, the previous one belongs to the sent request
+                int bufSize = csPolicy.getChunkLength() > 0 ? csPolicy.getChunkLength() : 16320;
+                outBuffer = PooledByteBufAllocator.DEFAULT.buffer(bufSize);
                 outputStream = new ByteBufOutputStream(outBuffer);
+                entity.createRequest(outBuffer);
 
             } catch (URISyntaxException e) {
                 throw new IOException(e);
@@ -587,6 +720,7 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
 
         protected synchronized void setHttpResponse(HttpResponse r) {
             httpResponse = r;
+            releaseChannel(isKeepAlive(r));
             if (isAsync) {
                 //got a response, need to start the response processing now
                 try {
@@ -601,6 +735,7 @@ public class NettyHttpConduit extends URLConnectionHTTPConduit implements BusLif
 
         protected synchronized void setException(Throwable ex) {
             exception = ex;
+            releaseChannel(false);
             if (isAsync) {
                 //got a response, need to start the response processing now
                 try {
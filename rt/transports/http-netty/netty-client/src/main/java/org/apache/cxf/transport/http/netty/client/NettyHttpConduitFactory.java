@@ -24,6 +24,7 @@ import java.io.IOException;
 import org.apache.cxf.Bus;
 import org.apache.cxf.buslifecycle.BusLifeCycleListener;
 import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.util.PropertyUtils;
 import org.apache.cxf.common.util.SystemPropertyAction;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.http.HTTPConduit;
@@ -32,13 +33,16 @@ import org.apache.cxf.transport.http.HTTPTransportFactory;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 
 
 public class NettyHttpConduitFactory implements HTTPConduitFactory {
 
     //CXF specific
     public static final String USE_POLICY = "org.apache.cxf.transport.http.netty.usePolicy";
+    /** Bus property to use the native epoll transport when it is available */
+    public static final String NATIVE_TRANSPORT = "org.apache.cxf.transport.http.netty.nativeTransport";
+    /** Bus property with the number of event loops of the client, 0 for the Netty default */
+    public static final String IO_THREADS = "org.apache.cxf.transport.http.netty.ioThreads";
     
     public enum UseAsyncPolicy {
         ALWAYS, ASYNC_ONLY, NEVER;
@@ -84,12 +88,15 @@ public class NettyHttpConduitFactory implements HTTPConduitFactory {
         throws IOException {
         // need to check if the EventLoopGroup is created or not
         // if not create a new EventLoopGroup for it
-        EventLoopGroup eventLoopGroup = bus.getExtension(EventLoopGroup.class);
-        if (eventLoopGroup == null) {
-            final EventLoopGroup group = new NioEventLoopGroup();
-            // register a BusLifeCycleListener for it
-            bus.setExtension(group, EventLoopGroup.class);
-            registerBusLifeListener(bus, group);
+        synchronized (bus) {
+            EventLoopGroup eventLoopGroup = bus.getExtension(EventLoopGroup.class);
+            if (eventLoopGroup == null) {
+                final EventLoopGroup group = NettyEventLoopGroups.newEventLoopGroup(
+                    PropertyUtils.isTrue(bus.getProperty(NATIVE_TRANSPORT)), getIoThreads(bus));
+                // register a BusLifeCycleListener for it
+                bus.setExtension(group, EventLoopGroup.class);
+                registerBusLifeListener(bus, group);
+            }
         }
         return new NettyHttpConduit(bus, localInfo, target, this);
     }
@@ -102,6 +109,16 @@ public class NettyHttpConduitFactory implements HTTPConduitFactory {
         return createConduit(null, bus, localInfo, target);
     }
     
+    private static int getIoThreads(Bus bus) {
+        Object threads = bus.getProperty(IO_THREADS);
+        if (threads instanceof Number) {
+            return ((Number)threads).intValue();
+        } else if (threads instanceof String) {
+            return Integer.parseInt((String)threads);
+        }
+        return 0;
+    }
+
     protected void registerBusLifeListener(Bus bus, final EventLoopGroup group) {
         BusLifeCycleManager lifeCycleManager = bus.getExtension(BusLifeCycleManager.class);
         if (null != lifeCycleManager) {
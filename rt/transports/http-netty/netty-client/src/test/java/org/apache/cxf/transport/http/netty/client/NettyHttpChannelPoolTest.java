@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http.netty.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.concurrent.Future;
+
+public class NettyHttpChannelPoolTest extends Assert {
+    private static final LocalAddress ADDRESS = new LocalAddress("NettyHttpChannelPoolTest");
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Bootstrap bootstrap;
+    private NettyHttpChannelPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        group = new LocalEventLoopGroup();
+        serverChannel = new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+            .childHandler(new NoopHandler()).bind(ADDRESS).sync().channel();
+        bootstrap = new Bootstrap().group(group).channel(LocalChannel.class)
+            .handler(new NoopHandler());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (pool != null) {
+            pool.close();
+        }
+        serverChannel.close().sync();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    public void testReleasedChannelIsReused() throws Exception {
+        pool = new NettyHttpChannelPool(bootstrap, ADDRESS, 2, 1, -1);
+        Channel first = pool.acquire().get(5, TimeUnit.SECONDS);
+        pool.release(first, true);
+        Channel second = pool.acquire().get(5, TimeUnit.SECONDS);
+        assertSame(first, second);
+        assertEquals(1, pool.getOpenChannels());
+    }
+
+    @Test
+    public void testWaitsForReleaseWhenLimitReached() throws Exception {
+        pool = new NettyHttpChannelPool(bootstrap, ADDRESS, 1, 1, -1);
+        Channel first = pool.acquire().get(5, TimeUnit.SECONDS);
+        Future<Channel> waiting = pool.acquire();
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        pool.release(first, true);
+        assertSame(first, waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPipelinedRequestsShareChannel() throws Exception {
+        pool = new NettyHttpChannelPool(bootstrap, ADDRESS, 1, 2, -1);
+        Channel first = pool.acquire().get(5, TimeUnit.SECONDS);
+        Channel second = pool.acquire().get(5, TimeUnit.SECONDS);
+        assertSame(first, second);
+        assertFalse(pool.acquire().isDone());
+    }
+
+    @Test
+    public void testNotReusableChannelIsClosed() throws Exception {
+        pool = new NettyHttpChannelPool(bootstrap, ADDRESS, 1, 1, -1);
+        Channel first = pool.acquire().get(5, TimeUnit.SECONDS);
+        pool.release(first, false);
+        first.closeFuture().await(5, TimeUnit.SECONDS);
+        Channel second = pool.acquire().get(5, TimeUnit.SECONDS);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testIdleChannelIsEvicted() throws Exception {
+        pool = new NettyHttpChannelPool(bootstrap, ADDRESS, 1, 1, 100);
+        Channel first = pool.acquire().get(5, TimeUnit.SECONDS);
+        pool.release(first, true);
+        assertTrue(first.closeFuture().await(5, TimeUnit.SECONDS));
+        assertEquals(0, pool.getIdleChannels());
+    }
+
+    @Sharable
+    private static class NoopHandler extends ChannelInboundHandlerAdapter {
+    }
+}
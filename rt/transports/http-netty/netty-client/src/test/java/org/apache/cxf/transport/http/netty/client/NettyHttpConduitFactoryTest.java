@@ -18,13 +18,17 @@
  */
 package org.apache.cxf.transport.http.netty.client;
 
+import java.net.URI;
+
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.BusFactory;
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.transport.http.HTTPConduitFactory;
+import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -103,4 +107,29 @@ public class NettyHttpConduitFactoryTest extends Assert {
         assertTrue("The eventLoopGroup should be shutdown.", eventLoopGroup.isShutdown());
  
     }
+
+    @Test
+    public void testChannelPoolPerTlsClientParameters() throws Exception {
+        bus = BusFactory.getDefaultBus(true);
+        NettyHttpTransportFactory factory = bus.getExtension(NettyHttpTransportFactory.class);
+
+        ServiceInfo serviceInfo = new ServiceInfo();
+        serviceInfo.setName(new QName("bla", "Service"));
+        EndpointInfo ei = new EndpointInfo(serviceInfo, "");
+        ei.setName(new QName("bla", "Port"));
+        ei.setAddress("netty://https://localhost:9000/foo");
+
+        NettyHttpConduit conduit = (NettyHttpConduit)factory.getConduit(ei, null, bus);
+        URI uri = new URI("https://localhost:9000/foo");
+        HTTPClientPolicy policy = new HTTPClientPolicy();
+        TLSClientParameters first = new TLSClientParameters();
+        TLSClientParameters second = new TLSClientParameters();
+        try {
+            assertSame(conduit.getChannelPool(uri, first, policy), conduit.getChannelPool(uri, first, policy));
+            assertNotSame(conduit.getChannelPool(uri, first, policy), conduit.getChannelPool(uri, second, policy));
+            assertNotSame(conduit.getChannelPool(uri, first, policy), conduit.getChannelPool(uri, null, policy));
+        } finally {
+            conduit.close();
+        }
+    }
 }
@@ -26,20 +26,24 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.PostConstruct;
 
+import org.apache.cxf.Bus;
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.configuration.jsse.TLSServerParameters;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.transport.HttpUriMapper;
+import org.apache.cxf.transport.http.netty.client.NettyEventLoopGroups;
+import org.apache.cxf.workqueue.WorkQueueManager;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
 
 
 public class NettyHttpServerEngine implements ServerEngine {
@@ -87,11 +91,27 @@ public class NettyHttpServerEngine implements ServerEngine {
     
     private int maxChunkContentSize = 1048576; 
     
+    private boolean streaming;
+    
+    private int streamingBufferSize = 65536;
+    
+    private int writeBufferHighWaterMark = 65536;
+    
+    private int writeBufferLowWaterMark = 32768;
+    
     private boolean sessionSupport;
     
-    // TODO need to setup configuration about them
-    private EventLoopGroup bossGroup = new NioEventLoopGroup();
-    private EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private boolean nativeTransport;
+    
+    private int ioThreads;
+    
+    private boolean shareEventLoopGroup;
+    
+    private Bus bus;
+    
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private boolean sharedWorkerGroup;
     
     public NettyHttpServerEngine() {
         
@@ -146,16 +166,38 @@ public class NettyHttpServerEngine implements ServerEngine {
       
     protected Channel startServer() {
           
+        if (shareEventLoopGroup && bus != null) {
+            workerGroup = NettyEventLoopGroups.getSharedEventLoopGroup(bus, nativeTransport, ioThreads);
+            sharedWorkerGroup = true;
+        } else {
+            workerGroup = NettyEventLoopGroups.newEventLoopGroup(nativeTransport, ioThreads);
+            sharedWorkerGroup = false;
+        }
+        // the shared group may have been created by a conduit with another transport,
+        // the accepted channels have to match the loops they are registered on
+        boolean epoll = NettyEventLoopGroups.isEpollEventLoopGroup(workerGroup);
+        if (epoll != nativeTransport && LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "Using the transport of the shared event loop group {0}", workerGroup);
+        }
+        bossGroup = NettyEventLoopGroups.newEventLoopGroup(epoll, 1);
+        if (NettyEventLoopGroups.isEpollEventLoopGroup(bossGroup) != epoll) {
+            bossGroup.shutdownGracefully();
+            bossGroup = null;
+            throw new IllegalStateException("Could not create an event loop group with the transport of "
+                                            + workerGroup);
+        }
         final ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap.group(bossGroup, workerGroup)
-            .channel(NioServerSocketChannel.class)
-            .option(ChannelOption.SO_REUSEADDR, true);
+            .channel(NettyEventLoopGroups.getServerChannelClass(workerGroup))
+            .option(ChannelOption.SO_REUSEADDR, true)
+            .childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, writeBufferHighWaterMark)
+            .childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, writeBufferLowWaterMark);
 
         // Set up the event pipeline factory.
         servletPipeline = 
             new NettyHttpServletPipelineFactory(
                  tlsServerParameters, sessionSupport, 
-                 threadingParameters.getThreadPoolSize(),
+                 createApplicationExecutor(),
                  maxChunkContentSize,
                  handlerMap, this);
         // Start the servletPipeline's timer
@@ -176,6 +218,20 @@ public class NettyHttpServerEngine implements ServerEngine {
         }
     }
 
+    protected Executor createApplicationExecutor() {
+        String workQueueName = threadingParameters.getWorkQueueName();
+        if (workQueueName != null && bus != null) {
+            WorkQueueManager manager = bus.getExtension(WorkQueueManager.class);
+            Executor queue = manager == null ? null : manager.getNamedWorkQueue(workQueueName);
+            if (queue != null) {
+                return queue;
+            }
+            LOG.log(Level.WARNING, "No WorkQueue named " + workQueueName
+                    + ", using a thread pool of threadPoolSize threads");
+        }
+        return new DefaultEventExecutorGroup(threadingParameters.getThreadPoolSize());
+    }
+
     protected void checkRegistedContext(URL url) {
         String path = url.getPath();
         for (String registedPath : registedPaths) {
@@ -248,8 +304,14 @@ public class NettyHttpServerEngine implements ServerEngine {
             serverChannel.close();
         }
         
-        bossGroup.shutdownGracefully();
-        workerGroup.shutdownGracefully();
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+            bossGroup = null;
+        }
+        if (workerGroup != null && !sharedWorkerGroup) {
+            workerGroup.shutdownGracefully();
+        }
+        workerGroup = null;
        
     }
 
@@ -284,6 +346,84 @@ public class NettyHttpServerEngine implements ServerEngine {
     public void setMaxChunkContentSize(int maxChunkContentSize) {
         this.maxChunkContentSize = maxChunkContentSize;
     }
+
+    public Bus getBus() {
+        return bus;
+    }
+
+    public void setBus(Bus bus) {
+        this.bus = bus;
+    }
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    /**
+     * Uses the native epoll transport when netty-transport-native-epoll is available.
+     */
+    public void setNativeTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    /**
+     * The number of event loops serving the connections, 0 for the Netty default.
+     */
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public boolean isShareEventLoopGroup() {
+        return shareEventLoopGroup;
+    }
+
+    /**
+     * Serves the connections on the EventLoopGroup of the bus, which is also used by
+     * the Netty conduits, instead of a group of this engine.
+     */
+    public void setShareEventLoopGroup(boolean shareEventLoopGroup) {
+        this.shareEventLoopGroup = shareEventLoopGroup;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Streams request and response bodies as <code>HttpContent</code> chunks instead of
+     * aggregating them, so the size of a message is no longer bounded by maxChunkContentSize.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getStreamingBufferSize() {
+        return streamingBufferSize;
+    }
+
+    public void setStreamingBufferSize(int streamingBufferSize) {
+        this.streamingBufferSize = streamingBufferSize;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
     
     public int getPort() {
         return port;
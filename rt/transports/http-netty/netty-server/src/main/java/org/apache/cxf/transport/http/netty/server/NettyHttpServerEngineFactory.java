@@ -115,6 +115,9 @@ public class NettyHttpServerEngineFactory implements BusLifeCycleListener {
     
     public void setEnginesList(List<NettyHttpServerEngine> enginesList) {
         for (NettyHttpServerEngine engine : enginesList) {
+            if (engine.getBus() == null) {
+                engine.setBus(bus);
+            }
             portMap.putIfAbsent(engine.getPort(), engine);
         }    
     }
@@ -152,6 +155,7 @@ public class NettyHttpServerEngineFactory implements BusLifeCycleListener {
         NettyHttpServerEngine ref = portMap.get(port);
         if (ref == null) {
             ref = new NettyHttpServerEngine(host, port);
+            ref.setBus(factory.getBus());
             if (tlsParams != null) {
                 ref.setTlsServerParameters(tlsParams);
             }
@@ -19,7 +19,11 @@
 
 package org.apache.cxf.transport.http.netty.server;
 
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -30,6 +34,8 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.transport.http.netty.server.interceptor.NettyInterceptor;
 import org.apache.cxf.transport.http.netty.server.servlet.NettyHttpServletRequest;
 import org.apache.cxf.transport.http.netty.server.servlet.NettyServletResponse;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyStreamingServletInputStream;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyStreamingServletOutputStream;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -43,14 +49,17 @@ import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpHeaders.Names;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.timeout.IdleState;
 import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 
 public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
     private static final Logger LOG =
@@ -62,6 +71,14 @@ public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
 
     private List<NettyInterceptor> interceptors;
 
+    // streaming state, only touched on the event loop of the channel
+    private NettyStreamingServletInputStream requestBody;
+    private boolean responding;
+    private final Deque<Runnable> pipelinedRequests = new ArrayDeque<Runnable>();
+
+    // the response being written by the applicationExecutor in streaming mode
+    private volatile NettyStreamingServletOutputStream responseBody;
+
     public NettyHttpServletHandler(NettyHttpServletPipelineFactory pipelineFactory) {
         this.allChannels = pipelineFactory.getAllChannels();
         this.pipelineFactory = pipelineFactory;
@@ -97,16 +114,66 @@ public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
     }
     
     
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (requestBody != null) {
+            requestBody.fail(new ClosedChannelException());
+            requestBody = null;
+        }
+        pipelinedRequests.clear();
+        writabilityChanged();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        writabilityChanged();
+        super.channelWritabilityChanged(ctx);
+    }
+
+    private void writabilityChanged() {
+        NettyStreamingServletOutputStream out = responseBody;
+        if (out != null) {
+            out.writabilityChanged();
+        }
+    }
+
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        HttpRequest request = (HttpRequest) msg;
+        if (pipelineFactory.isStreaming()) {
+            try {
+                streamingChannelRead(ctx, msg);
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+            return;
+        }
+        final HttpRequest request = (HttpRequest) msg;
         if (HttpHeaders.is100ContinueExpected(request)) {
             ctx.write(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
         }
 
         // find the nettyHttpContextHandler by lookup the request url
-        NettyHttpContextHandler nettyHttpContextHandler = pipelineFactory.getNettyHttpHandler(request.getUri());
-        if (nettyHttpContextHandler != null) {
+        final NettyHttpContextHandler nettyHttpContextHandler =
+            pipelineFactory.getNettyHttpHandler(request.getUri());
+        if (nettyHttpContextHandler != null && pipelineFactory.isDispatching()) {
+            dispatch(ctx, new Runnable() {
+                public void run() {
+                    try {
+                        handleHttpServletRequest(ctx, request, nettyHttpContextHandler);
+                        // runs after the write of the response on the event loop
+                        ctx.executor().execute(new Runnable() {
+                            public void run() {
+                                ctx.flush();
+                                responseFinished(ctx);
+                            }
+                        });
+                    } catch (Throwable t) {
+                        handleException(ctx, t);
+                    }
+                }
+            });
+        } else if (nettyHttpContextHandler != null) {
             handleHttpServletRequest(ctx, request, nettyHttpContextHandler);
         } else {
             throw new RuntimeException(
@@ -115,6 +182,132 @@ public class NettyHttpServletHandler extends ChannelInboundHandlerAdapter {
     }
 
     
+    private void streamingChannelRead(final ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            final HttpRequest request = (HttpRequest) msg;
+            if (HttpHeaders.is100ContinueExpected(request)) {
+                ctx.writeAndFlush(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
+            }
+            final NettyHttpContextHandler nettyHttpContextHandler =
+                pipelineFactory.getNettyHttpHandler(request.getUri());
+            if (nettyHttpContextHandler == null) {
+                throw new RuntimeException(
+                    new Fault(new Message("NO_NETTY_SERVLET_HANDLER_FOUND", LOG, request.getUri())));
+            }
+            final NettyStreamingServletInputStream body =
+                new NettyStreamingServletInputStream(ctx.channel(), pipelineFactory.getStreamingBufferSize(),
+                                                     pipelineFactory.getStreamingReadTimeout());
+            requestBody = body;
+            dispatch(ctx, new Runnable() {
+                public void run() {
+                    handleStreamingRequest(ctx, request, body, nettyHttpContextHandler);
+                }
+            });
+        }
+        if (msg instanceof HttpContent && requestBody != null) {
+            boolean last = msg instanceof LastHttpContent;
+            requestBody.offer(((HttpContent)msg).content().retain(), last);
+            if (last) {
+                requestBody = null;
+            }
+        }
+    }
+
+    private void handleStreamingRequest(final ChannelHandlerContext ctx, HttpRequest request,
+                                        NettyStreamingServletInputStream body,
+                                        NettyHttpContextHandler nettyHttpContextHandler) {
+        NettyStreamingServletOutputStream out = null;
+        try {
+            interceptOnRequestReceived(ctx, request);
+
+            boolean keepAlive = HttpHeaders.isKeepAlive(request);
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            if (keepAlive) {
+                response.headers().set(Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+            }
+            out = new NettyStreamingServletOutputStream(ctx, response, pipelineFactory.getStreamingBufferSize());
+            responseBody = out;
+            NettyServletResponse nettyServletResponse = new NettyServletResponse(response, out);
+            NettyHttpServletRequest nettyServletRequest =
+                new NettyHttpServletRequest(request, nettyHttpContextHandler.getContextPath(), ctx, body);
+
+            nettyHttpContextHandler.handle(nettyServletRequest.getRequestURI(),
+                                           nettyServletRequest, nettyServletResponse);
+            interceptOnRequestSuccessed(ctx, response);
+
+            out.setFinishing();
+            nettyServletResponse.getWriter().flush();
+            // drop whatever the application did not read of the request
+            body.close();
+
+            ChannelFuture future = out.finish(keepAlive);
+            responseBody = null;
+            if (keepAlive) {
+                future.addListener(new ChannelFutureListener() {
+                    public void operationComplete(ChannelFuture f) {
+                        responseFinished(ctx);
+                    }
+                });
+            } else {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        } catch (Throwable t) {
+            responseBody = null;
+            try {
+                body.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            if (out != null && out.isCommitted()) {
+                // part of the response is already on the wire, an error page can't follow it
+                LOG.log(Level.WARNING, "UNEXPECTED_EXCEPCTION_IN_NETTY_SERVLET_HANDLER", t);
+                ctx.close();
+                return;
+            }
+            handleException(ctx, t);
+        }
+    }
+
+    private void handleException(final ChannelHandlerContext ctx, final Throwable t) {
+        ctx.executor().execute(new Runnable() {
+            public void run() {
+                try {
+                    exceptionCaught(ctx, t);
+                } catch (Exception e) {
+                    LOG.log(Level.FINE, "Failure handling exception", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands a request over to the application executor. A pipelined request waits for the
+     * response to the current one, and stops any further reads until then.
+     */
+    private void dispatch(ChannelHandlerContext ctx, Runnable task) {
+        if (responding) {
+            ctx.channel().config().setAutoRead(false);
+            pipelinedRequests.addLast(task);
+        } else {
+            responding = true;
+            pipelineFactory.getApplicationExecutor().execute(task);
+        }
+    }
+
+    private void responseFinished(ChannelHandlerContext ctx) {
+        Runnable next = pipelinedRequests.pollFirst();
+        if (next != null) {
+            if (pipelinedRequests.isEmpty()) {
+                // the body of the request may not have been read yet
+                ctx.channel().config().setAutoRead(true);
+            }
+            pipelineFactory.getApplicationExecutor().execute(next);
+        } else {
+            responding = false;
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
         ctx.flush();
@@ -20,6 +20,7 @@
 package org.apache.cxf.transport.http.netty.server;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,7 +66,7 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
     
     private final int maxChunkContentSize;
     
-    private final EventExecutorGroup applicationExecutor;
+    private final Executor applicationExecutor;
 
     private final NettyHttpServerEngine nettyHttpServerEngine;
 
@@ -73,14 +74,27 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
                                            boolean supportSession, int threadPoolSize, int maxChunkContentSize,
                                            Map<String, NettyHttpContextHandler> handlerMap,
                                            NettyHttpServerEngine engine) {
+        this(tlsServerParameters, supportSession, new DefaultEventExecutorGroup(threadPoolSize),
+             maxChunkContentSize, handlerMap, engine);
+    }
+
+    /**
+     * @param applicationExecutor runs the servlet handlers. An EventExecutorGroup is added to the
+     *        pipeline with the handler, any other Executor (such as a CXF WorkQueue) is handed each
+     *        request by the handler itself.
+     */
+    public NettyHttpServletPipelineFactory(TLSServerParameters tlsServerParameters, 
+                                           boolean supportSession, Executor applicationExecutor,
+                                           int maxChunkContentSize,
+                                           Map<String, NettyHttpContextHandler> handlerMap,
+                                           NettyHttpServerEngine engine) {
         this.supportSession = supportSession;
         this.watchdog = new HttpSessionWatchdog();
         this.handlerMap = handlerMap;
         this.tlsServerParameters = tlsServerParameters;
         this.maxChunkContentSize = maxChunkContentSize;
         this.nettyHttpServerEngine = engine;
-        //TODO need to configure the thread size of EventExecutorGroup
-        applicationExecutor = new DefaultEventExecutorGroup(threadPoolSize);
+        this.applicationExecutor = applicationExecutor;
     }
 
 
@@ -92,6 +106,33 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
         return allChannels;
     }
 
+    public Executor getApplicationExecutor() {
+        return applicationExecutor;
+    }
+
+    /**
+     * @return true if the servlet handler runs on the event loop and dispatches the requests
+     *         to the application executor
+     */
+    public boolean isDispatching() {
+        return isStreaming() || !(applicationExecutor instanceof EventExecutorGroup);
+    }
+
+    public boolean isStreaming() {
+        return nettyHttpServerEngine != null && nettyHttpServerEngine.isStreaming();
+    }
+
+    public int getStreamingBufferSize() {
+        return nettyHttpServerEngine.getStreamingBufferSize();
+    }
+
+    /**
+     * @return how long in milliseconds a streamed request body may wait for more data
+     */
+    public long getStreamingReadTimeout() {
+        return nettyHttpServerEngine.getReadIdleTime() * 1000L;
+    }
+
     public NettyHttpContextHandler getNettyHttpHandler(String url) {
         for (Map.Entry<String, NettyHttpContextHandler> entry : handlerMap.entrySet()) {
             // Here just check the context path first
@@ -111,7 +152,9 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
     public void shutdown() {
         allChannels.close().awaitUninterruptibly();
         watchdog.stopWatching();
-        applicationExecutor.shutdownGracefully();
+        if (applicationExecutor instanceof EventExecutorGroup) {
+            ((EventExecutorGroup)applicationExecutor).shutdownGracefully();
+        }
     }
 
     protected HttpSessionStore getHttpSessionStore() {
@@ -142,7 +185,9 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
         }
 
         pipeline.addLast("decoder", new HttpRequestDecoder());
-        pipeline.addLast("aggregator", new HttpObjectAggregator(maxChunkContentSize));
+        if (!isStreaming()) {
+            pipeline.addLast("aggregator", new HttpObjectAggregator(maxChunkContentSize));
+        }
         pipeline.addLast("encoder", new HttpResponseEncoder());
 
         // Remove the following line if you don't want automatic content
@@ -198,7 +243,13 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
     protected void initChannel(Channel ch) throws Exception {
         ChannelPipeline pipeline = getDefaulHttpChannelPipeline(ch);
         
-        pipeline.addLast(applicationExecutor, "handler", this.getServletHandler());
+        if (isDispatching()) {
+            // the handler hands each request over to the applicationExecutor itself,
+            // so that a streamed body can keep arriving on the event loop while it is processed
+            pipeline.addLast("handler", this.getServletHandler());
+        } else {
+            pipeline.addLast((EventExecutorGroup)applicationExecutor, "handler", this.getServletHandler());
+        }
     }
 
 }
@@ -26,6 +26,7 @@ public class ThreadingParameters {
 
     private int threadPoolSize = 200;
     private boolean threadPoolSizeSet;
+    private String workQueueName;
     
     
     public void setThreadPoolSize(int number) {
@@ -41,4 +42,16 @@ public class ThreadingParameters {
         return threadPoolSizeSet;
     }
     
+    /**
+     * Runs the requests on the named WorkQueue of the bus WorkQueueManager
+     * instead of a thread pool of threadPoolSize threads.
+     */
+    public void setWorkQueueName(String name) {
+        workQueueName = name;
+    }
+    
+    public String getWorkQueueName() {
+        return workQueueName;
+    }
+    
 }
@@ -81,6 +81,7 @@ public class NettyHttpServerEngineFactoryHolder {
                     ThreadingParameters rThreads = new ThreadingParameters();
                     String id = threads.getId();
                     rThreads.setThreadPoolSize(threads.getThreadingParameters().getThreadPoolSize());
+                    rThreads.setWorkQueueName(threads.getThreadingParameters().getWorkQueue());
                     threadingParametersMap.put(id, rThreads);
                 }
 
@@ -120,6 +121,27 @@ public class NettyHttpServerEngineFactoryHolder {
                 if (engine.getMaxChunkContentSize() != null) {
                     eng.setMaxChunkContentSize(engine.getMaxChunkContentSize());
                 }
+                if (engine.isNativeTransport() != null) {
+                    eng.setNativeTransport(engine.isNativeTransport());
+                }
+                if (engine.getIoThreads() != null) {
+                    eng.setIoThreads(engine.getIoThreads());
+                }
+                if (engine.isShareEventLoopGroup() != null) {
+                    eng.setShareEventLoopGroup(engine.isShareEventLoopGroup());
+                }
+                if (engine.isStreaming() != null) {
+                    eng.setStreaming(engine.isStreaming());
+                }
+                if (engine.getStreamingBufferSize() != null) {
+                    eng.setStreamingBufferSize(engine.getStreamingBufferSize());
+                }
+                if (engine.getWriteBufferHighWaterMark() != null) {
+                    eng.setWriteBufferHighWaterMark(engine.getWriteBufferHighWaterMark());
+                }
+                if (engine.getWriteBufferLowWaterMark() != null) {
+                    eng.setWriteBufferLowWaterMark(engine.getWriteBufferLowWaterMark());
+                }
                 if (engine.getPort() != null) {
                     eng.setPort(engine.getPort());
                 }
@@ -130,6 +152,7 @@ public class NettyHttpServerEngineFactoryHolder {
                     ThreadingParametersType threads = engine.getThreadingParameters();
                     ThreadingParameters rThreads = new ThreadingParameters();
                     rThreads.setThreadPoolSize(threads.getThreadPoolSize());
+                    rThreads.setWorkQueueName(threads.getWorkQueue());
                     eng.setThreadingParameters(rThreads);
                 }
 
@@ -23,17 +23,22 @@ import java.io.IOException;
 
 import javax.servlet.ServletOutputStream;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufOutputStream;
 import io.netty.handler.codec.http.HttpContent;
 
 public class NettyServletOutputStream extends ServletOutputStream {
     
-    private ByteBufOutputStream out;
+    protected ByteBufOutputStream out;
 
     private boolean flushed;
 
     public NettyServletOutputStream(HttpContent httpContent) {
-        this.out = new ByteBufOutputStream(httpContent.content());
+        this(httpContent.content());
+    }
+
+    protected NettyServletOutputStream(ByteBuf buffer) {
+        this.out = new ByteBufOutputStream(buffer);
     }
 
     @Override
@@ -68,6 +73,13 @@ public class NettyServletOutputStream extends ServletOutputStream {
     public int getBufferSize() {
         return this.out.buffer().capacity();
     }
+
+    /**
+     * @return true once a part of the response has been sent
+     */
+    public boolean isCommitted() {
+        return false;
+    }
     
     
 }
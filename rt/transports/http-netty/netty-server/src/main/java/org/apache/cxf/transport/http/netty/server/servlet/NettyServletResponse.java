@@ -50,8 +50,12 @@ public class NettyServletResponse implements HttpServletResponse {
     private boolean responseCommited;
 
     public NettyServletResponse(HttpResponse response) {
+        this(response, new NettyServletOutputStream((HttpContent)response));
+    }
+
+    public NettyServletResponse(HttpResponse response, NettyServletOutputStream outputStream) {
         this.originalResponse = response;
-        this.outputStream = new NettyServletOutputStream((HttpContent)response);
+        this.outputStream = outputStream;
         this.writer = new PrintWriter(this.outputStream);
     }
 
@@ -144,7 +148,7 @@ public class NettyServletResponse implements HttpServletResponse {
 
     @Override
     public boolean isCommitted() {
-        return this.responseCommited;
+        return this.responseCommited || this.outputStream.isCommitted();
     }
 
     @Override
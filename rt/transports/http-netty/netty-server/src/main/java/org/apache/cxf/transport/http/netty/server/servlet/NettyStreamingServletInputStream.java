@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http.netty.server.servlet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.servlet.ServletInputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * Request body fed with the <code>HttpContent</code> chunks of the request as they arrive. Reading
+ * from the channel is suspended while more than the buffer size is waiting to be consumed and
+ * resumed once the consumer has caught up, so a request only ever holds a bounded amount of
+ * its body in memory. Reading is also resumed whenever the consumer waits on an empty buffer,
+ * since a pipelined request may have been queued with reading suspended.
+ */
+public class NettyStreamingServletInputStream extends ServletInputStream {
+
+    private final Channel channel;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private final long readTimeout;
+    private final Deque<ByteBuf> chunks = new ArrayDeque<ByteBuf>();
+    private ByteBuf current;
+    private int buffered;
+    private boolean last;
+    private boolean closed;
+    private IOException error;
+
+    public NettyStreamingServletInputStream(Channel channel, int bufferSize) {
+        this(channel, bufferSize, 0);
+    }
+
+    /**
+     * @param readTimeout the time in milliseconds to wait for more of the body, 0 to wait forever
+     */
+    public NettyStreamingServletInputStream(Channel channel, int bufferSize, long readTimeout) {
+        this.channel = channel;
+        this.highWaterMark = bufferSize;
+        this.lowWaterMark = bufferSize / 2;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Called on the event loop with a retained chunk of the request body.
+     */
+    public synchronized void offer(ByteBuf content, boolean lastChunk) {
+        if (closed || !content.isReadable()) {
+            content.release();
+        } else {
+            chunks.addLast(content);
+            buffered += content.readableBytes();
+            if (buffered >= highWaterMark) {
+                channel.config().setAutoRead(false);
+            }
+        }
+        if (lastChunk) {
+            last = true;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Called on the event loop when the channel fails or closes before the end of the body.
+     */
+    public synchronized void fail(IOException ex) {
+        if (!last) {
+            error = ex;
+            notifyAll();
+        }
+    }
+
+    public synchronized boolean isLast() {
+        return last;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buf) throws IOException {
+        return read(buf, 0, buf.length);
+    }
+
+    @Override
+    public synchronized int read(byte[] buf, int offset, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, current.readableBytes());
+        current.readBytes(buf, offset, n);
+        buffered -= n;
+        if (buffered <= lowWaterMark && !last && !channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return buffered;
+    }
+
+    private boolean nextChunk() throws IOException {
+        while (current == null || !current.isReadable()) {
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+            if (closed) {
+                return false;
+            }
+            current = chunks.pollFirst();
+            if (current == null) {
+                if (last) {
+                    return false;
+                }
+                if (error != null) {
+                    throw error;
+                }
+                awaitChunk();
+            }
+        }
+        return true;
+    }
+
+    private void awaitChunk() throws IOException {
+        if (!channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            wait(readTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (readTimeout > 0 && chunks.isEmpty() && !last && error == null
+            && System.currentTimeMillis() - start >= readTimeout) {
+            throw new SocketTimeoutException("Timed out reading the request body");
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+        for (ByteBuf chunk : chunks) {
+            chunk.release();
+        }
+        chunks.clear();
+        buffered = 0;
+        if (!last) {
+            // let the rest of the body be read and dropped
+            channel.config().setAutoRead(true);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http.netty.server.servlet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedChannelException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Response body which is sent as chunked <code>HttpContent</code> once more than the buffer size
+ * has been written or the body is flushed. A response which fits in the buffer is still sent
+ * in one piece with its content length. Writing blocks while the channel is not writable, so
+ * the outbound buffer of a slow client stays within the write buffer water marks.
+ */
+public class NettyStreamingServletOutputStream extends NettyServletOutputStream {
+
+    private final ChannelHandlerContext ctx;
+    private final HttpResponse response;
+    private final int bufferSize;
+    private final Object writability = new Object();
+    private volatile boolean committed;
+    private boolean finishing;
+
+    public NettyStreamingServletOutputStream(ChannelHandlerContext ctx, HttpResponse response, int bufferSize) {
+        super(ctx.alloc().buffer(bufferSize));
+        this.ctx = ctx;
+        this.response = response;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        super.write(b);
+        writeChunkIfFull();
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int len) throws IOException {
+        super.write(b, offset, len);
+        writeChunkIfFull();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        super.flush();
+        if (!finishing && out.buffer().isReadable()) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    private void writeChunkIfFull() throws IOException {
+        if (out.buffer().readableBytes() >= bufferSize) {
+            writeChunk();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        awaitWritable();
+        if (!committed) {
+            committed = true;
+            response.headers().remove(HttpHeaders.Names.CONTENT_LENGTH);
+            HttpHeaders.setTransferEncodingChunked(response);
+            ctx.write(response);
+        }
+        ByteBuf chunk = out.buffer();
+        out = new ByteBufOutputStream(ctx.alloc().buffer(bufferSize));
+        ctx.writeAndFlush(new DefaultHttpContent(chunk));
+    }
+
+    private void awaitWritable() throws IOException {
+        synchronized (writability) {
+            while (!ctx.channel().isWritable()) {
+                if (!ctx.channel().isActive()) {
+                    throw new ClosedChannelException();
+                }
+                try {
+                    writability.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called on the event loop when the writability of the channel changes.
+     */
+    public void writabilityChanged() {
+        synchronized (writability) {
+            writability.notifyAll();
+        }
+    }
+
+    /**
+     * Marks the start of the final flush, which must not commit the response on its own.
+     */
+    public void setFinishing() {
+        finishing = true;
+    }
+
+    /**
+     * Sends whatever is left of the response.
+     *
+     * @param keepAlive true if the connection stays open after the response
+     * @return the future of the last write
+     */
+    public ChannelFuture finish(boolean keepAlive) throws IOException {
+        if (!committed) {
+            FullHttpResponse full = new DefaultFullHttpResponse(response.getProtocolVersion(),
+                                                                response.getStatus(), out.buffer());
+            full.headers().set(response.headers());
+            if (keepAlive) {
+                HttpHeaders.setContentLength(full, out.buffer().readableBytes());
+            }
+            committed = true;
+            return ctx.writeAndFlush(full);
+        }
+        if (out.buffer().isReadable()) {
+            writeChunk();
+        }
+        out.buffer().release();
+        return ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+}
@@ -90,6 +90,41 @@ public class NettyHttpServerEngineBeanDefinitionParser extends AbstractBeanDefin
             bean.addPropertyValue("maxChunkContentSize", maxChunkContentSizeStr);
         }
         
+        String nativeTransportStr = element.getAttribute("nativeTransport");
+        if (nativeTransportStr != null && !"".equals(nativeTransportStr.trim())) {
+            bean.addPropertyValue("nativeTransport", nativeTransportStr);
+        }
+        
+        String ioThreadsStr = element.getAttribute("ioThreads");
+        if (ioThreadsStr != null && !"".equals(ioThreadsStr.trim())) {
+            bean.addPropertyValue("ioThreads", ioThreadsStr);
+        }
+        
+        String shareEventLoopGroupStr = element.getAttribute("shareEventLoopGroup");
+        if (shareEventLoopGroupStr != null && !"".equals(shareEventLoopGroupStr.trim())) {
+            bean.addPropertyValue("shareEventLoopGroup", shareEventLoopGroupStr);
+        }
+        
+        String streamingStr = element.getAttribute("streaming");
+        if (streamingStr != null && !"".equals(streamingStr.trim())) {
+            bean.addPropertyValue("streaming", streamingStr);
+        }
+        
+        String streamingBufferSizeStr = element.getAttribute("streamingBufferSize");
+        if (streamingBufferSizeStr != null && !"".equals(streamingBufferSizeStr.trim())) {
+            bean.addPropertyValue("streamingBufferSize", streamingBufferSizeStr);
+        }
+        
+        String writeBufferHighWaterMarkStr = element.getAttribute("writeBufferHighWaterMark");
+        if (writeBufferHighWaterMarkStr != null && !"".equals(writeBufferHighWaterMarkStr.trim())) {
+            bean.addPropertyValue("writeBufferHighWaterMark", writeBufferHighWaterMarkStr);
+        }
+        
+        String writeBufferLowWaterMarkStr = element.getAttribute("writeBufferLowWaterMark");
+        if (writeBufferLowWaterMarkStr != null && !"".equals(writeBufferLowWaterMarkStr.trim())) {
+            bean.addPropertyValue("writeBufferLowWaterMark", writeBufferLowWaterMarkStr);
+        }
+        
         
         ValueHolder busValue = ctx.getContainingBeanDefinition()
             .getConstructorArgumentValues().getArgumentValue(0, Bus.class);
@@ -309,6 +344,7 @@ public class NettyHttpServerEngineBeanDefinitionParser extends AbstractBeanDefin
         if (paramtype.getThreadPoolSize() != null) {
             params.setThreadPoolSize(paramtype.getThreadPoolSize());
         }
+        params.setWorkQueueName(paramtype.getWorkQueue());
 
         return params;
     }
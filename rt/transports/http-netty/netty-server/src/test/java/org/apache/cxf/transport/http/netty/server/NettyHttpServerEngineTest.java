@@ -21,26 +21,45 @@ package org.apache.cxf.transport.http.netty.server;
 
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
 import org.apache.cxf.configuration.Configurer;
 import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.testutil.common.TestUtil;
+import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.WorkQueueManager;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.netty.channel.EventLoopGroup;
+
 
 public class NettyHttpServerEngineTest extends Assert {
     private static final int PORT1 
         = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 1));
+    private static final int PORT2 
+        = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 2));
     private static final int PORT3 
         = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 3));
+    private static final int PORT4 
+        = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 4));
+    private static final int PORT5 
+        = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 5));
     
 
     private Bus bus;
@@ -140,6 +159,131 @@ public class NettyHttpServerEngineTest extends Assert {
         NettyHttpServerEngineFactory.destroyForPort(PORT3);
     }
 
+    @Test
+    public void testStreamingBodies() throws Exception {
+        String urlStr = "http://localhost:" + PORT2 + "/echo";
+        NettyHttpServerEngine engine =
+            factory.createNettyHttpServerEngine(PORT2, "http");
+        engine.setStreaming(true);
+        engine.setStreamingBufferSize(8192);
+        engine.addServant(new URL(urlStr), new NettyHttpHandler(null, true) {
+            @Override
+            public void handle(String target, HttpServletRequest request, HttpServletResponse resp)
+                throws IOException {
+                IOUtils.copy(request.getInputStream(), resp.getOutputStream());
+            }
+        });
+
+        // much larger than the streaming buffer, so both bodies go through several chunks
+        byte[] body = new byte[1024 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte)i;
+        }
+        for (int i = 0; i < 2; i++) {
+            HttpURLConnection connection = (HttpURLConnection)new URL(urlStr).openConnection();
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(4096);
+            OutputStream out = connection.getOutputStream();
+            out.write(body);
+            out.close();
+            assertEquals(200, connection.getResponseCode());
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            IOUtils.copy(connection.getInputStream(), buffer);
+            assertTrue("The request body was not echoed", Arrays.equals(body, buffer.toByteArray()));
+        }
+
+        // handlers which flush their output work in streaming mode too
+        engine.removeServant(new URL(urlStr));
+        engine.addServant(new URL(urlStr), new NettyHttpTestHandler("small", true));
+        HttpURLConnection connection = (HttpURLConnection)new URL(urlStr).openConnection();
+        assertEquals("small", IOUtils.toString(connection.getInputStream()));
+
+        NettyHttpServerEngineFactory.destroyForPort(PORT2);
+    }
+
+    @Test
+    public void testPipelinedStreamingBodies() throws Exception {
+        String urlStr = "http://localhost:" + PORT5 + "/echo";
+        NettyHttpServerEngine engine =
+            factory.createNettyHttpServerEngine(PORT5, "http");
+        engine.setStreaming(true);
+        engine.addServant(new URL(urlStr), new NettyHttpHandler(null, true) {
+            @Override
+            public void handle(String target, HttpServletRequest request, HttpServletResponse resp)
+                throws IOException {
+                String body = IOUtils.toString(request.getInputStream());
+                try {
+                    // keep the response in progress while the next request arrives
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                resp.getOutputStream().write(("echo:" + body + ";").getBytes());
+            }
+        });
+
+        Socket socket = new Socket("localhost", PORT5);
+        try {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write("POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\n\r\nfirst".getBytes());
+            out.flush();
+            Thread.sleep(200);
+            // the second request is queued behind the first, its body only follows later
+            out.write("POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 6\r\n\r\n".getBytes());
+            out.flush();
+            Thread.sleep(1000);
+            out.write("second".getBytes());
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            StringBuilder responses = new StringBuilder();
+            byte[] buf = new byte[1024];
+            while (responses.indexOf("echo:second;") < 0) {
+                int n = in.read(buf);
+                if (n == -1) {
+                    break;
+                }
+                responses.append(new String(buf, 0, n, "ISO-8859-1"));
+            }
+            assertTrue(responses.toString(), responses.indexOf("echo:first;") > 0);
+            assertTrue(responses.toString(), 
+                       responses.indexOf("echo:second;") > responses.indexOf("echo:first;"));
+        } finally {
+            socket.close();
+            NettyHttpServerEngineFactory.destroyForPort(PORT5);
+        }
+    }
+
+    @Test
+    public void testWorkQueueAndSharedEventLoopGroup() throws Exception {
+        Bus realBus = new ExtensionManagerBus();
+        try {
+            realBus.getExtension(WorkQueueManager.class)
+                .addNamedWorkQueue("netty-test", new AutomaticWorkQueueImpl("netty-test"));
+            String urlStr = "http://localhost:" + PORT4 + "/hello/test";
+            NettyHttpServerEngine engine = new NettyHttpServerEngine(null, PORT4);
+            engine.setBus(realBus);
+            engine.setShareEventLoopGroup(true);
+            engine.setIoThreads(2);
+            ThreadingParameters threading = new ThreadingParameters();
+            threading.setWorkQueueName("netty-test");
+            engine.setThreadingParameters(threading);
+            engine.addServant(new URL(urlStr), new NettyHttpTestHandler("queued", true));
+
+            for (int i = 0; i < 3; i++) {
+                assertEquals("queued", getResponse(urlStr));
+            }
+            assertNotNull("The engine should register its event loop group on the bus",
+                          realBus.getExtension(EventLoopGroup.class));
+            engine.shutdown();
+            assertFalse("The shared event loop group belongs to the bus",
+                        realBus.getExtension(EventLoopGroup.class).isShuttingDown());
+        } finally {
+            realBus.shutdown(true);
+        }
+    }
+
     private String getResponse(String target) throws Exception {
         URL url = new URL(target);
 
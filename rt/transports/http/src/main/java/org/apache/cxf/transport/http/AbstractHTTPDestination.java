@@ -34,6 +34,7 @@ import java.util.logging.Logger;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -100,6 +101,12 @@ public abstract class AbstractHTTPDestination
     public static final String CXF_ASYNC_CONTEXT = "cxf.async.context";
 
     public static final String SERVICE_REDIRECTION = "http.service.redirection";
+    
+    /**
+     * Endpoint or bus property which, when true, reads request bodies and writes responses
+     * with Servlet 3.1 ReadListener/WriteListener callbacks if the container supports them.
+     */
+    public static final String NON_BLOCKING_IO = "org.apache.cxf.transport.http.nonBlockingIO";
     private static final String HTTP_BASE_PATH = "http.base.path";
 
     private static final String SSL_CIPHER_SUITE_ATTRIBUTE = "javax.servlet.request.cipher_suite";
@@ -119,6 +126,8 @@ public abstract class AbstractHTTPDestination
     protected boolean multiplexWithAddress;
     protected CertConstraints certConstraints;
     protected boolean isServlet3;
+    protected boolean isServlet31;
+    protected boolean nonBlockingIO;
     protected ContinuationProviderFactory cproviderFactory;
     protected boolean enableWebSocket;
 
@@ -149,6 +158,12 @@ public abstract class AbstractHTTPDestination
         } catch (Throwable t) {
             //servlet 2.5 or earlier, no async support
         }
+        try {
+            ServletInputStream.class.getMethod("isReady");
+            isServlet31 = true;
+        } catch (Throwable t) {
+            //servlet 3.0 or earlier, no non-blocking I/O support
+        }
         
         initConfig();
     }
@@ -243,6 +258,11 @@ public abstract class AbstractHTTPDestination
 
             exchange.setSession(new HTTPSession(req));
             ((MessageImpl)inMessage).setDestination(this);
+            if (isNonBlockingRead(req)) {
+                // the message is dispatched again once the body has been read
+                Servlet31NonBlockingIO.readRequest(req, resp, inMessage);
+                return;
+            }
         } else {
             LOG.fine("Get the message from the request for processing");
         }
@@ -277,12 +297,31 @@ public abstract class AbstractHTTPDestination
                                   final HttpServletRequest req, 
                                   final HttpServletResponse resp,
                                   Message m) throws IOException {
+        if (isNonBlockingWritePending(m)) {
+            // the response writer completes the request once the response is drained
+            return;
+        }
         ContinuationProvider p = m.get(ContinuationProvider.class);
         if (p != null) {
             p.complete();
         }
     }
 
+    private boolean isNonBlockingRead(HttpServletRequest req) {
+        if (!nonBlockingIO || !isServlet31 || !req.isAsyncSupported()) {
+            return false;
+        }
+        return req.getContentLength() > 0 || req.getHeader("Transfer-Encoding") != null;
+    }
+    
+    /**
+     * @param m the message under consideration
+     * @return true if the response of the exchange is still being written by a WriteListener
+     */
+    protected boolean isNonBlockingWritePending(Message m) {
+        return nonBlockingIO && isServlet31 && Servlet31NonBlockingIO.isWritePending(m);
+    }
+
     private void copyKnownRequestAttributes(HttpServletRequest request, Message message) {
         message.put(SERVICE_REDIRECTION, request.getAttribute(SERVICE_REDIRECTION));
     }
@@ -528,6 +567,8 @@ public abstract class AbstractHTTPDestination
     private void initConfig() {
         
         cproviderFactory = bus.getExtension(ContinuationProviderFactory.class);
+        nonBlockingIO = PropertyUtils.isTrue(endpointInfo.getProperty(NON_BLOCKING_IO))
+            || PropertyUtils.isTrue(bus.getProperty(NON_BLOCKING_IO));
     }
 
     private synchronized HTTPServerPolicy calcServerPolicyInternal(Message m) {
@@ -639,6 +680,11 @@ public abstract class AbstractHTTPDestination
             response.getOutputStream().close();
         } else {
             responseStream = response.getOutputStream();                
+            if (nonBlockingIO && isServlet31 && !oneWay) {
+                HttpServletRequest request = getHttpRequestFromMessage(outMessage);
+                responseStream = Servlet31NonBlockingIO.wrapResponse(request, response, 
+                                                                     outMessage, responseStream);
+            }
         }
 
         if (oneWay) {
@@ -697,6 +743,12 @@ public abstract class AbstractHTTPDestination
         }
     }
 
+    private HttpServletRequest getHttpRequestFromMessage(Message message) {
+        Message inMessage = message.getExchange() != null ? message.getExchange().getInMessage() : null;
+        Object requestObj = inMessage != null ? inMessage.get(HTTP_REQUEST) : null;
+        return requestObj instanceof HttpServletRequest ? (HttpServletRequest)requestObj : null;
+    }
+
     private boolean isResponseRedirected(Message outMessage) {
         Exchange exchange = outMessage.getExchange();
         return exchange != null 
@@ -904,6 +956,14 @@ public abstract class AbstractHTTPDestination
         this.fixedParameterOrder = fixedParameterOrder;
     }
 
+    public boolean isNonBlockingIO() {
+        return nonBlockingIO;
+    }
+
+    public void setNonBlockingIO(boolean nonBlockingIO) {
+        this.nonBlockingIO = nonBlockingIO;
+    }
+
     public boolean isMultiplexWithAddress() {
         return multiplexWithAddress;
     }
@@ -20,11 +20,11 @@ package org.apache.cxf.transport.http;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +39,11 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         = new ConcurrentHashMap<String, AbstractHTTPDestination>();
     private Map<String, AbstractHTTPDestination> decodedDestinations = 
         new ConcurrentHashMap<String, AbstractHTTPDestination>();
+    // rebuilt on every change, so requests look up the destinations without locking
+    private volatile PathTrie destinationTrie = new PathTrie();
+    private volatile PathTrie decodedDestinationTrie = new PathTrie();
+    // sorted lazily under the same lock as the changes so a stale array is never stored
+    private AbstractDestination[] sortedDestinations;
 
     public DestinationRegistryImpl() {
     }
@@ -57,6 +62,7 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException("Unsupported Encoding", e);
         }
+        destinationsChanged();
     }
 
     public synchronized void removeDestination(String path) {
@@ -69,6 +75,13 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException("Unsupported Encoding", e);
         }
+        destinationsChanged();
+    }
+
+    private void destinationsChanged() {
+        destinationTrie = new PathTrie(destinations);
+        decodedDestinationTrie = new PathTrie(decodedDestinations);
+        sortedDestinations = null;
     }
 
     public AbstractHTTPDestination getDestinationForPath(String path) {
@@ -86,60 +99,45 @@ public class DestinationRegistryImpl implements DestinationRegistry {
     }
     
     public AbstractHTTPDestination checkRestfulRequest(String address) {
-        AbstractHTTPDestination ret = getRestfulDestination(getDestinationsPaths(), address);
+        AbstractHTTPDestination ret = destinationTrie.find(address);
         if (ret == null) {
-            ret = getRestfulDestination(decodedDestinations.keySet(), address);
+            ret = decodedDestinationTrie.find(address);
         }
         if (ret != null && ret.getMessageObserver() == null) {
             return null;
         }
         return ret; 
     }
-    private AbstractHTTPDestination getRestfulDestination(Set<String> destPaths, String address) {
-        int len = -1;
-        AbstractHTTPDestination ret = null;
-        for (String path : destPaths) {
-            String thePath = path.length() > 1 && path.endsWith(SLASH) 
-                ? path.substring(0, path.length() - 1) : path;
-            if ((address.equals(thePath) 
-                || SLASH.equals(thePath)
-                || (address.length() > thePath.length() 
-                    && address.startsWith(thePath) && address.charAt(thePath.length()) == '/'))
-                && thePath.length() > len) {
-                ret = getDestinationForPath(path);
-                len = path.length();
-            }
-        }
-        return ret;
-    }
 
     public Collection<AbstractHTTPDestination> getDestinations() {
         return Collections.unmodifiableCollection(destinations.values());
     }
     
 
-    public AbstractDestination[] getSortedDestinations() {
-        List<AbstractHTTPDestination> dest2 = new LinkedList<AbstractHTTPDestination>(
-                getDestinations());
-        Collections.sort(dest2, new Comparator<AbstractHTTPDestination>() {
-            public int compare(AbstractHTTPDestination o1, AbstractHTTPDestination o2) {
-                InterfaceInfo i1 = o1.getEndpointInfo().getInterface();
-                InterfaceInfo i2 = o2.getEndpointInfo().getInterface();
-                if (i1 == null && i2 == null) {
-                    return 0;
-                } else if (i1 == null) {
-                    return -1;
-                } else if (i2 == null) {
-                    return 1;
-                } else {
-                    return i1.getName().getLocalPart()
-                               .compareTo(
-                                   i2.getName().getLocalPart());
+    public synchronized AbstractDestination[] getSortedDestinations() {
+        AbstractDestination[] sorted = sortedDestinations;
+        if (sorted == null) {
+            sorted = getDestinations().toArray(new AbstractDestination[0]);
+            Arrays.sort(sorted, new Comparator<AbstractDestination>() {
+                public int compare(AbstractDestination o1, AbstractDestination o2) {
+                    InterfaceInfo i1 = o1.getEndpointInfo().getInterface();
+                    InterfaceInfo i2 = o2.getEndpointInfo().getInterface();
+                    if (i1 == null && i2 == null) {
+                        return 0;
+                    } else if (i1 == null) {
+                        return -1;
+                    } else if (i2 == null) {
+                        return 1;
+                    } else {
+                        return i1.getName().getLocalPart()
+                                   .compareTo(
+                                       i2.getName().getLocalPart());
+                    }
                 }
-            }
-        });
-
-        return dest2.toArray(new AbstractDestination[dest2.size()]);
+            });
+            sortedDestinations = sorted;
+        }
+        return sorted.clone();
     }
 
     public Set<String> getDestinationsPaths() {
@@ -171,4 +169,79 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         return path;
     }
 
+    /**
+     * Finds the destination with the longest path which is the address itself or
+     * a prefix of it ending at a '/', walking the address one path segment at a time.
+     * A trie is never modified once built.
+     */
+    private static final class PathTrie {
+        private final Node root = new Node();
+        private AbstractHTTPDestination rootDestination;
+
+        PathTrie() {
+        }
+
+        PathTrie(Map<String, AbstractHTTPDestination> paths) {
+            for (Map.Entry<String, AbstractHTTPDestination> entry : paths.entrySet()) {
+                String path = entry.getKey();
+                if (SLASH.equals(path)) {
+                    // matches any address
+                    rootDestination = entry.getValue();
+                    continue;
+                }
+                boolean trailingSlash = path.length() > 1 && path.endsWith(SLASH);
+                if (trailingSlash) {
+                    path = path.substring(0, path.length() - 1);
+                }
+                Node node = root;
+                int start = 0;
+                int end;
+                while ((end = path.indexOf('/', start)) != -1) {
+                    node = node.child(path.substring(start, end));
+                    start = end + 1;
+                }
+                node = node.child(path.substring(start));
+                // "/foo" takes precedence over "/foo/"
+                if (node.destination == null || !trailingSlash) {
+                    node.destination = entry.getValue();
+                }
+            }
+        }
+
+        AbstractHTTPDestination find(String address) {
+            AbstractHTTPDestination found = rootDestination;
+            Node node = root;
+            int start = 0;
+            while (node != null) {
+                int end = address.indexOf('/', start);
+                String segment = end == -1 ? address.substring(start) : address.substring(start, end);
+                node = node.children == null ? null : node.children.get(segment);
+                if (node != null && node.destination != null) {
+                    found = node.destination;
+                }
+                if (end == -1) {
+                    break;
+                }
+                start = end + 1;
+            }
+            return found;
+        }
+
+        private static final class Node {
+            private Map<String, Node> children;
+            private AbstractHTTPDestination destination;
+
+            Node child(String segment) {
+                if (children == null) {
+                    children = new HashMap<String, Node>();
+                }
+                Node child = children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    children.put(segment, child);
+                }
+                return child;
+            }
+        }
+    }
 }
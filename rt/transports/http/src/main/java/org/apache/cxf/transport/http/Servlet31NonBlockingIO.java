@@ -0,0 +1,315 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.io.DelegatingInputStream;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+/**
+ * Servlet 3.1 non-blocking I/O for {@link AbstractHTTPDestination}. The request body is
+ * drained by a ReadListener into a CachedOutputStream before the message is dispatched,
+ * and the response is handed to a WriteListener as it is flushed or completed, so a
+ * slow client does not hold a container thread while its bytes trickle in or out.
+ */
+final class Servlet31NonBlockingIO {
+    static final String WRITE_PENDING = Servlet31NonBlockingIO.class.getName() + ".writePending";
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(Servlet31NonBlockingIO.class);
+    
+    private Servlet31NonBlockingIO() {
+    }
+    
+    /**
+     * Starts an asynchronous read of the request body. Once the body is fully cached the 
+     * request is dispatched again and the message is picked up from the 
+     * {@link AbstractHTTPDestination#CXF_CONTINUATION_MESSAGE} request attribute.
+     */
+    static void readRequest(HttpServletRequest req, 
+                            HttpServletResponse resp,
+                            Message inMessage) throws IOException {
+        AsyncContext context = req.startAsync(req, resp);
+        RequestReader reader = new RequestReader(req, resp, context, inMessage);
+        context.addListener(reader);
+        req.getInputStream().setReadListener(reader);
+    }
+    
+    /**
+     * Wraps the response stream so the response is written with a WriteListener, or returns
+     * the stream as is if the request can not be put in async mode.
+     */
+    static OutputStream wrapResponse(HttpServletRequest req, 
+                                     HttpServletResponse resp,
+                                     Message outMessage,
+                                     OutputStream out) {
+        if (req == null || !req.isAsyncSupported() || req.isAsyncStarted()
+            || !(out instanceof ServletOutputStream)) {
+            return out;
+        }
+        return new ResponseWriter(req, resp, outMessage.getExchange(), (ServletOutputStream)out);
+    }
+    
+    static boolean isWritePending(Message m) {
+        Exchange exchange = m.getExchange();
+        return exchange != null && Boolean.TRUE.equals(exchange.get(WRITE_PENDING));
+    }
+    
+    static class RequestReader implements ReadListener, AsyncListener {
+        private final HttpServletRequest req;
+        private final HttpServletResponse resp;
+        private final AsyncContext context;
+        private final Message inMessage;
+        private final ServletInputStream in;
+        private final CachedOutputStream cache = new CachedOutputStream();
+        private final byte[] buffer = new byte[IOUtils.DEFAULT_BUFFER_SIZE];
+        private volatile boolean done;
+        
+        RequestReader(HttpServletRequest req, 
+                      HttpServletResponse resp,
+                      AsyncContext context,
+                      Message inMessage) throws IOException {
+            this.req = req;
+            this.resp = resp;
+            this.context = context;
+            this.inMessage = inMessage;
+            this.in = req.getInputStream();
+            cache.holdTempFile();
+        }
+
+        public void onDataAvailable() throws IOException {
+            while (in.isReady()) {
+                int n = in.read(buffer);
+                if (n == -1) {
+                    return;
+                }
+                cache.write(buffer, 0, n);
+            }
+        }
+
+        public void onAllDataRead() throws IOException {
+            done = true;
+            cache.close();
+            InputStream body = cache.getInputStream();
+            cache.releaseTempFileHold();
+            DelegatingInputStream din = inMessage.getContent(DelegatingInputStream.class);
+            if (din != null) {
+                din.setInputStream(body);
+            } else {
+                inMessage.setContent(InputStream.class, body);
+            }
+            req.setAttribute(AbstractHTTPDestination.CXF_CONTINUATION_MESSAGE, inMessage);
+            context.dispatch();
+        }
+
+        public void onError(Throwable t) {
+            fail(t, HttpURLConnection.HTTP_BAD_REQUEST);
+        }
+        
+        public void onTimeout(AsyncEvent event) throws IOException {
+            fail(event.getThrowable(), HttpURLConnection.HTTP_CLIENT_TIMEOUT);
+        }
+
+        public void onError(AsyncEvent event) throws IOException {
+            fail(event.getThrowable(), HttpURLConnection.HTTP_BAD_REQUEST);
+        }
+
+        public void onComplete(AsyncEvent event) throws IOException {
+        }
+
+        public void onStartAsync(AsyncEvent event) throws IOException {
+        }
+        
+        private void fail(Throwable t, int status) {
+            if (done) {
+                return;
+            }
+            done = true;
+            LOG.log(Level.FINE, "Failed to read the request body", t);
+            try {
+                cache.releaseTempFileHold();
+                cache.close();
+                if (!resp.isCommitted()) {
+                    resp.sendError(status);
+                }
+            } catch (IOException ex) {
+                //ignore, the client is likely gone
+            }
+            context.complete();
+        }
+    }
+    
+    /**
+     * Collects the response in memory and hands it to a WriteListener once the response is
+     * closed, flushed or has grown past the buffer threshold. Data written after the hand over
+     * is queued and drained as the client is ready for it, so streamed responses reach the
+     * client as they are flushed without the producing thread ever blocking on the socket.
+     */
+    static class ResponseWriter extends OutputStream implements WriteListener {
+        static final int BUFFER_THRESHOLD = 64 * 1024;
+        
+        private final HttpServletRequest req;
+        private final HttpServletResponse resp;
+        private final Exchange exchange;
+        private final ServletOutputStream out;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(IOUtils.DEFAULT_BUFFER_SIZE);
+        private final Deque<byte[]> pending = new ArrayDeque<>();
+        private AsyncContext context;
+        private Throwable failure;
+        private boolean flushPending;
+        private boolean closed;
+        private boolean completed;
+        
+        ResponseWriter(HttpServletRequest req, 
+                       HttpServletResponse resp, 
+                       Exchange exchange,
+                       ServletOutputStream out) {
+            this.req = req;
+            this.resp = resp;
+            this.exchange = exchange;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer.write(b);
+            if (buffer.size() >= BUFFER_THRESHOLD) {
+                handOver();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            buffer.write(b, off, len);
+            if (buffer.size() >= BUFFER_THRESHOLD) {
+                handOver();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            if (buffer.size() > 0) {
+                handOver();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (this) {
+                if (context == null && !resp.isCommitted() && resp.getHeader("Content-Length") == null) {
+                    resp.setContentLengthLong(buffer.size());
+                }
+            }
+            handOver();
+        }
+
+        public synchronized void onWritePossible() throws IOException {
+            writePending();
+        }
+
+        public synchronized void onError(Throwable t) {
+            LOG.log(Level.FINE, "Failed to write the response body", t);
+            failure = t;
+            pending.clear();
+            complete();
+        }
+        
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("The response stream is closed");
+            }
+        }
+        
+        private synchronized void handOver() throws IOException {
+            if (failure != null) {
+                throw new IOException("Failed to write the response body", failure);
+            }
+            if (buffer.size() > 0) {
+                pending.add(buffer.toByteArray());
+                buffer.reset();
+            }
+            flushPending = true;
+            if (context == null) {
+                if (exchange != null) {
+                    exchange.put(WRITE_PENDING, Boolean.TRUE);
+                }
+                context = req.startAsync(req, resp);
+                // streamed responses may stay open for a long time, the connection
+                // idle timeout of the container still applies
+                context.setTimeout(0);
+                out.setWriteListener(this);
+            }
+            // containers may hold back onWritePossible until the servlet returns, so write
+            // what the client can take right away
+            writePending();
+        }
+        
+        private void writePending() throws IOException {
+            while (!completed && out.isReady()) {
+                byte[] chunk = pending.poll();
+                if (chunk != null) {
+                    out.write(chunk);
+                } else if (closed) {
+                    complete();
+                } else if (flushPending) {
+                    flushPending = false;
+                    out.flush();
+                } else {
+                    return;
+                }
+            }
+        }
+        
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                context.complete();
+            }
+        }
+    }
+}
@@ -121,6 +121,38 @@ public class DestinationRegistryImplTest extends Assert {
         
     }
 
+    @Test
+    public void testLongestPrefixAfterChanges() throws Exception {
+        AbstractHTTPDestination root = createDestination("/");
+        AbstractHTTPDestination a = createDestination("/a");
+        AbstractHTTPDestination abc = createDestination("/a/b/c");
+        control.replay();
+        registry.addDestination(root);
+        registry.addDestination(a);
+        registry.addDestination(abc);
+
+        assertSame(root, registry.checkRestfulRequest("/b"));
+        assertSame(a, registry.checkRestfulRequest("/a/b"));
+        assertSame(abc, registry.checkRestfulRequest("/a/b/c/d"));
+        assertSame(root, registry.checkRestfulRequest("/ab"));
+
+        registry.removeDestination("/a/b/c");
+        assertSame(a, registry.checkRestfulRequest("/a/b/c/d"));
+        registry.removeDestination("/");
+        assertNull(registry.checkRestfulRequest("/b"));
+        assertEquals(1, registry.getSortedDestinations().length);
+    }
+
+    private AbstractHTTPDestination createDestination(String address) {
+        AbstractHTTPDestination destination = control.createMock(AbstractHTTPDestination.class);
+        EndpointInfo endpoint = new EndpointInfo();
+        endpoint.setAddress(address);
+        endpoint.setName(QNAME);
+        EasyMock.expect(destination.getEndpointInfo()).andReturn(endpoint).anyTimes();
+        EasyMock.expect(destination.getMessageObserver()).andReturn(observer).anyTimes();
+        return destination;
+    }
+
     private void setUpDestinations() {
         for (int i = 0; i < REGISTERED_PATHS.length; i++) {
             AbstractHTTPDestination destination = control.createMock(AbstractHTTPDestination.class);
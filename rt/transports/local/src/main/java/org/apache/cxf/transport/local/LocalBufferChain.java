@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.local;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in memory pipe made of a chain of fixed size chunks.  Bytes written are appended
+ * to the tail chunk and the reading side consumes the very same chunks, so nothing is
+ * copied again between the two ends and the backing storage never has to grow.  The
+ * reader may run on another thread while the writer is still writing; it blocks only
+ * while no unread bytes are available and the chain has not been closed.
+ */
+public class LocalBufferChain extends OutputStream {
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+    private final int chunkSize;
+    private int tailCount;
+    private boolean closed;
+    private IOException failure;
+
+    public LocalBufferChain() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+    public LocalBufferChain(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureOpen();
+        byte[] tail = tail();
+        tail[tailCount++] = (byte)b;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            byte[] tail = tail();
+            int n = Math.min(len, tail.length - tailCount);
+            System.arraycopy(b, off, tail, tailCount, n);
+            tailCount += n;
+            off += n;
+            len -= n;
+        }
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+    
+    /**
+     * Aborts the chain; readers get the given exception instead of the end of the stream.
+     */
+    public synchronized void fail(IOException ex) {
+        failure = ex;
+        closed = true;
+        notifyAll();
+    }
+    
+    public synchronized int size() {
+        return chunks.isEmpty() ? 0 : (chunks.size() - 1) * chunkSize + tailCount;
+    }
+
+    /**
+     * Returns a stream reading the chain from the start.  The stream can be obtained before
+     * the writing side is done.
+     */
+    public InputStream getInputStream() {
+        return new ChainInputStream();
+    }
+    
+    private void ensureOpen() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Buffer chain is closed");
+        }
+    }
+    private byte[] tail() {
+        if (chunks.isEmpty() || tailCount == chunkSize) {
+            chunks.add(new byte[chunkSize]);
+            tailCount = 0;
+        }
+        return chunks.get(chunks.size() - 1);
+    }
+    
+    /**
+     * Number of readable bytes in the chunk at the given index, waiting for the writer if needed.
+     * Returns -1 once the chain is closed and the chunk holds nothing more past pos.
+     */
+    private synchronized int awaitAvailable(int chunk, int pos) throws IOException {
+        while (true) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (chunk < chunks.size()) {
+                int limit = chunk == chunks.size() - 1 ? tailCount : chunkSize;
+                if (pos < limit) {
+                    return limit - pos;
+                }
+                if (limit == chunkSize && chunk + 1 < chunks.size()) {
+                    return 0;
+                }
+            }
+            if (closed) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+    private synchronized byte[] chunk(int idx) {
+        return chunks.get(idx);
+    }
+    private synchronized int available(int chunk, int pos) {
+        int total = size() - chunk * chunkSize - pos;
+        return Math.max(0, total);
+    }
+    
+    private class ChainInputStream extends InputStream {
+        private int chunk;
+        private int pos;
+        
+        @Override
+        public int read() throws IOException {
+            int n = next();
+            if (n < 0) {
+                return -1;
+            }
+            return chunk(chunk)[pos++] & 0xff;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = next();
+            if (n < 0) {
+                return -1;
+            }
+            n = Math.min(n, len);
+            System.arraycopy(chunk(chunk), pos, b, off, n);
+            pos += n;
+            return n;
+        }
+        
+        @Override
+        public int available() {
+            return LocalBufferChain.this.available(chunk, pos);
+        }
+        
+        private int next() throws IOException {
+            int n = awaitAvailable(chunk, pos);
+            while (n == 0) {
+                chunk++;
+                pos = 0;
+                n = awaitAvailable(chunk, pos);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.local;
+
+import java.io.IOException;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * Fails the {@link LocalBufferChain} a message is being written to when its chain unwinds,
+ * so that the receiving side, which may already be reading the chain on another thread,
+ * gets an exception instead of waiting for the rest of the message forever.
+ */
+class LocalBufferChainFaultInterceptor extends AbstractPhaseInterceptor<Message> {
+    static final LocalBufferChainFaultInterceptor INSTANCE = new LocalBufferChainFaultInterceptor();
+
+    LocalBufferChainFaultInterceptor() {
+        super(Phase.PREPARE_SEND);
+    }
+
+    public void handleMessage(Message message) throws Fault {
+        // only the fault handling is needed
+    }
+
+    @Override
+    public void handleFault(Message message) {
+        LocalBufferChain chain = message.get(LocalBufferChain.class);
+        if (chain == null) {
+            chain = message.getContent(LocalBufferChain.class);
+        }
+        if (chain != null) {
+            Exception ex = message.getContent(Exception.class);
+            chain.fail(new IOException("The message could not be written", ex));
+        }
+    }
+}
@@ -31,6 +31,8 @@ import java.util.logging.Logger;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.io.AbstractWrappedOutputStream;
 import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.message.Exchange;
@@ -38,7 +40,9 @@ import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.transport.AbstractConduit;
+import org.apache.cxf.transport.ChainInitiationObserver;
 import org.apache.cxf.workqueue.SynchronousExecutor;
 
 public class LocalConduit extends AbstractConduit {
@@ -68,14 +72,23 @@ public class LocalConduit extends AbstractConduit {
             final MessageImpl inMsg = new MessageImpl();
             transportFactory.copy(message, inMsg);
             
+            final boolean shared = MessageUtils.isTrue(message.getContextualProperty(SHARED_BUFFERS));
             if (!empty) {
-                final PipedInputStream stream = new PipedInputStream();
-                wrappedStream = new PipedOutputStream(stream);
-
-                inMsg.setContent(InputStream.class, stream);
+                if (shared) {
+                    LocalBufferChain chain = new LocalBufferChain();
+                    wrappedStream = chain;
+                    message.put(LocalBufferChain.class, chain);
+                    inMsg.setContent(InputStream.class, chain.getInputStream());
+                } else {
+                    final PipedInputStream stream = new PipedInputStream();
+                    wrappedStream = new PipedOutputStream(stream);
+    
+                    inMsg.setContent(InputStream.class, stream);
+                }
             }
             inMsg.setDestination(destination);
             inMsg.put(IN_CONDUIT, conduit);
+            setContinuationProvider(inMsg);
 
             final Runnable receiver = new Runnable() {
                 public void run() {                            
@@ -84,9 +97,16 @@ public class LocalConduit extends AbstractConduit {
                     ex.setInMessage(inMsg);
                     inMsg.setExchange(ex);
                     ex.put(IN_EXCHANGE, exchange);
+                    if (shared) {
+                        ex.put(SHARED_BUFFERS, Boolean.TRUE);
+                    }
                     try {
                         destination.getMessageObserver().onMessage(inMsg);
                     } catch (Throwable t) {
+                        if (wrappedStream instanceof LocalBufferChain) {
+                            // stop the sending side which may still be writing the request
+                            ((LocalBufferChain)wrappedStream).fail(new IOException("Request failed", t));
+                        }
                         Message m = inMsg.getExchange().getOutFaultMessage();
                         if (m == null) {
                             m = inMsg.getExchange().getOutMessage();
@@ -104,8 +124,10 @@ public class LocalConduit extends AbstractConduit {
                     }
                 }
             };
-            Executor ex = message.getExchange() != null
-                ? message.getExchange().get(Executor.class) : null;
+            Executor ex = destination.getExecutor();
+            if (ex == null && message.getExchange() != null) {
+                ex = message.getExchange().get(Executor.class);
+            }
             if (ex == null || SynchronousExecutor.isA(ex)) {
                 ex = transportFactory.getExecutor(destination.getBus());
                 if (ex != null) {
@@ -123,6 +145,21 @@ public class LocalConduit extends AbstractConduit {
     public static final String RESPONSE_CONDUIT = LocalConduit.class.getName() + ".inConduit";
     public static final String IN_EXCHANGE = LocalConduit.class.getName() + ".inExchange";
     public static final String DIRECT_DISPATCH = LocalConduit.class.getName() + ".directDispatch";
+    /**
+     * If true, request and response bodies travel through a {@link LocalBufferChain} the
+     * receiving side reads in place, instead of a piped stream or a CachedOutputStream copy.
+     * The chain is held in memory, so it is not meant for very large payloads.
+     */
+    public static final String SHARED_BUFFERS = LocalConduit.class.getName() + ".sharedBuffers";
+    /**
+     * If true together with {@link #DIRECT_DISPATCH}, the contents list of the request is handed
+     * to the receiving endpoint as it is, and the one of the response back to the client, as long
+     * as both endpoints use the same kind of DataBinding and the same types for the operation.
+     * Only the logical phases of the chains run, so interceptors which need the serialized
+     * message are skipped, and both sides work on the same objects.  Synchronous calls only,
+     * everything else is written to a stream as usual.
+     */
+    public static final String OBJECT_PASSING = LocalConduit.class.getName() + ".objectPassing";
     public static final String MESSAGE_FILTER_PROPERTIES = LocalTransportFactory.MESSAGE_FILTER_PROPERTIES;
 
     private static final Logger LOG = LogUtils.getL7dLogger(LocalConduit.class);
@@ -139,6 +176,17 @@ public class LocalConduit extends AbstractConduit {
     public void prepare(final Message message) throws IOException {
         if (!MessageUtils.isTrue(message.getContextualProperty(DIRECT_DISPATCH))) {
             dispatchViaPipe(message);
+            if (MessageUtils.isTrue(message.getContextualProperty(SHARED_BUFFERS))
+                && message.getInterceptorChain() != null) {
+                message.getInterceptorChain().add(LocalBufferChainFaultInterceptor.INSTANCE);
+            }
+        } else if (MessageUtils.isTrue(message.getContextualProperty(OBJECT_PASSING))
+            && addObjectPassingInterceptor(message)) {
+            // nothing is written, the contents are handed over once the chain reaches the interceptor
+        } else if (MessageUtils.isTrue(message.getContextualProperty(SHARED_BUFFERS))) {
+            LocalBufferChain chain = new LocalBufferChain();
+            message.setContent(OutputStream.class, chain);
+            message.put(LocalBufferChain.class, chain);
         } else {
             // prepare the stream here
             CachedOutputStream stream = new CachedOutputStream();
@@ -149,9 +197,32 @@ public class LocalConduit extends AbstractConduit {
         }
     }
 
+    private boolean addObjectPassingInterceptor(Message message) {
+        Exchange exchange = message.getExchange();
+        if (exchange == null || !exchange.isSynchronous() || exchange.getEndpoint() == null
+            || exchange.getBindingOperationInfo() == null || message.getContent(List.class) == null
+            || message.getInterceptorChain() == null
+            || !(destination.getMessageObserver() instanceof ChainInitiationObserver)) {
+            return false;
+        }
+        Endpoint receiver = ((ChainInitiationObserver)destination.getMessageObserver()).getEndpoint();
+        BindingOperationInfo receiverBoi 
+            = LocalObjectPassingInterceptor.getReceiverOperation(exchange.getEndpoint(), receiver,
+                                                                 exchange.getBindingOperationInfo());
+        if (receiverBoi == null) {
+            return false;
+        }
+        LocalObjectPassingInterceptor interceptor 
+            = new LocalObjectPassingInterceptor(this, destination, transportFactory, receiver, receiverBoi);
+        message.put(LocalObjectPassingInterceptor.class, interceptor);
+        message.getInterceptorChain().add(interceptor);
+        return true;
+    }
+
     @Override
     public void close(Message message) throws IOException {
         if (MessageUtils.isTrue(message.getContextualProperty(DIRECT_DISPATCH))
+            && message.get(LocalObjectPassingInterceptor.class) == null
             && !Boolean.TRUE.equals(message.get(Message.INBOUND_MESSAGE))) {
             dispatchDirect(message);
         } 
@@ -176,22 +247,41 @@ public class LocalConduit extends AbstractConduit {
         out.flush();
         out.close();
         
-        CachedOutputStream stream = message.get(CachedOutputStream.class);
-        copy.setContent(InputStream.class, stream.getInputStream());
-        copy.removeContent(CachedOutputStream.class);
-        stream.releaseTempFileHold();
+        LocalBufferChain chain = message.get(LocalBufferChain.class);
+        if (chain != null) {
+            copy.setContent(InputStream.class, chain.getInputStream());
+        } else {
+            CachedOutputStream stream = message.get(CachedOutputStream.class);
+            copy.setContent(InputStream.class, stream.getInputStream());
+            copy.removeContent(CachedOutputStream.class);
+            stream.releaseTempFileHold();
+        }
+        setContinuationProvider(copy);
         
         // Create a new incoming exchange and store the original exchange for the response
         ExchangeImpl ex = new ExchangeImpl();
         ex.setInMessage(copy);
         ex.put(IN_EXCHANGE, message.getExchange());
         ex.put(LocalConduit.DIRECT_DISPATCH, true);
+        if (chain != null) {
+            ex.put(SHARED_BUFFERS, Boolean.TRUE);
+        }
         ex.setDestination(destination);
         
         destination.getMessageObserver().onMessage(copy);
     }
 
 
+    private void setContinuationProvider(Message inMsg) {
+        Executor executor = destination.getExecutor();
+        if (executor == null) {
+            executor = transportFactory.getExecutor(destination.getBus());
+        }
+        inMsg.put(ContinuationProvider.class.getName(),
+                  new LocalContinuationProvider(destination.getBus(), inMsg,
+                                                destination.getMessageObserver(), executor));
+    }
+
     private void dispatchViaPipe(final Message message) throws IOException {
         final LocalConduit conduit = this;
         final Exchange exchange = message.getExchange();
@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.local;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.transport.MessageObserver;
+import org.apache.cxf.workqueue.WorkQueue;
+
+/**
+ * Lets services invoked over the local transport suspend their chain and return the
+ * dispatching thread.  The chain is resumed on the destination's executor, or on the
+ * resuming thread if there is none.
+ */
+public class LocalContinuationProvider implements ContinuationProvider {
+    private final Bus bus;
+    private final Message inMessage;
+    private final MessageObserver incomingObserver;
+    private final Executor executor;
+
+    public LocalContinuationProvider(Bus b, Message m, MessageObserver observer, Executor executor) {
+        bus = b;
+        inMessage = m;
+        incomingObserver = observer;
+        this.executor = executor;
+    }
+
+    public void complete() {
+        LocalContinuation cw = inMessage.get(LocalContinuation.class);
+        if (cw != null) {
+            cw.reset();
+        }
+    }
+
+    public Continuation getContinuation() {
+        Message m = inMessage;
+        // Get the real message which is used in the interceptor chain
+        if (m != null && m.getExchange() != null && m.getExchange().getInMessage() != null) {
+            m = m.getExchange().getInMessage();
+        }
+        if (m == null || m.getExchange() == null || m.getExchange().isOneWay()) {
+            return null;
+        }
+        LocalContinuation cw = m.get(LocalContinuation.class);
+        if (cw == null) {
+            cw = new LocalContinuation(m);
+            m.put(LocalContinuation.class, cw);
+        }
+        return cw;
+    }
+    
+    /**
+     * Schedules the suspend timeouts when the executor can not schedule them itself.
+     */
+    private static final class TimeoutScheduler {
+        static final ScheduledExecutorService INSTANCE = 
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "local-continuation-timeout");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        
+        private TimeoutScheduler() {
+        }
+    }
+    
+    class LocalContinuation implements Continuation {
+        private final Message message;
+        private volatile Object userObject;
+        private volatile boolean isNew = true;
+        private volatile boolean isPending;
+        private volatile boolean isResumed;
+        private int timerGeneration;
+        
+        LocalContinuation(Message m) {
+            message = m;
+        }
+        
+        public Object getObject() {
+            return userObject;
+        }
+        public void setObject(Object o) {
+            userObject = o;
+        }
+        public boolean isNew() {
+            return isNew;
+        }
+        public boolean isPending() {
+            return isPending;
+        }
+        public boolean isResumed() {
+            return isResumed;
+        }
+
+        public synchronized boolean suspend(long timeout) {
+            if (isPending) {
+                return false;
+            }
+            message.getInterceptorChain().suspend();
+            isNew = false;
+            isResumed = false;
+            isPending = true;
+            if (timeout > 0) {
+                final int generation = ++timerGeneration;
+                Runnable timeoutTask = new Runnable() {
+                    public void run() {
+                        synchronized (LocalContinuation.this) {
+                            if (!isPending || generation != timerGeneration) {
+                                return;
+                            }
+                        }
+                        doResume();
+                    }
+                };
+                scheduleTimeout(timeoutTask, timeout);
+            }
+            return true;
+        }
+        
+        private void scheduleTimeout(final Runnable timeoutTask, long timeout) {
+            if (executor instanceof WorkQueue) {
+                ((WorkQueue)executor).schedule(timeoutTask, timeout);
+            } else if (executor instanceof ScheduledExecutorService) {
+                ((ScheduledExecutorService)executor).schedule(timeoutTask, timeout, TimeUnit.MILLISECONDS);
+            } else {
+                // the timer thread only hands the resumed chain over to the executor
+                TimeoutScheduler.INSTANCE.schedule(new Runnable() {
+                    public void run() {
+                        if (executor != null) {
+                            executor.execute(timeoutTask);
+                        } else {
+                            timeoutTask.run();
+                        }
+                    }
+                }, timeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        public void resume() {
+            synchronized (this) {
+                if (isResumed || !isPending) {
+                    return;
+                }
+                isResumed = true;
+                timerGeneration++;
+            }
+            if (executor != null) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        doResume();
+                    }
+                });
+            } else {
+                doResume();
+            }
+        }
+        
+        public synchronized void reset() {
+            timerGeneration++;
+            isNew = true;
+            isPending = false;
+            isResumed = false;
+            userObject = null;
+        }
+        
+        void doResume() {
+            ClassLoaderHolder origLoader = null;
+            Bus origBus = BusFactory.getAndSetThreadDefaultBus(bus);
+            try {
+                ClassLoader loader = bus.getExtension(ClassLoader.class);
+                if (loader != null) {
+                    origLoader = ClassLoaderUtils.setThreadContextClassloader(loader);
+                }
+                incomingObserver.onMessage(message);
+            } finally {
+                isPending = false;
+                if (origBus != bus) {
+                    BusFactory.setThreadDefaultBus(origBus);
+                }
+                if (origLoader != null) { 
+                    origLoader.reset();
+                }
+            }
+        }
+    }
+}
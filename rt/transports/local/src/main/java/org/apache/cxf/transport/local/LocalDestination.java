@@ -40,13 +40,21 @@ import org.apache.cxf.transport.AbstractConduit;
 import org.apache.cxf.transport.AbstractDestination;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.workqueue.SynchronousExecutor;
+import org.apache.cxf.workqueue.WorkQueueManager;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
 
 public class LocalDestination extends AbstractDestination {
 
+    /**
+     * EndpointInfo property naming the Executor (or the name of a bus WorkQueue) requests
+     * to this destination are dispatched on.
+     */
+    public static final String EXECUTOR = LocalDestination.class.getName() + ".executor";
+    
     private static final Logger LOG = LogUtils.getL7dLogger(LocalDestination.class);
 
     private LocalTransportFactory localDestinationFactory;
+    private volatile Executor executor;
 
     public LocalDestination(LocalTransportFactory localDestinationFactory,
                             EndpointReferenceType epr,
@@ -54,6 +62,26 @@ public class LocalDestination extends AbstractDestination {
                             Bus bus) {
         super(bus, epr, ei);
         this.localDestinationFactory = localDestinationFactory;
+        Object o = ei.getProperty(EXECUTOR);
+        if (o instanceof Executor) {
+            executor = (Executor)o;
+        } else if (o instanceof String && bus != null) {
+            WorkQueueManager manager = bus.getExtension(WorkQueueManager.class);
+            if (manager != null) {
+                executor = manager.getNamedWorkQueue((String)o);
+            }
+        }
+    }
+    
+    /**
+     * The Executor requests to this destination are dispatched on, or null to use the
+     * transport factory's one.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 
     public void shutdown() {
@@ -101,9 +129,16 @@ public class LocalDestination extends AbstractDestination {
                 final MessageImpl m = new MessageImpl();
                 localDestinationFactory.copy(message, m);
                 if (!empty) {
-                    final PipedInputStream stream = new PipedInputStream();
-                    wrappedStream = new PipedOutputStream(stream);
-                    m.setContent(InputStream.class, stream);
+                    if (Boolean.TRUE.equals(message.getExchange().get(LocalConduit.SHARED_BUFFERS))) {
+                        LocalBufferChain chain = new LocalBufferChain();
+                        wrappedStream = chain;
+                        message.setContent(LocalBufferChain.class, chain);
+                        m.setContent(InputStream.class, chain.getInputStream());
+                    } else {
+                        final PipedInputStream stream = new PipedInputStream();
+                        wrappedStream = new PipedOutputStream(stream);
+                        m.setContent(InputStream.class, stream);
+                    }
                 }
 
                 final Runnable receiver = new Runnable() {
@@ -149,7 +184,15 @@ public class LocalDestination extends AbstractDestination {
                     = new LocalDestinationOutputStream(exchange, message);
                 
                 message.setContent(OutputStream.class, cout);    
+                if (Boolean.TRUE.equals(message.getExchange().get(LocalConduit.SHARED_BUFFERS))
+                    && message.getInterceptorChain() != null) {
+                    message.getInterceptorChain().add(LocalBufferChainFaultInterceptor.INSTANCE);
+                }
                 
+            } else if (Boolean.TRUE.equals(message.getExchange().get(LocalConduit.SHARED_BUFFERS))) {
+                LocalBufferChain chain = new LocalBufferChain();
+                message.setContent(OutputStream.class, chain);
+                message.setContent(LocalBufferChain.class, chain);
             } else {
                 CachedOutputStream stream = new CachedOutputStream();
                 message.setContent(OutputStream.class, stream);
@@ -173,11 +216,18 @@ public class LocalDestination extends AbstractDestination {
                 MessageImpl copy = new MessageImpl();
                 copy.putAll(message);
                 message.getContent(OutputStream.class).close();
-                CachedOutputStream stream = message.getContent(CachedOutputStream.class);
-                message.setContent(OutputStream.class, stream);
-                MessageImpl.copyContent(message, copy);
-                copy.setContent(InputStream.class, stream.getInputStream());
-                stream.releaseTempFileHold();
+                LocalBufferChain chain = message.getContent(LocalBufferChain.class);
+                if (chain != null) {
+                    message.setContent(OutputStream.class, chain);
+                    MessageImpl.copyContent(message, copy);
+                    copy.setContent(InputStream.class, chain.getInputStream());
+                } else {
+                    CachedOutputStream stream = message.getContent(CachedOutputStream.class);
+                    message.setContent(OutputStream.class, stream);
+                    MessageImpl.copyContent(message, copy);
+                    copy.setContent(InputStream.class, stream.getInputStream());
+                    stream.releaseTempFileHold();
+                }
                 if (exchange != null && exchange.getInMessage() == null) {
                     exchange.setInMessage(copy);
                 }                
@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.local;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.ClientImpl;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.phase.PhaseManager;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.MessageInfo;
+
+/**
+ * Hands the contents list of an outgoing message straight to the endpoint behind a
+ * {@link LocalDestination} instead of writing and parsing it again, see
+ * {@link LocalConduit#OBJECT_PASSING}.  Like the collocated binding, only the logical phases
+ * of the chains are run: the service is invoked with the objects the client sent, and the
+ * client gets the objects the service returned, neither side copies them.
+ */
+class LocalObjectPassingInterceptor extends AbstractPhaseInterceptor<Message> {
+    private final LocalConduit conduit;
+    private final LocalDestination destination;
+    private final LocalTransportFactory transportFactory;
+    private final Endpoint receiver;
+    private final BindingOperationInfo receiverBoi;
+
+    LocalObjectPassingInterceptor(LocalConduit conduit, LocalDestination destination,
+                                  LocalTransportFactory transportFactory,
+                                  Endpoint receiver, BindingOperationInfo receiverBoi) {
+        super(Phase.PREPARE_SEND);
+        addAfter(MessageSenderInterceptor.class.getName());
+        this.conduit = conduit;
+        this.destination = destination;
+        this.transportFactory = transportFactory;
+        this.receiver = receiver;
+        this.receiverBoi = receiverBoi;
+    }
+
+    /**
+     * @return the operation of the receiving endpoint the contents of a message sent for the
+     *         given operation can be handed to as they are, or null if they have to be written
+     */
+    static BindingOperationInfo getReceiverOperation(Endpoint sender, Endpoint receiver,
+                                                     BindingOperationInfo boi) {
+        if (sender.getService().getDataBinding() == null
+            || receiver.getService().getDataBinding() == null
+            || sender.getService().getDataBinding().getClass()
+                != receiver.getService().getDataBinding().getClass()) {
+            return null;
+        }
+        BindingOperationInfo receiverBoi;
+        if (boi.isUnwrapped()) {
+            receiverBoi = receiver.getEndpointInfo().getBinding().getOperation(boi.getWrappedOperation()
+                                                                                  .getName());
+            receiverBoi = receiverBoi == null ? null : receiverBoi.getUnwrappedOperation();
+        } else {
+            receiverBoi = receiver.getEndpointInfo().getBinding().getOperation(boi.getName());
+        }
+        if (receiverBoi == null
+            || !isSameMessage(boi.getOperationInfo().getInput(), receiverBoi.getOperationInfo().getInput())
+            || !isSameMessage(boi.getOperationInfo().getOutput(), 
+                              receiverBoi.getOperationInfo().getOutput())) {
+            return null;
+        }
+        return receiverBoi;
+    }
+
+    private static boolean isSameMessage(MessageInfo mi1, MessageInfo mi2) {
+        if (mi1 == null || mi2 == null) {
+            return mi1 == mi2;
+        }
+        if (mi1.size() != mi2.size()) {
+            return false;
+        }
+        for (int i = 0; i < mi1.size(); i++) {
+            if (mi1.getMessagePartByIndex(i).getTypeClass() != mi2.getMessagePartByIndex(i).getTypeClass()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void handleMessage(Message message) throws Fault {
+        message.getInterceptorChain().abort();
+        Exchange exchange = message.getExchange();
+        Bus bus = destination.getBus();
+        Bus origBus = BusFactory.getAndSetThreadDefaultBus(bus);
+        try {
+            Exchange ex = invokeReceiver(message, bus);
+            if (!exchange.isOneWay()) {
+                handleResponse(ex, exchange, bus);
+            }
+        } finally {
+            if (origBus != bus) {
+                BusFactory.setThreadDefaultBus(origBus);
+            }
+        }
+    }
+
+    private Exchange invokeReceiver(Message message, Bus bus) {
+        Exchange ex = new ExchangeImpl();
+        ex.put(Bus.class, bus);
+        ex.put(Endpoint.class, receiver);
+        ex.put(Service.class, receiver.getService());
+        ex.put(Binding.class, receiver.getBinding());
+        ex.put(BindingOperationInfo.class, receiverBoi);
+        ex.put(LocalConduit.IN_EXCHANGE, message.getExchange());
+        ex.put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        ex.put(LocalConduit.OBJECT_PASSING, Boolean.TRUE);
+        ex.setOneWay(message.getExchange().isOneWay());
+        ex.setDestination(destination);
+
+        Message inMsg = receiver.getBinding().createMessage(new MessageImpl());
+        transportFactory.copy(message, inMsg);
+        inMsg.setContent(List.class, message.getContent(List.class));
+        inMsg.setAttachments(message.getAttachments());
+        inMsg.put(LocalConduit.IN_CONDUIT, conduit);
+        inMsg.put(Message.REQUESTOR_ROLE, Boolean.FALSE);
+        inMsg.put(Message.INBOUND_MESSAGE, Boolean.TRUE);
+        inMsg.put(MessageInfo.class, receiverBoi.getOperationInfo().getInput());
+        ex.setInMessage(inMsg);
+        inMsg.setExchange(ex);
+
+        PhaseManager pm = bus.getExtension(PhaseManager.class);
+        PhaseInterceptorChain chain = createChain(pm.getInPhases(), Phase.USER_LOGICAL, Phase.INVOKE);
+        addInterceptors(chain, true, bus, receiver.getService(), receiver, receiver.getBinding(),
+                        receiver.getService().getDataBinding());
+        inMsg.setInterceptorChain(chain);
+        chain.doIntercept(inMsg);
+
+        Message outMsg = ex.getOutMessage();
+        if (!ex.isOneWay() && inMsg.getContent(Exception.class) == null && outMsg != null) {
+            outMsg.put(Message.INBOUND_MESSAGE, Boolean.FALSE);
+            outMsg.put(MessageInfo.class, receiverBoi.getOperationInfo().getOutput());
+            chain = createChain(pm.getOutPhases(), Phase.SETUP, Phase.USER_LOGICAL);
+            addInterceptors(chain, false, bus, receiver.getService(), receiver, receiver.getBinding(),
+                            receiver.getService().getDataBinding());
+            outMsg.setInterceptorChain(chain);
+            chain.doIntercept(outMsg);
+        }
+        return ex;
+    }
+
+    private void handleResponse(Exchange ex, Exchange exchange, Bus bus) {
+        Endpoint sender = exchange.getEndpoint();
+        Message inMsg = sender.getBinding().createMessage(new MessageImpl());
+        inMsg.put(Message.REQUESTOR_ROLE, Boolean.TRUE);
+        inMsg.put(Message.INBOUND_MESSAGE, Boolean.TRUE);
+        inMsg.setExchange(exchange);
+
+        Message outMsg = ex.getOutMessage();
+        Exception fault = ex.getInMessage().getContent(Exception.class);
+        if (fault == null && outMsg != null) {
+            fault = outMsg.getContent(Exception.class);
+        }
+        if (fault != null) {
+            // hand over what the service threw so declared exceptions reach the caller as they are
+            Throwable cause = fault.getCause();
+            if (fault instanceof Fault && cause instanceof Exception && !(cause instanceof RuntimeException)) {
+                fault = (Exception)cause;
+            }
+            inMsg.setContent(Exception.class, fault);
+            exchange.setInFaultMessage(inMsg);
+        } else {
+            if (outMsg != null) {
+                inMsg.setContent(List.class, outMsg.getContent(List.class));
+                inMsg.setAttachments(outMsg.getAttachments());
+            }
+            exchange.setInMessage(inMsg);
+            PhaseManager pm = bus.getExtension(PhaseManager.class);
+            PhaseInterceptorChain chain = createChain(pm.getInPhases(), Phase.USER_LOGICAL, Phase.PRE_INVOKE);
+            addInterceptors(chain, true, bus, exchange.get(Client.class), sender.getService(), sender,
+                            sender.getBinding(), sender.getService().getDataBinding());
+            inMsg.setInterceptorChain(chain);
+            chain.doIntercept(inMsg);
+        }
+        exchange.put(ClientImpl.FINISHED, Boolean.TRUE);
+    }
+
+    private static PhaseInterceptorChain createChain(SortedSet<Phase> allPhases, String first, String last) {
+        SortedSet<Phase> phases = new TreeSet<Phase>();
+        boolean include = false;
+        for (Phase p : allPhases) {
+            include |= p.getName().equals(first);
+            if (include) {
+                phases.add(p);
+            }
+            if (p.getName().equals(last)) {
+                break;
+            }
+        }
+        return new PhaseInterceptorChain(phases);
+    }
+
+    private static void addInterceptors(PhaseInterceptorChain chain, boolean in, Object... providers) {
+        for (Object o : providers) {
+            if (o instanceof InterceptorProvider) {
+                InterceptorProvider p = (InterceptorProvider)o;
+                chain.add(in ? p.getInInterceptors() : p.getOutInterceptors());
+            }
+        }
+    }
+}
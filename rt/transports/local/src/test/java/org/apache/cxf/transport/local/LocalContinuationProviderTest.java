@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.local;
+
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.interceptor.InterceptorChain.State;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.transport.MessageObserver;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalContinuationProviderTest extends Assert {
+    
+    @Test
+    public void testSuspendAndResume() throws Exception {
+        ResumeObserver observer = new ResumeObserver();
+        Message m = createMessage();
+        Continuation c = new LocalContinuationProvider(BusFactory.getDefaultBus(), m, observer, null)
+            .getContinuation();
+        assertNotNull(c);
+        assertTrue(c.isNew());
+        
+        assertTrue(c.suspend(0));
+        assertTrue(c.isPending());
+        assertFalse(c.isNew());
+        assertEquals(State.SUSPENDED, m.getInterceptorChain().getState());
+        assertFalse(c.suspend(0));
+        
+        c.resume();
+        assertTrue(observer.latch.await(10, TimeUnit.SECONDS));
+        assertSame(m, observer.message);
+        assertTrue(c.isResumed());
+        assertFalse(c.isPending());
+    }
+    
+    @Test
+    public void testResumeOnExecutor() throws Exception {
+        ResumeObserver observer = new ResumeObserver();
+        final CountDownLatch executed = new CountDownLatch(1);
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                executed.countDown();
+                new Thread(command).start();
+            }
+        };
+        Continuation c = new LocalContinuationProvider(BusFactory.getDefaultBus(), createMessage(), 
+                                                       observer, executor).getContinuation();
+        c.suspend(0);
+        c.resume();
+        assertEquals(0, executed.getCount());
+        assertTrue(observer.latch.await(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testTimeoutWithoutSchedulingExecutor() throws Exception {
+        ResumeObserver observer = new ResumeObserver();
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        Continuation c = new LocalContinuationProvider(BusFactory.getDefaultBus(), createMessage(), 
+                                                       observer, executor).getContinuation();
+        c.suspend(50);
+        assertTrue("Suspend timeout has not resumed the chain", observer.latch.await(10, TimeUnit.SECONDS));
+        assertFalse(c.isResumed());
+    }
+    
+    @Test
+    public void testTimeoutCancelledByResume() throws Exception {
+        ResumeObserver observer = new ResumeObserver(2);
+        Continuation c = new LocalContinuationProvider(BusFactory.getDefaultBus(), createMessage(), 
+                                                       observer, null).getContinuation();
+        c.suspend(100);
+        c.resume();
+        assertFalse(observer.latch.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(1, observer.latch.getCount());
+    }
+    
+    @Test
+    public void testNoContinuationForOneWay() {
+        Message m = createMessage();
+        m.getExchange().setOneWay(true);
+        assertNull(new LocalContinuationProvider(BusFactory.getDefaultBus(), m, new ResumeObserver(), null)
+            .getContinuation());
+    }
+    
+    private static Message createMessage() {
+        Message m = new MessageImpl();
+        Exchange ex = new ExchangeImpl();
+        ex.put(Bus.class, BusFactory.getDefaultBus());
+        ex.setInMessage(m);
+        m.setExchange(ex);
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(new TreeSet<Phase>());
+        m.setInterceptorChain(chain);
+        return m;
+    }
+    
+    private static class ResumeObserver implements MessageObserver {
+        private final CountDownLatch latch;
+        private volatile Message message;
+        
+        ResumeObserver() {
+            this(1);
+        }
+        ResumeObserver(int count) {
+            latch = new CountDownLatch(count);
+        }
+        
+        public void onMessage(Message m) {
+            message = m;
+            latch.countDown();
+        }
+    }
+}
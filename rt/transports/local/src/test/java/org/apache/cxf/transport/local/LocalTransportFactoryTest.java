@@ -24,13 +24,21 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.BusFactory;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.Conduit;
 
@@ -49,7 +57,73 @@ public class LocalTransportFactoryTest extends Assert {
         testInvocation(true);
     }
     
+    @Test
+    public void testLocalTransportWithSharedBuffers() throws Exception {
+        testInvocation(false, true);
+    }
+
+    @Test
+    public void testLocalTransportWithDirectDispatchAndSharedBuffers() throws Exception {
+        testInvocation(true, true);
+    }
+    
+    @Test
+    public void testSharedBuffersWriterFailure() throws Exception {
+        Bus bus = BusFactory.getDefaultBus();
+        LocalTransportFactory factory = new LocalTransportFactory();
+        
+        EndpointInfo ei = new EndpointInfo(null, "http://schemas.xmlsoap.org/soap/http");
+        ei.setAddress("http://localhost/testWriterFailure");
+
+        LocalDestination d = (LocalDestination) factory.getDestination(ei, bus);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<IOException> readFailure = new AtomicReference<IOException>();
+        d.setMessageObserver(new MessageObserver() {
+            public void onMessage(Message message) {
+                try {
+                    copy(message.getContent(InputStream.class), new ByteArrayOutputStream(), 1024);
+                } catch (IOException ex) {
+                    readFailure.set(ex);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+        final Conduit conduit = factory.getConduit(ei, bus);
+        
+        MessageImpl m = new MessageImpl();
+        m.put(LocalConduit.SHARED_BUFFERS, Boolean.TRUE);
+        Exchange ex = new ExchangeImpl();
+        ex.put(Bus.class, bus);
+        m.setExchange(ex);
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(new PhaseManagerImpl().getOutPhases());
+        m.setInterceptorChain(chain);
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.PREPARE_SEND) {
+            public void handleMessage(Message message) {
+                try {
+                    conduit.prepare(message);
+                    message.getContent(OutputStream.class).write("partial request".getBytes());
+                } catch (IOException e) {
+                    throw new Fault(e);
+                }
+            }
+        });
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.WRITE) {
+            public void handleMessage(Message message) {
+                throw new Fault(new IllegalStateException("writer failed"));
+            }
+        });
+        chain.doIntercept(m);
+        
+        assertTrue("The reader is still waiting for the failed writer", latch.await(10, TimeUnit.SECONDS));
+        assertNotNull(readFailure.get());
+    }
+    
     private void testInvocation(boolean isDirectDispatch) throws Exception {
+        testInvocation(isDirectDispatch, false);
+    }
+    
+    private void testInvocation(boolean isDirectDispatch, boolean sharedBuffers) throws Exception {
         // Need to create a DefaultBus
         Bus bus = BusFactory.getDefaultBus();
         LocalTransportFactory factory = new LocalTransportFactory();
@@ -69,6 +143,9 @@ public class LocalTransportFactoryTest extends Assert {
         if (isDirectDispatch) {
             m.put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
         }    
+        if (sharedBuffers) {
+            m.put(LocalConduit.SHARED_BUFFERS, Boolean.TRUE);
+        }
         m.setDestination(d);
         Exchange ex = new ExchangeImpl();
         ex.put(Bus.class, bus);
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.udp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An InputStream that reads directly out of a (typically direct) ByteBuffer
+ * holding a received datagram.  The buffer is handed back to its pool when
+ * the stream is closed.
+ */
+public class ByteBufferInputStream extends InputStream {
+    private ByteBuffer buf;
+    private final UDPBufferPool pool;
+
+    public ByteBufferInputStream(ByteBuffer b) {
+        this(b, null);
+    }
+    public ByteBufferInputStream(ByteBuffer b, UDPBufferPool p) {
+        buf = b;
+        pool = p;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buf;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return buf == null ? 0 : buf.remaining();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (buf == null || !buf.hasRemaining()) {
+            return -1;
+        }
+        return buf.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (buf == null || !buf.hasRemaining()) {
+            return -1;
+        }
+        int readBytes = Math.min(len, buf.remaining());
+        buf.get(b, off, readBytes);
+        return readBytes;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (buf == null || n <= 0) {
+            return 0;
+        }
+        int skipped = (int)Math.min(n, buf.remaining());
+        buf.position(buf.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ByteBuffer b = buf;
+        buf = null;
+        if (b != null && pool != null) {
+            pool.release(b);
+        }
+    }
+}
@@ -28,16 +28,27 @@ import java.net.InetSocketAddress;
 import java.net.InterfaceAddress;
 import java.net.MulticastSocket;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.util.PropertyUtils;
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
 import org.apache.cxf.message.Exchange;
@@ -63,7 +74,18 @@ import org.apache.mina.transport.socket.nio.NioDatagramAcceptor;
  */
 public class UDPDestination extends AbstractDestination {
     public static final String NETWORK_INTERFACE = UDPDestination.class.getName() + ".NETWORK_INTERFACE";
+    /**
+     * If true, datagrams are received through a non-blocking DatagramChannel into pooled
+     * direct buffers instead of the MINA acceptor / MulticastSocket.
+     */
+    public static final String DATAGRAM_CHANNEL = UDPDestination.class.getName() + ".DATAGRAM_CHANNEL";
+    /**
+     * The maximum number of datagrams drained from the DatagramChannel per selector wakeup.
+     */
+    public static final String RECEIVE_BATCH_SIZE = UDPDestination.class.getName() + ".RECEIVE_BATCH_SIZE";
     
+    private static final int DEFAULT_RECEIVE_BATCH_SIZE = 16;
+    private static final int MAX_SEND_SIZE = 64 * 1024 - 42;
     private static final Logger LOG = LogUtils.getL7dLogger(UDPDestination.class); 
     private static final AttributeKey KEY_IN = new AttributeKey(StreamIoHandler.class, "in");
     private static final AttributeKey KEY_OUT = new AttributeKey(StreamIoHandler.class, "out");
@@ -71,6 +93,10 @@ public class UDPDestination extends AbstractDestination {
     NioDatagramAcceptor acceptor;
     AutomaticWorkQueue queue;
     volatile MulticastSocket mcast;
+    volatile DatagramChannel channel;
+    Selector selector;
+    UDPBufferPool bufferPool;
+    int batchSize = DEFAULT_RECEIVE_BATCH_SIZE;
     
     public UDPDestination(Bus b, EndpointReferenceType ref, EndpointInfo ei) {
         super(b, ref, ei);
@@ -101,19 +127,7 @@ public class UDPDestination extends AbstractDestination {
                     UDPConnectionInfo info = new UDPConnectionInfo(null,
                                                                    out,
                                                                    new ByteArrayInputStream(bytes, 0, p.getLength()));
-                    
-                    final MessageImpl m = new MessageImpl();
-                    final Exchange exchange = new ExchangeImpl();
-                    exchange.setDestination(UDPDestination.this);
-                    m.setDestination(UDPDestination.this);
-                    exchange.setInMessage(m);
-                    m.setContent(InputStream.class, info.in);
-                    m.put(UDPConnectionInfo.class, info);
-                    queue.execute(new Runnable() {
-                        public void run() {
-                            getMessageObserver().onMessage(m);
-                        }
-                    });
+                    dispatch(info);
                 } catch (IOException ex) {
                     ex.printStackTrace();
                 }
@@ -121,6 +135,66 @@ public class UDPDestination extends AbstractDestination {
         }
     }
     
+    /**
+     * Drains up to batchSize datagrams per selector wakeup straight into pooled direct
+     * buffers; each datagram becomes a message whose content reads from that buffer.
+     * The listener exits once deactivate() closes its selector or channel.
+     */
+    class ChannelListener implements Runnable {
+        private final DatagramChannel ch;
+        private final Selector sel;
+
+        ChannelListener(DatagramChannel ch, Selector sel) {
+            this.ch = ch;
+            this.sel = sel;
+        }
+
+        public void run() {
+            while (true) {
+                try {
+                    if (sel.select() == 0) {
+                        continue;
+                    }
+                    sel.selectedKeys().clear();
+                    for (int count = 0; count < batchSize; count++) {
+                        ByteBuffer buf = bufferPool.acquire();
+                        SocketAddress from = ch.receive(buf);
+                        if (from == null) {
+                            bufferPool.release(buf);
+                            break;
+                        }
+                        buf.flip();
+                        dispatch(new UDPConnectionInfo(null,
+                                                       new UDPChannelOutputStream(from),
+                                                       new ByteBufferInputStream(buf, bufferPool)));
+                    }
+                } catch (ClosedChannelException | ClosedSelectorException ex) {
+                    return;
+                } catch (IOException ex) {
+                    if (!sel.isOpen() || !ch.isOpen()) {
+                        return;
+                    }
+                    LOG.log(Level.WARNING, "Failed to receive datagram", ex);
+                }
+            }
+        }
+    }
+    
+    private void dispatch(UDPConnectionInfo info) {
+        final MessageImpl m = new MessageImpl();
+        final Exchange exchange = new ExchangeImpl();
+        exchange.setDestination(UDPDestination.this);
+        m.setDestination(UDPDestination.this);
+        exchange.setInMessage(m);
+        m.setContent(InputStream.class, info.in);
+        m.put(UDPConnectionInfo.class, info);
+        queue.execute(new Runnable() {
+            public void run() {
+                getMessageObserver().onMessage(m);
+            }
+        });
+    }
+    
     
     /** {@inheritDoc}*/
     @Override
@@ -165,6 +239,17 @@ public class UDPDestination extends AbstractDestination {
             } else {
                 isa = new InetSocketAddress(uri.getHost(), uri.getPort());
             }
+            if (isDatagramChannelEnabled()) {
+                NetworkInterface ni = null;
+                if (isa.getAddress().isMulticastAddress()) {
+                    ni = findNetworkInterface();
+                }
+                if (!isa.getAddress().isMulticastAddress() || ni != null) {
+                    activateChannel(isa, ni);
+                    return;
+                }
+                LOG.fine("No multicast capable interface found, falling back to MulticastSocket");
+            }
             if (isa.getAddress().isMulticastAddress()) {
                 //ouch...
                 MulticastSocket socket = new MulticastSocket(null);
@@ -194,6 +279,49 @@ public class UDPDestination extends AbstractDestination {
             throw new RuntimeException(ex);
         }
     }
+    
+    private boolean isDatagramChannelEnabled() {
+        Object o = getEndpointInfo().getProperty(DATAGRAM_CHANNEL);
+        if (o == null) {
+            o = bus.getProperty(DATAGRAM_CHANNEL);
+        }
+        return PropertyUtils.isTrue(o);
+    }
+    
+    private void activateChannel(InetSocketAddress isa, NetworkInterface ni) throws IOException {
+        Object o = getEndpointInfo().getProperty(RECEIVE_BATCH_SIZE);
+        if (o == null) {
+            o = bus.getProperty(RECEIVE_BATCH_SIZE);
+        }
+        if (o != null) {
+            batchSize = Math.max(1, Integer.parseInt(o.toString()));
+        }
+        bufferPool = new UDPBufferPool(batchSize * 2);
+        
+        DatagramChannel ch = ni == null ? DatagramChannel.open() : DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            ch.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            ch.setOption(StandardSocketOptions.SO_RCVBUF, batchSize * UDPBufferPool.MAX_DATAGRAM_SIZE);
+            ch.setOption(StandardSocketOptions.SO_SNDBUF, UDPBufferPool.MAX_DATAGRAM_SIZE);
+            if (ni != null) {
+                ch.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+                ch.setOption(StandardSocketOptions.IP_MULTICAST_IF, ni);
+                ch.bind(new InetSocketAddress(isa.getPort()));
+                ch.join(isa.getAddress(), ni);
+            } else {
+                ch.bind(isa);
+            }
+            ch.configureBlocking(false);
+            selector = Selector.open();
+            ch.register(selector, SelectionKey.OP_READ);
+        } catch (IOException ex) {
+            ch.close();
+            throw ex;
+        }
+        channel = ch;
+        queue.execute(new ChannelListener(ch, selector));
+    }
+    
     private NetworkInterface findNetworkInterface() throws SocketException {
         String name = (String)this.getEndpointInfo().getProperty(UDPDestination.NETWORK_INTERFACE);
         NetworkInterface ret = null;
@@ -232,6 +360,22 @@ public class UDPDestination extends AbstractDestination {
             mcast.close();
             mcast = null;
         }
+        DatagramChannel ch = channel;
+        channel = null;
+        if (ch != null) {
+            // closing the selector wakes up the listener, whose next select() then
+            // throws ClosedSelectorException
+            try {
+                selector.close();
+            } catch (IOException ex) {
+                LOG.log(Level.FINE, "Failed to close selector", ex);
+            }
+            try {
+                ch.close();
+            } catch (IOException ex) {
+                LOG.log(Level.FINE, "Failed to close datagram channel", ex);
+            }
+        }
     }
     
     static class UDPConnectionInfo {
@@ -328,6 +472,68 @@ public class UDPDestination extends AbstractDestination {
         }
     }
     
+    /**
+     * Writes the reply into a pooled direct buffer and sends it back through the
+     * DatagramChannel to the address the request came from.
+     */
+    class UDPChannelOutputStream extends OutputStream {
+        final SocketAddress target;
+        ByteBuffer buffer;
+        boolean closed;
+        
+        UDPChannelOutputStream(SocketAddress target) {
+            this.target = target;
+        }
+        
+        private ByteBuffer getBuffer() {
+            if (buffer == null) {
+                buffer = bufferPool.acquire();
+                buffer.limit(MAX_SEND_SIZE);
+            }
+            return buffer;
+        }
+
+        public void write(int b) throws IOException {
+            if (!getBuffer().hasRemaining()) {
+                send();
+            }
+            getBuffer().put((byte)b);
+        }
+        public void write(byte b[], int off, int len) throws IOException {
+            while (len > getBuffer().remaining()) {
+                int nlen = buffer.remaining();
+                buffer.put(b, off, nlen);
+                len -= nlen;
+                off += nlen;
+                send();
+            }
+            buffer.put(b, off, len);
+        }
+        private void send() throws IOException {
+            DatagramChannel ch = channel;
+            if (ch == null) {
+                throw new ClosedChannelException();
+            }
+            ByteBuffer buf = getBuffer();
+            buf.flip();
+            ch.send(buf, target);
+            buf.clear();
+            buf.limit(MAX_SEND_SIZE);
+        }
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                send();
+            } finally {
+                bufferPool.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+    
     public class UDPDestinationOutputStream extends OutputStream {
         final OutputStream out;
         IoBuffer buffer = IoBuffer.allocate(64 * 1024 - 42); //max size
@@ -38,6 +38,7 @@ import org.junit.Test;
  */
 public class UDPTransportTest extends AbstractBusClientServerTestBase {
     static final String PORT = allocatePort(UDPTransportTest.class);
+    static final String PORT2 = allocatePort(UDPTransportTest.class, 2);
     private static Server server; 
 
     
@@ -67,6 +68,35 @@ public class UDPTransportTest extends AbstractBusClientServerTestBase {
                
         ((java.io.Closeable)g).close();
     }
+    @Test
+    public void testDatagramChannelUDP() throws Exception {
+        JaxWsServerFactoryBean factory = new JaxWsServerFactoryBean();
+        factory.setBus(getStaticBus());
+        factory.setAddress("udp://:" + PORT2);
+        factory.setServiceBean(new GreeterImpl());
+        factory.setStart(false);
+        Server channelServer = factory.create();
+        channelServer.getEndpoint().getEndpointInfo().setProperty(UDPDestination.DATAGRAM_CHANNEL, "true");
+        channelServer.getEndpoint().getEndpointInfo().setProperty(UDPDestination.RECEIVE_BATCH_SIZE, 4);
+        channelServer.start();
+        try {
+            JaxWsProxyFactoryBean fact = new JaxWsProxyFactoryBean(); 
+            fact.setAddress("udp://localhost:" + PORT2);
+            Greeter g = fact.create(Greeter.class);
+            for (int x = 0; x < 5; x++) {
+                assertEquals("Hello World", g.greetMe("World"));
+            }
+            StringBuilder b = new StringBuilder(100000);
+            for (int x = 0; x < 6500; x++) {
+                b.append("Hello ");
+            }
+            assertEquals("Hello " + b.toString(), g.greetMe(b.toString()));
+            ((java.io.Closeable)g).close();
+        } finally {
+            channelServer.stop();
+        }
+    }
+    
     @Test
     public void testBroadcastUDP() throws Exception {
         // Disable the test on Redhat Enterprise Linux which doesn't enable the UDP broadcast by default
@@ -26,6 +26,12 @@ public final class WebSocketConstants {
     public static final String DEFAULT_REQUEST_ID_KEY = "requestId";
     public static final String DEFAULT_RESPONSE_ID_KEY = "responseId";
 
+    /** 
+     * Contextual property to send the requests of a client in binary frames instead of
+     * the text based request envelope. The destinations respond in the framing of the request.
+     */
+    public static final String BINARY_FRAMING = "org.apache.cxf.transport.websocket.binaryFraming";
+
     private WebSocketConstants() {
     }
 
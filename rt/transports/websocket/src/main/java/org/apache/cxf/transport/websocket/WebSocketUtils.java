@@ -20,6 +20,8 @@
 package org.apache.cxf.transport.websocket;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -34,6 +36,18 @@ public final class WebSocketUtils {
     public static final String METHOD_KEY = "$method";
     public static final String SC_KEY = "$sc";
     public static final String FLUSHED_KEY = "$flushed";
+    /** Set to {@link #BINARY_FRAME} in the headers of a message using the binary framing */
+    public static final String FRAME_KEY = "$frame";
+    public static final String BINARY_FRAME = "binary";
+
+    /** 
+     * The first byte of a binary frame, which can't start a text framed request or response.
+     * It is followed by a version byte, the int request id, the unsigned short number of headers,
+     * the headers as pairs of {@link DataOutputStream#writeUTF(String)} strings and the body.
+     * The request line and the status code are sent as the $method, $uri and $sc headers.
+     */
+    public static final int BINARY_FRAME_MAGIC = 0xCF;
+    private static final int BINARY_FRAME_VERSION = 1;
 
     private static final byte[] CRLF = "\r\n".getBytes();
     private static final byte[] COLSP = ": ".getBytes();
@@ -55,6 +69,28 @@ public final class WebSocketUtils {
      * @throws IOException
      */
     public static Map<String, String> readHeaders(InputStream in, boolean req) throws IOException {
+        return readHeaders(in, req, req ? WebSocketConstants.DEFAULT_REQUEST_ID_KEY
+            : WebSocketConstants.DEFAULT_RESPONSE_ID_KEY);
+    }
+
+    /**
+     * Read header properties from the specified input stream.
+     * 
+     * @param in the input stream
+     * @param req true if the input stream includes the request line
+     * @param idKey the header under which the id of a binary frame is returned
+     * @return a map of name value pairs.
+     * @throws IOException
+     */
+    public static Map<String, String> readHeaders(InputStream in, boolean req, String idKey) throws IOException {
+        if (in.markSupported()) {
+            in.mark(1);
+            int b = in.read();
+            in.reset();
+            if (b == BINARY_FRAME_MAGIC) {
+                return readFrameHeaders(in, req, idKey);
+            }
+        }
         Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
         String line;
         int del;
@@ -88,6 +124,97 @@ public final class WebSocketUtils {
         return readHeaders(in, true);
     }
 
+    public static boolean isBinaryFrame(byte[] data, int offset, int length) {
+        return length > 0 && (data[offset] & 0xff) == BINARY_FRAME_MAGIC;
+    }
+
+    /**
+     * Read the headers of a binary frame. The request or response id is returned as the idKey
+     * header, and the {@link #FRAME_KEY} header is set so that the response can be sent back
+     * in the same framing.
+     */
+    private static Map<String, String> readFrameHeaders(InputStream in, boolean req, String idKey)
+        throws IOException {
+        DataInputStream din = new DataInputStream(in);
+        din.readUnsignedByte();
+        int version = din.readUnsignedByte();
+        if (version != BINARY_FRAME_VERSION) {
+            throw new IOException("unsupported frame version: " + version);
+        }
+        Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        int id = din.readInt();
+        if (id != 0) {
+            headers.put(idKey, Integer.toString(id));
+        }
+        for (int n = din.readUnsignedShort(); n > 0; n--) {
+            String name = din.readUTF();
+            headers.put(name, din.readUTF());
+        }
+        if (req && headers.get(METHOD_KEY) == null) {
+            throw new IOException("invalid request: no method");
+        }
+        headers.put(FRAME_KEY, BINARY_FRAME);
+        return headers;
+    }
+
+    /**
+     * Build a binary frame.
+     *
+     * @param id the request id, or 0 if the message is not correlated
+     * @param headers the headers including the $-prefixed request line or status code headers
+     * @param data
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static byte[] buildFrame(int id, Map<String, String> headers, byte[] data, int offset, int length) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(64 + Math.max(length, 0));
+        DataOutputStream out = new DataOutputStream(baos);
+        try {
+            out.writeByte(BINARY_FRAME_MAGIC);
+            out.writeByte(BINARY_FRAME_VERSION);
+            out.writeInt(id);
+            int n = 0;
+            for (String name : headers.keySet()) {
+                if (isFramedHeader(name)) {
+                    n++;
+                }
+            }
+            out.writeShort(n);
+            for (Entry<String, String> h : headers.entrySet()) {
+                if (isFramedHeader(h.getKey())) {
+                    out.writeUTF(h.getKey());
+                    out.writeUTF(h.getValue());
+                }
+            }
+            if (data != null && length > 0) {
+                out.write(data, offset, length);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+        }
+        return baos.toByteArray();
+    }
+
+    private static boolean isFramedHeader(String name) {
+        return !FRAME_KEY.equals(name) && !FLUSHED_KEY.equals(name)
+            && !WebSocketConstants.DEFAULT_REQUEST_ID_KEY.equals(name)
+            && !WebSocketConstants.DEFAULT_RESPONSE_ID_KEY.equals(name);
+    }
+
+    private static int getFrameId(Map<String, String> headers, String key) {
+        String id = headers.get(key);
+        if (id != null) {
+            try {
+                return Integer.parseInt(id);
+            } catch (NumberFormatException e) {
+                // not an id of a binary framed request
+            }
+        }
+        return 0;
+    }
+
 
     /**
      * Read a line terminated by '\n' optionally preceded by '\r' from the 
@@ -143,6 +270,10 @@ public final class WebSocketUtils {
      * @return
      */
     public static byte[] buildResponse(Map<String, String> headers, byte[] data, int offset, int length) {
+        if (BINARY_FRAME.equals(headers.get(FRAME_KEY))) {
+            return buildFrame(getFrameId(headers, WebSocketConstants.DEFAULT_RESPONSE_ID_KEY),
+                              headers, data, offset, length);
+        }
         ByteArrayBuilder sb = new ByteArrayBuilder();
         String v = headers.get(SC_KEY);
         if (v != null) {
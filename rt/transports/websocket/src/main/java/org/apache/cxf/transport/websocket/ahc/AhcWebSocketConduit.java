@@ -19,17 +19,25 @@
 
 package org.apache.cxf.transport.websocket.ahc;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,7 +49,9 @@ import com.ning.http.client.ws.WebSocketUpgradeHandler;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.http.Address;
 import org.apache.cxf.transport.http.Headers;
@@ -59,13 +69,16 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
     private static final Logger LOG = LogUtils.getL7dLogger(AhcWebSocketConduit.class);
 
     private AsyncHttpClient ahcclient;
-    private WebSocket websocket;
+    private volatile WebSocket websocket;
 
     //REVISIT make these keys configurable
     private String requestIdKey = WebSocketConstants.DEFAULT_REQUEST_ID_KEY;
     private String responseIdKey = WebSocketConstants.DEFAULT_RESPONSE_ID_KEY;
     
-    private Map<String, RequestResponse> uncorrelatedRequests = new ConcurrentHashMap<String, RequestResponse>();
+    // the two-way requests waiting for their response, any number of them may share the socket
+    private final ConcurrentMap<String, CompletableFuture<Response>> pendingResponses 
+        = new ConcurrentHashMap<String, CompletableFuture<Response>>();
+    private final AtomicInteger requestIds = new AtomicInteger();
 
     public AhcWebSocketConduit(Bus b, EndpointInfo ei, EndpointReferenceType t) throws IOException {
         super(b, ei, t);
@@ -106,9 +119,41 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
         return out;
     }
 
+    private String nextRequestId() {
+        int id = requestIds.incrementAndGet();
+        while (id == 0) {
+            // 0 stands for no id in a binary frame
+            id = requestIds.incrementAndGet();
+        }
+        return Integer.toString(id);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        failPendingResponses(new IOException("The conduit was closed"));
+        WebSocket ws = websocket;
+        if (ws != null) {
+            websocket = null;
+            ws.close();
+        }
+        ahcclient.close();
+    }
+
+    private void failPendingResponses(Throwable cause) {
+        for (String id : pendingResponses.keySet()) {
+            CompletableFuture<Response> f = pendingResponses.remove(id);
+            if (f != null) {
+                f.completeExceptionally(cause);
+            }
+        }
+    }
+
     public class AhcWebSocketWrappedOutputStream extends WrappedOutputStream {
         private AhcWebSocketConduitRequest entity;
         private Response response;
+        private final boolean binary;
+        private final boolean expectResponse;
 
         protected AhcWebSocketWrappedOutputStream(Message message, boolean possibleRetransmit,
                                                   boolean isChunking, int chunkThreshold, String conduitName, URI url) {
@@ -128,8 +173,38 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
                 // jaxws
                 entity.setPath(url.getPath());
             }
-            entity.setId(UUID.randomUUID().toString());
-            uncorrelatedRequests.put(entity.getId(), new RequestResponse(entity));
+            entity.setId(nextRequestId());
+            binary = MessageUtils.isTrue(message.getContextualProperty(WebSocketConstants.BINARY_FRAMING));
+            // only robust oneways may get a fault back
+            Exchange exchange = message.getExchange();
+            expectResponse = exchange == null || !exchange.isOneWay()
+                || MessageUtils.getContextualBoolean(message, Message.ROBUST_ONEWAY, false);
+        }
+
+        private byte[] buildRequest(Map<String, String> headers, byte[] data, int offset, int length) {
+            if (expectResponse) {
+                pendingResponses.putIfAbsent(entity.getId(), new CompletableFuture<Response>());
+            }
+            if (binary) {
+                headers.put(WebSocketUtils.METHOD_KEY, entity.getMethod());
+                headers.put(WebSocketUtils.URI_KEY, entity.getPath());
+                return WebSocketUtils.buildFrame(Integer.parseInt(entity.getId()), headers, data, offset, length);
+            }
+            headers.put(requestIdKey, entity.getId());
+            return WebSocketUtils.buildRequest(entity.getMethod(), entity.getPath(), headers, data, offset, length);
+        }
+
+        private void send(byte[] request) throws IOException {
+            WebSocket ws = websocket;
+            try {
+                if (ws == null) {
+                    throw new IOException("Not connected to " + url);
+                }
+                ws.sendMessage(request);
+            } catch (IOException | RuntimeException e) {
+                pendingResponses.remove(entity.getId());
+                throw e;
+            }
         }
 
         @Override
@@ -144,11 +219,7 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
                     // or provides the fragment mode?
                     Map<String, String> headers = new HashMap<String, String>();
                     headers.put("Content-Type", entity.getContentType());
-                    headers.put(requestIdKey, entity.getId());
-                    websocket.sendMessage(WebSocketUtils.buildRequest(
-                        entity.getMethod(), entity.getPath(),
-                        headers,
-                        b, off, len));
+                    send(buildRequest(headers, b, off, len));
                 }
 
                 @Override
@@ -165,12 +236,18 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
         @Override
         protected void handleNoOutput() throws IOException {
             connect();
-            Map<String, String> headers = new HashMap<String, String>();
-            headers.put(requestIdKey, entity.getId());
-            websocket.sendMessage(WebSocketUtils.buildRequest(
-                entity.getMethod(), entity.getPath(),
-                headers,
-                null, 0, 0));
+            send(buildRequest(new HashMap<String, String>(), null, 0, 0));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } catch (IOException | RuntimeException e) {
+                // the response will not be read
+                pendingResponses.remove(entity.getId());
+                throw e;
+            }
         }
 
         @Override
@@ -193,6 +270,9 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
 
         @Override
         protected int getResponseCode() throws IOException {
+            if (!expectResponse) {
+                return HttpURLConnection.HTTP_ACCEPTED;
+            }
             Response r = getResponse();
             return r.getStatusCode();
         }
@@ -205,6 +285,9 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
 
         @Override
         protected void updateResponseHeaders(Message inMessage) throws IOException {
+            if (!expectResponse) {
+                return;
+            }
             Headers h = new Headers(inMessage);
             String ct = getResponse().getContentType();
             inMessage.put(Message.CONTENT_TYPE, ct);
@@ -237,6 +320,9 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
 
         @Override
         protected InputStream getPartialResponse() throws IOException {
+            if (!expectResponse) {
+                return null;
+            }
             Response r = getResponse();
             //REVISIT
             return new java.io.ByteArrayInputStream(r.getTextEntity().getBytes());
@@ -268,16 +354,29 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
         // other methods follow
         //
 
-        protected void connect() {
+        protected void connect() throws IOException {
             LOG.log(Level.FINE, "connecting");
             if (websocket == null) {
-                try {
-                    websocket = ahcclient.prepareGet(url.toASCIIString()).execute(
-                            new WebSocketUpgradeHandler.Builder()
-                            .addWebSocketListener(new AhcWebSocketListener()).build()).get();
+                synchronized (AhcWebSocketConduit.this) {
+                    if (websocket != null) {
+                        return;
+                    }
+                    try {
+                        websocket = ahcclient.prepareGet(url.toASCIIString()).execute(
+                                new WebSocketUpgradeHandler.Builder()
+                                .addWebSocketListener(new AhcWebSocketListener()).build()).get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while connecting to " + url);
+                    } catch (ExecutionException e) {
+                        throw new IOException("Unable to connect to " + url, e.getCause());
+                    } catch (RuntimeException e) {
+                        throw new IOException("Unable to connect to " + url, e);
+                    }
+                    if (websocket == null) {
+                        throw new IOException("Unable to connect to " + url);
+                    }
                     LOG.log(Level.FINE, "connected");
-                } catch (Exception e) {
-                    LOG.log(Level.SEVERE, "unable to connect", e);
                 }
             } else {
                 LOG.log(Level.FINE, "already connected");
@@ -287,21 +386,23 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
         Response getResponse() throws IOException {
             if (response == null) {
                 String rid = entity.getId();
-                RequestResponse rr = uncorrelatedRequests.get(rid);
-                synchronized (rr) {
-                    try {
-                        long timetowait = entity.getReceiveTimeout();
-                        response = rr.getResponse();
-                        if (response == null) {
-                            rr.wait(timetowait);
-                            response = rr.getResponse();
-                        }
-                    } catch (InterruptedException e) {
-                        // ignore
-                    }
+                CompletableFuture<Response> pending = pendingResponses.get(rid);
+                if (pending == null) {
+                    throw new IOException("No response is expected for the request " + rid);
                 }
-                if (response == null) {
+                try {
+                    long timetowait = entity.getReceiveTimeout();
+                    response = timetowait > 0 
+                        ? pending.get(timetowait, TimeUnit.MILLISECONDS) : pending.get();
+                } catch (TimeoutException e) {
                     throw new SocketTimeoutException("Read timed out while invoking " + entity.getUri());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while invoking " + entity.getUri());
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                } finally {
+                    pendingResponses.remove(rid);
                 }
             }
             return response;
@@ -320,24 +421,31 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
             if (LOG.isLoggable(Level.FINE)) {
                 LOG.log(Level.FINE, "onCose({0})", ws);
             }
+            if (websocket == ws) {
+                websocket = null;
+            }
+            failPendingResponses(new IOException("The websocket was closed"));
         }
 
         public void onError(Throwable t) {
             LOG.log(Level.SEVERE, "[ws] onError", t);
+            failPendingResponses(t);
+        }
+
+        private void complete(Response resp) {
+            if (resp.getId() != null) {
+                CompletableFuture<Response> pending = pendingResponses.get(resp.getId());
+                if (pending != null) {
+                    pending.complete(resp);
+                }
+            }
         }
 
         public void onMessage(byte[] message) {
             if (LOG.isLoggable(Level.FINE)) {
                 LOG.log(Level.FINE, "onMessage({0})", message);
             }
-            Response resp = new Response(responseIdKey, message);
-            RequestResponse rr = uncorrelatedRequests.get(resp.getId());
-            if (rr != null) {
-                synchronized (rr) {
-                    rr.setResponse(resp);
-                    rr.notifyAll();
-                }
-            }
+            complete(new Response(responseIdKey, message));
         }
 
         public void onFragment(byte[] fragment, boolean last) {
@@ -349,14 +457,7 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
             if (LOG.isLoggable(Level.FINE)) {
                 LOG.log(Level.FINE, "onMessage({0})", message);
             }
-            Response resp = new Response(responseIdKey, message);
-            RequestResponse rr = uncorrelatedRequests.get(resp.getId());
-            if (rr != null) {
-                synchronized (rr) {
-                    rr.setResponse(resp);
-                    rr.notifyAll();
-                }
-            }
+            complete(new Response(responseIdKey, message));
         }
 
         public void onFragment(String fragment, boolean last) {
@@ -377,6 +478,10 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
 
         Response(String idKey, Object data) {
             this.data = data;
+            if (data instanceof byte[] && WebSocketUtils.isBinaryFrame((byte[])data, 0, ((byte[])data).length)) {
+                readFrame(idKey, (byte[])data);
+                return;
+            }
             String line;
             boolean first = true;
             while ((line = readLine()) != null) {
@@ -391,7 +496,7 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
                 String v = line.substring(del + 1).trim();
                 if ("Content-Type".equalsIgnoreCase(h)) {
                     contentType = v;
-                } else if (WebSocketConstants.DEFAULT_RESPONSE_ID_KEY.equals(h)) {
+                } else if (idKey.equals(h)) {
                     id = v;
                 }
             }
@@ -403,6 +508,20 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
             }
         }
 
+        private void readFrame(String idKey, byte[] frame) {
+            try {
+                ByteArrayInputStream in = new ByteArrayInputStream(frame);
+                Map<String, String> headers = WebSocketUtils.readHeaders(in, false, idKey);
+                String sc = headers.get(WebSocketUtils.SC_KEY);
+                statusCode = sc == null ? 0 : Integer.parseInt(sc);
+                contentType = headers.get("Content-Type");
+                id = headers.get(idKey);
+                entity = WebSocketUtils.readBody(in);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "invalid response frame", e);
+            }
+        }
+
         private static boolean isStatusCode(String line) {
             char c = line.charAt(0);
             return '0' <= c && c <= '9';
@@ -466,21 +585,4 @@ public class AhcWebSocketConduit extends URLConnectionHTTPConduit {
             return o instanceof String ? (String)o : (o instanceof byte[] ? new String((byte[])o) : null);
         }
     }
-
-    static class RequestResponse {
-        private AhcWebSocketConduitRequest request;
-        private Response response;
-        RequestResponse(AhcWebSocketConduitRequest request) {
-            this.request = request;
-        }
-        public AhcWebSocketConduitRequest getRequest() {
-            return request;
-        }
-        public Response getResponse() {
-            return response;
-        }
-        public void setResponse(Response response) {
-            this.response = response;
-        }
-    }
 }
@@ -30,6 +30,7 @@ import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.cxf.common.logging.LogUtils;
@@ -129,6 +130,10 @@ public class DefaultProtocolInterceptor extends AtmosphereInterceptorAdapter {
                     if (refid != null) {
                         ar.attributes().put(WebSocketConstants.DEFAULT_REQUEST_ID_KEY, refid);
                     }
+                    String frame = ar.getHeader(WebSocketUtils.FRAME_KEY);
+                    if (frame != null) {
+                        ar.attributes().put(WebSocketUtils.FRAME_KEY, frame);
+                    }
                     // This is a new request, we must clean the Websocket AtmosphereResource.
                     request.removeAttribute(FrameworkConfig.INJECTED_ATMOSPHERE_RESOURCE);
                     response.request(ar);
@@ -234,6 +239,10 @@ public class DefaultProtocolInterceptor extends AtmosphereInterceptorAdapter {
             response.addHeader(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, refid);
             headers.put(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, refid);
         }
+        String frame = (String)request.getAttribute(WebSocketUtils.FRAME_KEY);
+        if (frame != null) {
+            headers.put(WebSocketUtils.FRAME_KEY, frame);
+        }
         if (parent) {
             // include the status code and content-type and those matched headers
             String sc = response.getHeader(WebSocketUtils.SC_KEY); 
@@ -353,6 +362,14 @@ public class DefaultProtocolInterceptor extends AtmosphereInterceptorAdapter {
             public void write(byte[] b) throws IOException {
                 getOut().write(b);
             }
+
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
         }
 
         
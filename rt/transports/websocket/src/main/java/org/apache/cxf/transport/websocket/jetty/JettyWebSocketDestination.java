@@ -50,6 +50,7 @@ import org.apache.cxf.transport.http_jetty.JettyHTTPServerEngineFactory;
 import org.apache.cxf.transport.websocket.InvalidPathException;
 import org.apache.cxf.transport.websocket.WebSocketConstants;
 import org.apache.cxf.transport.websocket.WebSocketDestinationService;
+import org.apache.cxf.transport.websocket.WebSocketUtils;
 
 import org.apache.cxf.workqueue.WorkQueueManager;
 import org.eclipse.jetty.server.Request;
@@ -197,6 +198,11 @@ public class JettyWebSocketDestination extends JettyHTTPDestination implements
                         if (reqid != null) {
                             response.setHeader(responseIdKey, reqid);
                         }
+                        // answer in the framing of the request
+                        String frame = request.getHeader(WebSocketUtils.FRAME_KEY);
+                        if (frame != null) {
+                            response.setHeader(WebSocketUtils.FRAME_KEY, frame);
+                        }
                         invoke(null, null, request, response);
                     } catch (InvalidPathException ex) { 
                         reportErrorStatus(response, 400);
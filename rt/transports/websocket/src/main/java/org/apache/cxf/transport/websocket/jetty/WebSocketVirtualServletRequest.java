@@ -37,6 +37,7 @@ import java.util.logging.Logger;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -47,6 +48,7 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpUpgradeHandler;
 import javax.servlet.http.Part;
 
 import org.apache.cxf.common.logging.LogUtils;
@@ -115,6 +117,12 @@ public class WebSocketVirtualServletRequest implements HttpServletRequest {
         return 0;
     }
 
+    @Override
+    public long getContentLengthLong() {
+        LOG.log(Level.FINE, "getContentLengthLong()");
+        return 0;
+    }
+
     @Override
     public String getContentType() {
         LOG.log(Level.FINE, "getContentType()");
@@ -139,6 +147,21 @@ public class WebSocketVirtualServletRequest implements HttpServletRequest {
             public int read(byte[] b, int off, int len) throws IOException {
                 return in.read(b, off, len);
             }
+
+            @Override
+            public boolean isFinished() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isReady() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
         };
     }
 
@@ -524,4 +547,14 @@ public class WebSocketVirtualServletRequest implements HttpServletRequest {
     public void logout() throws ServletException {
         LOG.log(Level.FINE, "logout");
     }
+
+    @Override
+    public String changeSessionId() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws IOException, ServletException {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -30,6 +30,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
 
@@ -130,6 +131,14 @@ public class WebSocketVirtualServletResponse implements HttpServletResponse {
         responseHeaders.put("Content-Length", Integer.toString(len));
     }
 
+    @Override
+    public void setContentLengthLong(long len) {
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "setContentLengthLong({0})", len);
+        }
+        responseHeaders.put("Content-Length", Long.toString(len));
+    }
+
     @Override
     public void setContentType(String type) {
         if (LOG.isLoggable(Level.FINE)) {
@@ -321,44 +330,68 @@ public class WebSocketVirtualServletResponse implements HttpServletResponse {
         // the things to consider :
         // - provide a size limit if we are use this buffering
         // - add a chunking mode in the cxf websocket's binding.
-        return new ServletOutputStream() {
-            private InternalByteArrayOutputStream buffer = new InternalByteArrayOutputStream();
-
-            @Override
-            public void write(int b) throws IOException {
-                byte[] data = new byte[1];
-                data[0] = (byte)b;
-                write(data, 0, 1);
-            }
+        return new BufferedServletOutputStream();
+    }
 
-            @Override
-            public void write(byte[] data) throws IOException {
-                write(data, 0, data.length);
+    private byte[] buildUnbufferedResponse(byte[] data, int offset, int length) {
+        String respid = responseHeaders.get(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY);
+        if (responseHeaders.get(WebSocketUtils.FRAME_KEY) != null) {
+            Map<String, String> headers = new TreeMap<String, String>();
+            headers.put(WebSocketUtils.FRAME_KEY, responseHeaders.get(WebSocketUtils.FRAME_KEY));
+            if (respid != null) {
+                headers.put(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, respid);
             }
+            return WebSocketUtils.buildResponse(headers, data, offset, length);
+        }
+        byte[] headers = respid != null 
+            ? WebSocketUtils.buildHeaderLine(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, respid) : null;
+        return WebSocketUtils.buildResponse(headers, data, offset, length);
+    }
+
+    private class BufferedServletOutputStream extends ServletOutputStream {
+        private InternalByteArrayOutputStream buffer = new InternalByteArrayOutputStream();
 
-            @Override
-            public void write(byte[] data, int offset, int length) throws IOException {
-                if (responseHeaders.get(WebSocketUtils.FLUSHED_KEY) == null) {
-                    // buffer the data until it gets flushed
-                    buffer.write(data, offset, length);
-                } else {
-                    // unbuffered write to the socket
-                    String respid = responseHeaders.get(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY);
-                    byte[] headers = respid != null 
-                        ? WebSocketUtils.buildHeaderLine(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, respid) : null;
-                    data = WebSocketUtils.buildResponse(headers, data, offset, length);
-                    webSocketHolder.write(data, 0, data.length);
-                }
+        @Override
+        public void write(int b) throws IOException {
+            byte[] data = new byte[1];
+            data[0] = (byte)b;
+            write(data, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data) throws IOException {
+            write(data, 0, data.length);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            if (responseHeaders.get(WebSocketUtils.FLUSHED_KEY) == null) {
+                // buffer the data until it gets flushed
+                buffer.write(data, offset, length);
+            } else {
+                // unbuffered write to the socket
+                data = buildUnbufferedResponse(data, offset, length);
+                webSocketHolder.write(data, 0, data.length);
             }
-            public void close() throws IOException {
-                if (responseHeaders.get(WebSocketUtils.FLUSHED_KEY) == null) {
-                    byte[] data = WebSocketUtils.buildResponse(responseHeaders, buffer.getBytes(), 0, buffer.size());
-                    webSocketHolder.write(data, 0, data.length);
-                    responseHeaders.put(WebSocketUtils.FLUSHED_KEY, "true");
-                }
-                super.close();
+        }
+        public void close() throws IOException {
+            if (responseHeaders.get(WebSocketUtils.FLUSHED_KEY) == null) {
+                byte[] data = WebSocketUtils.buildResponse(responseHeaders, buffer.getBytes(), 0, buffer.size());
+                webSocketHolder.write(data, 0, data.length);
+                responseHeaders.put(WebSocketUtils.FLUSHED_KEY, "true");
             }
-        };
+            super.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
     }
 
     private static class InternalByteArrayOutputStream extends ByteArrayOutputStream {
@@ -19,6 +19,7 @@
 
 package org.apache.cxf.transport.websocket;
 
+import java.io.ByteArrayInputStream;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -71,6 +72,37 @@ public class WebSocketUtilsTest extends Assert {
         assertEquals(2 + 3, r.length);
     }
 
+    @Test
+    public void testBinaryFrameRoundTrip() throws Exception {
+        Map<String, String> headers = new TreeMap<String, String>();
+        headers.put(WebSocketUtils.METHOD_KEY, "POST");
+        headers.put(WebSocketUtils.URI_KEY, "/websocket/greeter");
+        headers.put("Content-Type", "text/xml;charset=utf-8");
+        byte[] frame = WebSocketUtils.buildFrame(42, headers, TEST_BODY_BYTES, 0, TEST_BODY_BYTES.length);
+        assertTrue(WebSocketUtils.isBinaryFrame(frame, 0, frame.length));
+
+        ByteArrayInputStream in = new ByteArrayInputStream(frame);
+        Map<String, String> read = WebSocketUtils.readHeaders(in);
+        assertEquals("POST", read.get(WebSocketUtils.METHOD_KEY));
+        assertEquals("/websocket/greeter", read.get(WebSocketUtils.URI_KEY));
+        assertEquals("text/xml;charset=utf-8", read.get("content-type"));
+        assertEquals("42", read.get(WebSocketConstants.DEFAULT_REQUEST_ID_KEY));
+        assertEquals(WebSocketUtils.BINARY_FRAME, read.get(WebSocketUtils.FRAME_KEY));
+        verifyBytes(TEST_BODY_BYTES, 0, WebSocketUtils.readBody(in), 0, TEST_BODY_BYTES.length);
+
+        // a response to it is framed the same way and carries the id in the frame
+        Map<String, String> response = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        response.put(WebSocketUtils.SC_KEY, "200");
+        response.put(WebSocketUtils.FRAME_KEY, WebSocketUtils.BINARY_FRAME);
+        response.put(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, "42");
+        frame = WebSocketUtils.buildResponse(response, TEST_BODY_BYTES, 0, TEST_BODY_BYTES.length);
+        in = new ByteArrayInputStream(frame);
+        read = WebSocketUtils.readHeaders(in, false);
+        assertEquals("200", read.get(WebSocketUtils.SC_KEY));
+        assertEquals("42", read.get(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY));
+        assertEquals(TEST_BODY_BYTES.length, WebSocketUtils.readBody(in).length);
+    }
+
     private void verifyBytes(byte[] expected, int epos, byte[] result, int rpos, int length) {
         for (int i = 0; i < length; i++) {
             if (result[rpos + i] != expected[epos + i]) {
@@ -19,7 +19,21 @@
 
 package org.apache.cxf.transport.websocket.ahc;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.websocket.WebSocketConstants;
+import org.apache.cxf.transport.websocket.WebSocketUtils;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -69,4 +83,54 @@ public class AhcWebSocketConduitTest extends Assert {
         assertTrue(resp.getEntity() instanceof byte[]);
         assertEquals("Nada!", resp.getTextEntity());
     }
+
+    @Test
+    public void testBinaryResponseParsing() throws Exception {
+        Map<String, String> headers = new TreeMap<String, String>();
+        headers.put(WebSocketUtils.SC_KEY, "200");
+        headers.put("Content-Type", "text/plain");
+        byte[] body = "Hola!".getBytes();
+        byte[] frame = WebSocketUtils.buildFrame(7, headers, body, 0, body.length);
+
+        AhcWebSocketConduit.Response resp = 
+            new AhcWebSocketConduit.Response(WebSocketConstants.DEFAULT_RESPONSE_ID_KEY, frame);
+        assertEquals(200, resp.getStatusCode());
+        assertEquals("7", resp.getId());
+        assertEquals("text/plain", resp.getContentType());
+        assertEquals("Hola!", resp.getTextEntity());
+
+        resp = new AhcWebSocketConduit.Response("myResponseId", frame);
+        assertEquals("7", resp.getId());
+    }
+
+    @Test
+    public void testSendWithoutConnection() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Bus bus = BusFactory.newInstance().createBus();
+        try {
+            EndpointInfo ei = new EndpointInfo();
+            ei.setAddress("ws://localhost:" + port + "/test");
+            AhcWebSocketConduit conduit = new AhcWebSocketConduit(bus, ei, null);
+            conduit.finalizeConfig();
+            Message message = new MessageImpl();
+            Exchange exchange = new ExchangeImpl();
+            exchange.setOutMessage(message);
+            conduit.prepare(message);
+            OutputStream out = message.getContent(OutputStream.class);
+            try {
+                out.write("Hola!".getBytes());
+                out.close();
+                fail("The connection should have been refused");
+            } catch (IOException e) {
+                // expected
+            } finally {
+                conduit.close();
+            }
+        } finally {
+            bus.shutdown(true);
+        }
+    }
 }
@@ -31,6 +31,7 @@ import org.apache.cxf.management.ManagedComponent;
 import org.apache.cxf.management.annotation.ManagedAttribute;
 import org.apache.cxf.management.annotation.ManagedOperation;
 import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.ws.rm.soap.RetransmissionQueueImpl;
 
 /**
  * The ManagedRMManager is a JMX managed bean for RMManager.
@@ -78,6 +79,35 @@ public class ManagedRMManager implements ManagedComponent {
         return manager.getRetransmissionQueue().countUnacknowledged();
     }
 
+    @ManagedAttribute(description = "Number of Outbound Messages Due for Retransmission", currencyTimeLimit = 10)
+    public int getPendingResendsCount() {
+        RetransmissionQueueImpl rq = getRetransmissionQueueImpl();
+        return rq == null ? 0 : rq.countPendingResends();
+    }
+
+    @ManagedAttribute(description = "Total Number of Retransmissions", currencyTimeLimit = 10)
+    public long getResendCount() {
+        RetransmissionQueueImpl rq = getRetransmissionQueueImpl();
+        return rq == null ? 0 : rq.getResendCount();
+    }
+
+    @ManagedAttribute(description = "Average Retransmission Latency in Milliseconds", currencyTimeLimit = 10)
+    public long getAverageResendLatency() {
+        RetransmissionQueueImpl rq = getRetransmissionQueueImpl();
+        return rq == null ? 0 : rq.getAverageResendLatency();
+    }
+
+    @ManagedAttribute(description = "Maximum Retransmission Latency in Milliseconds", currencyTimeLimit = 10)
+    public long getMaxResendLatency() {
+        RetransmissionQueueImpl rq = getRetransmissionQueueImpl();
+        return rq == null ? 0 : rq.getMaxResendLatency();
+    }
+
+    private RetransmissionQueueImpl getRetransmissionQueueImpl() {
+        RetransmissionQueue rq = manager.getRetransmissionQueue();
+        return rq instanceof RetransmissionQueueImpl ? (RetransmissionQueueImpl)rq : null;
+    }
+
 
 //    @ManagedAttribute(description = "Total Number of Inbound Queued Messages", currencyTimeLimit = 10)
 //    public int getQueuedMessagesInboundCount() {
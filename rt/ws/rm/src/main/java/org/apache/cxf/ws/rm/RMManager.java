@@ -26,6 +26,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Timer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -113,6 +117,9 @@ public class RMManager {
     private RetransmissionQueue retransmissionQueue;
     private Map<Endpoint, RMEndpoint> reliableEndpoints = new ConcurrentHashMap<Endpoint, RMEndpoint>();
     private AtomicReference<Timer> timer = new AtomicReference<Timer>();
+    private AtomicReference<ScheduledExecutorService> retransmissionExecutor = 
+        new AtomicReference<ScheduledExecutorService>();
+    private int retransmissionThreads = 1;
     private RMConfiguration configuration;
     private SourcePolicyType sourcePolicy;
     private DestinationPolicyType destinationPolicy;
@@ -206,6 +213,50 @@ public class RMManager {
         return getTimer(true);
     }
 
+    private ScheduledExecutorService getRetransmissionExecutor(boolean create) {
+        ScheduledExecutorService ret = retransmissionExecutor.get();
+        if (ret == null && create) {
+            final String prefix = "RMManager-Resender-" + System.identityHashCode(this) + "-";
+            ScheduledThreadPoolExecutor newe = new ScheduledThreadPoolExecutor(retransmissionThreads, 
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, prefix + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            // cancelled resends (i.e. acknowledged messages) must not linger in the work queue
+            newe.setRemoveOnCancelPolicy(true);
+            if (!retransmissionExecutor.compareAndSet(null, newe)) {
+                newe.shutdownNow();
+            }
+        }
+        return retransmissionExecutor.get();
+    }
+
+    /**
+     * Returns the executor used to schedule retransmissions. Unlike the single {@link #getTimer()}
+     * thread, the pool size can be raised via {@link #setRetransmissionThreads(int)} when many
+     * sequences with large numbers of unacknowledged messages are active.
+     * 
+     * @return the retransmission scheduler
+     */
+    public ScheduledExecutorService getRetransmissionExecutor() {
+        return getRetransmissionExecutor(true);
+    }
+
+    public int getRetransmissionThreads() {
+        return retransmissionThreads;
+    }
+
+    /**
+     * @param threads the number of threads used to schedule retransmissions (default 1)
+     */
+    public void setRetransmissionThreads(int threads) {
+        retransmissionThreads = threads;
+    }
+
     public BindingFaultFactory getBindingFaultFactory(Binding binding) {
         return new SoapFaultFactory(binding);
     }
@@ -506,6 +557,10 @@ public class RMManager {
             t.purge();
             t.cancel();
         }
+        ScheduledExecutorService ses = getRetransmissionExecutor(false);
+        if (ses != null) {
+            ses.shutdownNow();
+        }
 
         // unregistring of this managed bean from the server is done by the bus itself
     }
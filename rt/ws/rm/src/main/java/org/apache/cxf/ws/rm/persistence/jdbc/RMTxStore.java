@@ -36,9 +36,15 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -52,6 +58,7 @@ import org.apache.cxf.common.injection.NoJSR250Annotations;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.SystemPropertyAction;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.cxf.ws.rm.AbstractSequence;
 import org.apache.cxf.ws.rm.DestinationSequence;
 import org.apache.cxf.ws.rm.ProtocolVariation;
 import org.apache.cxf.ws.rm.RMUtils;
@@ -220,6 +227,17 @@ public class RMTxStore implements RMStore {
     
     private String tableExistsState = DERBY_TABLE_EXISTS_STATE;
     private int tableExistsCode = ORACLE_TABLE_EXISTS_CODE;
+
+    // idle connections kept for reuse when the connection is not held by the store
+    private int maxIdleConnections;
+    private BlockingQueue<Connection> idleConnections;
+
+    // group commit of persistIncoming/persistOutgoing
+    private boolean groupCommit;
+    private int groupCommitMaxBatchSize = 64;
+    private long groupCommitDelay;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<PendingWrite>();
+    private final Lock groupCommitLock = new ReentrantLock();
     
     public RMTxStore() {
     }
@@ -233,6 +251,17 @@ public class RMTxStore implements RMStore {
             }
             connection = null;
         }
+        if (idleConnections != null) {
+            Connection con = idleConnections.poll();
+            while (con != null) {
+                try {
+                    con.close();
+                } catch (SQLException e) {
+                    //ignore
+                }
+                con = idleConnections.poll();
+            }
+        }
     }
     
     // configuration
@@ -330,6 +359,55 @@ public class RMTxStore implements RMStore {
         this.maxReconnectAttempts = maxReconnectAttempts;
     }
 
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    /**
+     * Sets the number of connections which are pooled for reuse when the connection is
+     * not kept by the store. The default value of 0 closes each connection after use.
+     * 
+     * @param maxIdleConnections the maximum number of idle connections
+     */
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public boolean isGroupCommit() {
+        return groupCommit;
+    }
+
+    /**
+     * Enables group commit: the updates issued through persistIncoming and persistOutgoing by
+     * concurrent threads are gathered into JDBC batches which are committed in a single transaction.
+     * Each call still returns only after the transaction including its update has been committed.
+     * 
+     * @param groupCommit true to enable group commit
+     */
+    public void setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public int getGroupCommitMaxBatchSize() {
+        return groupCommitMaxBatchSize;
+    }
+
+    public void setGroupCommitMaxBatchSize(int groupCommitMaxBatchSize) {
+        this.groupCommitMaxBatchSize = groupCommitMaxBatchSize;
+    }
+
+    public long getGroupCommitDelay() {
+        return groupCommitDelay;
+    }
+
+    /**
+     * @param groupCommitDelay the time in milliseconds a committing thread waits for further updates 
+     * to join its batch (default 0)
+     */
+    public void setGroupCommitDelay(long groupCommitDelay) {
+        this.groupCommitDelay = groupCommitDelay;
+    }
+
     public void setConnection(Connection c) {
         connection = c;
         createdConnection = false;
@@ -657,6 +735,10 @@ public class RMTxStore implements RMStore {
     }
     
     public void persistIncoming(DestinationSequence seq, RMMessage msg) {        
+        if (groupCommit) {
+            persistGrouped(new PendingWrite(seq, msg, false));
+            return;
+        }
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -682,6 +764,10 @@ public class RMTxStore implements RMStore {
         }
     }
     public void persistOutgoing(SourceSequence seq, RMMessage msg) {
+        if (groupCommit) {
+            persistGrouped(new PendingWrite(seq, msg, true));
+            return;
+        }
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -742,6 +828,255 @@ public class RMTxStore implements RMStore {
         }
     }
     
+    // group commit
+    //
+
+    /**
+     * Queues the write and waits until a transaction including it has been committed. The thread
+     * which obtains the commit lock writes all queued updates in one transaction on behalf of the
+     * waiting threads.
+     */
+    protected void persistGrouped(PendingWrite write) {
+        pendingWrites.add(write);
+        if (groupCommitDelay > 0) {
+            // wait for further updates without holding the lock so that a commit in progress 
+            // is not delayed 
+            try {
+                TimeUnit.MILLISECONDS.sleep(groupCommitDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        groupCommitLock.lock();
+        try {
+            while (!write.done) {
+                commitPendingWrites();
+            }
+        } finally {
+            groupCommitLock.unlock();
+        }
+        if (write.failure != null) {
+            throw write.failure;
+        }
+    }
+
+    /**
+     * Writes up to groupCommitMaxBatchSize queued updates in a single transaction.
+     * Every update taken from the queue is completed, with the failure if the transaction
+     * could not be committed.
+     * @pre called with the group commit lock held
+     */
+    protected void commitPendingWrites() {
+        Connection con = null;
+        RuntimeException failure = null;
+        try {
+            con = verifyConnection();
+            if (con == null) {
+                failure = new RMStoreException(new Message("CONNECT_EXC", LOG));
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+        List<PendingWrite> writes = pollPendingWrites();
+        if (writes.isEmpty() || failure != null) {
+            completePendingWrites(writes, failure);
+            if (con != null && connection == null) {
+                // release the unused pooled connection
+                updateConnectionState(con, null);
+            }
+            return;
+        }
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "Committing {0} queued updates", writes.size());
+        }
+
+        // only the latest state of each sequence needs to be written
+        Map<String, DestinationSequence> dss = new LinkedHashMap<String, DestinationSequence>();
+        Map<String, SourceSequence> sss = new LinkedHashMap<String, SourceSequence>();
+        List<PendingWrite> inbound = new ArrayList<PendingWrite>();
+        List<PendingWrite> outbound = new ArrayList<PendingWrite>();
+        for (PendingWrite w : writes) {
+            String id = w.seq.getIdentifier().getValue();
+            if (w.outbound) {
+                sss.put(id, (SourceSequence)w.seq);
+            } else {
+                dss.put(id, (DestinationSequence)w.seq);
+            }
+            if (w.msg != null && w.msg.getContent() != null) {
+                (w.outbound ? outbound : inbound).add(w);
+            }
+        }
+
+        SQLException conex = null;
+        boolean committed = false;
+        try {
+            beginTransaction();
+            
+            updateDestinationSequences(con, dss.values());
+            updateSourceSequences(con, sss.values());
+            storeMessages(con, inbound, false);
+            storeMessages(con, outbound, true);
+            
+            commit(con);
+            committed = true;
+        } catch (SQLException ex) {
+            conex = ex;
+            abort(con);
+            failure = new RMStoreException(ex);
+        } catch (IOException ex) {
+            abort(con);
+            failure = new RMStoreException(ex);
+        } catch (RuntimeException ex) {
+            abort(con);
+            failure = ex;
+        } finally {
+            if (!committed && failure == null) {
+                // an Error is propagated to the committing thread only
+                failure = new RMStoreException(new Message("GROUP_COMMIT_FAILED_MSG", LOG));
+            }
+            try {
+                updateConnectionState(con, conex);
+            } finally {
+                completePendingWrites(writes, failure);
+            }
+        }
+    }
+
+    private List<PendingWrite> pollPendingWrites() {
+        List<PendingWrite> writes = new ArrayList<PendingWrite>();
+        PendingWrite write = pendingWrites.poll();
+        while (write != null) {
+            writes.add(write);
+            if (writes.size() >= groupCommitMaxBatchSize) {
+                break;
+            }
+            write = pendingWrites.poll();
+        }
+        return writes;
+    }
+
+    private static void completePendingWrites(List<PendingWrite> writes, RuntimeException failure) {
+        for (PendingWrite w : writes) {
+            w.failure = failure;
+            w.done = true;
+        }
+    }
+
+    protected void updateDestinationSequences(Connection con, Collection<DestinationSequence> seqs) 
+        throws SQLException, IOException {
+        if (seqs.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        try {
+            stmt = getStatement(con, UPDATE_DEST_SEQUENCE_STMT_STR);
+            for (DestinationSequence seq : seqs) {
+                stmt.setLong(1, seq.getLastMessageNumber()); 
+                InputStream is = PersistenceUtils.getInstance().serialiseAcknowledgment(seq.getAcknowledgment());
+                stmt.setBinaryStream(2, is, is.available()); 
+                stmt.setString(3, seq.getIdentifier().getValue());
+                stmt.addBatch();
+            }
+            executeBatch(stmt);
+        } finally {
+            releaseResources(stmt, null);
+        }
+    }
+
+    protected void updateSourceSequences(Connection con, Collection<SourceSequence> seqs) 
+        throws SQLException {
+        if (seqs.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        try {
+            stmt = getStatement(con, UPDATE_SRC_SEQUENCE_STMT_STR);
+            for (SourceSequence seq : seqs) {
+                stmt.setLong(1, seq.getCurrentMessageNr()); 
+                stmt.setString(2, seq.isLastMessage() ? "1" : "0"); 
+                stmt.setString(3, seq.getIdentifier().getValue());
+                stmt.addBatch();
+            }
+            executeBatch(stmt);
+        } finally {
+            releaseResources(stmt, null);
+        }
+    }
+
+    protected void storeMessages(Connection con, List<PendingWrite> writes, boolean outbound) 
+        throws IOException, SQLException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt1 = null;
+        PreparedStatement stmt2 = null;
+        try {
+            stmt1 = getStatement(con, outbound ? CREATE_OUTBOUND_MESSAGE_STMT_STR : CREATE_INBOUND_MESSAGE_STMT_STR);
+            int attachmentCount = 0;
+            for (PendingWrite w : writes) {
+                String id = w.seq.getIdentifier().getValue();
+                stmt1.setString(1, id);  
+                stmt1.setLong(2, w.msg.getMessageNumber());
+                stmt1.setString(3, w.msg.getTo()); 
+                stmt1.setBinaryStream(4, w.msg.getContent());
+                stmt1.addBatch();
+
+                List<InputStream> attachments = w.msg.getAttachments();
+                if (attachments.size() > 0) {
+                    if (stmt2 == null) {
+                        stmt2 = getStatement(con, outbound
+                            ? CREATE_OUTBOUND_ATTACHMENT_STMT_STR : CREATE_INBOUND_ATTACHMENT_STMT_STR);
+                    }
+                    for (int i = 0; i < attachments.size(); i++) {
+                        stmt2.setString(1, id);
+                        stmt2.setLong(2, w.msg.getMessageNumber());
+                        stmt2.setLong(3, i);
+                        stmt2.setBinaryStream(4, attachments.get(i));
+                        stmt2.addBatch();
+                        attachmentCount++;
+                    }
+                }
+            }
+            executeBatch(stmt1);
+            if (stmt2 != null) {
+                executeBatch(stmt2);
+            }
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.log(Level.FINE, "Successfully stored {0} {1} messages with {2} attachments",
+                        new Object[] {writes.size(), outbound ? "outbound" : "inbound", attachmentCount});
+            }
+        } finally {
+            releaseResources(stmt1, null);
+            releaseResources(stmt2, null);
+        }
+    }
+
+    private static void executeBatch(PreparedStatement stmt) throws SQLException {
+        try {
+            stmt.executeBatch();
+        } finally {
+            // cached statements are reused, so never leave a half executed batch behind
+            stmt.clearBatch();
+        }
+    }
+
+    /**
+     * An update queued for group commit.
+     */
+    protected static class PendingWrite {
+        private final AbstractSequence seq;
+        private final RMMessage msg;
+        private final boolean outbound;
+        private volatile boolean done;
+        private volatile RuntimeException failure;
+
+        PendingWrite(AbstractSequence seq, RMMessage msg, boolean outbound) {
+            this.seq = seq;
+            this.msg = msg;
+            this.outbound = outbound;
+        }
+    }
+
     // transaction demarcation
     // 
 
@@ -1149,6 +1484,9 @@ public class RMTxStore implements RMStore {
         if (keepConnection && connection == null) {
             connection = createConnection();
         }
+        if (!keepConnection && maxIdleConnections > 0 && idleConnections == null) {
+            idleConnections = new ArrayBlockingQueue<Connection>(maxIdleConnections);
+        }
         
         try {
             if (connection != null && schemaName != null) {
@@ -1209,8 +1547,11 @@ public class RMTxStore implements RMStore {
     protected Connection verifyConnection() {
         Connection con;
         if (connection == null) {
-            // return a new connection
-            con = createConnection();
+            // return a pooled or new connection
+            con = idleConnections == null ? null : idleConnections.poll();
+            if (con == null) {
+                con = createConnection();
+            }
         } else {
             // return the cached connection or create and cache a new one if the old one is dead  
             synchronized (this) {
@@ -1237,7 +1578,10 @@ public class RMTxStore implements RMStore {
 
     protected void updateConnectionState(Connection con, SQLException e) {
         if (connection == null) {
-            // close the locally created connection
+            // pool or close the locally created connection
+            if (e == null && idleConnections != null && idleConnections.offer(con)) {
+                return;
+            }
             try {
                 con.close();
             } catch (SQLException ex) {
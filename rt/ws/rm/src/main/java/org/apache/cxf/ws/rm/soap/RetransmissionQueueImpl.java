@@ -28,10 +28,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -100,23 +108,36 @@ import org.apache.cxf.ws.rm.v200702.SequenceType;
 import org.apache.cxf.ws.rmp.v200502.RMAssertion;
 
 /**
- * 
+ * Retransmission queue for SOAP messages. Candidates are kept per sequence, with the sequence lists
+ * guarded by a striped lock so that unrelated sequences do not contend. Resends are scheduled on the
+ * {@link RMManager#getRetransmissionExecutor()} and coalesced per destination address, so that all
+ * candidates falling due for the same target are resent by a single executor task.
  */
 public class RetransmissionQueueImpl implements RetransmissionQueue {
 
     private static final Logger LOG = LogUtils.getL7dLogger(RetransmissionQueueImpl.class);
+    private static final int LOCK_STRIPES = 32;
+    private static final String ANONYMOUS_DESTINATION = "";
 
     private Map<String, List<ResendCandidate>> candidates = 
-        new HashMap<String, List<ResendCandidate>>();
+        new ConcurrentHashMap<String, List<ResendCandidate>>();
     private Map<String, List<ResendCandidate>> suspendedCandidates = 
-        new HashMap<String, List<ResendCandidate>>();
+        new ConcurrentHashMap<String, List<ResendCandidate>>();
+    private final ConcurrentHashMap<String, ResendBatch> batches = new ConcurrentHashMap<String, ResendBatch>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
     private Resender resender;
     private RMManager manager;
 
-    private int unacknowledgedCount;
+    private final AtomicInteger unacknowledgedCount = new AtomicInteger();
+    private final AtomicLong resendCount = new AtomicLong();
+    private final AtomicLong totalResendLatency = new AtomicLong();
+    private final AtomicLong maxResendLatency = new AtomicLong();
     
     public RetransmissionQueueImpl(RMManager m) {
         manager = m;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
     }
 
     public RMManager getManager() {
@@ -135,20 +156,66 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
      * @param seq the sequence under consideration
      * @return the number of unacknowledged messages for that sequence
      */
-    public synchronized int countUnacknowledged(SourceSequence seq) {
-        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        return sequenceCandidates == null ? 0 : sequenceCandidates.size();
+    public int countUnacknowledged(SourceSequence seq) {
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
+            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
+            return sequenceCandidates == null ? 0 : sequenceCandidates.size();
+        }
     }
 
     public int countUnacknowledged() {
-        return unacknowledgedCount;
+        return unacknowledgedCount.get();
     }
 
     /**
      * @return true if there are no unacknowledged messages in the queue
      */
     public boolean isEmpty() {
-        return 0 == getUnacknowledged().size();
+        return getUnacknowledged().isEmpty();
+    }
+
+    /**
+     * @return the number of resends which are due but still waiting to be executed
+     */
+    public int countPendingResends() {
+        int count = 0;
+        for (ResendBatch batch : batches.values()) {
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of resends performed by this queue
+     */
+    public long getResendCount() {
+        return resendCount.get();
+    }
+
+    /**
+     * @return the average time in milliseconds between a resend falling due and its completion
+     */
+    public long getAverageResendLatency() {
+        long count = resendCount.get();
+        return count == 0 ? 0 : totalResendLatency.get() / count;
+    }
+
+    /**
+     * @return the maximum time in milliseconds between a resend falling due and its completion
+     */
+    public long getMaxResendLatency() {
+        return maxResendLatency.get();
+    }
+
+    private void recordResend(long due) {
+        long latency = Math.max(0, System.currentTimeMillis() - due);
+        resendCount.incrementAndGet();
+        totalResendLatency.addAndGet(latency);
+        long max = maxResendLatency.get();
+        while (latency > max && !maxResendLatency.compareAndSet(max, latency)) {
+            max = maxResendLatency.get();
+        }
     }
 
     /**
@@ -175,7 +242,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         Collection<Long> purged = new ArrayList<Long>();
         Collection<ResendCandidate> resends = new ArrayList<ResendCandidate>();
         Identifier sid = seq.getIdentifier();
-        synchronized (this) {
+        synchronized (getLock(sid.getValue())) {
             LOG.fine("Start purging resend candidates.");
             List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
             if (null != sequenceCandidates) {
@@ -185,7 +252,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                     if (any || seq.isAcknowledged(m)) {
                         sequenceCandidates.remove(i);
                         candidate.resolved();
-                        unacknowledgedCount--;
+                        unacknowledgedCount.decrementAndGet();
                         purged.add(m);
                         resends.add(candidate);
                     }
@@ -210,23 +277,29 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
 
     public List<Long> getUnacknowledgedMessageNumbers(SourceSequence seq) {
         List<Long> unacknowledged = new ArrayList<Long>();
-        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                unacknowledged.add(candidate.getNumber());
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
+            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
+            if (null != sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    unacknowledged.add(candidate.getNumber());
+                }
             }
         }
         return unacknowledged;
     }
     
     public RetryStatus getRetransmissionStatus(SourceSequence seq, long num) {
-        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                if (num == candidate.getNumber()) {
-                    return candidate;
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
+            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
+            if (null != sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    if (num == candidate.getNumber()) {
+                        return candidate;
+                    }
                 }
             }
         }
@@ -235,11 +308,14 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     
     public Map<Long, RetryStatus> getRetransmissionStatuses(SourceSequence seq) {
         Map<Long, RetryStatus> cp = new HashMap<Long, RetryStatus>();
-        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                cp.put(candidate.getNumber(), candidate);
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
+            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
+            if (null != sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    cp.put(candidate.getNumber(), candidate);
+                }
             }
         }
         return cp;
@@ -263,7 +339,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
      * Stops resending messages for the specified source sequence.
      */
     public void stop(SourceSequence seq) {
-        synchronized (this) {
+        synchronized (getLock(seq.getIdentifier().getValue())) {
             List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
             if (null != sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
@@ -280,8 +356,8 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     }
     
     public void suspend(SourceSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
             List<ResendCandidate> sequenceCandidates = candidates.remove(key);
             if (null != sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
@@ -295,8 +371,8 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     }
     
     public void resume(SourceSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
+        String key = seq.getIdentifier().getValue();
+        synchronized (getLock(key)) {
             List<ResendCandidate> sequenceCandidates = suspendedCandidates.remove(key);
             if (null != sequenceCandidates) {
                 for (int i = 0; i < sequenceCandidates.size(); i++) {
@@ -338,7 +414,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         
         ResendCandidate candidate = null;
         
-        synchronized (this) {
+        synchronized (getLock(key)) {
             List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
             if (null == sequenceCandidates) {
                 sequenceCandidates = new ArrayList<ResendCandidate>();
@@ -349,7 +425,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                 candidate.suspend();
             }
             sequenceCandidates.add(candidate);
-            unacknowledgedCount++;
+            unacknowledgedCount.incrementAndGet();
         }
         LOG.fine("Cached unacknowledged message.");
         try {
@@ -372,7 +448,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     /**
      * @param seq the sequence under consideration
      * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @pre called with the sequence lock held
      */
     protected List<ResendCandidate> getSequenceCandidates(SourceSequence seq) {
         return getSequenceCandidates(seq.getIdentifier().getValue());
@@ -381,7 +457,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     /**
      * @param key the sequence identifier under consideration
      * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @pre called with the sequence lock held
      */
     protected List<ResendCandidate> getSequenceCandidates(String key) {
         List<ResendCandidate> sc = candidates.get(key);
@@ -394,12 +470,69 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     /**
      * @param key the sequence identifier under consideration
      * @return true if the sequence is currently suspended; false otherwise
-     * @pre called with mutex held
+     * @pre called with the sequence lock held
      */
     protected boolean isSequenceSuspended(String key) {
         return suspendedCandidates.containsKey(key);
     }
 
+    /**
+     * @param key the sequence identifier under consideration
+     * @return the lock guarding the candidate list of that sequence
+     */
+    protected Object getLock(String key) {
+        return locks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private ResendBatch getResendBatch(String destination) {
+        ResendBatch batch = batches.get(destination);
+        if (batch == null) {
+            batch = new ResendBatch();
+            ResendBatch existing = batches.putIfAbsent(destination, batch);
+            if (existing != null) {
+                batch = existing;
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Collects the resend candidates which fell due for a single destination, so that they are
+     * resent one after the other by one executor task instead of a task per message.
+     */
+    private static final class ResendBatch implements Runnable {
+        private final Queue<ResendCandidate> queue = new ConcurrentLinkedQueue<ResendCandidate>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void add(ResendCandidate candidate, Executor executor) {
+            queue.add(candidate);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    // leave the candidates queued, the next one falling due will retry the hand over
+                    scheduled.set(false);
+                    LOG.log(Level.SEVERE, "RESEND_INITIATION_FAILED_MSG", ex);
+                }
+            }
+        }
+
+        int size() {
+            return queue.size();
+        }
+
+        public void run() {
+            do {
+                ResendCandidate candidate = queue.poll();
+                while (candidate != null) {
+                    candidate.run();
+                    candidate = queue.poll();
+                }
+                scheduled.set(false);
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+
     /**
      * Represents a candidate for resend, i.e. an unacked outgoing message.
      */
@@ -407,7 +540,9 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         private Message message;
         private long number;
         private Date next;
-        private TimerTask nextTask;
+        private long due;
+        private String destination = ANONYMOUS_DESTINATION;
+        private ScheduledFuture<?> nextTask;
         private int retries;
         private int maxRetries;
         private long nextInterval;
@@ -441,11 +576,14 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                 LOG.log(Level.INFO, "Cannot resend to anonymous target.  Not scheduling a resend.");
                 return;
             }
+            if (to != null && to.getValue() != null) {
+                destination = to.getValue();
+            }
             RMProperties rmprops = RMContextUtils.retrieveRMProperties(message, true);
             if (null != rmprops) {
                 number = rmprops.getSequence().getMessageNumber();
             }
-            if (null != manager.getTimer() && maxRetries != 0) {
+            if (null != manager.getRetransmissionExecutor() && maxRetries != 0) {
                 schedule();
             }
         }
@@ -458,7 +596,10 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
          */
         protected void initiate(boolean requestAcknowledge) {
             includeAckRequested = requestAcknowledge;
-            pending = true;
+            synchronized (this) {
+                pending = true;
+                due = null == next ? System.currentTimeMillis() : next.getTime();
+            }
             Endpoint ep = message.getExchange().getEndpoint();
             Executor executor = ep.getExecutor();
             if (null == executor) {
@@ -472,11 +613,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                 LOG.log(Level.FINE, "Using endpoint executor {0}", executor.getClass().getName());
             }
             
-            try {
-                executor.execute(this);
-            } catch (RejectedExecutionException ex) {
-                LOG.log(Level.SEVERE, "RESEND_INITIATION_FAILED_MSG", ex);
-            }
+            getResendBatch(destination).add(this, executor);
         }
 
         public void run() {
@@ -486,6 +623,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                 if (isPending()) {
                     resender.resend(message, includeAckRequested);
                     includeAckRequested = false;
+                    recordResend(due);
                 }
             } finally {
                 attempted();
@@ -553,7 +691,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
             pending = false;
             next = null;
             if (null != nextTask) {
-                nextTask.cancel();
+                nextTask.cancel(false);
                 releaseSavedMessage();
             }
         }
@@ -563,7 +701,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
          */
         protected synchronized void cancel() {
             if (null != nextTask) {
-                nextTask.cancel();
+                nextTask.cancel(false);
                 releaseSavedMessage();
             }
         }
@@ -574,7 +712,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
             //TODO release the message and later reload it upon resume
             //cancel();
             if (null != nextTask) {
-                nextTask.cancel();
+                nextTask.cancel(false);
             }
         }
 
@@ -612,27 +750,27 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         }
 
         protected final synchronized void schedule() {
-            if (null == manager.getTimer()) {
+            ScheduledExecutorService ses = manager.getRetransmissionExecutor();
+            if (null == ses) {
                 return;
             }
-            class ResendTask extends TimerTask {
+            class ResendTask implements Runnable {
                 ResendCandidate candidate;
 
                 ResendTask(ResendCandidate c) {
                     candidate = c;
                 }
 
-                @Override
                 public void run() {
                     if (!candidate.isPending()) {
                         candidate.initiate(includeAckRequested);
                     }
                 }
             }
-            nextTask = new ResendTask(this);
+            long delay = Math.max(0, next.getTime() - System.currentTimeMillis());
             try {
-                manager.getTimer().schedule(nextTask, next);
-            } catch (IllegalStateException ex) {
+                nextTask = ses.schedule(new ResendTask(this), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
                 LOG.log(Level.WARNING, "SCHEDULE_RESEND_FAILED_MSG", ex);
             }
         }
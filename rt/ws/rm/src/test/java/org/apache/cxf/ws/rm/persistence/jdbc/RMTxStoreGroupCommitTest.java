@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm.persistence.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.ws.rm.ProtocolVariation;
+import org.apache.cxf.ws.rm.SourceSequence;
+import org.apache.cxf.ws.rm.persistence.RMMessage;
+import org.apache.cxf.ws.rm.persistence.RMStoreException;
+import org.apache.cxf.ws.rm.v200702.Identifier;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the store tests with group commit enabled and pooled connections.
+ */
+public class RMTxStoreGroupCommitTest extends RMTxStoreTestBase {
+    private static final int THREADS = 8;
+    private static final int MESSAGES_PER_THREAD = 25;
+
+    @BeforeClass 
+    public static void setUpOnce() {
+        RMTxStoreTestBase.setUpOnce();
+        
+        RMTxStore.deleteDatabaseFiles("rmdbgc", true);
+
+        store = new RMTxStore();
+        store.setUrl("jdbc:derby:rmdbgc;create=true");
+        store.setKeepConnection(false);
+        store.setMaxIdleConnections(4);
+        store.setGroupCommit(true);
+        store.setGroupCommitMaxBatchSize(16);
+        store.init();
+    }
+    
+    @AfterClass
+    public static void tearDownOnce() {
+        store.destroy();
+        RMTxStore.deleteDatabaseFiles("rmdbgc", false);
+    }
+
+    @Test
+    public void testConcurrentPersistOutgoing() throws Exception {
+        final Identifier sid = new Identifier();
+        sid.setValue("groupCommitSequence");
+        final SourceSequence seq = new SourceSequence(sid, ProtocolVariation.RM10WSA200408);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t * MESSAGES_PER_THREAD;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        for (int i = 1; i <= MESSAGES_PER_THREAD; i++) {
+                            RMMessage msg = new RMMessage();
+                            msg.setMessageNumber(offset + i);
+                            msg.setContent(new ByteArrayInputStream(("Message " + (offset + i)).getBytes()));
+                            store.persistOutgoing(seq, msg);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : results) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Collection<RMMessage> msgs = store.getMessages(sid, true);
+        assertEquals(THREADS * MESSAGES_PER_THREAD, msgs.size());
+
+        Collection<Long> msgNrs = new ArrayList<Long>();
+        for (RMMessage msg : msgs) {
+            msgNrs.add(msg.getMessageNumber());
+        }
+        store.removeMessages(sid, msgNrs, true);
+        assertEquals(0, store.getMessages(sid, true).size());
+    }
+
+    @Test
+    public void testFailedCommitCompletesAllWrites() throws Exception {
+        RMTxStore failingStore = new RMTxStore() {
+            @Override
+            protected Connection verifyConnection() {
+                return store.verifyConnection();
+            }
+            @Override
+            protected void updateSourceSequences(Connection con, Collection<SourceSequence> seqs) {
+                throw new IllegalStateException("update failed");
+            }
+        };
+        failingStore.setGroupCommit(true);
+        failingStore.setGroupCommitDelay(20);
+        
+        List<Future<Void>> results = persistConcurrently(failingStore, "failingSequence");
+        for (Future<Void> f : results) {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+                fail("Expected the failure to be reported to every caller");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testNoConnection() throws Exception {
+        RMTxStore noConnectionStore = new RMTxStore() {
+            @Override
+            protected Connection verifyConnection() {
+                return null;
+            }
+        };
+        noConnectionStore.setGroupCommit(true);
+        
+        List<Future<Void>> results = persistConcurrently(noConnectionStore, "noConnectionSequence");
+        for (Future<Void> f : results) {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+                fail("Expected RMStoreException");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RMStoreException);
+            }
+        }
+    }
+
+    private static List<Future<Void>> persistConcurrently(final RMTxStore s, String sequenceId) {
+        Identifier sid = new Identifier();
+        sid.setValue(sequenceId);
+        final SourceSequence seq = new SourceSequence(sid, ProtocolVariation.RM10WSA200408);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int nr = t + 1;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        RMMessage msg = new RMMessage();
+                        msg.setMessageNumber(nr);
+                        msg.setContent(new ByteArrayInputStream(("Message " + nr).getBytes()));
+                        s.persistOutgoing(seq, msg);
+                        return null;
+                    }
+                }));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    protected Connection getConnection() {
+        return store.verifyConnection();
+    }
+
+    @Override
+    protected void releaseConnection(Connection con) {
+        if (con != null) {
+            try {
+                con.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@ import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.ws.rm.RMConfiguration;
 import org.apache.cxf.ws.rm.RMEndpoint;
@@ -351,6 +353,40 @@ public class RetransmissionQueueImplTest extends Assert {
                      queue.countUnacknowledged(sequence));
     }
     
+    @Test
+    public void testResendsCoalescedPerDestination() {
+        SoapMessage message1 = createMock(SoapMessage.class);
+        setupMessagePolicies(message1);
+        SoapMessage message2 = createMock(SoapMessage.class);
+        setupMessagePolicies(message2);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor collector = new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        setupExecutor(message1, collector);
+        setupExecutor(message2, collector);
+        ready(true);
+
+        RetransmissionQueueImpl.ResendCandidate candidate1 = queue.createResendCandidate(message1);
+        RetransmissionQueueImpl.ResendCandidate candidate2 = queue.createResendCandidate(message2);
+        candidate1.initiate(false);
+        candidate2.initiate(true);
+        assertEquals("expected a single resend task", 1, tasks.size());
+        assertEquals(2, queue.countPendingResends());
+
+        tasks.get(0).run();
+        assertEquals(0, queue.countPendingResends());
+        assertEquals(2, resender.count);
+        assertSame(message2, resender.message);
+        assertEquals(2, queue.getResendCount());
+        assertTrue(queue.getMaxResendLatency() >= queue.getAverageResendLatency());
+        assertEquals(1, candidate1.getRetries());
+        assertEquals(1, candidate2.getRetries());
+        assertTrue(!candidate1.isPending() && !candidate2.isPending());
+    }
+
     @Test
     public void testStartStop() {
         control.replay();
@@ -378,6 +414,14 @@ public class RetransmissionQueueImplTest extends Assert {
         cfg.setExponentialBackoff(true);
     }
     
+    private void setupExecutor(Message message, Executor ex) {
+        Exchange exchange = createMock(Exchange.class);
+        EasyMock.expect(message.getExchange()).andReturn(exchange).anyTimes();
+        Endpoint ep = createMock(Endpoint.class);
+        EasyMock.expect(exchange.getEndpoint()).andReturn(ep).anyTimes();
+        EasyMock.expect(ep.getExecutor()).andReturn(ex).anyTimes();
+    }
+
     private void setupRetryPolicy(Message message) {
 
         SourcePolicyType spt = control.createMock(SourcePolicyType.class);
@@ -463,15 +507,18 @@ public class RetransmissionQueueImplTest extends Assert {
     static class TestResender implements RetransmissionQueueImpl.Resender {
         Message message;
         boolean includeAckRequested;
+        int count;
         
         public void resend(Message ctx, boolean requestAcknowledge) {
             message = ctx;
             includeAckRequested = requestAcknowledge;
+            count++;
         }
         
         void clear() {
             message = null;
             includeAckRequested = false;            
+            count = 0;
         }
     };
 }
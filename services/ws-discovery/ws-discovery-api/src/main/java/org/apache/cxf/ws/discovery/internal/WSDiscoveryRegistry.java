@@ -0,0 +1,324 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.discovery.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.ws.discovery.WSDVersion;
+import org.apache.cxf.ws.discovery.wsdl.HelloType;
+import org.apache.cxf.ws.discovery.wsdl.ProbeMatchType;
+import org.apache.cxf.ws.discovery.wsdl.ProbeType;
+
+/**
+ * Keeps the endpoints registered with the WSDiscoveryService along with inverted
+ * indexes from type QName and from scope (per matching rule) to endpoints, so a Probe
+ * only visits the endpoints that can actually match.  The indexes are maintained
+ * incrementally as endpoints are added and removed.  Each entry also holds the
+ * ProbeMatch built for it at registration time so replies don't rebuild it per probe.
+ */
+public class WSDiscoveryRegistry {
+    static final String MATCH_BY_RFC3986 = "/rfc3986";
+    static final String MATCH_BY_UUID = "/uuid";
+    static final String MATCH_BY_LDAP = "/ldap";
+    static final String MATCH_BY_STRCMP0 = "/strcmp0";
+    static final String MATCH_BY_NONE = "/none";
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<HelloType, Entry> entries = new LinkedHashMap<HelloType, Entry>();
+    private final Map<QName, Set<Entry>> byType = new HashMap<QName, Set<Entry>>();
+    private final Map<String, Set<Entry>> byUriPrefix = new HashMap<String, Set<Entry>>();
+    private final Map<String, Set<Entry>> byScope = new HashMap<String, Set<Entry>>();
+    private final Map<UUID, Set<Entry>> byUUID = new HashMap<UUID, Set<Entry>>();
+    private final Set<Entry> unscoped = new LinkedHashSet<Entry>();
+    
+    static final class Entry {
+        final HelloType hello;
+        final ProbeMatchType match;
+        final Set<QName> types;
+        final Set<String> scopes;
+        final Set<String> uriPrefixes = new LinkedHashSet<String>();
+        final Set<UUID> uuids = new LinkedHashSet<UUID>();
+        
+        Entry(HelloType ht) {
+            hello = ht;
+            types = new LinkedHashSet<QName>(ht.getTypes());
+            if (ht.getScopes() == null) {
+                scopes = Collections.emptySet();
+            } else {
+                scopes = new LinkedHashSet<String>(ht.getScopes().getValue());
+            }
+            for (String s : scopes) {
+                addUriPrefixes(s, uriPrefixes);
+                UUID uuid = toUUID(s);
+                if (uuid != null) {
+                    uuids.add(uuid);
+                }
+            }
+            
+            match = new ProbeMatchType();
+            match.setEndpointReference(ht.getEndpointReference());
+            match.setScopes(ht.getScopes());
+            match.setMetadataVersion(ht.getMetadataVersion());
+            match.getTypes().addAll(ht.getTypes());
+            match.getXAddrs().addAll(ht.getXAddrs());
+        }
+    }
+    
+    public void add(HelloType ht) {
+        Entry e = new Entry(ht);
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.put(ht, e);
+            if (old != null) {
+                unindex(old);
+            }
+            for (QName qn : e.types) {
+                index(byType, qn, e);
+            }
+            for (String s : e.uriPrefixes) {
+                index(byUriPrefix, s, e);
+            }
+            for (String s : e.scopes) {
+                index(byScope, s, e);
+            }
+            for (UUID u : e.uuids) {
+                index(byUUID, u, e);
+            }
+            if (e.scopes.isEmpty()) {
+                unscoped.add(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean remove(HelloType ht) {
+        lock.writeLock().lock();
+        try {
+            Entry e = entries.remove(ht);
+            if (e == null) {
+                return false;
+            }
+            unindex(e);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public List<HelloType> getRegistered() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<HelloType>(entries.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ProbeMatch of every endpoint matching the types and scopes of the probe,
+     * in registration order.
+     */
+    public List<ProbeMatchType> findMatches(ProbeType pt) {
+        lock.readLock().lock();
+        try {
+            List<Collection<Entry>> candidates = new ArrayList<Collection<Entry>>();
+            //ALL types in the probe must be in the registered type
+            if (pt.getTypes() != null) {
+                for (QName qn : pt.getTypes()) {
+                    candidates.add(lookup(byType, qn));
+                }
+            }
+            if (pt.getScopes() != null && !pt.getScopes().getValue().isEmpty()) {
+                String mb = getMatchBy(pt.getScopes().getMatchBy());
+                for (String ps : pt.getScopes().getValue()) {
+                    candidates.add(lookupScope(mb, ps));
+                }
+            }
+            
+            Collection<Entry> smallest = entries.values();
+            for (Collection<Entry> c : candidates) {
+                if (c.size() < smallest.size()) {
+                    smallest = c;
+                }
+            }
+            List<ProbeMatchType> matches = new ArrayList<ProbeMatchType>(smallest.size());
+            for (Entry e : smallest) {
+                boolean all = true;
+                for (Collection<Entry> c : candidates) {
+                    if (c != smallest && !c.contains(e)) {
+                        all = false;
+                        break;
+                    }
+                }
+                if (all) {
+                    matches.add(e.match);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Collection<Entry> lookupScope(String mb, String ps) {
+        if (MATCH_BY_RFC3986.equals(mb)) {
+            String key = toUriPrefix(ps);
+            return key == null ? Collections.<Entry>emptySet() : lookup(byUriPrefix, key);
+        } else if (MATCH_BY_UUID.equals(mb)) {
+            UUID uuid = toUUID(ps);
+            return uuid == null ? Collections.<Entry>emptySet() : lookup(byUUID, uuid);
+        } else if (MATCH_BY_STRCMP0.equals(mb)) {
+            return lookup(byScope, ps);
+        } else if (MATCH_BY_NONE.equals(mb)) {
+            return unscoped;
+        }
+        //LDAP and unknown rules are not supported
+        return Collections.emptySet();
+    }
+    
+    static String getMatchBy(String mb) {
+        if (mb == null) {
+            return MATCH_BY_RFC3986;
+        }
+        if (mb.startsWith(WSDVersion.NS_1_0)) {
+            return mb.substring(WSDVersion.NS_1_0.length());
+        } else if (mb.startsWith(WSDVersion.NS_1_1)) {
+            return mb.substring(WSDVersion.NS_1_1.length());
+        }
+        return mb;
+    }
+    
+    private void unindex(Entry e) {
+        for (QName qn : e.types) {
+            unindex(byType, qn, e);
+        }
+        for (String s : e.uriPrefixes) {
+            unindex(byUriPrefix, s, e);
+        }
+        for (String s : e.scopes) {
+            unindex(byScope, s, e);
+        }
+        for (UUID u : e.uuids) {
+            unindex(byUUID, u, e);
+        }
+        unscoped.remove(e);
+    }
+    
+    private static <K> void index(Map<K, Set<Entry>> index, K key, Entry e) {
+        Set<Entry> s = index.get(key);
+        if (s == null) {
+            s = new LinkedHashSet<Entry>();
+            index.put(key, s);
+        }
+        s.add(e);
+    }
+    private static <K> void unindex(Map<K, Set<Entry>> index, K key, Entry e) {
+        Set<Entry> s = index.get(key);
+        if (s != null && s.remove(e) && s.isEmpty()) {
+            index.remove(key);
+        }
+    }
+    private static <K> Collection<Entry> lookup(Map<K, Set<Entry>> index, K key) {
+        Set<Entry> s = index.get(key);
+        return s == null ? Collections.<Entry>emptySet() : s;
+    }
+    
+    /**
+     * RFC 3986 matching: scheme and authority compare case insensitively and the probe path
+     * segments must be a prefix of the target path segments.  A target is therefore indexed
+     * under every segment prefix of its path, and a probe scope looks up its full path.
+     */
+    private static void addUriPrefixes(String scope, Set<String> keys) {
+        URI uri = parseURI(scope);
+        if (uri == null || uri.getScheme() == null || uri.getAuthority() == null) {
+            return;
+        }
+        String base = uri.getScheme().toLowerCase(Locale.ENGLISH) + "://" 
+            + uri.getAuthority().toLowerCase(Locale.ENGLISH);
+        String[] path = StringUtils.split(uri.getPath(), "/");
+        StringBuilder b = new StringBuilder(base);
+        keys.add(b.toString());
+        for (String segment : path) {
+            b.append('/').append(segment);
+            keys.add(b.toString());
+        }
+    }
+    private static String toUriPrefix(String scope) {
+        Set<String> keys = new LinkedHashSet<String>();
+        addUriPrefixes(scope, keys);
+        String key = null;
+        for (String k : keys) {
+            key = k;
+        }
+        return key;
+    }
+    private static URI parseURI(String s) {
+        try {
+            return URI.create(s);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+    
+    static UUID toUUID(String scope) {
+        try {
+            URI uri = URI.create(scope);
+            if (uri.getScheme() == null) {
+                return UUID.fromString(scope);
+            } else {
+                if (uri.getScheme().equals("urn")) {
+                    uri = URI.create(uri.getSchemeSpecificPart()); 
+                } 
+                if ("uuid".equals(uri.getScheme())) {
+                    return UUID.fromString(uri.getSchemeSpecificPart());
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            //not a uuid scope
+        }
+        return null;
+    }
+}
@@ -20,14 +20,9 @@
 package org.apache.cxf.ws.discovery.internal;
 
 import java.io.IOException;
-import java.net.URI;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -58,7 +53,6 @@ import org.apache.cxf.BusFactory;
 import org.apache.cxf.common.jaxb.JAXBContextCache;
 import org.apache.cxf.common.jaxb.JAXBUtils;
 import org.apache.cxf.common.logging.LogUtils;
-import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.jaxws.EndpointImpl;
 import org.apache.cxf.jaxws.spi.ProviderImpl;
@@ -91,7 +85,7 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
     Bus bus;
     Endpoint udpEndpoint;
     WSDiscoveryClient client;
-    List<HelloType> registered = new CopyOnWriteArrayList<HelloType>();
+    WSDiscoveryRegistry registry = new WSDiscoveryRegistry();
     ObjectFactory factory = new ObjectFactory();
     boolean started;
     
@@ -129,13 +123,13 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
     public HelloType register(EndpointReference ref) {
         startup(false);
         HelloType ht = client.register(ref); 
-        registered.add(ht);
+        registry.add(ht);
         return ht;
     }
     public void register(HelloType ht) {
         startup(false);
         client.register(ht); 
-        registered.add(ht);
+        registry.add(ht);
     }
     
     private Object getProperty(Server server, String s) {
@@ -192,7 +186,7 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
             ht.setEndpointReference(builder.build());
         }
         ht = client.register(ht);
-        registered.add(ht);
+        registry.add(ht);
         server.getEndpoint().put(HelloType.class.getName(), ht);
     }
 
@@ -229,7 +223,7 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
     
     
     public void unregister(HelloType ht) {
-        registered.remove(ht);
+        registry.remove(ht);
         client.unregister(ht); 
     }
     
@@ -276,159 +270,19 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
     
     
     public ProbeMatchesType handleProbe(ProbeType pt) {
-        List<HelloType> consider = new LinkedList<HelloType>(registered);
-        //step one, consider the "types"
-        //ALL types in the probe must be in the registered type
-        if (pt.getTypes() != null && !pt.getTypes().isEmpty()) {
-            ListIterator<HelloType> cit = consider.listIterator();
-            while (cit.hasNext()) {
-                HelloType ht = cit.next();
-                boolean matches = true;
-                for (QName qn : pt.getTypes()) {
-                    if (!ht.getTypes().contains(qn)) {
-                        matches = false;
-                    }
-                }
-                if (!matches) {
-                    cit.remove();
-                }
-            }
-        }
-        //next, consider the scopes
-        matchScopes(pt, consider);
-
-        if (consider.isEmpty()) {
+        List<ProbeMatchType> matches = registry.findMatches(pt);
+        if (matches.isEmpty()) {
             return null;
         }
         ProbeMatchesType pmt = new ProbeMatchesType();
-        for (HelloType ht : consider) {
-            ProbeMatchType m = new ProbeMatchType();
-            m.setEndpointReference(ht.getEndpointReference());
-            m.setScopes(ht.getScopes());
-            m.setMetadataVersion(ht.getMetadataVersion());
-            m.getTypes().addAll(ht.getTypes());
-            m.getXAddrs().addAll(ht.getXAddrs());
-            pmt.getProbeMatch().add(m);
-        }
+        pmt.getProbeMatch().addAll(matches);
         return pmt;
     }
     
-    
-    private UUID toUUID(String scope) {
-        URI uri = URI.create(scope);
-        if (uri.getScheme() == null) {
-            return UUID.fromString(scope);
-        } else {
-            if (uri.getScheme().equals("urn")) {
-                uri = URI.create(uri.getSchemeSpecificPart()); 
-            } 
-            if (uri.getScheme().equals("uuid")) {
-                return UUID.fromString(uri.getSchemeSpecificPart());
-            }
-        }
-        return null;
+    public WSDiscoveryRegistry getRegistry() {
+        return registry;
     }
 
-    private boolean compare(String s, String s2) {
-        if (s != null) {
-            return s.equalsIgnoreCase(s2);
-        }
-        return false;
-    }
-    private boolean matchURIs(URI probe, URI target) {
-        if (compare(target.getScheme(), probe.getScheme()) 
-            && compare(target.getAuthority(), probe.getAuthority())) {
-            String[] ppath = StringUtils.split(probe.getPath(), "/");
-            String[] tpath = StringUtils.split(target.getPath(), "/");
-                    
-            if (ppath.length <= tpath.length) {
-                for (int i = 0; i < ppath.length; i++) {
-                    if (!ppath[i].equals(tpath[i])) { 
-                        return false;
-                    }
-                }
-                return true;
-            }
-        }                    
-        return false;
-    }
-
-    
-    private void matchScopes(ProbeType pt, List<HelloType> consider) {
-        if (pt.getScopes() == null || pt.getScopes().getValue().isEmpty()) {
-            return;
-        }
-        String mb = pt.getScopes().getMatchBy();
-        if (mb == null) {
-            mb = "http://docs.oasis-open.org/ws-dd/ns/discovery/2009/01/rfc3986";
-        }
-        
-        if (mb.startsWith(WSDVersion.NS_1_0)) {
-            mb = mb.substring(WSDVersion.NS_1_0.length());
-        } else if (mb.startsWith(WSDVersion.NS_1_1)) {
-            mb = mb.substring(WSDVersion.NS_1_1.length());
-        }
-        
-        ListIterator<HelloType> cit = consider.listIterator();
-        while (cit.hasNext()) {
-            HelloType ht = cit.next();
-            boolean matches = false;
-            
-            if ("/rfc3986".equals(mb)) {
-                matches = true;
-                if (!pt.getScopes().getValue().isEmpty()) {
-                    for (String ps : pt.getScopes().getValue()) {
-                        boolean foundOne = false; 
-                        URI psuri = URI.create(ps);
-                        for (String hts : ht.getScopes().getValue()) {
-                            URI hturi = URI.create(hts);
-                            if (matchURIs(psuri, hturi)) {
-                                foundOne = true;
-                            }
-                        }
-                        matches &= foundOne;
-                    }
-                }
-            } else if ("/uuid".equals(mb)) {
-                matches = true;
-                if (!pt.getScopes().getValue().isEmpty()) {
-                    for (String ps : pt.getScopes().getValue()) {
-                        boolean foundOne = false; 
-                        UUID psuuid = toUUID(ps);
-                        for (String hts : ht.getScopes().getValue()) {
-                            UUID htuuid = toUUID(hts);
-                            if (!htuuid.equals(psuuid)) {
-                                foundOne = true;
-                            }
-                        }
-                        matches &= foundOne;
-                    }
-                }
-            } else if ("/ldap".equals(mb)) {
-                //LDAP not supported
-                if (!pt.getScopes().getValue().isEmpty()) {
-                    matches = false;
-                }
-            } else if ("/strcmp0".equals(mb)) {
-                matches = true;
-                if (!pt.getScopes().getValue().isEmpty()) {
-                    for (String s : pt.getScopes().getValue()) {
-                        if (!ht.getScopes().getValue().contains(s)) {
-                            matches = false;
-                        }
-                    }
-                }
-            } else if ("/none".equals(mb)
-                && (ht.getScopes() == null || ht.getScopes().getValue().isEmpty())) {
-                matches = true;
-            }
-            if (!matches) {
-                cit.remove();
-            }
-        }
-    }
-    
-
     @WebServiceProvider(wsdlLocation = "classpath:/org/apache/cxf/ws/discovery/wsdl/wsdd-discovery-1.1-wsdl-os.wsdl",
         targetNamespace = "http://docs.oasis-open.org/ws-dd/ns/discovery/2009/01",
         serviceName = "Discovery",
@@ -579,7 +433,7 @@ public class WSDiscoveryServiceImpl implements WSDiscoveryService {
             ResolveMatchType rmt = new ResolveMatchType();
             EndpointReference ref = resolve.getEndpointReference();
             EndpointReferenceType iref = ProviderImpl.convertToInternal(ref);
-            for (HelloType hello : registered) {
+            for (HelloType hello : registry.getRegistered()) {
                 W3CEndpointReference r = hello.getEndpointReference();
                 if (matches(iref, r)) {
                     rmt.setEndpointReference(r);
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.discovery.internal;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.ws.discovery.wsdl.HelloType;
+import org.apache.cxf.ws.discovery.wsdl.ProbeMatchType;
+import org.apache.cxf.ws.discovery.wsdl.ProbeType;
+import org.apache.cxf.ws.discovery.wsdl.ScopesType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WSDiscoveryRegistryTest extends Assert {
+    private static final QName PRINTER = new QName("http://example.org/devices", "Printer");
+    private static final QName SCANNER = new QName("http://example.org/devices", "Scanner");
+    
+    private static HelloType hello(String xaddr, QName[] types, String... scopes) {
+        HelloType ht = new HelloType();
+        ht.setScopes(new ScopesType());
+        ht.getXAddrs().add(xaddr);
+        for (QName qn : types) {
+            ht.getTypes().add(qn);
+        }
+        for (String s : scopes) {
+            ht.getScopes().getValue().add(s);
+        }
+        return ht;
+    }
+    private static ProbeType probe(String matchBy, QName[] types, String... scopes) {
+        ProbeType pt = new ProbeType();
+        for (QName qn : types) {
+            pt.getTypes().add(qn);
+        }
+        pt.setScopes(new ScopesType());
+        pt.getScopes().setMatchBy(matchBy);
+        for (String s : scopes) {
+            pt.getScopes().getValue().add(s);
+        }
+        return pt;
+    }
+    private static String xaddrs(List<ProbeMatchType> matches) {
+        StringBuilder b = new StringBuilder();
+        for (ProbeMatchType m : matches) {
+            b.append(m.getXAddrs().get(0)).append(' ');
+        }
+        return b.toString().trim();
+    }
+    
+    @Test
+    public void testTypesAndScopes() {
+        WSDiscoveryRegistry registry = new WSDiscoveryRegistry();
+        HelloType a = hello("a", new QName[] {PRINTER}, "http://Example.org/floor1/room2");
+        HelloType b = hello("b", new QName[] {PRINTER, SCANNER}, "http://example.org/floor1");
+        HelloType c = hello("c", new QName[] {SCANNER}, "urn:uuid:5d9e1c33-4d6e-4c53-9a5e-000000000001");
+        HelloType d = hello("d", new QName[] {SCANNER});
+        registry.add(a);
+        registry.add(b);
+        registry.add(c);
+        registry.add(d);
+        
+        assertEquals("a b c d", xaddrs(registry.findMatches(probe(null, new QName[0]))));
+        assertEquals("a b", xaddrs(registry.findMatches(probe(null, new QName[] {PRINTER}))));
+        assertEquals("b", xaddrs(registry.findMatches(probe(null, new QName[] {PRINTER, SCANNER}))));
+        
+        assertEquals("a b", xaddrs(registry.findMatches(probe(null, new QName[0],
+                                                                 "HTTP://example.org/floor1"))));
+        assertEquals("a", xaddrs(registry.findMatches(probe(null, new QName[0],
+                                                               "http://example.org/floor1/room2"))));
+        assertEquals("", xaddrs(registry.findMatches(probe(null, new QName[0],
+                                                              "http://example.org/floor1/room"))));
+        assertEquals("b", xaddrs(registry.findMatches(probe(null, new QName[] {SCANNER},
+                                                               "http://example.org/floor1"))));
+        
+        assertEquals("c", xaddrs(registry.findMatches(probe(WSDiscoveryRegistry.MATCH_BY_UUID, new QName[0],
+                                                               "5d9e1c33-4d6e-4c53-9a5e-000000000001"))));
+        assertEquals("b", xaddrs(registry.findMatches(probe(WSDiscoveryRegistry.MATCH_BY_STRCMP0, new QName[0],
+                                                               "http://example.org/floor1"))));
+        assertEquals("d", xaddrs(registry.findMatches(probe(WSDiscoveryRegistry.MATCH_BY_NONE, new QName[0],
+                                                               "anything"))));
+        assertEquals("", xaddrs(registry.findMatches(probe(WSDiscoveryRegistry.MATCH_BY_LDAP, new QName[0],
+                                                              "ldap:///ou=floor1"))));
+        
+        assertTrue(registry.remove(b));
+        assertFalse(registry.remove(b));
+        assertEquals(3, registry.size());
+        assertEquals("a", xaddrs(registry.findMatches(probe(null, new QName[] {PRINTER},
+                                                               "http://example.org/floor1"))));
+        assertEquals("", xaddrs(registry.findMatches(probe(null, new QName[] {PRINTER, SCANNER}))));
+    }
+}